@@ -0,0 +1,52 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.core.api.crud;
+
+/**
+ * Status of an item of a batch operation of {@link Crud}.
+ * 
+ * @author SERPRO
+ *
+ */
+public class BatchItemStatus {
+
+	private int index;
+	private Object id;
+	private int status;
+
+	public BatchItemStatus() {
+	}
+
+	/**
+	 * @param index Position of the item on the batch
+	 * @param id Identifier of the entity, when it is known
+	 * @param status HTTP status code of the item (e.g. 201 for persisted, 204 for removed, 404 for not found)
+	 */
+	public BatchItemStatus(int index, Object id, int status) {
+		this.index = index;
+		this.id = id;
+		this.status = status;
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	public Object getId() {
+		return id;
+	}
+
+	public int getStatus() {
+		return status;
+	}
+
+	@Override
+	public String toString() {
+		return "BatchItemStatus [index=" + index + ", id=" + id + ", status=" + status + "]";
+	}
+
+}
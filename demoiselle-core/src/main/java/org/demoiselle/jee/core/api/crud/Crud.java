@@ -6,6 +6,9 @@
  */
 package org.demoiselle.jee.core.api.crud;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import javax.validation.Valid;
 
 /**
@@ -26,4 +29,49 @@ public interface Crud<T, I> {
 
     public T find(I id);
 
+    /**
+     * Persist a list of entities, by default each entity is persisted by {@link #persist(Object)}.
+     * 
+     * @param entities Entities
+     * @return Status of each entity, in the same order of the list
+     */
+    public default List<BatchItemStatus> persistBatch(@Valid List<T> entities) {
+        List<BatchItemStatus> statuses = new ArrayList<>(entities.size());
+        for (int i = 0; i < entities.size(); i++) {
+            persist(entities.get(i));
+            statuses.add(new BatchItemStatus(i, null, 201));
+        }
+        return statuses;
+    }
+
+    /**
+     * Update a list of entities, by default each entity is updated by {@link #mergeFull(Object)}.
+     * 
+     * @param entities Entities
+     * @return Status of each entity, in the same order of the list
+     */
+    public default List<BatchItemStatus> mergeFullBatch(@Valid List<T> entities) {
+        List<BatchItemStatus> statuses = new ArrayList<>(entities.size());
+        for (int i = 0; i < entities.size(); i++) {
+            mergeFull(entities.get(i));
+            statuses.add(new BatchItemStatus(i, null, 200));
+        }
+        return statuses;
+    }
+
+    /**
+     * Remove a list of entities, by default each entity is removed by {@link #remove(Object)}.
+     * 
+     * @param ids Identifiers
+     * @return Status of each identifier, in the same order of the list
+     */
+    public default List<BatchItemStatus> removeBatch(List<I> ids) {
+        List<BatchItemStatus> statuses = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            remove(ids.get(i));
+            statuses.add(new BatchItemStatus(i, ids.get(i), 204));
+        }
+        return statuses;
+    }
+
 }
@@ -0,0 +1,124 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud;
+
+import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
+
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.validation.Valid;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.DELETE;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.PUT;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.Response.Status;
+
+import org.demoiselle.jee.crud.async.AsyncCrudExecutor;
+import org.demoiselle.jee.rest.exception.DemoiselleRestException;
+
+import io.swagger.annotations.ApiOperation;
+import io.swagger.jaxrs.PATCH;
+
+/**
+ * Asynchronous version of {@link AbstractREST}, with the same endpoints. The request is suspended
+ * and the operation of {@link AbstractBusiness} runs out of the thread of the request, through
+ * {@link AsyncCrudExecutor}, on its own transaction.
+ *
+ * The {@link DemoiselleRequestContext} and the security token of the request are available to the
+ * operation, so the query parameters of CRUD feature and the logged user work as on
+ * {@link AbstractREST}.
+ *
+ * @author SERPRO
+ */
+@Produces(APPLICATION_JSON)
+@Consumes(APPLICATION_JSON)
+public abstract class AbstractAsyncREST<T, I> {
+
+    @Inject
+    protected AbstractBusiness<T, I> bc;
+
+    @Inject
+    protected AsyncCrudExecutor executor;
+
+    @Inject
+    private CrudMessage crudMessage;
+
+    @POST
+    @ApiOperation(value = "persist entity")
+    public void persist(@Valid T entity, @Suspended AsyncResponse asyncResponse) {
+        executor.submit(getClass(), asyncResponse, () -> bc.persist(entity));
+    }
+
+    @PUT
+    @ApiOperation(value = "full update entity")
+    public void mergeFull(@Valid T entity, @Suspended AsyncResponse asyncResponse) {
+        executor.submit(getClass(), asyncResponse, () -> bc.mergeFull(entity));
+    }
+
+    @PATCH
+    @Path("{id}")
+    @ApiOperation(value = "partial update entity")
+    public void mergeHalf(@PathParam("id") final I id, T entity, @Suspended AsyncResponse asyncResponse) {
+        executor.submit(getClass(), asyncResponse, () -> bc.mergeHalf(id, entity));
+    }
+
+    @DELETE
+    @Path("{id}")
+    @ApiOperation(value = "remove entity")
+    public void remove(@PathParam("id") final I id, @Suspended AsyncResponse asyncResponse) {
+        executor.submit(getClass(), asyncResponse, () -> {
+            bc.remove(id);
+            return null;
+        });
+    }
+
+    @POST
+    @Path("batch")
+    @ApiOperation(value = "persist a list of entities")
+    public void persistBatch(@Valid List<T> entities, @Suspended AsyncResponse asyncResponse) {
+        executor.submit(getClass(), asyncResponse, () -> bc.persistBatch(entities));
+    }
+
+    @PUT
+    @Path("batch")
+    @ApiOperation(value = "full update a list of entities")
+    public void mergeFullBatch(@Valid List<T> entities, @Suspended AsyncResponse asyncResponse) {
+        executor.submit(getClass(), asyncResponse, () -> bc.mergeFullBatch(entities));
+    }
+
+    @DELETE
+    @Path("batch")
+    @ApiOperation(value = "remove a list of entities by ID")
+    public void removeBatch(List<I> ids, @Suspended AsyncResponse asyncResponse) {
+        executor.submit(getClass(), asyncResponse, () -> bc.removeBatch(ids));
+    }
+
+    @GET
+    @Path("{id}")
+    @ApiOperation(value = "find by ID")
+    public void find(@PathParam("id") final I id, @Suspended AsyncResponse asyncResponse) {
+        executor.submit(getClass(), asyncResponse, () -> bc.find(id));
+    }
+
+    @GET
+    public void find(@Suspended AsyncResponse asyncResponse) {
+        /*
+         * As on AbstractREST, the developer who is extending this class overrides this method 
+         * using the @Search annotation defining the fields, calling 
+         * executor.submit(getClass(), asyncResponse, () -> bc.find()).
+         */
+        asyncResponse.resume(new DemoiselleRestException(crudMessage.methodFindNotImplemented(), Status.NOT_IMPLEMENTED.getStatusCode()));
+    }
+
+}
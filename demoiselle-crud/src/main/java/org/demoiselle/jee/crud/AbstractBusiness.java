@@ -6,8 +6,11 @@
  */
 package org.demoiselle.jee.crud;
 
+import java.util.List;
+
 import javax.inject.Inject;
 
+import org.demoiselle.jee.core.api.crud.BatchItemStatus;
 import org.demoiselle.jee.core.api.crud.Crud;
 import org.demoiselle.jee.core.api.crud.Result;
 
@@ -36,6 +39,21 @@ public abstract class AbstractBusiness<T, I> implements Crud<T, I> {
         dao.remove(id);
     }
 
+    @Override
+    public List<BatchItemStatus> persistBatch(List<T> entities) {
+        return dao.persistBatch(entities);
+    }
+
+    @Override
+    public List<BatchItemStatus> mergeFullBatch(List<T> entities) {
+        return dao.mergeFullBatch(entities);
+    }
+
+    @Override
+    public List<BatchItemStatus> removeBatch(List<I> ids) {
+        return dao.removeBatch(ids);
+    }
+
     @Override
     public Result find() {
         return dao.find();
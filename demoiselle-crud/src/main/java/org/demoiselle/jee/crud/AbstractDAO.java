@@ -6,49 +6,114 @@
  */
 package org.demoiselle.jee.crud;
 
-import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
+import javax.enterprise.event.Event;
 import javax.inject.Inject;
-import javax.persistence.Column;
 import javax.persistence.EntityManager;
-import javax.persistence.ManyToOne;
 import javax.persistence.Query;
+import javax.persistence.Tuple;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
 import javax.persistence.criteria.From;
 import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
 import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.ManagedType;
+import javax.persistence.metamodel.SingularAttribute;
 import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response.Status;
 
+import org.demoiselle.jee.core.api.crud.BatchItemStatus;
 import org.demoiselle.jee.core.api.crud.Crud;
 import org.demoiselle.jee.core.api.crud.Result;
+import org.demoiselle.jee.crud.aggregation.Aggregate;
+import org.demoiselle.jee.crud.aggregation.Aggregation;
+import org.demoiselle.jee.crud.aggregation.AggregationHelper;
+import org.demoiselle.jee.crud.cache.EntityCache;
+import org.demoiselle.jee.crud.cache.ResponseCache;
 import org.demoiselle.jee.crud.exception.DemoiselleCrudException;
+import org.demoiselle.jee.crud.filter.FilterCondition;
+import org.demoiselle.jee.crud.filter.FilterPlan;
+import org.demoiselle.jee.crud.filter.InList;
+import org.demoiselle.jee.crud.metadata.AttributeMetadata;
+import org.demoiselle.jee.crud.metadata.EntityMetadata;
+import org.demoiselle.jee.crud.pagination.CountCache;
+import org.demoiselle.jee.crud.pagination.CountStrategy;
+import org.demoiselle.jee.crud.pagination.KeysetCursor;
 import org.demoiselle.jee.crud.pagination.PaginationHelperConfig;
+import org.demoiselle.jee.crud.search.EntityIndex;
+import org.demoiselle.jee.crud.search.SearchIndex;
+import org.demoiselle.jee.crud.search.SearchIndexChange;
+import org.demoiselle.jee.crud.search.Searchable;
+import org.demoiselle.jee.crud.pagination.PaginationType;
 import org.demoiselle.jee.crud.pagination.ResultSet;
+import org.demoiselle.jee.crud.pagination.StreamingResultSet;
 import org.demoiselle.jee.crud.sort.CrudSort;
+import org.demoiselle.jee.crud.sort.SortModel;
 
 //TODO CLF revisar
 @TransactionAttribute(TransactionAttributeType.MANDATORY)
 public abstract class AbstractDAO<T, I> implements Crud<T, I> {
 
+    /**
+     * Methods that customize the query, see {@link #bindFilterPlan()}.
+     */
+    private static final Set<String> QUERY_CONFIGURATION_METHODS = new HashSet<>(Arrays.asList(
+            "configureCriteriaQuery", "configureOrder", "buildPredicates", "isEnumFilter",
+            "convertEnumToInt", "isLikeFilter", "buildLikePredicate", "configureFetches"));
+
+    private static final Map<Class<?>, Boolean> FILTER_PLAN_SUPPORT = new ConcurrentHashMap<>();
+
     @Inject
     private PaginationHelperConfig paginationConfig;
 
     @Inject
     private DemoiselleRequestContext drc;
 
+    @Inject
+    private CountCache countCache;
+
+    @Inject
+    private ResponseCache responseCache;
+
+    @Inject
+    private EntityCache entityCache;
+
+    @Inject
+    private DemoiselleCrudConfig crudConfig;
+
+    @Inject
+    private SearchIndex searchIndex;
+
+    @Inject
+    private Event<SearchIndexChange> searchIndexChanges;
+
     private final Class<T> entityClass;
 
     protected abstract EntityManager getEntityManager();
@@ -65,6 +130,8 @@ public abstract class AbstractDAO<T, I> implements Crud<T, I> {
     public T persist(T entity) {
         try {
             getEntityManager().persist(entity);
+            indexEntity(entity);
+            invalidateCaches();
             return entity;
         } catch (Exception e) {
             throw new DemoiselleCrudException("Não foi possível salvar", e);
@@ -74,51 +141,41 @@ public abstract class AbstractDAO<T, I> implements Crud<T, I> {
     @Override
     public T mergeHalf(I id, T entity) {
         try {
-            final StringBuilder sb = new StringBuilder();
-            final Map<String, Object> params = new ConcurrentHashMap<>();
-            //
-            sb.append("UPDATE ");
-            sb.append(entityClass.getCanonicalName());
-            sb.append(" SET ");
+            final EntityMetadata metadata = EntityMetadata.of(entityClass);
+            final List<AttributeMetadata> attributes = metadata.getUpdatableAttributes();
+            final BitSet columns = new BitSet(attributes.size());
+            final List<Object> values = new ArrayList<>();
+            final Map<String, Object> searchValues = new HashMap<>();
             //
-            for (final Field field : entityClass.getDeclaredFields()) {
-                if (!field.isAnnotationPresent(ManyToOne.class)) {
-                    final Column column = field.getAnnotation(Column.class);
-                    //
-                    if (column == null || !column.updatable()) {
-                        continue;
-                    }
-                }
-                //
-                field.setAccessible(true);
-                //
-                final String name = field.getName();
-                final Object value = field.get(entity);
+            for (int i = 0; i < attributes.size(); i++) {
+                final Object value = attributes.get(i).getValue(entity);
                 //
                 if (value != null) {
-                    if (!params.isEmpty()) {
-                        sb.append(", ");
-                    }
+                    columns.set(i);
+                    values.add(value);
                     //
-                    sb.append(name).append(" = :").append(name);
-                    params.putIfAbsent(name, value);
+                    if (attributes.get(i).isSearchable()) {
+                        searchValues.put(attributes.get(i).getName(), value);
+                    }
                 }
             }
             //
-            if (!params.isEmpty()) {
-                final String idName
-                        = CrudUtilHelper.getMethodAnnotatedWithID(entityClass);
+            if (!values.isEmpty()) {
+                // The same set of columns always produces the same JPQL
+                final Query query = getEntityManager().createQuery(metadata.getUpdateStatement(columns));
                 //
-                sb.append(" WHERE ").append(idName).append(" = :").append(idName);
-                params.putIfAbsent(idName, id);
-                //
-                final Query query = getEntityManager().createQuery(sb.toString());
-                //
-                for (final Map.Entry<String, Object> entry : params.entrySet()) {
-                    query.setParameter(entry.getKey(), entry.getValue());
+                for (int i = 0; i < values.size(); i++) {
+                    query.setParameter(i + 1, values.get(i));
                 }
+                query.setParameter(values.size() + 1, id);
                 //
                 query.executeUpdate();
+                // The update statement bypasses the second-level cache
+                entityCache.evict(getEntityManager(), entityClass, id);
+                if (!searchValues.isEmpty()) {
+                    searchIndexChanges.fire(SearchIndexChange.put(entityClass, id, searchValues));
+                }
+                invalidateCaches();
             }
             //
             return entity;
@@ -130,7 +187,10 @@ public abstract class AbstractDAO<T, I> implements Crud<T, I> {
     @Override
     public T mergeFull(T entity) {
         try {
-            return getEntityManager().merge(entity);
+            T merged = getEntityManager().merge(entity);
+            indexEntity(merged);
+            invalidateCaches();
+            return merged;
         } catch (Exception e) {
             // TODO: CLF Severe? Pode cair aqui somente por ter violação de Unique
             throw new DemoiselleCrudException("Não foi possível salvar", e);
@@ -141,15 +201,174 @@ public abstract class AbstractDAO<T, I> implements Crud<T, I> {
     public void remove(I id) {
         try {
             getEntityManager().remove(getEntityManager().find(entityClass, id));
+            unindexEntity(id);
+            invalidateCaches();
         } catch (Exception e) {
             throw new DemoiselleCrudException("Não foi possível excluir", e);
         }
     }
 
+    /**
+     * Persist the entities, the EntityManager is flushed and cleared each
+     * {@link DemoiselleCrudConfig#getBatchSize()} entities, so the persistence context doesn't grow
+     * with the batch. Only the flush and the clear are done here, the provider groups the inserts
+     * on JDBC batches when its batch size is configured (e.g. 'hibernate.jdbc.batch_size').
+     *
+     * A failure on any entity fails the whole batch.
+     */
+    @Override
+    public List<BatchItemStatus> persistBatch(List<T> entities) {
+        List<BatchItemStatus> statuses = new ArrayList<>(entities.size());
+        int index = 0;
+
+        try {
+            for (; index < entities.size(); index++) {
+                T entity = entities.get(index);
+                getEntityManager().persist(entity);
+                indexEntity(entity);
+                statuses.add(new BatchItemStatus(index, getIdentifier(entity), Status.CREATED.getStatusCode()));
+                flushAndClear(index + 1);
+            }
+
+            getEntityManager().flush();
+            invalidateCaches();
+            return statuses;
+        } catch (Exception e) {
+            throw new DemoiselleCrudException("Não foi possível salvar o item [" + index + "]", e);
+        }
+    }
+
+    /**
+     * Update the entities, the EntityManager is flushed and cleared each
+     * {@link DemoiselleCrudConfig#getBatchSize()} entities.
+     *
+     * A failure on any entity fails the whole batch.
+     */
+    @Override
+    public List<BatchItemStatus> mergeFullBatch(List<T> entities) {
+        List<BatchItemStatus> statuses = new ArrayList<>(entities.size());
+        int index = 0;
+
+        try {
+            for (; index < entities.size(); index++) {
+                T merged = getEntityManager().merge(entities.get(index));
+                indexEntity(merged);
+                statuses.add(new BatchItemStatus(index, getIdentifier(merged), Status.OK.getStatusCode()));
+                flushAndClear(index + 1);
+            }
+
+            getEntityManager().flush();
+            invalidateCaches();
+            return statuses;
+        } catch (Exception e) {
+            throw new DemoiselleCrudException("Não foi possível salvar o item [" + index + "]", e);
+        }
+    }
+
+    /**
+     * Remove the entities, each {@link DemoiselleCrudConfig#getBatchSize()} identifiers are loaded
+     * by one query, removed and then the EntityManager is flushed and cleared. An identifier that
+     * doesn't exist has the status 404 (Not Found).
+     *
+     * A failure on any entity fails the whole batch.
+     */
+    @Override
+    public List<BatchItemStatus> removeBatch(List<I> ids) {
+        List<BatchItemStatus> statuses = new ArrayList<>(ids.size());
+        int batchSize = getBatchSize();
+        int index = 0;
+
+        try {
+            for (int start = 0; start < ids.size(); start += batchSize) {
+                List<I> chunk = ids.subList(start, Math.min(start + batchSize, ids.size()));
+                Map<Object, T> entities = findAllById(chunk);
+
+                for (I id : chunk) {
+                    T entity = entities.get(id);
+
+                    if (entity == null) {
+                        statuses.add(new BatchItemStatus(index, id, Status.NOT_FOUND.getStatusCode()));
+                    } else {
+                        getEntityManager().remove(entity);
+                        unindexEntity(id);
+                        statuses.add(new BatchItemStatus(index, id, Status.NO_CONTENT.getStatusCode()));
+                    }
+                    index++;
+                }
+
+                getEntityManager().flush();
+                getEntityManager().clear();
+            }
+
+            invalidateCaches();
+            return statuses;
+        } catch (Exception e) {
+            throw new DemoiselleCrudException("Não foi possível excluir o item [" + index + "]", e);
+        }
+    }
+
+    /**
+     * Remove the counts ({@link CountCache}) and the responses ({@link ResponseCache}) of the
+     * entity after a change.
+     */
+    private void invalidateCaches() {
+        countCache.invalidate(entityClass);
+        responseCache.invalidate(entityClass);
+    }
+
+    /**
+     * Add or update the entity on {@link SearchIndex}, when it has {@link Searchable} fields,
+     * after the commit of the transaction.
+     */
+    private void indexEntity(T entity) {
+        if (SearchIndex.isSearchable(entityClass)) {
+            searchIndexChanges.fire(SearchIndexChange.put(entityClass, getIdentifier(entity), SearchIndex.readValues(entity)));
+        }
+    }
+
+    /**
+     * Remove the entity from {@link SearchIndex} after the commit of the transaction.
+     */
+    private void unindexEntity(I id) {
+        if (SearchIndex.isSearchable(entityClass)) {
+            searchIndexChanges.fire(SearchIndexChange.remove(entityClass, id));
+        }
+    }
+
+    private Map<Object, T> findAllById(List<I> ids) {
+        CriteriaBuilder criteriaBuilder = getEntityManager().getCriteriaBuilder();
+        CriteriaQuery<T> criteriaQuery = criteriaBuilder.createQuery(entityClass);
+        Root<T> from = criteriaQuery.from(entityClass);
+        criteriaQuery.select(from).where(from.get(getIdAttributeName()).in(ids));
+
+        Map<Object, T> entities = new HashMap<>();
+        for (T entity : getEntityManager().createQuery(criteriaQuery).getResultList()) {
+            entities.put(getIdentifier(entity), entity);
+        }
+
+        return entities;
+    }
+
+    private Object getIdentifier(T entity) {
+        return getEntityManager().getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(entity);
+    }
+
+    private void flushAndClear(int quantity) {
+        if (quantity % getBatchSize() == 0) {
+            getEntityManager().flush();
+            getEntityManager().clear();
+        }
+    }
+
+    private int getBatchSize() {
+        Integer batchSize = crudConfig == null ? null : crudConfig.getBatchSize();
+        return batchSize == null || batchSize <= 0 ? 50 : batchSize;
+    }
+
     @Override
     public T find(I id) {
         try {
-            return getEntityManager().find(entityClass, id);
+            return entityCache.find(getEntityManager(), entityClass, id);
         } catch (Exception e) {
             throw new DemoiselleCrudException("Não foi possível consultar", e);
         }
@@ -163,14 +382,48 @@ public abstract class AbstractDAO<T, I> implements Crud<T, I> {
 
             Result result = new ResultSet();
 
-            CriteriaBuilder criteriaBuilder = getEntityManager().getCriteriaBuilder();
-            CriteriaQuery<T> criteriaQuery = criteriaBuilder.createQuery(entityClass);
+            if (drc.getAggregation() != null) {
+                return findAggregation();
+            }
+
+            boolean isProjection = isProjection();
+            FilterPlan.Binding filterPlan = isProjection || isKeysetPagination() || isStreaming() ? null : bindFilterPlan();
+            TypedQuery<?> query;
+
+            if (filterPlan != null) {
+                query = filterPlan.setParameters(getEntityManager().createQuery(filterPlan.getPlan().getSelectStatement(), entityClass));
+                entityCache.applyQueryHints(query, entityClass);
+            } else {
+                CriteriaBuilder criteriaBuilder = getEntityManager().getCriteriaBuilder();
+                CriteriaQuery<?> selectQuery;
+
+                if (isProjection) {
+                    CriteriaQuery<Tuple> projectionQuery = criteriaBuilder.createTupleQuery();
+                    configureProjectionQuery(criteriaBuilder, projectionQuery);
+                    selectQuery = projectionQuery;
+                } else {
+                    CriteriaQuery<T> criteriaQuery = criteriaBuilder.createQuery(entityClass);
+
+                    configureCriteriaQuery(criteriaBuilder, criteriaQuery);
+
+                    if (isKeysetPagination()) {
+                        configureKeyset(criteriaBuilder, criteriaQuery);
+                    }
+
+                    selectQuery = criteriaQuery;
+                }
 
-            configureCriteriaQuery(criteriaBuilder, criteriaQuery);
+                if (isStreaming()) {
+                    return findStreaming(selectQuery, isProjection);
+                }
 
-            TypedQuery<T> query = getEntityManager().createQuery(criteriaQuery);
+                query = entityCache.applyQueryHints(getEntityManager().createQuery(selectQuery), entityClass);
+            }
 
-            if (drc.isPaginationEnabled()) {
+            if (isKeysetPagination()) {
+                // One row beyond the page tells if there is a next page, no need to count
+                query.setMaxResults(getMaxResult() + 1);
+            } else if (drc.isPaginationEnabled() && isExactCount()) {
                 Integer firstResult = drc.getOffset() == null ? 0 : drc.getOffset();
                 Integer maxResults = getMaxResult();
                 Long count = count();
@@ -181,10 +434,25 @@ public abstract class AbstractDAO<T, I> implements Crud<T, I> {
                 }
 
                 drc.setCount(count);
+            } else if (drc.isPaginationEnabled()) {
+                // Without an exact count, one row beyond the page tells if there is a next page
+                query.setFirstResult(drc.getOffset() == null ? 0 : drc.getOffset());
+                query.setMaxResults(getMaxResult() + 1);
+
+                drc.setCount(countByStrategy());
             }
 
             result.setContent(query.getResultList());
-            if (result.getContent() != null && !result.getContent().isEmpty()
+
+            if (isProjection) {
+                result.setContent(buildProjectionContent(result.getContent()));
+            }
+
+            if (isKeysetPagination()) {
+                fillNextCursor(result);
+            } else if (drc.isPaginationEnabled() && !isExactCount()) {
+                fillNextPage(result);
+            } else if (result.getContent() != null && !result.getContent().isEmpty()
                     && drc.isPaginationEnabled()
                     && result.getContent().size() <= drc.getCount() && drc.getCount() < getMaxResult()) {
                 drc.setLimit(drc.getCount().intValue());
@@ -194,38 +462,777 @@ public abstract class AbstractDAO<T, I> implements Crud<T, I> {
 
             return result;
 
+        } catch (DemoiselleCrudException e) {
+            throw e;
         } catch (Exception e) {
             logger.severe(e.getMessage());
             throw new DemoiselleCrudException("Não foi possível consultar", e);
         }
     }
 
+    /**
+     * Build the result of the aggregation of the request (see {@link AggregationHelper}), each
+     * group becomes a Map with the values of the fields of 'groupBy' and of the aggregate
+     * functions. The groups are not paginated, so the count is the quantity of groups.
+     *
+     * @return Result with a row by group
+     */
+    private Result findAggregation() {
+        CriteriaBuilder criteriaBuilder = getEntityManager().getCriteriaBuilder();
+        CriteriaQuery<Tuple> aggregationQuery = criteriaBuilder.createTupleQuery();
+
+        configureAggregationQuery(criteriaBuilder, aggregationQuery);
+
+        List<Tuple> tuples = entityCache.applyQueryHints(getEntityManager().createQuery(aggregationQuery), entityClass).getResultList();
+
+        Result result = new ResultSet();
+        result.setContent(buildAggregationContent(tuples));
+
+        drc.setCount((long) tuples.size());
+        drc.setEntityClass(entityClass);
+
+        return result;
+    }
+
+    /**
+     * Configure the query used when the request has an aggregation (see {@link Aggregation}): the
+     * fields of 'groupBy' and the aggregate functions are selected and the rows are grouped by
+     * the fields of 'groupBy'.
+     *
+     * The filters of {@link #buildPredicates(CriteriaBuilder, CriteriaQuery, Root)} are applied
+     * before the rows are grouped, the sorts are applied on the groups.
+     *
+     * The selections follow the order of the fields and of the functions, as read by
+     * {@link #buildAggregationContent(List)}.
+     *
+     * @param criteriaBuilder CriteriaBuilder
+     * @param criteriaQuery Tuple CriteriaQuery
+     */
+    protected void configureAggregationQuery(CriteriaBuilder criteriaBuilder, CriteriaQuery<Tuple> criteriaQuery) {
+        Root<T> from = criteriaQuery.from(entityClass);
+        Aggregation aggregation = drc.getAggregation();
+        List<Selection<?>> selections = new ArrayList<>();
+        List<Expression<?>> groups = new ArrayList<>();
+
+        aggregation.getGroupBy().stream().forEach(field -> {
+            Path<?> path = from.get(field);
+            groups.add(path);
+            selections.add(path);
+        });
+
+        aggregation.getAggregates().stream().forEach(aggregate -> {
+            selections.add(buildAggregateExpression(criteriaBuilder, from, aggregate));
+        });
+
+        criteriaQuery.multiselect(selections);
+
+        if (hasPredicates()) {
+            criteriaQuery.where(buildPredicates(criteriaBuilder, criteriaQuery, from));
+        }
+
+        if (!groups.isEmpty()) {
+            criteriaQuery.groupBy(groups);
+        }
+
+        if (!drc.getSorts().isEmpty()) {
+            criteriaQuery.orderBy(buildOrders(criteriaBuilder, from));
+        }
+    }
+
+    /**
+     * Build the expression of the aggregate function, 'min' and 'max' use 'least' and 'greatest'
+     * so they work on any comparable field (e.g. dates and strings), not only on numbers.
+     *
+     * @param criteriaBuilder CriteriaBuilder
+     * @param root Root of the entity
+     * @param aggregate Aggregate function
+     *
+     * @return Expression
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    protected Expression<?> buildAggregateExpression(CriteriaBuilder criteriaBuilder, Root<T> root, Aggregate aggregate) {
+        switch (aggregate.getFunction()) {
+            case COUNT:
+                return aggregate.getField() == null ? criteriaBuilder.count(root) : criteriaBuilder.count(root.get(aggregate.getField()));
+            case SUM:
+                return criteriaBuilder.sum(root.<Number>get(aggregate.getField()));
+            case AVG:
+                return criteriaBuilder.avg(root.<Number>get(aggregate.getField()));
+            case MIN:
+                return criteriaBuilder.least((Expression) root.get(aggregate.getField()));
+            case MAX:
+                return criteriaBuilder.greatest((Expression) root.get(aggregate.getField()));
+            default:
+                throw new DemoiselleCrudException("Não foi possível consultar");
+        }
+    }
+
+    /**
+     * Build the content of the result from the tuples selected by
+     * {@link #configureAggregationQuery(CriteriaBuilder, CriteriaQuery)}, the values of the functions
+     * are named by {@link Aggregate#getAlias()}.
+     *
+     * @param tuples Tuples
+     *
+     * @return List of Maps
+     */
+    protected List<Map<String, Object>> buildAggregationContent(List<Tuple> tuples) {
+        Aggregation aggregation = drc.getAggregation();
+        List<Map<String, Object>> content = new ArrayList<>(tuples.size());
+
+        for (Tuple tuple : tuples) {
+            Map<String, Object> keyValue = new LinkedHashMap<>();
+            int position = 0;
+
+            for (String field : aggregation.getGroupBy()) {
+                keyValue.put(field, tuple.get(position++));
+            }
+
+            for (Aggregate aggregate : aggregation.getAggregates()) {
+                keyValue.put(aggregate.getAlias(), tuple.get(position++));
+            }
+
+            content.add(keyValue);
+        }
+
+        return content;
+    }
+
+    /**
+     * Build the {@link StreamingResultSet} used when the streaming is enabled (see
+     * {@link Search#streaming()}), the count is made now, but the rows are read in chunks of
+     * {@link PaginationHelperConfig#getStreamingFetchSize()} rows while the response is written.
+     *
+     * The rows are ordered by the sorts of the request and then by the identifier, so the order is
+     * unique. Only the first chunk is read by the offset of the page, each next chunk is selected
+     * by the position of the last row of the previous chunk, as on {@link PaginationType#KEYSET}.
+     *
+     * Without an exact count (see {@link CountStrategy}) the existence of a next page is not known
+     * before the rows are read, so the response will not have the 'next' link.
+     *
+     * @param selectQuery Query of the entities or of the projection
+     * @param isProjection The query is of the projection
+     *
+     * @return Result that reads the rows on demand
+     */
+    @SuppressWarnings("unchecked")
+    private Result findStreaming(CriteriaQuery<?> selectQuery, boolean isProjection) {
+        int firstResult = 0;
+        Integer maxResults = null;
+
+        if (drc.isPaginationEnabled()) {
+            firstResult = drc.getOffset() == null ? 0 : drc.getOffset();
+            maxResults = getMaxResult();
+
+            if (isExactCount()) {
+                Long count = count();
+
+                if (firstResult >= count) {
+                    maxResults = 0;
+                } else if (count < getMaxResult()) {
+                    drc.setLimit(count.intValue());
+                }
+
+                drc.setCount(count);
+            } else {
+                drc.setCount(countByStrategy());
+            }
+        }
+
+        drc.setEntityClass(entityClass);
+
+        CriteriaBuilder criteriaBuilder = getEntityManager().getCriteriaBuilder();
+        Root<T> root = (Root<T>) selectQuery.getRoots().iterator().next();
+        String idAttributeName = getIdAttributeName();
+
+        selectQuery.orderBy(buildKeysetOrders(criteriaBuilder, root));
+
+        // The projection also selects the sort fields and the identifier, after the fields
+        int positionIndex = 0;
+        if (isProjection) {
+            CriteriaQuery<Tuple> projectionQuery = (CriteriaQuery<Tuple>) selectQuery;
+            List<Selection<?>> selections = new ArrayList<>(projectionQuery.getSelection().getCompoundSelectionItems());
+            positionIndex = selections.size();
+            drc.getSorts().stream().forEachOrdered(sortModel -> selections.add(root.get(sortModel.getField())));
+            selections.add(root.get(idAttributeName));
+            projectionQuery.multiselect(selections);
+        }
+
+        Predicate restriction = selectQuery.getRestriction();
+        int firstRow = firstResult;
+        int firstPosition = positionIndex;
+
+        return new StreamingResultSet(new StreamingResultSet.ChunkReader() {
+
+            @Override
+            public List<?> read(List<?> after, int max) {
+                int first = 0;
+
+                if (after == null) {
+                    first = firstRow;
+                    selectQuery.where(restriction == null ? new Predicate[]{} : new Predicate[]{restriction});
+                } else {
+                    Predicate keyset = buildKeysetPredicate(criteriaBuilder, root, after, drc.getSorts());
+                    selectQuery.where(restriction == null ? keyset : criteriaBuilder.and(restriction, keyset));
+                }
+
+                return getEntityManager().createQuery(selectQuery)
+                        .setFirstResult(first)
+                        .setMaxResults(max)
+                        .getResultList();
+            }
+
+            @Override
+            public List<?> position(Object row) {
+                List<Object> values = new ArrayList<>();
+
+                if (isProjection) {
+                    Tuple tuple = (Tuple) row;
+                    for (int i = firstPosition; i < tuple.getElements().size(); i++) {
+                        values.add(tuple.get(i));
+                    }
+                } else {
+                    for (SortModel sortModel : drc.getSorts()) {
+                        values.add(getAttributeValue((T) row, sortModel.getField()));
+                    }
+                    values.add(getAttributeValue((T) row, idAttributeName));
+                }
+
+                return values;
+            }
+
+            @Override
+            public List<?> convert(List<?> rows) {
+                return isProjection ? buildProjectionContent(rows) : rows;
+            }
+
+        }, maxResults, getStreamingFetchSize());
+    }
+
+    /**
+     * Get the {@link FilterPlan} of the filters and sorts of the request. The plan is only used
+     * when the DAO keeps the default query building, a DAO that overrides any of the methods of
+     * {@link #QUERY_CONFIGURATION_METHODS} (e.g. to add a predicate) always uses the Criteria API.
+     *
+     * @return Plan with the values of the request or null when the Criteria API must be used
+     */
+    private FilterPlan.Binding bindFilterPlan() {
+        if (!FILTER_PLAN_SUPPORT.computeIfAbsent(getClass(), AbstractDAO::isDefaultQueryConfiguration)
+                || drc.getSearchText() != null) {
+            return null;
+        }
+
+        return FilterPlan.bind(entityClass, drc.getFilters(), drc.getSorts(), getFetchAssociations(), getInListChunkSize());
+    }
+
+    private static boolean isDefaultQueryConfiguration(Class<?> daoClass) {
+        for (Class<?> clazz = daoClass; clazz != null && clazz != AbstractDAO.class; clazz = clazz.getSuperclass()) {
+            // Subclasses generated by CDI or EJB containers only delegate to the DAO
+            if (clazz.getName().contains("$$")) {
+                continue;
+            }
+
+            for (Method method : clazz.getDeclaredMethods()) {
+                if (QUERY_CONFIGURATION_METHODS.contains(method.getName())) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return true when the request has filters or a full-text search
+     */
+    private boolean hasPredicates() {
+        return drc.getFilters() != null || drc.getSearchText() != null;
+    }
+
+    private boolean isStreaming() {
+        return Boolean.TRUE.equals(drc.isStreamingEnabled()) && !isKeysetPagination();
+    }
+
+    private int getStreamingFetchSize() {
+        Integer fetchSize = paginationConfig.getStreamingFetchSize();
+        return fetchSize == null || fetchSize <= 0 ? 500 : fetchSize;
+    }
+
     protected void configureCriteriaQuery(CriteriaBuilder criteriaBuilder, CriteriaQuery<T> criteriaQuery) {
         Root<T> from = criteriaQuery.from(entityClass);
-        if (drc.getFilters() != null) {
+        configureFetches(from);
+        if (hasPredicates()) {
             criteriaQuery.select(from).where(buildPredicates(criteriaBuilder, criteriaQuery, from));
         }
 
         configureOrder(criteriaBuilder, criteriaQuery, from);
     }
 
+    /**
+     * Fetch the associations read by the nested fields of the request on the same query (LEFT
+     * JOIN FETCH), so the content doesn't load each association with another query. See
+     * {@link #getFetchAssociations()}.
+     *
+     * @param root Root of the query of the entities
+     */
+    protected void configureFetches(Root<T> root) {
+        getFetchAssociations().stream().forEach(association -> root.fetch(association, JoinType.LEFT));
+    }
+
+    /**
+     * Get the associations of the entity that have nested fields on the request (e.g.
+     * 'fields=address(street,city)'). Only the ManyToOne and OneToOne associations are fetched,
+     * the fetch of a collection repeats the entity on each row and can't be paginated by the
+     * database.
+     *
+     * @return Name of the associations
+     */
+    private List<String> getFetchAssociations() {
+        if (drc.getFields() == null || drc.getFields().getChildren().isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        EntityMetadata metadata = EntityMetadata.of(entityClass);
+        List<String> associations = new ArrayList<>();
+
+        drc.getFields().getChildren().stream().forEach(leaf -> {
+            AttributeMetadata attribute = metadata.getAttribute(leaf.getKey());
+
+            if (!leaf.getChildren().isEmpty() && attribute != null && attribute.isSingularAssociation()) {
+                associations.add(leaf.getKey());
+            }
+        });
+
+        return associations;
+    }
+
     protected void configureOrder(CriteriaBuilder criteriaBuilder, CriteriaQuery<T> criteriaQuery, Root<T> root) {
 
         if (!drc.getSorts().isEmpty()) {
-            List<Order> orders = new ArrayList<>();
+            criteriaQuery.orderBy(buildOrders(criteriaBuilder, root));
+        }
+
+    }
+
+    private List<Order> buildOrders(CriteriaBuilder criteriaBuilder, Root<T> root) {
+        List<Order> orders = new ArrayList<>();
+
+        drc.getSorts().stream().forEachOrdered(sortModel -> {
+
+            if (sortModel.getType().equals(CrudSort.ASC)) {
+                orders.add(criteriaBuilder.asc(root.get(sortModel.getField())));
+            } else {
+                orders.add(criteriaBuilder.desc(root.get(sortModel.getField())));
+            }
+        });
+
+        return orders;
+    }
+
+    /**
+     * Configure the query used when the projection is enabled (see {@link Search#projection()}),
+     * only the fields of {@link DemoiselleRequestContext#getFields()} are selected, the fields of an
+     * association (e.g. 'address(street)') are selected by a LEFT JOIN.
+     *
+     * The filters of {@link #buildPredicates(CriteriaBuilder, CriteriaQuery, Root)} and the sorts
+     * are applied, but not the customizations made on
+     * {@link #configureCriteriaQuery(CriteriaBuilder, CriteriaQuery)}.
+     *
+     * The selections follow the order of the fields, as read by
+     * {@link #buildProjectionContent(List)}.
+     *
+     * @param criteriaBuilder CriteriaBuilder
+     * @param criteriaQuery Tuple CriteriaQuery
+     */
+    protected void configureProjectionQuery(CriteriaBuilder criteriaBuilder, CriteriaQuery<Tuple> criteriaQuery) {
+        Root<T> from = criteriaQuery.from(entityClass);
+        EntityType<T> entityType = getEntityManager().getMetamodel().entity(entityClass);
+        List<Selection<?>> selections = new ArrayList<>();
+
+        drc.getFields().getChildren().stream().forEach(leaf -> {
+            Attribute<? super T, ?> attribute = entityType.getAttribute(leaf.getKey());
+
+            if (leaf.getChildren().isEmpty()) {
+                Path<?> path = attribute.isAssociation() ? from.join(leaf.getKey(), JoinType.LEFT) : from.get(leaf.getKey());
+                selections.add(path);
+            } else {
+                Path<?> path = attribute.isAssociation() ? from.join(leaf.getKey(), JoinType.LEFT) : from.get(leaf.getKey());
+                leaf.getChildren().stream().forEach(child -> {
+                    selections.add(path.get(child.getKey()));
+                });
+            }
+        });
+
+        criteriaQuery.multiselect(selections);
+
+        if (hasPredicates()) {
+            criteriaQuery.where(buildPredicates(criteriaBuilder, criteriaQuery, from));
+        }
+
+        if (!drc.getSorts().isEmpty()) {
+            criteriaQuery.orderBy(buildOrders(criteriaBuilder, from));
+        }
+    }
+
+    /**
+     * Build the content of the result from the tuples selected by
+     * {@link #configureProjectionQuery(CriteriaBuilder, CriteriaQuery)}, each tuple becomes a Map
+     * like the one built by {@link CrudFilter} for the entities.
+     *
+     * @param tuples Tuples
+     *
+     * @return List of Maps
+     */
+    protected List<Map<String, Object>> buildProjectionContent(List<?> tuples) {
+        List<Map<String, Object>> content = new ArrayList<>(tuples.size());
 
-            drc.getSorts().stream().forEachOrdered(sortModel -> {
+        for (Object row : tuples) {
+            Tuple tuple = (Tuple) row;
+            Map<String, Object> keyValue = new LinkedHashMap<>();
+            int position = 0;
 
-                if (sortModel.getType().equals(CrudSort.ASC)) {
-                    orders.add(criteriaBuilder.asc(root.get(sortModel.getField())));
+            for (TreeNodeField<String, Set<String>> leaf : drc.getFields().getChildren()) {
+                if (leaf.getChildren().isEmpty()) {
+                    keyValue.put(leaf.getKey(), tuple.get(position++));
                 } else {
-                    orders.add(criteriaBuilder.desc(root.get(sortModel.getField())));
+                    Map<String, Object> keyValueSecond = new LinkedHashMap<>();
+
+                    for (TreeNodeField<String, Set<String>> child : leaf.getChildren()) {
+                        keyValueSecond.put(child.getKey(), tuple.get(position++));
+                    }
+
+                    keyValue.put(leaf.getKey(), keyValueSecond);
                 }
-            });
+            }
+
+            content.add(keyValue);
+        }
+
+        return content;
+    }
+
+    /**
+     * The projection is used when it is enabled, the fields are known and all of them can be
+     * selected as single values: collections (e.g. '@OneToMany'), fields below the second level and
+     * associations inside an association would multiply or hide rows, so the entities are selected.
+     * The {@link PaginationType#KEYSET} pagination needs the entities to build the cursor.
+     *
+     * @return true when the projection query will be used
+     */
+    private boolean isProjection() {
+        if (!Boolean.TRUE.equals(drc.isProjectionEnabled()) || drc.getFields() == null
+                || drc.getFields().getChildren().isEmpty() || isKeysetPagination()) {
+            return false;
+        }
+
+        EntityType<T> entityType = getEntityManager().getMetamodel().entity(entityClass);
+
+        try {
+            for (TreeNodeField<String, Set<String>> leaf : drc.getFields().getChildren()) {
+                Attribute<? super T, ?> attribute = entityType.getAttribute(leaf.getKey());
+
+                if (attribute.isCollection()) {
+                    return false;
+                }
+
+                if (!leaf.getChildren().isEmpty()) {
+                    if (!(((SingularAttribute<? super T, ?>) attribute).getType() instanceof ManagedType)) {
+                        return false;
+                    }
+
+                    ManagedType<?> managedType = (ManagedType<?>) ((SingularAttribute<? super T, ?>) attribute).getType();
+
+                    for (TreeNodeField<String, Set<String>> child : leaf.getChildren()) {
+                        Attribute<?, ?> childAttribute = managedType.getAttribute(child.getKey());
+
+                        if (!child.getChildren().isEmpty() || childAttribute.isCollection() || childAttribute.isAssociation()) {
+                            return false;
+                        }
+                    }
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // Field that is not an attribute of the entity (e.g. @Transient)
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Configure the {@link PaginationType#KEYSET} pagination: the query is ordered by
+     * {@link #buildKeysetOrders(CriteriaBuilder, Root)}, so the order is unique, and when the request
+     * has a cursor the rows after the cursor position are selected by the values of the sort fields
+     * and the identifier.
+     *
+     * @param criteriaBuilder CriteriaBuilder
+     * @param criteriaQuery CriteriaQuery already configured by {@link #configureCriteriaQuery(CriteriaBuilder, CriteriaQuery)}
+     */
+    @SuppressWarnings("unchecked")
+    protected void configureKeyset(CriteriaBuilder criteriaBuilder, CriteriaQuery<T> criteriaQuery) {
+        Root<T> root = (Root<T>) criteriaQuery.getRoots().iterator().next();
+
+        criteriaQuery.orderBy(buildKeysetOrders(criteriaBuilder, root));
+
+        if (drc.getCursor() != null) {
+            Predicate keyset = buildKeysetPredicate(criteriaBuilder, root, KeysetCursor.decode(drc.getCursor()));
+
+            if (criteriaQuery.getRestriction() != null) {
+                keyset = criteriaBuilder.and(criteriaQuery.getRestriction(), keyset);
+            }
+
+            criteriaQuery.where(keyset);
+        }
+    }
+
+    /**
+     * Build the predicate that selects the rows after the cursor position, given the sort fields
+     * (s1, s2) and the identifier (id) the predicate will be:
+     *
+     * <pre>
+     * s1 &gt; v1 OR (s1 = v1 AND s2 &gt; v2) OR (s1 = v1 AND s2 = v2 AND id &gt; vId)
+     * </pre>
+     *
+     * The '&gt;' operator is replaced by '&lt;' for fields sorted with {@link CrudSort#DESC}. The
+     * nulls of a nullable sort field are ordered after the values, so 's1 &gt; v1' becomes
+     * 's1 &gt; v1 OR s1 IS NULL' and nothing is after a null, but the equal values.
+     *
+     * @param criteriaBuilder CriteriaBuilder
+     * @param root Root
+     * @param values Values read from the cursor
+     *
+     * @return Keyset predicate
+     */
+    @SuppressWarnings("rawtypes")
+    protected Predicate buildKeysetPredicate(CriteriaBuilder criteriaBuilder, Root<T> root, List<String> values) {
+        List<SortModel> sorts = drc.getSorts();
+
+        if (values.size() != sorts.size() + 1) {
+            throw new DemoiselleCrudException("Cursor de paginação inválido", Status.BAD_REQUEST.getStatusCode());
+        }
+
+        List<Object> position = new ArrayList<>(values.size());
+
+        for (int i = 0; i < values.size(); i++) {
+            Path path = root.get(i == sorts.size() ? getIdAttributeName() : sorts.get(i).getField());
+
+            try {
+                position.add((Comparable) KeysetCursor.convert(values.get(i), path.getJavaType()));
+            } catch (IllegalArgumentException | ClassCastException e) {
+                throw new DemoiselleCrudException("Cursor de paginação inválido", Status.BAD_REQUEST.getStatusCode());
+            }
+        }
+
+        return buildKeysetPredicate(criteriaBuilder, root, position, sorts);
+    }
+
+    /**
+     * Build the predicate that selects the rows after the position, see
+     * {@link #buildKeysetPredicate(CriteriaBuilder, Root, List)}.
+     *
+     * @param criteriaBuilder CriteriaBuilder
+     * @param root Root
+     * @param position Values of the sort fields followed by the identifier
+     * @param sorts Sorts
+     *
+     * @return Keyset predicate
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Predicate buildKeysetPredicate(CriteriaBuilder criteriaBuilder, Root<T> root, List<?> position, List<SortModel> sorts) {
+        List<Predicate> predicates = new ArrayList<>();
+        List<Predicate> predicatesEqual = new ArrayList<>();
+
+        for (int i = 0; i < position.size(); i++) {
+            boolean isId = i == sorts.size();
+            Path path = root.get(isId ? getIdAttributeName() : sorts.get(i).getField());
+            Comparable value = (Comparable) position.get(i);
+
+            Predicate after;
+            if (value == null) {
+                after = criteriaBuilder.disjunction();
+            } else if (!isId && CrudSort.DESC.equals(sorts.get(i).getType())) {
+                after = criteriaBuilder.lessThan(path, value);
+            } else {
+                after = criteriaBuilder.greaterThan(path, value);
+            }
+
+            if (value != null && !isId && isNullableSort(sorts.get(i))) {
+                after = criteriaBuilder.or(after, criteriaBuilder.isNull(path));
+            }
+
+            List<Predicate> predicatesAfter = new ArrayList<>(predicatesEqual);
+            predicatesAfter.add(after);
+            predicates.add(criteriaBuilder.and(predicatesAfter.toArray(new Predicate[]{})));
+
+            predicatesEqual.add(value == null ? criteriaBuilder.isNull(path) : criteriaBuilder.equal(path, value));
+        }
+
+        return criteriaBuilder.or(predicates.toArray(new Predicate[]{}));
+    }
+
+    /**
+     * Build the orders of the {@link PaginationType#KEYSET} pagination and of the streaming: the
+     * sorts followed by the identifier. The databases differ on the position of the nulls, so a
+     * nullable sort field is ordered first by an expression that puts the nulls after the values,
+     * the order the keyset predicate expects.
+     *
+     * @param criteriaBuilder CriteriaBuilder
+     * @param root Root
+     *
+     * @return Orders
+     */
+    private List<Order> buildKeysetOrders(CriteriaBuilder criteriaBuilder, Root<T> root) {
+        List<Order> orders = new ArrayList<>();
+
+        for (SortModel sortModel : drc.getSorts()) {
+            Path<?> path = root.get(sortModel.getField());
+
+            if (isNullableSort(sortModel)) {
+                orders.add(criteriaBuilder.asc(criteriaBuilder.<Integer>selectCase()
+                        .when(criteriaBuilder.isNull(path), 1).otherwise(0)));
+            }
+
+            if (sortModel.getType().equals(CrudSort.ASC)) {
+                orders.add(criteriaBuilder.asc(path));
+            } else {
+                orders.add(criteriaBuilder.desc(path));
+            }
+        }
+
+        orders.add(criteriaBuilder.asc(root.get(getIdAttributeName())));
+
+        return orders;
+    }
+
+    private boolean isNullableSort(SortModel sortModel) {
+        AttributeMetadata attribute = EntityMetadata.of(entityClass).getAttribute(sortModel.getField());
+        return attribute == null || attribute.isNullable();
+    }
+
+    /**
+     * Remove the probe row from the result and fill the
+     * {@link DemoiselleRequestContext#setNextCursor(String)} with the position of the last row.
+     *
+     * @param result Result with one row beyond the page when there is a next page
+     */
+    @SuppressWarnings("unchecked")
+    private void fillNextCursor(Result result) {
+        Integer maxResults = getMaxResult();
+
+        if (result.getContent().size() > maxResults) {
+            List<T> content = new ArrayList<>((List<T>) result.getContent().subList(0, maxResults));
+            T last = content.get(content.size() - 1);
+            List<Object> values = new ArrayList<>();
+
+            for (SortModel sortModel : drc.getSorts()) {
+                values.add(getAttributeValue(last, sortModel.getField()));
+            }
+            values.add(getAttributeValue(last, getIdAttributeName()));
+
+            result.setContent(content);
+            drc.setNextCursor(KeysetCursor.encode(values));
+        }
+    }
+
+    /**
+     * Remove the probe row from the result and fill the
+     * {@link DemoiselleRequestContext#setNextPageAvailable(Boolean)}, used when the count strategy
+     * is not {@link CountStrategy#EXACT}.
+     *
+     * @param result Result with one row beyond the page when there is a next page
+     */
+    private void fillNextPage(Result result) {
+        Integer maxResults = getMaxResult();
+        Integer offset = drc.getOffset() == null ? 0 : drc.getOffset();
+        Boolean isNextPageAvailable = result.getContent().size() > maxResults;
+
+        if (isNextPageAvailable) {
+            result.setContent(new ArrayList<>(result.getContent().subList(0, maxResults)));
+        }
 
-            criteriaQuery.orderBy(orders);
+        if (!result.getContent().isEmpty()) {
+            drc.setLimit(offset + result.getContent().size() - 1);
         }
 
+        drc.setNextPageAvailable(isNextPageAvailable);
+    }
+
+    private boolean isExactCount() {
+        return drc.getCountStrategy() == null || CountStrategy.EXACT.equals(drc.getCountStrategy());
+    }
+
+    private Long countByStrategy() {
+        if (CountStrategy.CACHED.equals(drc.getCountStrategy())) {
+            return cachedCount();
+        }
+
+        if (CountStrategy.ESTIMATED.equals(drc.getCountStrategy())) {
+            return estimateCount();
+        }
+
+        return null;
+    }
+
+    /**
+     * Count used by {@link CountStrategy#CACHED}, the result of {@link #count()} is kept on
+     * {@link CountCache} by the key built on {@link #buildCountCacheKey()}.
+     *
+     * @return Count
+     */
+    protected Long cachedCount() {
+        String key = buildCountCacheKey();
+        Long count = countCache.get(entityClass, key);
+
+        if (count == null) {
+            count = count();
+            countCache.put(entityClass, key, count);
+        }
+
+        return count;
+    }
+
+    /**
+     * Key used to keep the count on {@link CountCache}, by default the signature of the filters of
+     * the request with the search text ('q' parameter). Override this method when
+     * {@link #buildPredicates(CriteriaBuilder, CriteriaQuery, Root)} uses values that don't come
+     * from the request (e.g. the logged user).
+     *
+     * @return Key
+     */
+    protected String buildCountCacheKey() {
+        String signature = CrudUtilHelper.buildSignature(drc.getFilters());
+        return drc.getSearchText() == null ? signature : signature + "|q=" + drc.getSearchText();
+    }
+
+    /**
+     * Count used by {@link CountStrategy#ESTIMATED}, it never runs the count query. By default no
+     * estimate is available and the total is unknown, as on {@link CountStrategy#NONE}. Override
+     * this method to read the estimate from the statistics of the database (e.g. 'reltuples' of
+     * PostgreSQL or 'num_rows' of Oracle), returning null when the estimate is not available.
+     *
+     * @return Estimated count or null
+     */
+    protected Long estimateCount() {
+        return null;
+    }
+
+    private boolean isKeysetPagination() {
+        return drc.isPaginationEnabled() && PaginationType.KEYSET.equals(drc.getPaginationType());
+    }
+
+    protected String getIdAttributeName() {
+        EntityType<T> entityType = getEntityManager().getMetamodel().entity(entityClass);
+        return entityType.getId(entityType.getIdType().getJavaType()).getName();
+    }
+
+    private Object getAttributeValue(T entity, String attribute) {
+        AttributeMetadata attributeMetadata = EntityMetadata.of(entityClass).getAttribute(attribute);
+
+        if (attributeMetadata == null) {
+            throw new DemoiselleCrudException("Não foi possível consultar");
+        }
+
+        return attributeMetadata.getValue(entity);
     }
 
     protected Predicate[] buildPredicates(CriteriaBuilder criteriaBuilder, CriteriaQuery<?> criteriaQuery, Root<T> root) {
@@ -236,37 +1243,69 @@ public abstract class AbstractDAO<T, I> implements Crud<T, I> {
 
                 List<Predicate> predicateAndKeys = new LinkedList<>();
                 List<Predicate> predicateSameKey = new LinkedList<>();
+                List<Predicate> predicateConditions = new LinkedList<>();
 
-                // Many parameters for the same key, generate OR clause
+                // Many parameters for the same key, generate OR clause, the operators are AND-ed as on the root
                 if (!child.getChildren().isEmpty()) {
 
                     Join<?, ?> join = root.join(child.getKey());
+                    AttributeMetadata joinAttribute = EntityMetadata.of(entityClass).getAttribute(child.getKey());
                     child.getChildren().stream().forEach(values -> {
 
                         predicateSameKey.clear();
+                        predicateConditions.clear();
 
                         if (!child.getChildren().isEmpty()) {
 
-                            values.getValue().stream().forEach(value -> {
-                                if ("null".equals(value) || value == null) {
+                            AttributeMetadata valuesAttribute = joinAttribute == null ? null : EntityMetadata.of(joinAttribute.getType()).getAttribute(values.getKey());
+                            List<Object> inValues = InList.equalValues(valuesAttribute, values.getValue(), false);
+
+                            if (inValues != null) {
+                                predicateSameKey.add(buildInPredicate(criteriaBuilder, join.get(values.getKey()), inValues));
+                            }
+
+                            values.getValue().stream().filter(value -> inValues == null || !InList.isEqualValue(value, false)).forEach(value -> {
+                                FilterCondition condition = joinAttribute == null ? null : parseCondition(joinAttribute.getType(), values.getKey(), value);
+
+                                if (condition != null) {
+                                    predicateConditions.add(buildConditionPredicate(criteriaBuilder, join.get(values.getKey()), condition));
+                                } else if ("null".equals(value) || value == null) {
                                     predicateSameKey.add(criteriaBuilder.isNull(join.get(values.getKey())));
                                 } else if (values.getValue().isEmpty()) {
                                     predicateSameKey.add(criteriaBuilder.isEmpty(join.get(values.getKey())));
                                 } else if (isLikeFilter(values.getKey(), value)) {
                                     predicateSameKey.add(buildLikePredicate(criteriaBuilder, criteriaQuery, join, values.getKey(), value));
                                 } else if (isEnumFilter(child.getKey(), value)) {
-                                	predicateAndKeys.add(criteriaBuilder.equal(root.get(child.getKey()), convertEnumToInt(child.getKey(), value)));
+                                    predicateAndKeys.add(criteriaBuilder.equal(root.get(child.getKey()), convertEnumToInt(child.getKey(), value)));
                                 } else {
                                     predicateSameKey.add(criteriaBuilder.equal(join.get(values.getKey()), value));
                                 }
                             });
 
-                            predicates.add(criteriaBuilder.or(predicateSameKey.toArray(new Predicate[]{})));
+                            if (predicateConditions.isEmpty()) {
+                                predicates.add(criteriaBuilder.or(predicateSameKey.toArray(new Predicate[]{})));
+                            } else {
+                                if (!predicateSameKey.isEmpty()) {
+                                    predicateConditions.add(criteriaBuilder.or(predicateSameKey.toArray(new Predicate[]{})));
+                                }
+
+                                predicates.add(criteriaBuilder.and(predicateConditions.toArray(new Predicate[]{})));
+                            }
                         }
                     });
                 } else {
-                    child.getValue().stream().forEach(value -> {
-                        if ("null".equals(value) || value == null) {
+                    List<Object> inValues = InList.equalValues(EntityMetadata.of(entityClass).getAttribute(child.getKey()), child.getValue(), true);
+
+                    if (inValues != null) {
+                        predicateAndKeys.add(buildInPredicate(criteriaBuilder, root.get(child.getKey()), inValues));
+                    }
+
+                    child.getValue().stream().filter(value -> inValues == null || !InList.isEqualValue(value, true)).forEach(value -> {
+                        FilterCondition condition = parseCondition(entityClass, child.getKey(), value);
+
+                        if (condition != null) {
+                            predicateAndKeys.add(buildConditionPredicate(criteriaBuilder, root.get(child.getKey()), condition));
+                        } else if ("null".equals(value) || value == null) {
                             predicateAndKeys.add(criteriaBuilder.isNull(root.get(child.getKey())));
                         } else if (child.getValue().isEmpty()) {
                             predicateAndKeys.add(criteriaBuilder.isEmpty(root.get(child.getKey())));
@@ -277,7 +1316,7 @@ public abstract class AbstractDAO<T, I> implements Crud<T, I> {
                         } else if (value.equalsIgnoreCase("isFalse")) {
                             predicateAndKeys.add(criteriaBuilder.isFalse(root.get(child.getKey())));
                         } else if (isEnumFilter(child.getKey(), value)) {
-                        	predicateAndKeys.add(criteriaBuilder.equal(root.get(child.getKey()), convertEnumToInt(child.getKey(), value)));
+                            predicateAndKeys.add(criteriaBuilder.equal(root.get(child.getKey()), convertEnumToInt(child.getKey(), value)));
                         } else {
                             predicateAndKeys.add(criteriaBuilder.equal(root.get(child.getKey()), value));
                         }
@@ -288,48 +1327,216 @@ public abstract class AbstractDAO<T, I> implements Crud<T, I> {
             });
         }
 
+        if (drc.getSearchText() != null) {
+            predicates.add(buildSearchPredicate(criteriaBuilder, root));
+        }
+
         return predicates.toArray(new Predicate[]{});
     }
+
+    /**
+     * Build the predicate of the full-text search of the request ('q' parameter), the identifiers
+     * of the entities found by {@link #findSearchIds(String)} on an IN predicate.
+     *
+     * @param criteriaBuilder CriteriaBuilder
+     * @param root Root of the query
+     *
+     * @return Predicate
+     */
+    private Predicate buildSearchPredicate(CriteriaBuilder criteriaBuilder, Root<T> root) {
+        Collection<?> ids = findSearchIds(drc.getSearchText());
+
+        if (ids.isEmpty()) {
+            return criteriaBuilder.disjunction();
+        }
+
+        if (ids.size() > getSearchMaxResults()) {
+            throw new DemoiselleCrudException("A busca '%s' encontrou mais de %d registros, informe mais palavras"
+                    .replace("%s", drc.getSearchText()).replace("%d", String.valueOf(getSearchMaxResults())), Status.BAD_REQUEST.getStatusCode());
+        }
+
+        return buildInPredicate(criteriaBuilder, root.get(getIdAttributeName()), new ArrayList<>(ids));
+    }
+
+    /**
+     * Find the identifiers of the entities that have all words of the text on the fields
+     * annotated with {@link Searchable}, using the {@link SearchIndex} of the entity (it is loaded
+     * from the database on the first search).
+     *
+     * Override this method to use a full-text index of the database instead.
+     *
+     * @param text Text of the search
+     *
+     * @return Identifiers of the entities found
+     */
+    protected Collection<?> findSearchIds(String text) {
+        EntityIndex index = searchIndex.get(entityClass);
+
+        if (index == null) {
+            index = loadSearchIndex();
+        }
+
+        return index.search(text);
+    }
+
+    /**
+     * Load the {@link SearchIndex} of the entity, reading only the identifier and the
+     * {@link Searchable} fields, {@link PaginationHelperConfig#getStreamingFetchSize()} rows by
+     * query ordered by the identifier.
+     *
+     * @return Index loaded
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private EntityIndex loadSearchIndex() {
+        List<AttributeMetadata> attributes = EntityMetadata.of(entityClass).getSearchableAttributes();
+        String idName = getIdAttributeName();
+        int fetchSize = getStreamingFetchSize();
+        EntityIndex index = searchIndex.startLoading(entityClass);
+
+        try {
+            Comparable last = null;
+            List<Tuple> rows;
+
+            do {
+                CriteriaBuilder criteriaBuilder = getEntityManager().getCriteriaBuilder();
+                CriteriaQuery<Tuple> criteriaQuery = criteriaBuilder.createTupleQuery();
+                Root<T> from = criteriaQuery.from(entityClass);
+                Expression id = from.get(idName);
+                List<Selection<?>> selections = new ArrayList<>();
+
+                selections.add(id);
+                attributes.stream().forEach(attribute -> selections.add(from.get(attribute.getName())));
+                criteriaQuery.multiselect(selections).orderBy(criteriaBuilder.asc(id));
+
+                // The rows after the last identifier read, the offset would read the table again on each query
+                if (last != null) {
+                    criteriaQuery.where(criteriaBuilder.greaterThan(id, last));
+                }
+
+                rows = getEntityManager().createQuery(criteriaQuery).setMaxResults(fetchSize).getResultList();
+
+                for (Tuple row : rows) {
+                    Map<String, Object> values = new HashMap<>();
+
+                    for (int i = 0; i < attributes.size(); i++) {
+                        values.put(attributes.get(i).getName(), row.get(i + 1));
+                    }
+
+                    index.load(row.get(0), values);
+                    last = (Comparable) row.get(0);
+                }
+            } while (rows.size() == fetchSize);
+
+            searchIndex.install(entityClass, index);
+            return index;
+        } catch (RuntimeException e) {
+            searchIndex.discard(entityClass, index);
+            throw e;
+        }
+    }
+
+    private int getSearchMaxResults() {
+        Integer maxResults = crudConfig == null ? null : crudConfig.getSearchMaxResults();
+        return maxResults == null || maxResults <= 0 ? 1000 : maxResults;
+    }
     
+    /**
+     * Parse the filter value written with an operator (see {@link FilterCondition}).
+     *
+     * @param type Entity that has the attribute
+     * @param key Attribute
+     * @param value Filter value
+     *
+     * @return Condition or null when the value isn't written with an operator
+     */
+    private FilterCondition parseCondition(Class<?> type, String key, String value) {
+        AttributeMetadata attribute = EntityMetadata.of(type).getAttribute(key);
+        return attribute == null ? null : FilterCondition.parse(value, attribute);
+    }
+
+    /**
+     * Build the predicate of a filter value written with an operator, like 'age=ge(18)', the
+     * arguments of the condition are already converted to the type of the attribute.
+     *
+     * @param criteriaBuilder CriteriaBuilder
+     * @param path Path of the attribute
+     * @param condition Condition
+     *
+     * @return Predicate
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    protected Predicate buildConditionPredicate(CriteriaBuilder criteriaBuilder, Path<?> path, FilterCondition condition) {
+        List<Object> values = condition.getValues();
+        Expression comparable = path;
+
+        switch (condition.getOperator()) {
+            case NOT_EQUAL:
+                return criteriaBuilder.notEqual(path, values.get(0));
+            case GREATER_THAN:
+                return criteriaBuilder.greaterThan(comparable, (Comparable) values.get(0));
+            case GREATER_THAN_OR_EQUAL:
+                return criteriaBuilder.greaterThanOrEqualTo(comparable, (Comparable) values.get(0));
+            case LESS_THAN:
+                return criteriaBuilder.lessThan(comparable, (Comparable) values.get(0));
+            case LESS_THAN_OR_EQUAL:
+                return criteriaBuilder.lessThanOrEqualTo(comparable, (Comparable) values.get(0));
+            case BETWEEN:
+                return criteriaBuilder.between(comparable, (Comparable) values.get(0), (Comparable) values.get(1));
+            case IN:
+                return buildInPredicate(criteriaBuilder, path, values);
+            default:
+                // Without lower() the database can use an index of the column
+                return criteriaBuilder.like(comparable, (String) values.get(0), FilterCondition.LIKE_ESCAPE);
+        }
+    }
+
+    /**
+     * Build the IN predicate of the values, split in chunks padded by {@link InList} and joined by
+     * OR when there are more values than {@link DemoiselleCrudConfig#getInListChunkSize()}.
+     *
+     * @param criteriaBuilder CriteriaBuilder
+     * @param path Path of the attribute
+     * @param values Values already converted to the type of the attribute
+     *
+     * @return Predicate
+     */
+    protected Predicate buildInPredicate(CriteriaBuilder criteriaBuilder, Path<?> path, List<Object> values) {
+        List<Predicate> ins = new LinkedList<>();
+
+        for (List<Object> chunk : InList.chunks(values, getInListChunkSize())) {
+            ins.add(path.in(chunk));
+        }
+
+        return ins.size() == 1 ? ins.get(0) : criteriaBuilder.or(ins.toArray(new Predicate[]{}));
+    }
+
+    private int getInListChunkSize() {
+        Integer chunkSize = crudConfig == null ? null : crudConfig.getInListChunkSize();
+        return chunkSize == null || chunkSize <= 0 ? InList.DEFAULT_CHUNK_SIZE : chunkSize;
+    }
+
     protected boolean isEnumFilter(String key, String value) {
-		Field[] fields = entityClass.getDeclaredFields();
-
-		for (Field field : fields) {
-			if (key.equalsIgnoreCase(field.getName())) {
-				return field.getType().isEnum();
-			}
-		}
-
-		return false;
-	}
-
-	protected int convertEnumToInt(String key, String value) {
-		Field[] fields = entityClass.getDeclaredFields();
-		try {
-
-			for (Field field : fields) {
-				if (key.equals(field.getName())) {
-					if (field.getType().isEnum()) {
-						Class<?> c = Class.forName(field.getType().getName());
-						Object[] objects = c.getEnumConstants();
-						for (Object obj : objects) {
-							if (obj.toString().equalsIgnoreCase(value))
-								return ((Enum<?>)obj).ordinal();							
-						}
-					} else {
-						throw new DemoiselleCrudException("Não foi possível consultar");	
-					}
-				}
-			}
-			
-			// If doesnt find any constant throws
-			throw new DemoiselleCrudException("Não foi possível encontrar o valor [%s] nas constantes".replace("%s", value));
-			
-		} catch (IllegalArgumentException | ClassNotFoundException | SecurityException e) {
-			throw new DemoiselleCrudException("Não foi possível consultar", e);
-		}		
-		
-	}
+        AttributeMetadata attribute = EntityMetadata.of(entityClass).getAttributeIgnoreCase(key);
+
+        return attribute != null && attribute.isEnum();
+    }
+
+    protected int convertEnumToInt(String key, String value) {
+        AttributeMetadata attribute = EntityMetadata.of(entityClass).getAttributeIgnoreCase(key);
+
+        if (attribute != null && !attribute.isEnum()) {
+            throw new DemoiselleCrudException("Não foi possível consultar");
+        }
+
+        Integer ordinal = attribute == null ? null : InList.convertEnum(attribute, value);
+
+        // If doesnt find any constant throws
+        if (ordinal == null) {
+            throw new DemoiselleCrudException("Não foi possível encontrar o valor [" + value + "] nas constantes");
+        }
+
+        return ordinal;
+    }
 
     protected boolean isLikeFilter(String key, String value) {
         return value.startsWith("*") || value.endsWith("*");
@@ -357,16 +1564,23 @@ public abstract class AbstractDAO<T, I> implements Crud<T, I> {
     }
 
     public Long count() {
+        FilterPlan.Binding filterPlan = bindFilterPlan();
+
+        if (filterPlan != null) {
+            TypedQuery<Long> countQuery = getEntityManager().createQuery(filterPlan.getPlan().getCountStatement(), Long.class);
+            return filterPlan.setParameters(entityCache.applyQueryHints(countQuery, entityClass)).getSingleResult();
+        }
+
         CriteriaBuilder criteriaBuilder = getEntityManager().getCriteriaBuilder();
         CriteriaQuery<Long> countCriteria = criteriaBuilder.createQuery(Long.class);
         Root<T> entityRoot = countCriteria.from(entityClass);
         countCriteria.select(criteriaBuilder.count(entityRoot));
 
-        if (drc.getFilters() != null) {
+        if (hasPredicates()) {
             countCriteria.where(buildPredicates(criteriaBuilder, countCriteria, entityRoot));
         }
 
-        return getEntityManager().createQuery(countCriteria).getSingleResult();
+        return entityCache.applyQueryHints(getEntityManager().createQuery(countCriteria), entityClass).getSingleResult();
     }
 
     protected Predicate[] extractPredicates(MultivaluedMap<String, String> queryParameters,
@@ -8,6 +8,8 @@ package org.demoiselle.jee.crud;
 
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 
+import java.util.List;
+
 import javax.inject.Inject;
 import javax.transaction.Transactional;
 import javax.validation.Valid;
@@ -21,6 +23,7 @@ import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.Response.Status;
 
+import org.demoiselle.jee.core.api.crud.BatchItemStatus;
 import org.demoiselle.jee.core.api.crud.Crud;
 import org.demoiselle.jee.core.api.crud.Result;
 import org.demoiselle.jee.rest.exception.DemoiselleRestException;
@@ -78,6 +81,33 @@ public abstract class AbstractREST<T, I> implements Crud<T, I> {
         bc.remove(id);
     }
 
+    @POST
+    @Path("batch")
+    @Transactional
+    @ApiOperation(value = "persist a list of entities")
+    @Override
+    public List<BatchItemStatus> persistBatch(@Valid List<T> entities) {
+        return bc.persistBatch(entities);
+    }
+
+    @PUT
+    @Path("batch")
+    @Transactional
+    @ApiOperation(value = "full update a list of entities")
+    @Override
+    public List<BatchItemStatus> mergeFullBatch(@Valid List<T> entities) {
+        return bc.mergeFullBatch(entities);
+    }
+
+    @DELETE
+    @Path("batch")
+    @Transactional
+    @ApiOperation(value = "remove a list of entities by ID")
+    @Override
+    public List<BatchItemStatus> removeBatch(List<I> ids) {
+        return bc.removeBatch(ids);
+    }
+
     @GET
     @Path("{id}")
     @Transactional
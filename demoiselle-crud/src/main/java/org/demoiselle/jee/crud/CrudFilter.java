@@ -7,21 +7,17 @@
 package org.demoiselle.jee.crud;
 
 import java.io.IOException;
-import java.lang.reflect.Field;
-import java.util.Arrays;
-import java.util.Iterator;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.logging.Level;
-import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
+import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
 import javax.ws.rs.BadRequestException;
 import javax.ws.rs.GET;
+import javax.ws.rs.HttpMethod;
 import javax.ws.rs.container.ContainerRequestContext;
 import javax.ws.rs.container.ContainerRequestFilter;
 import javax.ws.rs.container.ContainerResponseContext;
@@ -29,21 +25,38 @@ import javax.ws.rs.container.ContainerResponseFilter;
 import javax.ws.rs.container.ResourceInfo;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
+import javax.ws.rs.ext.ContextResolver;
 import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.Providers;
 
 import org.demoiselle.jee.core.api.crud.Result;
+import org.demoiselle.jee.core.api.security.SecurityContext;
+import org.demoiselle.jee.crud.aggregation.AggregationHelper;
+import org.demoiselle.jee.crud.cache.CacheResponse;
+import org.demoiselle.jee.crud.cache.CachedResponse;
+import org.demoiselle.jee.crud.cache.ResponseCache;
 import org.demoiselle.jee.crud.field.FieldHelper;
+import org.demoiselle.jee.crud.field.FieldProjector;
 import org.demoiselle.jee.crud.filter.FilterHelper;
 import org.demoiselle.jee.crud.pagination.PaginationHelper;
+import org.demoiselle.jee.crud.pagination.StreamingResultSet;
+import org.demoiselle.jee.crud.search.SearchHelper;
 import org.demoiselle.jee.crud.sort.SortHelper;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
 /**
  * Class responsible for managing the Request and Response used on CRUD feature.
  * 
  * The request will be treat if:
- *  - The target class of request is a subclass of {@link AbstractREST} and 
+ *  - The target class of request is a subclass of {@link AbstractREST} (or {@link AbstractAsyncREST}) and 
  *  - The target method of request is annotated with {@link GET} annotation
  *  
  *  The request will be treated and parsed for:
@@ -51,11 +64,17 @@ import org.demoiselle.jee.crud.sort.SortHelper;
  *  - {@link FieldHelper} to extract information about 'field' like a 'fields=field1,field2,...' parameter;
  *  - {@link FilterHelper} to extract information about the fields of entity that will be filter on the database.
  *  - {@link SortHelper} to extract information about the 'sort' link a 'sort' and 'desc' parameters;
+ *  - {@link AggregationHelper} to extract information about the 'groupBy' and 'aggregate' parameters;
+ *  - {@link SearchHelper} to extract information about the 'q' parameter;
  *  
  * The response will be treat if:
  *  - The type of return is a {@link Result} type.
  *  
  *  The response will build the result and the HTTP Headers.
+ *  
+ * When the resource is annotated with {@link CacheResponse} the response is kept on 
+ * {@link ResponseCache} and the next requests with the same query are answered without running 
+ * the resource method.
  *
  * @author SERPRO
  */
@@ -68,6 +87,9 @@ public class CrudFilter implements ContainerResponseFilter, ContainerRequestFilt
     @Context
     private UriInfo uriInfo;
 
+    @Context
+    private Providers providers;
+
     @Inject
     private DemoiselleRequestContext drc;
 
@@ -82,12 +104,32 @@ public class CrudFilter implements ContainerResponseFilter, ContainerRequestFilt
 
     @Inject
     private FieldHelper fieldHelper;
+
+    @Inject
+    private AggregationHelper aggregationHelper;
+
+    @Inject
+    private SearchHelper searchHelper;
+
+    @Inject
+    private ResponseCache responseCache;
+
+    @Inject
+    private Instance<SecurityContext> securityContext;
     
-    private static final Logger logger = Logger.getLogger(CrudFilter.class.getName());
+    private static final ObjectMapper DEFAULT_MAPPER = new ObjectMapper();
+
+    private static final String RESPONSE_CACHE_KEY = CrudFilter.class.getName() + ".responseCacheKey";
+
+    private static final String RESPONSE_CACHE_GENERATION = CrudFilter.class.getName() + ".responseCacheGeneration";
+
+    private static final String[] CACHED_HEADERS = {
+            ReservedHTTPHeaders.HTTP_HEADER_CONTENT_RANGE.getKey(), ReservedHTTPHeaders.HTTP_HEADER_ACCEPT_RANGE.getKey(),
+            ReservedHTTPHeaders.HTTP_HEADER_ACCESS_CONTROL_EXPOSE_HEADERS.getKey(), HttpHeaders.LINK };
 
     public CrudFilter() {}
 
-    public CrudFilter(ResourceInfo resourceInfo, UriInfo uriInfo, DemoiselleRequestContext drc, PaginationHelper paginationHelper, SortHelper sortHelper, FilterHelper filterHelper, FieldHelper fieldHelper) {
+    public CrudFilter(ResourceInfo resourceInfo, UriInfo uriInfo, DemoiselleRequestContext drc, PaginationHelper paginationHelper, SortHelper sortHelper, FilterHelper filterHelper, FieldHelper fieldHelper, ResponseCache responseCache, AggregationHelper aggregationHelper, SearchHelper searchHelper) {
         this.resourceInfo = resourceInfo;
         this.uriInfo = uriInfo;
         this.drc = drc;
@@ -95,16 +137,28 @@ public class CrudFilter implements ContainerResponseFilter, ContainerRequestFilt
         this.sortHelper = sortHelper;
         this.filterHelper = filterHelper;
         this.fieldHelper = fieldHelper;
+        this.responseCache = responseCache;
+        this.aggregationHelper = aggregationHelper;
+        this.searchHelper = searchHelper;
     }
 
     @Override
     public void filter(ContainerRequestContext requestContext) throws IOException {
         if (isRequestForCrud()) {
             try {
-                paginationHelper.execute(resourceInfo, uriInfo);
-                sortHelper.execute(resourceInfo, uriInfo);
-                filterHelper.execute(resourceInfo, uriInfo);
-                fieldHelper.execute(resourceInfo, uriInfo);
+                // The query string is parsed once and shared by the helpers
+                CrudQuery query = CrudQuery.parse(uriInfo.getQueryParameters());
+
+                if (abortWithCachedResponse(requestContext, query)) {
+                    return;
+                }
+
+                paginationHelper.execute(resourceInfo, uriInfo, query);
+                sortHelper.execute(resourceInfo, uriInfo, query);
+                filterHelper.execute(resourceInfo, uriInfo, query);
+                fieldHelper.execute(resourceInfo, uriInfo, query);
+                aggregationHelper.execute(resourceInfo, uriInfo, query);
+                searchHelper.execute(resourceInfo, uriInfo, query);
             } 
             catch (IllegalArgumentException e) {
                 throw new BadRequestException(e.getMessage());
@@ -134,6 +188,119 @@ public class CrudFilter implements ContainerResponseFilter, ContainerRequestFilt
             }
         }
 
+        if (req.getProperty(RESPONSE_CACHE_KEY) != null) {
+            keepResponse(req, response);
+        }
+        else if (!HttpMethod.GET.equals(req.getMethod()) && !HttpMethod.HEAD.equals(req.getMethod())) {
+            invalidateCachedResponses();
+        }
+
+    }
+
+    /**
+     * Answer the request with the response kept on {@link ResponseCache}, when the resource is 
+     * annotated with {@link CacheResponse}. Otherwise the key of the request and the generation of 
+     * the entity are kept on the request to {@link #keepResponse(ContainerRequestContext, ContainerResponseContext)}.
+     * 
+     * @return true when the request was answered
+     */
+    private boolean abortWithCachedResponse(ContainerRequestContext requestContext, CrudQuery query) {
+        ResourceMethodDescriptor descriptor = ResourceMethodDescriptor.of(resourceInfo);
+        
+        if (!descriptor.isResponseCached()) {
+            return false;
+        }
+        
+        String userScope = getUserScope(requestContext);
+        
+        if (userScope == null) {
+            return false;
+        }
+        
+        String key = descriptor.getResourceClass().getName() + "#" + descriptor.getResourceMethod().getName() 
+                + " " + uriInfo.getPath(false) + "?" + query.toKey() + "@" + userScope;
+        CachedResponse cachedResponse = responseCache.get(descriptor.getTargetClass(), key);
+        
+        if (cachedResponse != null) {
+            requestContext.abortWith(cachedResponse.toResponse(requestContext.getHeaderString(HttpHeaders.IF_NONE_MATCH)));
+            return true;
+        }
+        
+        // The generation is read before the query, see ResponseCache
+        requestContext.setProperty(RESPONSE_CACHE_GENERATION, responseCache.getGeneration(descriptor.getTargetClass()));
+        requestContext.setProperty(RESPONSE_CACHE_KEY, key);
+        return false;
+    }
+    
+    /**
+     * Identity of the logged user, the responses of a user are never used on the requests of 
+     * another user.
+     * 
+     * @return Identity, an empty String for anonymous requests or null when the request has 
+     * credentials that aren't known by {@link SecurityContext} (the response isn't kept)
+     */
+    private String getUserScope(ContainerRequestContext requestContext) {
+        if (securityContext != null && !securityContext.isUnsatisfied() && !securityContext.isAmbiguous()) {
+            SecurityContext context = securityContext.get();
+            
+            if (context.isLoggedIn()) {
+                return String.valueOf(context.getUser().getIdentity());
+            }
+        }
+        
+        return requestContext.getHeaderString(HttpHeaders.AUTHORIZATION) == null ? "" : null;
+    }
+    
+    /**
+     * Keep the response on {@link ResponseCache}, the body is written to JSON once and the 
+     * response carries the 'ETag' HTTP header. A request with the same tag on 'If-None-Match' 
+     * HTTP header receives a 304 (Not Modified) response.
+     */
+    private void keepResponse(ContainerRequestContext req, ContainerResponseContext response) throws IOException {
+        int status = response.getStatus();
+        Object entity = response.getEntity();
+        
+        if ((status != Status.OK.getStatusCode() && status != Status.PARTIAL_CONTENT.getStatusCode()) 
+                || entity == null || entity instanceof StreamingOutput) {
+            return;
+        }
+        
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (String name : CACHED_HEADERS) {
+            String value = response.getHeaderString(name);
+            if (value != null) {
+                headers.put(name, value);
+            }
+        }
+        
+        byte[] body = getObjectMapper().writeValueAsBytes(entity);
+        CachedResponse cachedResponse = responseCache.put(ResourceMethodDescriptor.of(resourceInfo).getTargetClass(), 
+                (String) req.getProperty(RESPONSE_CACHE_KEY), (Long) req.getProperty(RESPONSE_CACHE_GENERATION), status, headers, body);
+        
+        response.getHeaders().putSingle(HttpHeaders.ETAG, cachedResponse.getEntityTag());
+        
+        if (cachedResponse.matches(req.getHeaderString(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(Status.NOT_MODIFIED.getStatusCode());
+            response.setEntity(null);
+        }
+        else {
+            response.setEntity(body, response.getEntityAnnotations(), MediaType.APPLICATION_JSON_TYPE);
+        }
+    }
+    
+    /**
+     * Remove the responses of the entity of a resource after a change (e.g. POST, PUT, DELETE) 
+     * made by it. {@link AbstractDAO} removes them on the change too, but a response built by 
+     * another request before the commit of the transaction could be kept.
+     */
+    private void invalidateCachedResponses() {
+        if (resourceInfo.getResourceMethod() != null && CrudUtilHelper.isCrudResource(resourceInfo.getResourceClass())) {
+            Class<?> targetClass = ResourceMethodDescriptor.of(resourceInfo).getTargetClass();
+            
+            if (targetClass != null) {
+                responseCache.invalidate(targetClass);
+            }
+        }
     }
 
     /**
@@ -152,12 +319,7 @@ public class CrudFilter implements ContainerResponseFilter, ContainerRequestFilt
      * @return is a request for crud or not
      */
     private Boolean isRequestForCrud() {
-        if (AbstractREST.class.isAssignableFrom(resourceInfo.getResourceClass())
-                && resourceInfo.getResourceMethod().isAnnotationPresent(GET.class)) {
-            return Boolean.TRUE;
-        }
-
-        return Boolean.FALSE;
+        return ResourceMethodDescriptor.of(resourceInfo).isRequestForCrud();
     }
 
     /**
@@ -166,118 +328,76 @@ public class CrudFilter implements ContainerResponseFilter, ContainerRequestFilt
      * If the request used the {@link FieldHelper} feature or used the {@link Search} annotation the 
      * result from database will be parsed to a Map to filter theses fields.
      * 
+     * If the result is a {@link StreamingResultSet} the body will be a {@link StreamingOutput} that
+     * writes each row while it is read from database.
+     * 
      * @param response
      * @return result
      */
     private Object buildContentBody(ContainerResponseContext response) {
-
-        @SuppressWarnings("unchecked")
-        List<Object> content = (List<Object>) ((Result) response.getEntity()).getContent();
         
         TreeNodeField<String, Set<String>> fields = getFields();
+        Class<?> targetClass = ResourceMethodDescriptor.of(resourceInfo).getTargetClass();
+        FieldProjector projector = fields == null ? null : FieldProjector.of(targetClass, fields);
         
-        if(fields != null){
-            content = new LinkedList<>();
-            Class<?> targetClass = CrudUtilHelper.getTargetClass(resourceInfo.getResourceClass());
-            Iterator<?> it = ((Result) response.getEntity()).getContent().iterator();
+        if (response.getEntity() instanceof StreamingResultSet) {
+            StreamingResultSet result = (StreamingResultSet) response.getEntity();
+            ObjectMapper mapper = getObjectMapper();
+            ObjectWriter writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
             
-            while(it.hasNext()){
-                Object object = it.next();
-                Map<String, Object> keyValue = new LinkedHashMap<>();
-                
-                fields.getChildren().stream().forEach((leaf) -> {
-                    
-                    // 1st level
-                    if(leaf.getChildren().isEmpty()){
-                        Set<String> searchFields = fields.getChildren()
-                                .stream()
-                                .filter( (child) -> child.getChildren().isEmpty())
-                                .map( (child) -> child.getKey())
-                                .collect(Collectors.toSet());
-                                
-                        Arrays.asList(object.getClass().getDeclaredFields())
-                                .stream()
-                                .filter( (f) -> searchFields.contains(f.getName()))
-                                .forEach( (field) -> {
-                                    try{
-                                        keyValue.put(field.getName(), getValueFromObjectField(targetClass, field, object));
-                                    } 
-                                    catch (IllegalArgumentException | IllegalAccessException | NoSuchFieldException | SecurityException e) {
-                                        logger.log(Level.SEVERE, e.getMessage(), e);
-                                    }
-                                });
-                        
-                    }
-                    else{
-                        //2nd level
-                        Map<String, Object> keyValueSecond = new LinkedHashMap<>();
-                        
-                        leaf.getChildren().stream().forEach( (child) -> {
-                            
-                            try{
-                                Field field = targetClass.getDeclaredField(leaf.getKey()); 
-                                Class<?> fieldClazz = field.getType();
-                                
-                                
-                                Field secondField = fieldClazz.getDeclaredField(child.getKey());
-                                  
-                                boolean acessible = field.isAccessible();
-                                boolean acessibleSecond = secondField.isAccessible();
-                                  
-                                field.setAccessible(true);  
-                                secondField.setAccessible(true);
-                                Object secondObject = (Object) field.get(object);
-                                if (secondObject != null) {
-                                    keyValueSecond.put(secondField.getName(), secondField.get(secondObject));
-                                }
-                                  
-                                secondField.setAccessible(acessibleSecond);
-                                field.setAccessible(acessible);
-                            }
-                            catch (IllegalArgumentException | IllegalAccessException | NoSuchFieldException | SecurityException e) {
-                                logger.log(Level.SEVERE, e.getMessage(), e);
-                            }
-                            
-                        });
-                        
-                        keyValue.put(leaf.getKey(), keyValueSecond);
+            return (StreamingOutput) (output) -> {
+                try (JsonGenerator generator = mapper.getFactory().createGenerator(output)) {
+                    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                    generator.writeStartArray();
+                    for (Object object : result) {
+                        // The fields are written straight to the generator
+                        if (projector == null || object instanceof Map) {
+                            writer.writeValue(generator, object);
+                        } else {
+                            projector.write(generator, writer, object);
+                        }
                     }
-                    
-                });
-                
-                content.add(keyValue);
-            }
+                    generator.writeEndArray();
+                }
+            };
+        }
 
+        @SuppressWarnings("unchecked")
+        List<Object> content = (List<Object>) ((Result) response.getEntity()).getContent();
+        
+        if(projector != null){
+            List<Object> projectedContent = new ArrayList<>(content.size());
+            
+            for (Object object : content) {
+                // Already built by the projection query of AbstractDAO
+                projectedContent.add(object instanceof Map ? object : projector.toMap(object));
+            }
+            
+            content = projectedContent;
         }
         return content;
         
     }
     
     /**
-     * Invoke the field to get the value from the object
-     * 
-     * @param targetClass Class that represent the object
-     * @param field Field that will be invoked
-     * @param object The actual object that has the value
-     * 
-     * @return Value from field 
+     * Retrieve the ObjectMapper configured on the application (by a {@link ContextResolver}), 
+     * so the streaming result is written like the other results.
      * 
-     * @throws NoSuchFieldException
-     * @throws SecurityException
-     * @throws IllegalArgumentException
-     * @throws IllegalAccessException
+     * @return ObjectMapper
      */
-    private Object getValueFromObjectField(Class<?> targetClass, Field field, Object object) throws NoSuchFieldException, SecurityException, IllegalArgumentException, IllegalAccessException{
-        Object result = null;
-        Field actualField = targetClass.getDeclaredField(field.getName());
-        boolean acessible = actualField.isAccessible();
-        actualField.setAccessible(true);
-        result = actualField.get(object);
-        actualField.setAccessible(acessible);
+    private ObjectMapper getObjectMapper() {
+        if (providers != null) {
+            ContextResolver<ObjectMapper> resolver = providers.getContextResolver(ObjectMapper.class, MediaType.APPLICATION_JSON_TYPE);
+            ObjectMapper mapper = resolver == null ? null : resolver.getContext(ObjectMapper.class);
+            
+            if (mapper != null) {
+                return mapper;
+            }
+        }
         
-        return result;
+        return DEFAULT_MAPPER;
     }
-
+    
     /**
      * Retrieve the fields used to build the content.
      * 
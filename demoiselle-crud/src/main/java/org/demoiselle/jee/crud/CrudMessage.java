@@ -27,4 +27,9 @@ public interface CrudMessage {
     @MessageTemplate("{field-request-does-not-exists-on-object}")
     String fieldRequestDoesNotExistsOnObject(String field, String className);
 
+    @MessageTemplate("{filter-value-invalid}")
+    String filterValueInvalid(String value, String field);
+
+    @MessageTemplate("{async-request-rejected}")
+    String asyncRequestRejected(String resource);
 }
@@ -0,0 +1,206 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.ws.rs.core.MultivaluedMap;
+
+/**
+ * Query string of a CRUD request split by feature, built by {@link CrudFilter} in a single pass
+ * over the query parameters and shared by the helpers (pagination, sort, filter, fields,
+ * aggregation and search).
+ *
+ * The values are kept as received, each helper splits them with
+ * {@link CrudUtilHelper#extractFields(String)}, so the errors keep the messages of each feature.
+ *
+ * @author SERPRO
+ */
+public class CrudQuery {
+
+    private List<String> range;
+    private List<String> cursor;
+    private List<String> sort;
+    private List<String> desc;
+    private List<String> fields;
+    private List<String> groupBy;
+    private List<String> aggregate;
+
+    private List<String> searchText;
+    private final Map<String, List<String>> filters = new LinkedHashMap<>();
+
+    private CrudQuery() {
+    }
+
+    /**
+     * Split the query parameters by feature, the keys 'sort', 'desc', 'fields', 'groupBy',
+     * 'aggregate' and 'q' ignore case
+     * and the keys that aren't reserved (see {@link ReservedKeyWords}) are filters.
+     *
+     * @param queryParameters Query parameters of the request
+     *
+     * @return CrudQuery
+     */
+    public static CrudQuery parse(MultivaluedMap<String, String> queryParameters) {
+        CrudQuery query = new CrudQuery();
+
+        for (Map.Entry<String, List<String>> entry : queryParameters.entrySet()) {
+            String key = entry.getKey();
+            List<String> values = entry.getValue() == null ? Collections.emptyList() : entry.getValue();
+
+            if (ReservedKeyWords.DEFAULT_RANGE_KEY.getKey().equals(key)) {
+                query.range = values;
+            } else if (ReservedKeyWords.DEFAULT_CURSOR_KEY.getKey().equals(key)) {
+                query.cursor = values;
+            } else if (ReservedKeyWords.DEFAULT_SORT_KEY.getKey().equalsIgnoreCase(key)) {
+                // The first 'sort' key is used
+                query.sort = query.sort == null ? values : query.sort;
+            } else if (ReservedKeyWords.DEFAULT_SORT_DESC_KEY.getKey().equalsIgnoreCase(key)) {
+                query.desc = query.desc == null ? values : query.desc;
+            } else if (ReservedKeyWords.DEFAULT_FIELD_KEY.getKey().equalsIgnoreCase(key)) {
+                if (query.fields == null) {
+                    query.fields = new ArrayList<>(values);
+                } else {
+                    query.fields.addAll(values);
+                }
+            } else if (ReservedKeyWords.DEFAULT_GROUP_BY_KEY.getKey().equalsIgnoreCase(key)) {
+                query.groupBy = query.groupBy == null ? values : query.groupBy;
+            } else if (ReservedKeyWords.DEFAULT_AGGREGATE_KEY.getKey().equalsIgnoreCase(key)) {
+                query.aggregate = query.aggregate == null ? values : query.aggregate;
+            } else if (ReservedKeyWords.DEFAULT_SEARCH_KEY.getKey().equalsIgnoreCase(key)) {
+                query.searchText = query.searchText == null ? values : query.searchText;
+            } else if (!ReservedKeyWords.DEFAULT_RANGE_KEY.getKey().equalsIgnoreCase(key)
+                    && !ReservedKeyWords.DEFAULT_CURSOR_KEY.getKey().equalsIgnoreCase(key)) {
+                query.filters.put(key, values);
+            }
+        }
+
+        return query;
+    }
+
+    /**
+     * @return Values of 'range' parameter or null when the request doesn't have it
+     */
+    public List<String> getRange() {
+        return range;
+    }
+
+    /**
+     * @return Values of 'cursor' parameter or null when the request doesn't have it
+     */
+    public List<String> getCursor() {
+        return cursor;
+    }
+
+    /**
+     * @return Values of 'sort' parameter or null when the request doesn't have it
+     */
+    public List<String> getSort() {
+        return sort;
+    }
+
+    /**
+     * @return Values of 'desc' parameter or null when the request doesn't have it
+     */
+    public List<String> getDesc() {
+        return desc;
+    }
+
+    /**
+     * @return Values of all 'fields' parameters or an empty list when the request doesn't have it
+     */
+    public List<String> getFields() {
+        return fields == null ? Collections.emptyList() : fields;
+    }
+
+    /**
+     * @return Values of 'groupBy' parameter or null when the request doesn't have it
+     */
+    public List<String> getGroupBy() {
+        return groupBy;
+    }
+
+    /**
+     * @return Values of 'aggregate' parameter or null when the request doesn't have it
+     */
+    public List<String> getAggregate() {
+        return aggregate;
+    }
+
+    /**
+     * @return Values of 'q' parameter or null when the request doesn't have it
+     */
+    public List<String> getSearchText() {
+        return searchText;
+    }
+
+    /**
+     * @return true when the request has 'groupBy' or 'aggregate' parameter
+     */
+    public boolean isAggregation() {
+        return groupBy != null || aggregate != null;
+    }
+
+    /**
+     * @return Values of the parameters that aren't reserved, by parameter
+     */
+    public Map<String, List<String>> getFilters() {
+        return filters;
+    }
+
+    /**
+     * Build a key that represents the query, used by {@link org.demoiselle.jee.crud.cache.ResponseCache}.
+     * 
+     * The filters are sorted by parameter, so the same query written in other order has the same
+     * key, and the values are encoded, so different queries never have the same key.
+     *
+     * @return Key of the query
+     */
+    public String toKey() {
+        StringBuilder key = new StringBuilder();
+        appendKey(key, ReservedKeyWords.DEFAULT_RANGE_KEY.getKey(), range);
+        appendKey(key, ReservedKeyWords.DEFAULT_CURSOR_KEY.getKey(), cursor);
+        appendKey(key, ReservedKeyWords.DEFAULT_SORT_KEY.getKey(), sort);
+        appendKey(key, ReservedKeyWords.DEFAULT_SORT_DESC_KEY.getKey(), desc);
+        appendKey(key, ReservedKeyWords.DEFAULT_FIELD_KEY.getKey(), fields);
+        appendKey(key, ReservedKeyWords.DEFAULT_GROUP_BY_KEY.getKey(), groupBy);
+        appendKey(key, ReservedKeyWords.DEFAULT_AGGREGATE_KEY.getKey(), aggregate);
+        appendKey(key, ReservedKeyWords.DEFAULT_SEARCH_KEY.getKey(), searchText);
+        new TreeMap<>(filters).forEach((k, v) -> appendKey(key, encode(k), v));
+        return key.toString();
+    }
+
+    private static void appendKey(StringBuilder key, String name, List<String> values) {
+        if (values != null) {
+            key.append('&').append(name).append('=');
+
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    key.append(',');
+                }
+                key.append(encode(values.get(i)));
+            }
+        }
+    }
+
+    private static String encode(String value) {
+        try {
+            return value == null ? "" : URLEncoder.encode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            // UTF-8 is required on every Java platform
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
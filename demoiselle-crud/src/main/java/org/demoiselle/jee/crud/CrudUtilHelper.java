@@ -6,19 +6,18 @@
  */
 package org.demoiselle.jee.crud;
 
-import java.lang.reflect.Field;
 import java.lang.reflect.ParameterizedType;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import javax.persistence.Id;
+import java.util.stream.Collectors;
 
 import javax.ws.rs.container.ResourceInfo;
 
+import org.demoiselle.jee.crud.metadata.AttributeMetadata;
+import org.demoiselle.jee.crud.metadata.EntityMetadata;
+
 /**
  * Class used to support CRUD feature.
  *
@@ -27,7 +26,17 @@ import javax.ws.rs.container.ResourceInfo;
 public class CrudUtilHelper {
 
     /**
-     * Given a Class that extends {@link AbstractREST} this method will return
+     * @param resourceClass Resource class
+     *
+     * @return true when the resource extends {@link AbstractREST} or {@link AbstractAsyncREST}
+     */
+    public static boolean isCrudResource(Class<?> resourceClass) {
+        return resourceClass != null
+                && (AbstractREST.class.isAssignableFrom(resourceClass) || AbstractAsyncREST.class.isAssignableFrom(resourceClass));
+    }
+
+    /**
+     * Given a Class that extends {@link AbstractREST} (or {@link AbstractAsyncREST}) this method will return
      * the target Class used on {@literal AbstractREST<TargetClass, I>}
      *
      * @param targetClass Target class
@@ -35,7 +44,7 @@ public class CrudUtilHelper {
      * @return Class used on {@literal AbstractREST<TargetClass, I>}
      */
     public static Class<?> getTargetClass(Class<?> targetClass) {
-        if (AbstractREST.class.isAssignableFrom(targetClass)) {
+        if (isCrudResource(targetClass)) {
             Class<?> type = (Class<?>) ((ParameterizedType) targetClass.getGenericSuperclass()).getActualTypeArguments()[0];
             return type;
         }
@@ -52,16 +61,7 @@ public class CrudUtilHelper {
      * 'targetClass'
      */
     public static void checkIfExistField(Class<?> targetClass, String field) {
-        if (targetClass != null) {
-            do {
-                Field[] fields = targetClass.getDeclaredFields();
-                for (Field f : fields) {
-                    if (f.getName().equalsIgnoreCase(field)) {
-                        return;
-                    }
-                }
-                targetClass = targetClass.getSuperclass();
-            } while (targetClass != null);
+        if (targetClass != null && EntityMetadata.of(targetClass).getAttributeIgnoreCase(field) == null) {
             throw new IllegalArgumentException();
         }
     }
@@ -75,75 +75,37 @@ public class CrudUtilHelper {
      * @return List Parsed values
      */
     public static List<String> extractFields(String fields) {
-        List<String> results = new LinkedList<>();
-
-        int qtyOpenParentheses = 0;
-        int qtyCloseParentheses = 0;
-
-        int lastComma = 0;
-        int lastPosition = 0;
-        String subField = "";
-
-        char fieldsArray[] = fields.toCharArray();
-
-        for (int i = 0; i < fieldsArray.length; i++) {
-
-            char letter = fieldsArray[i];
-
-            // Find util the next ',' character
-            if (letter == ',') {
-                lastComma = i;
-
-                subField = fields.substring(lastPosition, lastComma);
-
-                // If the subset doesn't exists open parentheses add the field
-                if (!subField.contains("(")) {
-                    results.add(subField);
-                    lastPosition = lastComma + 1;
+        List<String> results = new ArrayList<>();
+
+        int depth = 0;
+        int start = 0;
+        boolean commaInsideParentheses = false;
+
+        // Single pass: a ',' splits the fields only outside of parentheses
+        for (int i = 0; i < fields.length(); i++) {
+            char letter = fields.charAt(i);
+
+            if (letter == '(') {
+                depth++;
+            } else if (letter == ')') {
+                depth = depth > 0 ? depth - 1 : 0;
+            } else if (letter == ',') {
+                if (depth == 0) {
+                    results.add(fields.substring(start, i));
+                    start = i + 1;
                 } else {
-                    qtyCloseParentheses = 0;
-                    qtyOpenParentheses = 0;
-                    Boolean closeAllParentheses = Boolean.FALSE;
-
-                    // Find the close parentheses
-                    for (int j = lastPosition; j < fieldsArray.length; j++) {
-                        char subLetter = fieldsArray[j];
-
-                        if (subLetter == '(') {
-                            qtyOpenParentheses++;
-                        }
-
-                        if (subLetter == ')') {
-                            qtyCloseParentheses++;
-                        }
-
-                        if (qtyCloseParentheses > 0 && qtyOpenParentheses > 0
-                                && qtyCloseParentheses == qtyOpenParentheses) {
-
-                            subField = fields.substring(lastPosition, ++j);
-                            results.add(subField);
-                            closeAllParentheses = Boolean.TRUE;
-
-                            lastPosition = j + 1;
-                            i = j + 1;
-
-                            break;
-                        }
-
-                    }
-
-                    if (closeAllParentheses == Boolean.FALSE) {
-                        throw new IllegalArgumentException();
-                    }
-
+                    commaInsideParentheses = true;
                 }
             }
+        }
 
+        // A field with subfields that doesn't close its parentheses
+        if (depth > 0 && commaInsideParentheses) {
+            throw new IllegalArgumentException();
         }
 
-        if (lastPosition < fieldsArray.length) {
-            subField = fields.substring(lastPosition, fieldsArray.length);
-            results.add(subField);
+        if (start < fields.length()) {
+            results.add(fields.substring(start));
         }
 
         return results;
@@ -151,22 +113,29 @@ public class CrudUtilHelper {
     
     /**
      * 
-     * Extract fields from {@link Search} annotation to fill the {@link TreeNodeField} object
+     * Extract fields from {@link Search} annotation to fill the {@link TreeNodeField} object.
+     * 
+     * The annotation is parsed once by resource method (see {@link ResourceMethodDescriptor}), the 
+     * tree is {@link TreeNodeField#freeze() frozen} and shared by all requests.
      * 
      * @param resourceInfo ResourceInfo
      * @return TreeNodeField filled with fields
      */
     public static TreeNodeField<String, Set<String>> extractFieldsFromSearchAnnotation(ResourceInfo resourceInfo) {
+        return ResourceMethodDescriptor.of(resourceInfo).getSearchFields();
+    }
+
+    static TreeNodeField<String, Set<String>> parseSearchAnnotation(ResourceMethodDescriptor descriptor) {
         List<String> fieldsFromAnnotation = new ArrayList<>();
         
-        if (resourceInfo.getResourceMethod().isAnnotationPresent(Search.class)) {
-            String fieldsAnnotation[] = resourceInfo.getResourceMethod().getAnnotation(Search.class).fields();
+        if (descriptor.hasSearch() && descriptor.getTargetClass() != null) {
+            String fieldsAnnotation[] = descriptor.getSearch().fields();
 
-            if (fieldsAnnotation != null && !fieldsAnnotation[0].equals("*")) {
+            if (fieldsAnnotation != null && fieldsAnnotation.length > 0 && !fieldsAnnotation[0].equals("*")) {
 
                 fieldsFromAnnotation.addAll(Arrays.asList(fieldsAnnotation));
                 if (!fieldsFromAnnotation.isEmpty()) {
-                    final TreeNodeField<String, Set<String>> searchFieldsTnf = new TreeNodeField<>(CrudUtilHelper.getTargetClass(resourceInfo.getResourceClass()).getName(), null);
+                    final TreeNodeField<String, Set<String>> searchFieldsTnf = new TreeNodeField<>(descriptor.getTargetClass().getName(), null);
                     // Transform fields from annotation into TreeNodeField                
                     fieldsFromAnnotation.stream().forEach(searchField -> {
                         fillLeafTreeNodeField(searchFieldsTnf, searchField, null);
@@ -214,10 +183,16 @@ public class CrudUtilHelper {
     }
 
     private static TreeNodeField<String, Set<String>> getTreeNodeField(String masterField, TreeNodeField<String, Set<String>> tnf) {
-        TreeNodeField<String, Set<String>> tnfFinded = tnf.getChildren().stream()
-                .filter(child -> child.getKey().equalsIgnoreCase(masterField))
-                .findAny()
-                .orElse(null);
+        TreeNodeField<String, Set<String>> tnfFinded = tnf.getChildByKey(masterField);
+
+        if (tnfFinded == null) {
+            for (TreeNodeField<String, Set<String>> child : tnf.getChildren()) {
+                if (child.getKey().equalsIgnoreCase(masterField)) {
+                    tnfFinded = child;
+                    break;
+                }
+            }
+        }
 
         return tnfFinded == null ? tnf.addChild(masterField, null) : tnfFinded;
     }
@@ -232,55 +207,42 @@ public class CrudUtilHelper {
      */
     public static void validateFields(TreeNodeField<String, Set<String>> tnf, ResourceInfo resourceInfo, CrudMessage crudMessage) {
 
+        final ResourceMethodDescriptor descriptor = ResourceMethodDescriptor.of(resourceInfo);
+        final Class<?> targetClass = descriptor.getTargetClass();
+
         // Get fields from @Search.fields attribute
-        final TreeNodeField<String, Set<String>> searchFieldsTnf = extractFieldsFromSearchAnnotation(resourceInfo);
+        final TreeNodeField<String, Set<String>> searchFieldsTnf = descriptor.getSearchFields();
 
         //Validate fields
         tnf.getChildren().stream().forEach(leaf -> {
 
             if (searchFieldsTnf != null && !searchFieldsTnf.getChildren().isEmpty()) {
 
-                try {
-                    // 1st level
-                    if (!searchFieldsTnf.containsKey(leaf.getKey())) {
-                        throw new IllegalArgumentException(crudMessage.fieldRequestDoesNotExistsOnSearchField(leaf.getKey()));
-                    }
-
-                    if (!leaf.getChildren().isEmpty()) {
-                        leaf.getChildren().stream().forEach(leafItem -> {
+                // 1st level
+                TreeNodeField<String, Set<String>> searchField = searchFieldsTnf.getChildByKey(leaf.getKey());
 
-                            /*
-                             * Given a @Search(fields={field1,field2}) and a request like a 'fields=field1,field2(subField1)' 
-                             * the request is valid because the @Search.fields specified the root type (field2)
-                             *
-                             */
-                            if (!searchFieldsTnf.getChildByKey(leafItem.getParent().getKey()).getChildren().isEmpty()) {
-
-                                searchFieldsTnf.getChildByKey(leafItem.getParent().getKey()).getChildren().stream().forEach(sfTnf -> {
-                                    if (!sfTnf.getParent().containsKey(leafItem.getKey())) {
-                                        throw new IllegalArgumentException(crudMessage.fieldRequestDoesNotExistsOnSearchField(leafItem.getParent().getKey() + "(" + leafItem.getKey() + ")"));
-                                    }
-                                });
+                if (searchField == null) {
+                    throw new IllegalArgumentException(crudMessage.fieldRequestDoesNotExistsOnSearchField(leaf.getKey()));
+                }
 
-                            }
-                        });
-                    }
-                    
-                } 
-                catch (IllegalArgumentException e) {
-                    throw e;
+                /*
+                 * Given a @Search(fields={field1,field2}) and a request like a 'fields=field1,field2(subField1)' 
+                 * the request is valid because the @Search.fields specified the root type (field2)
+                 *
+                 */
+                if (!searchField.getChildren().isEmpty()) {
+                    leaf.getChildren().forEach(leafItem -> {
+                        if (!searchField.containsKey(leafItem.getKey())) {
+                            throw new IllegalArgumentException(crudMessage.fieldRequestDoesNotExistsOnSearchField(leaf.getKey() + "(" + leafItem.getKey() + ")"));
+                        }
+                    });
                 }
             }
 
-            Class<?> targetClass = getTargetClass(resourceInfo.getResourceClass());
-
             if (!leaf.getChildren().isEmpty()) {
-                Field fieldMaster;
+                AttributeMetadata fieldMaster = EntityMetadata.of(targetClass).getAttribute(leaf.getKey());
 
-                try {
-                    fieldMaster = targetClass.getDeclaredField(leaf.getKey());
-                } 
-                catch (SecurityException | NoSuchFieldException e) {
+                if (fieldMaster == null) {
                     throw new IllegalArgumentException(crudMessage.fieldRequestDoesNotExistsOnObject(leaf.getKey(), targetClass.getName()));
                 }
 
@@ -297,32 +259,51 @@ public class CrudUtilHelper {
             } 
             else {
                 try {
-                    CrudUtilHelper.checkIfExistField(getTargetClass(resourceInfo.getResourceClass()), leaf.getKey());
+                    CrudUtilHelper.checkIfExistField(targetClass, leaf.getKey());
                 } 
                 catch (IllegalArgumentException e) {
-                    throw new IllegalArgumentException(crudMessage.fieldRequestDoesNotExistsOnObject(leaf.getKey(), getTargetClass(resourceInfo.getResourceClass()).getName()));
+                    throw new IllegalArgumentException(crudMessage.fieldRequestDoesNotExistsOnObject(leaf.getKey(), targetClass.getName()));
                 }
             }
         });
 
     }
 
-    private static Boolean hasSubField(String field) {
-        Pattern patternLevels = Pattern.compile("\\([^)]*\\)*");
-        Matcher matcher = patternLevels.matcher(field);
+    /**
+     * Build a signature of the {@link TreeNodeField} object that doesn't depend on the order of
+     * keys and values, so the same filters produce the same signature.
+     * 
+     * Ex: The filters 'name=John,Mary&amp;address(street)=Main' produce the signature 
+     * 'address(street=[Main]);name=[John,Mary]'
+     *
+     * @param tnf TreeNodeField filled
+     * 
+     * @return Signature or empty string when the tnf is null
+     */
+    public static String buildSignature(TreeNodeField<String, Set<String>> tnf) {
+        if (tnf == null) {
+            return "";
+        }
+        
+        return tnf.getChildren().stream()
+                .map(child -> {
+                    if (!child.getChildren().isEmpty()) {
+                        return child.getKey() + "(" + buildSignature(child) + ")";
+                    }
+                    
+                    return child.getKey() + "=" + (child.getValue() == null ? "[]" 
+                            : child.getValue().stream().map(String::valueOf).sorted().collect(Collectors.toList()).toString());
+                })
+                .sorted()
+                .collect(Collectors.joining(";"));
+    }
 
-        return matcher.find();
+    private static Boolean hasSubField(String field) {
+        return field.indexOf('(') >= 0;
     }
 
-    public static String getMethodAnnotatedWithID(Class<?> targetClass) {    	
-    	String name = null;
-    	for (Field field :  targetClass.getDeclaredFields() ) {
-            if (field.isAnnotationPresent(Id.class)) {
-            	name = field.getName();
-            	break;
-            }
-    	}       
-        return name;
+    public static String getMethodAnnotatedWithID(Class<?> targetClass) {
+        return EntityMetadata.of(targetClass).getIdAttributeName();
     }
 
     
@@ -0,0 +1,122 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud;
+
+import org.demoiselle.jee.configuration.annotation.Configuration;
+
+/**
+ * Configurations of CRUD module.
+ * 
+ * @author SERPRO
+ */
+@Configuration(prefix = "demoiselle.crud")
+public class DemoiselleCrudConfig {
+
+    private Integer batchSize = new Integer(50);
+
+    private Long responseCacheTimeToLiveMilliseconds = new Long(60000);
+
+    private Integer responseCacheMaxSize = new Integer(1000);
+
+    private Integer asyncMaxConcurrentRequests = new Integer(20);
+
+    private Long asyncTimeoutMilliseconds = new Long(0);
+
+    private Integer inListChunkSize = new Integer(512);
+
+    private Integer searchMaxResults = new Integer(1000);
+
+    private Long searchIndexTimeToLiveMilliseconds = new Long(0);
+
+    /**
+     * Quantity of entities sent to database before the EntityManager be flushed and cleared on 
+     * batch operations (e.g. {@link AbstractDAO#persistBatch(java.util.List)}). Use the same value 
+     * on the JDBC batch size of the persistence provider (e.g. 'hibernate.jdbc.batch_size' with
+     * 'hibernate.order_inserts' and 'hibernate.order_updates' on the persistence.xml), without it
+     * the statements are still sent one by one.
+     * 
+     * @return Batch size
+     */
+    public Integer getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Time that a response of a resource annotated with 
+     * {@link org.demoiselle.jee.crud.cache.CacheResponse} is kept on 
+     * {@link org.demoiselle.jee.crud.cache.ResponseCache}.
+     * 
+     * @return Time to live in milliseconds
+     */
+    public Long getResponseCacheTimeToLiveMilliseconds() {
+        return responseCacheTimeToLiveMilliseconds;
+    }
+
+    /**
+     * Quantity of responses kept by entity on {@link org.demoiselle.jee.crud.cache.ResponseCache}.
+     * 
+     * @return Max size
+     */
+    public Integer getResponseCacheMaxSize() {
+        return responseCacheMaxSize;
+    }
+
+    /**
+     * Quantity of requests of the same resource (subclass of {@link AbstractAsyncREST}) running at 
+     * the same time, the next requests are answered with 503 (Service Unavailable) until one of 
+     * them is finished.
+     * 
+     * @return Max concurrent requests by resource
+     */
+    public Integer getAsyncMaxConcurrentRequests() {
+        return asyncMaxConcurrentRequests;
+    }
+
+    /**
+     * Time that a request of {@link AbstractAsyncREST} waits for the operation before it is 
+     * answered with 503 (Service Unavailable), zero waits until the operation is finished.
+     * 
+     * @return Timeout in milliseconds
+     */
+    public Long getAsyncTimeoutMilliseconds() {
+        return asyncTimeoutMilliseconds;
+    }
+
+    /**
+     * Max quantity of values of each IN predicate built from the values of a filter (e.g. 
+     * 'id=1,2,3'), larger lists are split into IN predicates joined by OR. Keep it below the 
+     * limit of the database (e.g. 1000 on Oracle).
+     * 
+     * @return Chunk size
+     */
+    public Integer getInListChunkSize() {
+        return inListChunkSize;
+    }
+
+    /**
+     * Max quantity of entities found by the full-text search ('q' parameter), a search that 
+     * finds more entities is answered with 400 (Bad Request), the identifiers are sent to the 
+     * database on an IN predicate.
+     * 
+     * @return Max results
+     */
+    public Integer getSearchMaxResults() {
+        return searchMaxResults;
+    }
+
+    /**
+     * Time that the index of the full-text search of an entity is kept on 
+     * {@link org.demoiselle.jee.crud.search.SearchIndex} before it is loaded again from the 
+     * database, zero keeps it while the application runs.
+     * 
+     * @return Time to live in milliseconds
+     */
+    public Long getSearchIndexTimeToLiveMilliseconds() {
+        return searchIndexTimeToLiveMilliseconds;
+    }
+
+}
@@ -9,6 +9,9 @@ package org.demoiselle.jee.crud;
 import java.util.List;
 import java.util.Set;
 
+import org.demoiselle.jee.crud.aggregation.Aggregation;
+import org.demoiselle.jee.crud.pagination.CountStrategy;
+import org.demoiselle.jee.crud.pagination.PaginationType;
 import org.demoiselle.jee.crud.sort.SortModel;
 
 /**
@@ -42,4 +45,31 @@ public interface DemoiselleRequestContext {
     Boolean isPaginationEnabled();
     void setPaginationEnabled(Boolean isPaginationEnabled);
     
+    PaginationType getPaginationType();
+    void setPaginationType(PaginationType paginationType);
+    
+    String getCursor();
+    void setCursor(String cursor);
+    
+    String getNextCursor();
+    void setNextCursor(String nextCursor);
+    
+    CountStrategy getCountStrategy();
+    void setCountStrategy(CountStrategy countStrategy);
+    
+    Boolean isNextPageAvailable();
+    void setNextPageAvailable(Boolean isNextPageAvailable);
+    
+    Boolean isProjectionEnabled();
+    void setProjectionEnabled(Boolean isProjectionEnabled);
+    
+    Boolean isStreamingEnabled();
+    void setStreamingEnabled(Boolean isStreamingEnabled);
+    
+    Aggregation getAggregation();
+    void setAggregation(Aggregation aggregation);
+    
+    String getSearchText();
+    void setSearchText(String searchText);
+    
 }
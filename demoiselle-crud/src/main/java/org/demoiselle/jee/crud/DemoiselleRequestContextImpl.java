@@ -12,6 +12,9 @@ import java.util.Set;
 
 import javax.enterprise.context.RequestScoped;
 
+import org.demoiselle.jee.crud.aggregation.Aggregation;
+import org.demoiselle.jee.crud.pagination.CountStrategy;
+import org.demoiselle.jee.crud.pagination.PaginationType;
 import org.demoiselle.jee.crud.sort.SortModel;
 
 /**
@@ -30,6 +33,15 @@ public class DemoiselleRequestContextImpl implements DemoiselleRequestContext {
     private List<SortModel> sorts = new LinkedList<>();
     private TreeNodeField<String, Set<String>> fields = null;
     private Boolean isPaginationEnabled = Boolean.TRUE;
+    private PaginationType paginationType = PaginationType.OFFSET;
+    private String cursor = null;
+    private String nextCursor = null;
+    private CountStrategy countStrategy = CountStrategy.EXACT;
+    private Boolean isNextPageAvailable = null;
+    private Boolean isProjectionEnabled = Boolean.FALSE;
+    private Boolean isStreamingEnabled = Boolean.FALSE;
+    private Aggregation aggregation = null;
+    private String searchText = null;
 
     @Override
     public Integer getLimit() {
@@ -111,9 +123,99 @@ public class DemoiselleRequestContextImpl implements DemoiselleRequestContext {
         this.isPaginationEnabled = isPaginationEnabled;
     }
 
+    @Override
+    public PaginationType getPaginationType() {
+        return this.paginationType;
+    }
+
+    @Override
+    public void setPaginationType(PaginationType paginationType) {
+        this.paginationType = paginationType;
+    }
+
+    @Override
+    public String getCursor() {
+        return this.cursor;
+    }
+
+    @Override
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    @Override
+    public String getNextCursor() {
+        return this.nextCursor;
+    }
+
+    @Override
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    @Override
+    public CountStrategy getCountStrategy() {
+        return this.countStrategy;
+    }
+
+    @Override
+    public void setCountStrategy(CountStrategy countStrategy) {
+        this.countStrategy = countStrategy;
+    }
+
+    @Override
+    public Boolean isNextPageAvailable() {
+        return this.isNextPageAvailable;
+    }
+
+    @Override
+    public void setNextPageAvailable(Boolean isNextPageAvailable) {
+        this.isNextPageAvailable = isNextPageAvailable;
+    }
+
+    @Override
+    public Boolean isProjectionEnabled() {
+        return this.isProjectionEnabled;
+    }
+
+    @Override
+    public void setProjectionEnabled(Boolean isProjectionEnabled) {
+        this.isProjectionEnabled = isProjectionEnabled;
+    }
+
+    @Override
+    public Boolean isStreamingEnabled() {
+        return this.isStreamingEnabled;
+    }
+
+    @Override
+    public void setStreamingEnabled(Boolean isStreamingEnabled) {
+        this.isStreamingEnabled = isStreamingEnabled;
+    }
+
+    @Override
+    public Aggregation getAggregation() {
+        return this.aggregation;
+    }
+
+    @Override
+    public void setAggregation(Aggregation aggregation) {
+        this.aggregation = aggregation;
+    }
+
+    @Override
+    public String getSearchText() {
+        return this.searchText;
+    }
+
+    @Override
+    public void setSearchText(String searchText) {
+        this.searchText = searchText;
+    }
+
     @Override
     public String toString() {
-        return "DemoiselleRequestContextImpl [offset=" + offset + ", limit=" + limit + ", count=" + count + ", paginationEnabled=" + isPaginationEnabled + "]";
+        return "DemoiselleRequestContextImpl [offset=" + offset + ", limit=" + limit + ", count=" + count + ", paginationEnabled=" + isPaginationEnabled + ", paginationType=" + paginationType + ", cursor=" + cursor + ", countStrategy=" + countStrategy + ", projectionEnabled=" + isProjectionEnabled + ", streamingEnabled=" + isStreamingEnabled + ", aggregation=" + aggregation + ", searchText=" + searchText + "]";
     }
 
 }
@@ -16,13 +16,21 @@ public enum ReservedKeyWords {
     
     // Pagination
     DEFAULT_RANGE_KEY("range"),
+    DEFAULT_CURSOR_KEY("cursor"),
     
     // Sort
     DEFAULT_SORT_DESC_KEY("desc"),
     DEFAULT_SORT_KEY("sort"),
     
     // Fields
-    DEFAULT_FIELD_KEY("fields");
+    DEFAULT_FIELD_KEY("fields"),
+    
+    // Aggregation
+    DEFAULT_GROUP_BY_KEY("groupBy"),
+    DEFAULT_AGGREGATE_KEY("aggregate"),
+    
+    // Search
+    DEFAULT_SEARCH_KEY("q");
     
     private final String key;
 
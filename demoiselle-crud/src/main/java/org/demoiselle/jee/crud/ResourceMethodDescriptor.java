@@ -0,0 +1,184 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.container.ResourceInfo;
+
+import org.demoiselle.jee.crud.cache.CacheResponse;
+import org.demoiselle.jee.crud.pagination.CountStrategy;
+import org.demoiselle.jee.crud.pagination.PaginationType;
+
+/**
+ * Everything the CRUD feature needs to know about a resource method that doesn't depend on the
+ * request: the target entity, the {@link Search} annotation and the fields allowed by it.
+ *
+ * The descriptor is built once by resource method, on the first request, so {@link CrudFilter}
+ * and the helpers don't read annotations and generic types on every request.
+ *
+ * @author SERPRO
+ */
+public class ResourceMethodDescriptor {
+
+    private static final Map<Class<?>, Map<Method, ResourceMethodDescriptor>> REGISTRY = new ConcurrentHashMap<>();
+
+    private final Class<?> resourceClass;
+    private final Method resourceMethod;
+    private final Class<?> targetClass;
+    private final boolean requestForCrud;
+    private final Search search;
+    private final TreeNodeField<String, Set<String>> searchFields;
+    private final Set<String> sortFields;
+    private final boolean responseCached;
+
+    private ResourceMethodDescriptor(Class<?> resourceClass, Method resourceMethod) {
+        this.resourceClass = resourceClass;
+        this.resourceMethod = resourceMethod;
+        this.targetClass = CrudUtilHelper.getTargetClass(resourceClass);
+        this.requestForCrud = CrudUtilHelper.isCrudResource(resourceClass) && resourceMethod.isAnnotationPresent(GET.class);
+        this.search = resourceMethod.getAnnotation(Search.class);
+
+        TreeNodeField<String, Set<String>> fields = CrudUtilHelper.parseSearchAnnotation(this);
+        this.searchFields = fields == null ? null : fields.freeze();
+
+        if (search != null && search.fields().length > 0 && !"*".equals(search.fields()[0])) {
+            this.sortFields = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(search.fields())));
+        } else {
+            this.sortFields = null;
+        }
+
+        this.responseCached = requestForCrud && targetClass != null && !isStreaming()
+                && (resourceMethod.isAnnotationPresent(CacheResponse.class) || resourceClass.isAnnotationPresent(CacheResponse.class));
+    }
+
+    /**
+     * Get the descriptor of the resource method of the request, building it on the first use.
+     *
+     * @param resourceInfo ResourceInfo
+     *
+     * @return Descriptor of the resource method
+     */
+    public static ResourceMethodDescriptor of(ResourceInfo resourceInfo) {
+        return of(resourceInfo.getResourceClass(), resourceInfo.getResourceMethod());
+    }
+
+    /**
+     * Get the descriptor of the resource method, building it on the first use. The same method
+     * may be inherited by many resources, so the descriptor is kept by resource class and method.
+     *
+     * @param resourceClass Resource class
+     * @param resourceMethod Resource method
+     *
+     * @return Descriptor of the resource method
+     */
+    public static ResourceMethodDescriptor of(Class<?> resourceClass, Method resourceMethod) {
+        return REGISTRY.computeIfAbsent(resourceClass, (k) -> new ConcurrentHashMap<>())
+                .computeIfAbsent(resourceMethod, (k) -> new ResourceMethodDescriptor(resourceClass, resourceMethod));
+    }
+
+    public Class<?> getResourceClass() {
+        return resourceClass;
+    }
+
+    public Method getResourceMethod() {
+        return resourceMethod;
+    }
+
+    /**
+     * @return Class used on {@literal AbstractREST<TargetClass, I>} or null when the resource
+     * doesn't extend {@link AbstractREST}
+     */
+    public Class<?> getTargetClass() {
+        return targetClass;
+    }
+
+    /**
+     * @return true when the resource extends {@link AbstractREST} (or {@link AbstractAsyncREST}) and the method is a GET
+     */
+    public boolean isRequestForCrud() {
+        return requestForCrud;
+    }
+
+    public boolean hasSearch() {
+        return search != null;
+    }
+
+    /**
+     * @return {@link Search} annotation or null when the method isn't annotated
+     */
+    public Search getSearch() {
+        return search;
+    }
+
+    /**
+     * @return Frozen tree of {@link Search#fields()} or null when the method isn't annotated or
+     * all fields ('*') are allowed
+     */
+    public TreeNodeField<String, Set<String>> getSearchFields() {
+        return searchFields;
+    }
+
+    /**
+     * @return Fields allowed on sort by {@link Search#fields()} or null when all fields of the
+     * target class are allowed
+     */
+    public Set<String> getSortFields() {
+        return sortFields;
+    }
+
+    /**
+     * @return {@link Search#withPagination()} or null when the method isn't annotated
+     */
+    public Boolean getWithPagination() {
+        return search == null ? null : search.withPagination();
+    }
+
+    /**
+     * @return {@link Search#quantityPerPage()} or null when the method isn't annotated
+     */
+    public Integer getQuantityPerPage() {
+        return search == null ? null : search.quantityPerPage();
+    }
+
+    /**
+     * @return {@link Search#paginationType()} or null when the method isn't annotated
+     */
+    public PaginationType getPaginationType() {
+        return search == null ? null : search.paginationType();
+    }
+
+    /**
+     * @return {@link Search#countStrategy()} or null when the method isn't annotated
+     */
+    public CountStrategy getCountStrategy() {
+        return search == null ? null : search.countStrategy();
+    }
+
+    public boolean isProjection() {
+        return search != null && search.projection();
+    }
+
+    public boolean isStreaming() {
+        return search != null && search.streaming();
+    }
+
+    /**
+     * @return true when the method or the resource is annotated with {@link CacheResponse}
+     */
+    public boolean isResponseCached() {
+        return responseCached;
+    }
+
+}
@@ -13,6 +13,9 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+import org.demoiselle.jee.crud.pagination.CountStrategy;
+import org.demoiselle.jee.crud.pagination.PaginationType;
+
 /**
  * Annotation to be used in methods that want to change the 
  * default paging behavior and determine the fields that can be used by the 
@@ -31,6 +34,21 @@ import java.lang.annotation.Target;
  * The method above will filter just 'field1' and 'field2' and the default pagination page will be 2 
  * register per page.
  * 
+ * The attribute 'paginationType' selects how the pages are read from database, using
+ * {@link PaginationType#KEYSET} the pages are navigated by the 'cursor' parameter returned on
+ * 'Link' HTTP header instead of the 'range' parameter.
+ * 
+ * The attribute 'countStrategy' selects how the total of rows is obtained, see {@link CountStrategy}.
+ * 
+ * The attribute 'projection' makes {@link AbstractDAO#find()} select only the requested fields 
+ * (by 'fields' parameter or by 'fields' attribute) from database instead of the whole entity, the 
+ * content of the {@link org.demoiselle.jee.core.api.crud.Result} will be a list of Maps. 
+ * See {@link AbstractDAO#configureProjectionQuery(javax.persistence.criteria.CriteriaBuilder, javax.persistence.criteria.CriteriaQuery)}.
+ * 
+ * The attribute 'streaming' makes the rows be read in chunks while the response is written, 
+ * see {@link org.demoiselle.jee.crud.pagination.StreamingResultSet}. It is intended to methods 
+ * that return a large quantity of rows, like exports with 'withPagination = false'.
+ * 
  * @author SERPRO
  */
 @Documented
@@ -40,4 +58,8 @@ public @interface Search {
     String[] fields();
     boolean withPagination() default true;
     int quantityPerPage() default 20;
+    PaginationType paginationType() default PaginationType.OFFSET;
+    CountStrategy countStrategy() default CountStrategy.EXACT;
+    boolean projection() default false;
+    boolean streaming() default false;
 }
@@ -6,66 +6,139 @@
  */
 package org.demoiselle.jee.crud;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
- * 
+ *
  * This class helps the CRUD feature to hold the fields on a Tree structure.
- * 
+ *
+ * The children are kept in the order they were added, a node with many children also keeps them
+ * indexed by key, so {@link #getChildByKey(Object)} and {@link #containsKey(Object)} don't scan
+ * the children. A tree shared by many requests (e.g. the fields of {@link Search} annotation)
+ * should be {@link #freeze() frozen}.
+ *
  * @author SERPRO
  */
 public class TreeNodeField<T, K> {
 
+    /**
+     * Quantity of children from which the lookup by key uses the index, below it a scan of the
+     * children is cheaper than a hash lookup.
+     */
+    private static final int INDEX_THRESHOLD = 8;
+
     private T key;
     private K value;
     private TreeNodeField<T, K> parent;
-    private List<TreeNodeField<T, K>> children;
+    private final ArrayList<TreeNodeField<T, K>> children;
+    private final List<TreeNodeField<T, K>> childrenView;
+    private Map<T, TreeNodeField<T, K>> childrenByKey;
+    private boolean frozen;
 
     public TreeNodeField(T key, K value) {
         this.key = key;
         this.value = value;
-        this.children = new LinkedList<>();
+        this.children = new ArrayList<>();
+        this.childrenView = Collections.unmodifiableList(this.children);
     }
 
+    /**
+     * Add a child to this node.
+     *
+     * @param key Key of the child
+     * @param value Value of the child
+     *
+     * @return The child
+     *
+     * @throws UnsupportedOperationException When the node is frozen
+     */
     public TreeNodeField<T, K> addChild(T key, K value) {
+        if (frozen) {
+            throw new UnsupportedOperationException();
+        }
+
         TreeNodeField<T, K> childNode = new TreeNodeField<T, K>(key, value);
         childNode.parent = this;
         this.children.add(childNode);
+
+        if (childrenByKey != null) {
+            childrenByKey.putIfAbsent(key, childNode);
+        } else if (children.size() >= INDEX_THRESHOLD) {
+            childrenByKey = new HashMap<>();
+            // The first child with a key is the one returned by getChildByKey
+            for (TreeNodeField<T, K> child : children) {
+                childrenByKey.putIfAbsent(child.key, child);
+            }
+        }
+
         return childNode;
     }
-    
+
     public TreeNodeField<T, K> getParent() {
         return this.parent;
     }
-    
+
     public T getKey() {
         return this.key;
     }
-    
+
     public K getValue() {
         return this.value;
     }
 
+    /**
+     * @return Unmodifiable view of the children, use {@link #addChild(Object, Object)} to add one
+     */
     public List<TreeNodeField<T, K>> getChildren() {
-        return this.children;
+        return this.childrenView;
     }
-    
+
     public TreeNodeField<T, K> getChildByKey(T key){
-        return getChildren().stream()
-                .filter( (child) -> child.getKey().equals(key))
-                .findAny()
-                .orElse(null);
+        if (childrenByKey != null) {
+            return childrenByKey.get(key);
+        }
+
+        for (TreeNodeField<T, K> child : children) {
+            if (child.key.equals(key)) {
+                return child;
+            }
+        }
+
+        return null;
     }
-    
+
     public Boolean containsKey(T key){
-        return getChildren().stream()
-                .filter( (child) -> child.getKey().equals(key)).count() > 0;
+        return getChildByKey(key) != null;
+    }
+
+    /**
+     * Make this node and all of its descendants immutable, so the tree can be shared. The values
+     * are kept as they are, they must not be changed after this call.
+     *
+     * @return This node
+     */
+    public TreeNodeField<T, K> freeze() {
+        if (!frozen) {
+            frozen = true;
+
+            children.trimToSize();
+            children.forEach(TreeNodeField::freeze);
+        }
+
+        return this;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
     }
 
     @Override
     public String toString() {
         return "TreeNodeField [key=" + key + ", value=" + value + ", children=" + children + "]";
     }
-    
+
 }
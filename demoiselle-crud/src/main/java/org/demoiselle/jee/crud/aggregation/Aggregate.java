@@ -0,0 +1,49 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud.aggregation;
+
+/**
+ * An aggregate function applied to a field of the entity, like 'sum(salary)', or to the rows,
+ * like 'count'.
+ *
+ * @author SERPRO
+ */
+public class Aggregate {
+
+    private final AggregateFunction function;
+    private final String field;
+
+    public Aggregate(AggregateFunction function, String field) {
+        this.function = function;
+        this.field = field;
+    }
+
+    public AggregateFunction getFunction() {
+        return function;
+    }
+
+    /**
+     * @return Field of the entity or null when the function is applied to the rows
+     */
+    public String getField() {
+        return field;
+    }
+
+    /**
+     * @return Name of the value on each row of the result, like 'count' or 'sum(salary)'
+     */
+    public String getAlias() {
+        String name = function.name().toLowerCase();
+        return field == null ? name : name + "(" + field + ")";
+    }
+
+    @Override
+    public String toString() {
+        return getAlias();
+    }
+
+}
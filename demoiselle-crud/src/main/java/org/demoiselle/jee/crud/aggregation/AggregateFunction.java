@@ -0,0 +1,50 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud.aggregation;
+
+/**
+ * Aggregate functions supported by the 'aggregate' parameter, see {@link AggregationHelper}.
+ *
+ * @author SERPRO
+ */
+public enum AggregateFunction {
+
+    COUNT(false),
+    SUM(true),
+    AVG(true),
+    MIN(false),
+    MAX(false);
+
+    private final boolean numeric;
+
+    AggregateFunction(boolean numeric) {
+        this.numeric = numeric;
+    }
+
+    /**
+     * @return true when the function only accepts numeric fields
+     */
+    public boolean isNumeric() {
+        return numeric;
+    }
+
+    /**
+     * @param name Name of the function, ignoring case
+     *
+     * @return Function or null when it doesn't exist
+     */
+    public static AggregateFunction of(String name) {
+        for (AggregateFunction function : values()) {
+            if (function.name().equalsIgnoreCase(name)) {
+                return function;
+            }
+        }
+
+        return null;
+    }
+
+}
@@ -0,0 +1,47 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud.aggregation;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Aggregation requested by 'groupBy' and 'aggregate' parameters, built by
+ * {@link AggregationHelper} and executed by {@link org.demoiselle.jee.crud.AbstractDAO}.
+ *
+ * @author SERPRO
+ */
+public class Aggregation {
+
+    private final List<String> groupBy;
+    private final List<Aggregate> aggregates;
+
+    public Aggregation(List<String> groupBy, List<Aggregate> aggregates) {
+        this.groupBy = Collections.unmodifiableList(groupBy);
+        this.aggregates = Collections.unmodifiableList(aggregates);
+    }
+
+    /**
+     * @return Fields of the entity used to group the rows, empty when all rows are aggregated
+     */
+    public List<String> getGroupBy() {
+        return groupBy;
+    }
+
+    /**
+     * @return Aggregate functions, empty when only the distinct groups are selected
+     */
+    public List<Aggregate> getAggregates() {
+        return aggregates;
+    }
+
+    @Override
+    public String toString() {
+        return "Aggregation [groupBy=" + groupBy + ", aggregates=" + aggregates + "]";
+    }
+
+}
@@ -0,0 +1,194 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud.aggregation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.UriInfo;
+
+import org.demoiselle.jee.crud.AbstractDAO;
+import org.demoiselle.jee.crud.CrudMessage;
+import org.demoiselle.jee.crud.CrudQuery;
+import org.demoiselle.jee.crud.CrudUtilHelper;
+import org.demoiselle.jee.crud.DemoiselleRequestContext;
+import org.demoiselle.jee.crud.ResourceMethodDescriptor;
+import org.demoiselle.jee.crud.metadata.AttributeMetadata;
+import org.demoiselle.jee.crud.metadata.EntityMetadata;
+import org.demoiselle.jee.crud.sort.SortModel;
+
+/**
+ * Class responsible for managing the 'groupBy' and 'aggregate' parameters comes from Url Query
+ * String.
+ *
+ * Ex:
+ *
+ * Given a request
+ * <pre>
+ * GET {@literal http://localhost:8080/api/users?groupBy=country&aggregate=count,avg(age),max(birthDate)&active=isTrue}
+ * </pre>
+ *
+ * This class will processing the request above and parse the parameters to an {@link Aggregation}
+ * object, used on {@link AbstractDAO} class to group the rows on database. The result has a row by
+ * group, like '{"country": "BR", "count": 10, "avg(age)": 32.5, "max(birthDate)": "..."}'.
+ *
+ * The functions are 'count', 'sum', 'avg', 'min' and 'max' (see {@link AggregateFunction}), the
+ * filters are applied before the rows are grouped and the sort is only allowed on the fields of
+ * 'groupBy'. The groups are not paginated.
+ *
+ * @author SERPRO
+ */
+@RequestScoped
+public class AggregationHelper {
+
+    private static final Pattern AGGREGATE = Pattern.compile("^(\\w+)(?:\\((\\w+)\\))?$");
+
+    private static final Pattern FIELD = Pattern.compile("^\\w+$");
+
+    private ResourceInfo resourceInfo;
+
+    private UriInfo uriInfo;
+
+    @Inject
+    private DemoiselleRequestContext drc;
+
+    @Inject
+    private AggregationHelperMessage aggregationHelperMessage;
+
+    @Inject
+    private CrudMessage crudMessage;
+
+    public AggregationHelper() {
+    }
+
+    public AggregationHelper(ResourceInfo resourceInfo, UriInfo uriInfo, DemoiselleRequestContext drc, AggregationHelperMessage aggregationHelperMessage, CrudMessage crudMessage) {
+        this.resourceInfo = resourceInfo;
+        this.uriInfo = uriInfo;
+        this.drc = drc;
+        this.aggregationHelperMessage = aggregationHelperMessage;
+        this.crudMessage = crudMessage;
+    }
+
+    /**
+     * Open the request query string to extract values from 'groupBy' and 'aggregate' parameters
+     * and fill the {@link DemoiselleRequestContext#setAggregation(Aggregation)}. The pagination and
+     * the streaming are disabled on an aggregation.
+     *
+     * @param resourceInfo ResourceInfo
+     * @param uriInfo UriInfo
+     * @param query Query string of the request
+     */
+    public void execute(ResourceInfo resourceInfo, UriInfo uriInfo, CrudQuery query) {
+        this.resourceInfo = resourceInfo == null ? this.resourceInfo : resourceInfo;
+        this.uriInfo = uriInfo == null ? this.uriInfo : uriInfo;
+
+        if (!query.isAggregation()) {
+            return;
+        }
+
+        if (query.getRange() != null || query.getCursor() != null || !query.getFields().isEmpty()) {
+            throw new IllegalArgumentException(aggregationHelperMessage.aggregationWithPaginationOrFields());
+        }
+
+        ResourceMethodDescriptor descriptor = ResourceMethodDescriptor.of(this.resourceInfo);
+        List<String> groupBy = new ArrayList<>();
+        List<Aggregate> aggregates = new ArrayList<>();
+
+        for (String field : splitValues(query.getGroupBy())) {
+            if (!FIELD.matcher(field).matches()) {
+                throw new IllegalArgumentException(crudMessage.fieldRequestDoesNotExistsOnObject(field, descriptor.getTargetClass().getName()));
+            }
+
+            checkField(descriptor, field);
+
+            if (!groupBy.contains(field)) {
+                groupBy.add(field);
+            }
+        }
+
+        for (String value : splitValues(query.getAggregate())) {
+            Matcher matcher = AGGREGATE.matcher(value);
+            AggregateFunction function = matcher.matches() ? AggregateFunction.of(matcher.group(1)) : null;
+
+            if (function == null || (function != AggregateFunction.COUNT && matcher.group(2) == null)) {
+                throw new IllegalArgumentException(aggregationHelperMessage.aggregateRequestMalFormed(value));
+            }
+
+            String field = matcher.group(2);
+
+            if (field != null) {
+                AttributeMetadata attribute = checkField(descriptor, field);
+
+                if (function.isNumeric() && !isNumeric(attribute.getType())) {
+                    throw new IllegalArgumentException(aggregationHelperMessage.aggregateFieldNotNumeric(matcher.group(1), field));
+                }
+            }
+
+            aggregates.add(new Aggregate(function, field));
+        }
+
+        for (SortModel sortModel : drc.getSorts()) {
+            if (!groupBy.contains(sortModel.getField())) {
+                throw new IllegalArgumentException(aggregationHelperMessage.sortFieldNotGrouped(sortModel.getField()));
+            }
+        }
+
+        drc.setAggregation(new Aggregation(groupBy, aggregates));
+        drc.setPaginationEnabled(Boolean.FALSE);
+        drc.setStreamingEnabled(Boolean.FALSE);
+    }
+
+    /**
+     * Check if the field exists on target class and on fields attribute from @Search annotation
+     */
+    private AttributeMetadata checkField(ResourceMethodDescriptor descriptor, String field) {
+        Set<String> searchFields = descriptor.getSortFields();
+
+        if (searchFields != null && !searchFields.contains(field)) {
+            throw new IllegalArgumentException(crudMessage.fieldRequestDoesNotExistsOnSearchField(field));
+        }
+
+        AttributeMetadata attribute = EntityMetadata.of(descriptor.getTargetClass()).getAttribute(field);
+
+        if (attribute == null) {
+            throw new IllegalArgumentException(crudMessage.fieldRequestDoesNotExistsOnObject(field, descriptor.getTargetClass().getName()));
+        }
+
+        return attribute;
+    }
+
+    private static boolean isNumeric(Class<?> type) {
+        if (type.isPrimitive()) {
+            return type != boolean.class && type != char.class;
+        }
+
+        return Number.class.isAssignableFrom(type);
+    }
+
+    private List<String> splitValues(List<String> values) {
+        List<String> result = new ArrayList<>();
+
+        if (values != null) {
+            for (String value : values) {
+                for (String field : CrudUtilHelper.extractFields(value)) {
+                    if (!field.trim().isEmpty()) {
+                        result.add(field.trim());
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+}
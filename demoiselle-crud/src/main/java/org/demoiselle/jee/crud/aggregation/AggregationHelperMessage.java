@@ -0,0 +1,33 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud.aggregation;
+
+import org.apache.deltaspike.core.api.message.MessageBundle;
+import org.apache.deltaspike.core.api.message.MessageTemplate;
+
+/**
+ * 
+ * Messages used to inform user about Aggregation feature
+ * 
+ * @author SERPRO
+ */
+@MessageBundle
+public interface AggregationHelperMessage {
+
+    @MessageTemplate("{aggregate-request-malformed}")
+    String aggregateRequestMalFormed(String aggregate);
+
+    @MessageTemplate("{aggregate-field-not-numeric}")
+    String aggregateFieldNotNumeric(String function, String field);
+
+    @MessageTemplate("{aggregation-with-pagination-or-fields}")
+    String aggregationWithPaginationOrFields();
+
+    @MessageTemplate("{sort-field-not-grouped}")
+    String sortFieldNotGrouped(String field);
+
+}
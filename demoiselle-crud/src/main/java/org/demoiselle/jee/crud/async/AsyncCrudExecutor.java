@@ -0,0 +1,118 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud.async;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.core.Response.Status;
+
+import org.demoiselle.jee.core.api.security.Token;
+import org.demoiselle.jee.crud.CrudMessage;
+import org.demoiselle.jee.crud.DemoiselleCrudConfig;
+import org.demoiselle.jee.crud.DemoiselleRequestContext;
+import org.demoiselle.jee.rest.exception.DemoiselleRestException;
+
+/**
+ * Class responsible for submitting the operations of {@link org.demoiselle.jee.crud.AbstractAsyncREST}
+ * to {@link CrudAsyncInvoker}.
+ *
+ * The quantity of operations of the same resource running at the same time is limited by
+ * {@link DemoiselleCrudConfig#getAsyncMaxConcurrentRequests()}, so a slow resource doesn't take all
+ * threads of the pool: when the limit is reached the request is answered with 503 (Service
+ * Unavailable) at once.
+ *
+ * @author SERPRO
+ */
+@ApplicationScoped
+public class AsyncCrudExecutor {
+
+    private static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 20;
+
+    private final Map<Class<?>, Semaphore> permits = new ConcurrentHashMap<>();
+
+    @Inject
+    private DemoiselleCrudConfig crudConfig;
+
+    @Inject
+    private CrudMessage crudMessage;
+
+    @Inject
+    private DemoiselleRequestContext drc;
+
+    @Inject
+    private Instance<Token> token;
+
+    @Inject
+    private CrudAsyncInvoker invoker;
+
+    public AsyncCrudExecutor() {
+    }
+
+    public AsyncCrudExecutor(DemoiselleCrudConfig crudConfig, CrudMessage crudMessage, DemoiselleRequestContext drc, Instance<Token> token, CrudAsyncInvoker invoker) {
+        this.crudConfig = crudConfig;
+        this.crudMessage = crudMessage;
+        this.drc = drc;
+        this.token = token;
+        this.invoker = invoker;
+    }
+
+    /**
+     * Run the operation of the resource out of the thread of the request and resume the request
+     * with its result.
+     *
+     * @param resourceClass Resource
+     * @param asyncResponse Suspended request
+     * @param operation Operation, usually a call to {@link org.demoiselle.jee.crud.AbstractBusiness}
+     */
+    public void submit(Class<?> resourceClass, AsyncResponse asyncResponse, Callable<?> operation) {
+        Semaphore semaphore = permits.computeIfAbsent(resourceClass, (k) -> new Semaphore(getMaxConcurrentRequests()));
+
+        if (!semaphore.tryAcquire()) {
+            asyncResponse.resume(new DemoiselleRestException(crudMessage.asyncRequestRejected(resourceClass.getSimpleName()),
+                    Status.SERVICE_UNAVAILABLE.getStatusCode()));
+            return;
+        }
+
+        try {
+            Long timeout = crudConfig.getAsyncTimeoutMilliseconds();
+
+            if (timeout != null && timeout > 0) {
+                asyncResponse.setTimeout(timeout, TimeUnit.MILLISECONDS);
+            }
+
+            invoker.invoke(AsyncRequestSnapshot.capture(drc, token), operation, asyncResponse, semaphore::release);
+        } catch (RuntimeException e) {
+            // The operation was not submitted
+            semaphore.release();
+            asyncResponse.resume(e);
+        }
+    }
+
+    /**
+     * @param resourceClass Resource
+     *
+     * @return Quantity of operations of the resource that can be submitted now
+     */
+    public int getAvailablePermits(Class<?> resourceClass) {
+        Semaphore semaphore = permits.get(resourceClass);
+        return semaphore == null ? getMaxConcurrentRequests() : semaphore.availablePermits();
+    }
+
+    private int getMaxConcurrentRequests() {
+        Integer maxConcurrentRequests = crudConfig.getAsyncMaxConcurrentRequests();
+        return maxConcurrentRequests == null || maxConcurrentRequests <= 0 ? DEFAULT_MAX_CONCURRENT_REQUESTS : maxConcurrentRequests;
+    }
+
+}
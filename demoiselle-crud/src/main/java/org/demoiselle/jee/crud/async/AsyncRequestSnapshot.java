@@ -0,0 +1,107 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud.async;
+
+import java.util.LinkedList;
+
+import javax.enterprise.inject.Instance;
+
+import org.demoiselle.jee.core.api.security.Token;
+import org.demoiselle.jee.core.api.security.TokenType;
+import org.demoiselle.jee.crud.DemoiselleRequestContext;
+import org.demoiselle.jee.crud.DemoiselleRequestContextImpl;
+
+/**
+ * Copy of the request scoped state used by CRUD feature, taken on the thread of the request and
+ * restored on the thread that runs the operation (see {@link AsyncCrudExecutor}), where the
+ * request context is a new one.
+ *
+ * It holds the {@link DemoiselleRequestContext} filled by {@link org.demoiselle.jee.crud.CrudFilter}
+ * and the {@link Token} of the request, so the security module authenticates the same user.
+ *
+ * @author SERPRO
+ */
+public class AsyncRequestSnapshot {
+
+    private final DemoiselleRequestContext requestContext;
+    private final String tokenKey;
+    private final TokenType tokenType;
+
+    private AsyncRequestSnapshot(DemoiselleRequestContext requestContext, String tokenKey, TokenType tokenType) {
+        this.requestContext = requestContext;
+        this.tokenKey = tokenKey;
+        this.tokenType = tokenType;
+    }
+
+    /**
+     * Take the snapshot on the thread of the request.
+     *
+     * @param drc DemoiselleRequestContext of the request
+     * @param token Token of the request, unsatisfied when the security module isn't used
+     *
+     * @return Snapshot
+     */
+    public static AsyncRequestSnapshot capture(DemoiselleRequestContext drc, Instance<Token> token) {
+        DemoiselleRequestContext requestContext = new DemoiselleRequestContextImpl();
+        copy(drc, requestContext);
+
+        if (token != null && !token.isUnsatisfied() && !token.isAmbiguous() && token.get().getKey() != null) {
+            return new AsyncRequestSnapshot(requestContext, token.get().getKey(), token.get().getType());
+        }
+
+        return new AsyncRequestSnapshot(requestContext, null, null);
+    }
+
+    /**
+     * Restore the snapshot on the thread of the operation.
+     *
+     * @param drc DemoiselleRequestContext of the new request context
+     * @param token Token of the new request context
+     */
+    public void restore(DemoiselleRequestContext drc, Instance<Token> token) {
+        copy(requestContext, drc);
+
+        if (tokenKey != null && token != null && !token.isUnsatisfied() && !token.isAmbiguous()) {
+            token.get().setKey(tokenKey);
+            token.get().setType(tokenType);
+        }
+    }
+
+    private static void copy(DemoiselleRequestContext from, DemoiselleRequestContext to) {
+        to.setLimit(from.getLimit());
+        to.setOffset(from.getOffset());
+        to.setCount(from.getCount());
+        to.setEntityClass(from.getEntityClass());
+        // The trees are not changed after the request is parsed
+        to.setFilters(from.getFilters());
+        to.setFields(from.getFields());
+        to.setSorts(from.getSorts() == null ? null : new LinkedList<>(from.getSorts()));
+        to.setPaginationEnabled(from.isPaginationEnabled());
+        to.setPaginationType(from.getPaginationType());
+        to.setCursor(from.getCursor());
+        to.setNextCursor(from.getNextCursor());
+        to.setCountStrategy(from.getCountStrategy());
+        to.setNextPageAvailable(from.isNextPageAvailable());
+        to.setProjectionEnabled(from.isProjectionEnabled());
+        to.setStreamingEnabled(from.isStreamingEnabled());
+        to.setAggregation(from.getAggregation());
+        to.setSearchText(from.getSearchText());
+    }
+
+    public DemoiselleRequestContext getRequestContext() {
+        return requestContext;
+    }
+
+    public String getTokenKey() {
+        return tokenKey;
+    }
+
+    public TokenType getTokenType() {
+        return tokenType;
+    }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud.async;
+
+import java.util.concurrent.Callable;
+
+import javax.annotation.Resource;
+import javax.ejb.Asynchronous;
+import javax.ejb.EJBException;
+import javax.ejb.SessionContext;
+import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+import javax.ws.rs.container.AsyncResponse;
+
+import org.demoiselle.jee.core.api.security.Token;
+import org.demoiselle.jee.crud.DemoiselleRequestContext;
+
+/**
+ * Class responsible for running the operations of {@link org.demoiselle.jee.crud.AbstractAsyncREST}
+ * on the asynchronous pool of the container.
+ *
+ * The container activates a new request context for each asynchronous invocation, where the
+ * {@link AsyncRequestSnapshot} of the request is restored before the operation. The operation
+ * runs on its own transaction and the request is resumed after the commit.
+ *
+ * @author SERPRO
+ */
+@Stateless
+public class CrudAsyncInvoker {
+
+    @Resource
+    private SessionContext sessionContext;
+
+    @Inject
+    private DemoiselleRequestContext drc;
+
+    @Inject
+    private Instance<Token> token;
+
+    /**
+     * Run the operation and resume the request with its result or with its exception.
+     *
+     * @param snapshot State of the request
+     * @param operation Operation
+     * @param asyncResponse Suspended request
+     * @param onComplete Called after the request is resumed
+     */
+    @Asynchronous
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void invoke(AsyncRequestSnapshot snapshot, Callable<?> operation, AsyncResponse asyncResponse, Runnable onComplete) {
+        try {
+            snapshot.restore(drc, token);
+            asyncResponse.resume(sessionContext.getBusinessObject(CrudAsyncInvoker.class).call(operation));
+        } catch (EJBException e) {
+            asyncResponse.resume(e.getCause() != null ? e.getCause() : e);
+        } catch (Exception e) {
+            asyncResponse.resume(e);
+        } finally {
+            onComplete.run();
+        }
+    }
+
+    /**
+     * Run the operation on a transaction, called through the container by
+     * {@link #invoke(AsyncRequestSnapshot, Callable, AsyncResponse, Runnable)}.
+     *
+     * @param operation Operation
+     *
+     * @return Result of the operation
+     *
+     * @throws Exception Exception of the operation
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRED)
+    public Object call(Callable<?> operation) throws Exception {
+        return operation.call();
+    }
+
+}
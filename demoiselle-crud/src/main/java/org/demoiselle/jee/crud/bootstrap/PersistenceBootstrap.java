@@ -11,6 +11,10 @@ import javax.enterprise.inject.spi.AnnotatedType;
 import javax.enterprise.inject.spi.ProcessAnnotatedType;
 import javax.persistence.Entity;
 
+import org.demoiselle.jee.crud.cache.CrudCacheable;
+import org.demoiselle.jee.crud.cache.EntityCache;
+import org.demoiselle.jee.crud.metadata.EntityMetadata;
+
 /**
  *
  * Adding the @Vetoed annotation to all persistent entities is considered a best
@@ -20,6 +24,9 @@ import javax.persistence.Entity;
  * http://www.cdi-spec.org/faq/ Why is @Vetoed a best practice for persistent
  * (JPA) entities?
  * 
+ * The {@link EntityMetadata} of the entities is built in the same pass, and the entities
+ * annotated with {@link CrudCacheable} are registered on {@link EntityCache}.
+ * 
  * @author SERPRO
  *
  */
@@ -29,6 +36,8 @@ public class PersistenceBootstrap implements javax.enterprise.inject.spi.Extensi
 	public void processAnnotatedType(@Observes final ProcessAnnotatedType pat) {
 		final AnnotatedType annotatedType = pat.getAnnotatedType();
 		if (annotatedType.getJavaClass().isAnnotationPresent(Entity.class)) {
+			EntityMetadata.of(annotatedType.getJavaClass());
+			EntityCache.register(annotatedType.getJavaClass());
 			pat.veto();
 		}
 	}
@@ -0,0 +1,47 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud.cache;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation to be used on resources (subclasses of {@link org.demoiselle.jee.crud.AbstractREST})
+ * or on their GET methods to keep the responses on {@link ResponseCache}.
+ * 
+ * Ex.
+ * 
+ * <pre>
+ * &#64;Path("users")
+ * &#64;CacheResponse
+ * public class UserREST extends AbstractREST&lt;User, Long&gt; {
+ *    ...
+ * }
+ * </pre>
+ * 
+ * The responses of 'find()' and 'find(id)' are kept by resource method, path, query string and 
+ * logged user, and carry an 'ETag' HTTP header. A request with the 'If-None-Match' HTTP header 
+ * of the kept response receives a 304 (Not Modified) response.
+ * 
+ * The responses of an entity are removed when it is changed by {@link org.demoiselle.jee.crud.AbstractDAO}, 
+ * changes of other entities (e.g. associations) only appear after 
+ * {@link org.demoiselle.jee.crud.DemoiselleCrudConfig#getResponseCacheTimeToLiveMilliseconds()}.
+ * 
+ * @author SERPRO
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ METHOD, TYPE })
+public @interface CacheResponse {
+}
@@ -0,0 +1,75 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the second-level cache of an entity annotated with {@link CrudCacheable}, kept by
+ * {@link EntityCache}.
+ *
+ * A hit is a 'find(id)' of an entity that was on the shared cache, a miss is one that wasn't, and
+ * an eviction is an entity removed from the shared cache by {@link org.demoiselle.jee.crud.AbstractDAO}
+ * (e.g. after a partial update, that bypasses the cache).
+ *
+ * @author SERPRO
+ */
+public class CacheStatistics {
+
+    private final String region;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    CacheStatistics(String region) {
+        this.region = region;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return Hits by lookups, 0 when there wasn't any lookup
+     */
+    public double getHitRatio() {
+        long hitCount = hits.sum();
+        long lookups = hitCount + misses.sum();
+        return lookups == 0 ? 0d : (double) hitCount / lookups;
+    }
+
+    void hit() {
+        hits.increment();
+    }
+
+    void miss() {
+        misses.increment();
+    }
+
+    void eviction() {
+        evictions.increment();
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStatistics [region=" + region + ", hits=" + getHits() + ", misses=" + getMisses()
+                + ", evictions=" + getEvictions() + "]";
+    }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud.cache;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Map;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
+
+/**
+ * Response kept on {@link ResponseCache}: the status, the HTTP headers of CRUD feature and the
+ * JSON body already written.
+ *
+ * The entity tag is the SHA-256 digest of the body, so the same body always has the same (strong)
+ * tag, even after the response is removed from the cache and built again.
+ *
+ * @author SERPRO
+ */
+public class CachedResponse {
+
+    private final int status;
+    private final Map<String, String> headers;
+    private final byte[] body;
+    private final String entityTag;
+    private final long expiresAt;
+
+    public CachedResponse(int status, Map<String, String> headers, byte[] body, long expiresAt) {
+        this.status = status;
+        this.headers = Collections.unmodifiableMap(headers);
+        this.body = body;
+        this.entityTag = "\"" + digest(body) + "\"";
+        this.expiresAt = expiresAt;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    /**
+     * @return Strong entity tag, quoted as the value of 'ETag' HTTP header
+     */
+    public String getEntityTag() {
+        return entityTag;
+    }
+
+    public boolean isExpired(long now) {
+        return now >= expiresAt;
+    }
+
+    /**
+     * Check the value of 'If-None-Match' HTTP header against the entity tag, using the weak
+     * comparison defined by RFC 7232.
+     *
+     * @param ifNoneMatch Value of 'If-None-Match' HTTP header, may be null
+     *
+     * @return true when the client already has this response
+     */
+    public boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+
+            if ("*".equals(tag)) {
+                return true;
+            }
+
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+
+            if (entityTag.equals(tag)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Build the response to the request, a 304 (Not Modified) when the client already has it.
+     *
+     * @param ifNoneMatch Value of 'If-None-Match' HTTP header, may be null
+     *
+     * @return Response
+     */
+    public Response toResponse(String ifNoneMatch) {
+        if (matches(ifNoneMatch)) {
+            return Response.notModified().header(HttpHeaders.ETAG, entityTag).build();
+        }
+
+        ResponseBuilder builder = Response.status(status).entity(body).type(MediaType.APPLICATION_JSON_TYPE).header(HttpHeaders.ETAG, entityTag);
+        headers.forEach(builder::header);
+
+        return builder.build();
+    }
+
+    private static String digest(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is required on every Java platform
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
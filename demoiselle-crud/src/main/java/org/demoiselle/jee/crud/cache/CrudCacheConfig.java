@@ -0,0 +1,56 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud.cache;
+
+import java.util.Map;
+
+import org.demoiselle.jee.configuration.annotation.Configuration;
+
+/**
+ * Class responsible for hold configuration about the second-level cache of the entities annotated
+ * with {@link CrudCacheable}.
+ * 
+ * The size and the time to live of a region can be changed by the name of the region:
+ * 
+ * <pre>
+ * demoiselle.crud.cache.regionMaxSize.countries = 300
+ * demoiselle.crud.cache.regionTimeToLiveMilliseconds.countries = 86400000
+ * </pre>
+ * 
+ * @author SERPRO
+ */
+@Configuration(prefix = "demoiselle.crud.cache")
+public class CrudCacheConfig {
+
+    private Integer defaultMaxSize = new Integer(1_000);
+    private Long defaultTimeToLiveMilliseconds = new Long(3_600_000L);
+    private Map<String, String> regionMaxSize;
+    private Map<String, String> regionTimeToLiveMilliseconds;
+
+    /**
+     * @return Quantity of query results kept by region
+     */
+    public Integer getDefaultMaxSize() {
+        return defaultMaxSize;
+    }
+
+    /**
+     * @return Time that a query result is kept by region
+     */
+    public Long getDefaultTimeToLiveMilliseconds() {
+        return defaultTimeToLiveMilliseconds;
+    }
+
+    public Map<String, String> getRegionMaxSize() {
+        return regionMaxSize;
+    }
+
+    public Map<String, String> getRegionTimeToLiveMilliseconds() {
+        return regionTimeToLiveMilliseconds;
+    }
+
+}
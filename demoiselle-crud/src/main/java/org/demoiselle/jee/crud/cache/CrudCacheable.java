@@ -0,0 +1,52 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud.cache;
+
+import static java.lang.annotation.ElementType.TYPE;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation to be used on entities that are read much more than changed (e.g. reference data), 
+ * so {@link org.demoiselle.jee.crud.AbstractDAO} reads them through the second-level cache of the 
+ * persistence provider, see {@link EntityCache}.
+ * 
+ * Ex.
+ * 
+ * <pre>
+ * &#64;Entity
+ * &#64;Cacheable
+ * &#64;CrudCacheable(region = "countries")
+ * public class Country {
+ *    ...
+ * }
+ * </pre>
+ * 
+ * The entity must be in the shared cache of the persistence unit, with 'shared-cache-mode' 
+ * ENABLE_SELECTIVE it also needs the {@link javax.persistence.Cacheable} annotation. The query 
+ * cache of Hibernate needs the 'hibernate.cache.use_query_cache' property.
+ * 
+ * @author SERPRO
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(TYPE)
+public @interface CrudCacheable {
+
+    /**
+     * @return Name of the cache region, the name of the entity class by default
+     */
+    String region() default "";
+
+    /**
+     * @return The results of 'find()' are kept on the query cache too
+     */
+    boolean queryCache() default true;
+}
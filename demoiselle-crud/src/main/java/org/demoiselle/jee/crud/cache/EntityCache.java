@@ -0,0 +1,259 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud.cache;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.persistence.Cache;
+import javax.persistence.Cacheable;
+import javax.persistence.CacheRetrieveMode;
+import javax.persistence.CacheStoreMode;
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.demoiselle.jee.crud.AbstractDAO;
+import org.demoiselle.jee.crud.bootstrap.PersistenceBootstrap;
+
+/**
+ * Class responsible for reading the entities annotated with {@link CrudCacheable} through the
+ * second-level cache of the persistence provider, used by {@link AbstractDAO}.
+ *
+ * 'find(id)' uses the shared cache hints of JPA, so it works on any provider. 'find()' and the
+ * count use the query cache hints of Hibernate and EclipseLink, the providers ignore the hints
+ * they don't know. The size and the time to live of the region are read from
+ * {@link CrudCacheConfig}, Hibernate reads them from the configuration of its cache provider.
+ *
+ * The entities are registered by {@link PersistenceBootstrap} when the application starts, the
+ * other classes are checked on the first use.
+ *
+ * @author SERPRO
+ */
+@ApplicationScoped
+public class EntityCache {
+
+    private static final Logger logger = Logger.getLogger(EntityCache.class.getName());
+
+    private static final Map<Class<?>, Optional<CrudCacheable>> ENTITIES = new ConcurrentHashMap<>();
+
+    private static final Map<String, Object> FIND_HINTS;
+
+    static {
+        Map<String, Object> hints = new HashMap<>();
+        hints.put("javax.persistence.cache.retrieveMode", CacheRetrieveMode.USE);
+        hints.put("javax.persistence.cache.storeMode", CacheStoreMode.USE);
+        FIND_HINTS = Collections.unmodifiableMap(hints);
+    }
+
+    private final Map<Class<?>, Map<String, Object>> queryHints = new ConcurrentHashMap<>();
+
+    private final Map<Class<?>, CacheStatistics> statistics = new ConcurrentHashMap<>();
+
+    @Inject
+    private CrudCacheConfig cacheConfig;
+
+    public EntityCache() {
+    }
+
+    public EntityCache(CrudCacheConfig cacheConfig) {
+        this.cacheConfig = cacheConfig;
+    }
+
+    /**
+     * Register the entity, an entity annotated with {@link CrudCacheable} that isn't annotated
+     * with {@link Cacheable} is logged, it is only cached with 'shared-cache-mode' ALL.
+     *
+     * @param entityClass Entity
+     */
+    public static void register(Class<?> entityClass) {
+        CrudCacheable cacheable = entityClass.getAnnotation(CrudCacheable.class);
+        ENTITIES.put(entityClass, Optional.ofNullable(cacheable));
+
+        if (cacheable != null && !entityClass.isAnnotationPresent(Cacheable.class)) {
+            logger.warning("The entity [" + entityClass.getName() + "] is annotated with @CrudCacheable but not with @Cacheable, "
+                    + "it is only kept on the shared cache with 'shared-cache-mode' ALL");
+        }
+    }
+
+    /**
+     * @param entityClass Entity
+     *
+     * @return true when the entity is annotated with {@link CrudCacheable}
+     */
+    public static boolean isCacheable(Class<?> entityClass) {
+        return getCacheable(entityClass) != null;
+    }
+
+    /**
+     * @param entityClass Entity
+     *
+     * @return Name of the region of the entity or null when it isn't annotated with {@link CrudCacheable}
+     */
+    public static String getRegion(Class<?> entityClass) {
+        CrudCacheable cacheable = getCacheable(entityClass);
+
+        if (cacheable == null) {
+            return null;
+        }
+
+        return cacheable.region().isEmpty() ? entityClass.getName() : cacheable.region();
+    }
+
+    private static CrudCacheable getCacheable(Class<?> entityClass) {
+        return ENTITIES.computeIfAbsent(entityClass, (k) -> Optional.ofNullable(k.getAnnotation(CrudCacheable.class))).orElse(null);
+    }
+
+    /**
+     * Find the entity by its identifier, through the shared cache when the entity is annotated
+     * with {@link CrudCacheable}.
+     *
+     * @param entityManager EntityManager
+     * @param entityClass Entity
+     * @param id Identifier
+     *
+     * @return Entity or null when it doesn't exist
+     */
+    public <T> T find(EntityManager entityManager, Class<T> entityClass, Object id) {
+        if (!isCacheable(entityClass)) {
+            return entityManager.find(entityClass, id);
+        }
+
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+
+        if (cache != null && cache.contains(entityClass, id)) {
+            getStatistics(entityClass).hit();
+        } else {
+            getStatistics(entityClass).miss();
+        }
+
+        return entityManager.find(entityClass, id, FIND_HINTS);
+    }
+
+    /**
+     * Set the query cache hints on the query of the entity, when it is annotated with
+     * {@link CrudCacheable} and {@link CrudCacheable#queryCache()} is enabled.
+     *
+     * @param query Query of the entity
+     * @param entityClass Entity
+     *
+     * @return The same query
+     */
+    public <Q extends Query> Q applyQueryHints(Q query, Class<?> entityClass) {
+        CrudCacheable cacheable = getCacheable(entityClass);
+
+        if (cacheable != null && cacheable.queryCache()) {
+            for (Map.Entry<String, Object> hint : queryHints.computeIfAbsent(entityClass, this::buildQueryHints).entrySet()) {
+                try {
+                    query.setHint(hint.getKey(), hint.getValue());
+                } catch (IllegalArgumentException e) {
+                    // A provider that validates the hints doesn't support this one
+                    logger.fine("Query hint [" + hint.getKey() + "] not supported: " + e.getMessage());
+                }
+            }
+        }
+
+        return query;
+    }
+
+    /**
+     * Remove the entity from the shared cache, used after a change that bypasses the cache
+     * (e.g. a bulk update).
+     *
+     * @param entityManager EntityManager
+     * @param entityClass Entity
+     * @param id Identifier
+     */
+    public void evict(EntityManager entityManager, Class<?> entityClass, Object id) {
+        if (isCacheable(entityClass)) {
+            Cache cache = entityManager.getEntityManagerFactory().getCache();
+
+            if (cache != null) {
+                cache.evict(entityClass, id);
+                getStatistics(entityClass).eviction();
+            }
+        }
+    }
+
+    /**
+     * @param entityClass Entity
+     *
+     * @return Counters of the entity or null when it isn't annotated with {@link CrudCacheable}
+     */
+    public CacheStatistics getStatistics(Class<?> entityClass) {
+        if (!isCacheable(entityClass)) {
+            return null;
+        }
+
+        return statistics.computeIfAbsent(entityClass, (k) -> new CacheStatistics(getRegion(k)));
+    }
+
+    /**
+     * @return Counters of all entities read since the application started, by entity
+     */
+    public Map<Class<?>, CacheStatistics> getStatistics() {
+        return Collections.unmodifiableMap(statistics);
+    }
+
+    private Map<String, Object> buildQueryHints(Class<?> entityClass) {
+        String region = getRegion(entityClass);
+        Map<String, Object> hints = new LinkedHashMap<>();
+
+        hints.put("javax.persistence.cache.retrieveMode", CacheRetrieveMode.USE);
+        // Hibernate
+        hints.put("org.hibernate.cacheable", Boolean.TRUE);
+        hints.put("org.hibernate.cacheRegion", region);
+        // EclipseLink
+        hints.put("eclipselink.query-results-cache", "true");
+        hints.put("eclipselink.query-results-cache.size", String.valueOf(getMaxSize(region)));
+        hints.put("eclipselink.query-results-cache.expiry", String.valueOf(getTimeToLive(region)));
+
+        return Collections.unmodifiableMap(hints);
+    }
+
+    private long getMaxSize(String region) {
+        Long maxSize = getRegionValue(cacheConfig.getRegionMaxSize(), region);
+
+        if (maxSize == null || maxSize <= 0) {
+            maxSize = cacheConfig.getDefaultMaxSize() == null ? null : cacheConfig.getDefaultMaxSize().longValue();
+        }
+
+        return maxSize == null || maxSize <= 0 ? 1_000L : maxSize;
+    }
+
+    private long getTimeToLive(String region) {
+        Long timeToLive = getRegionValue(cacheConfig.getRegionTimeToLiveMilliseconds(), region);
+
+        if (timeToLive == null || timeToLive <= 0) {
+            timeToLive = cacheConfig.getDefaultTimeToLiveMilliseconds();
+        }
+
+        return timeToLive == null || timeToLive <= 0 ? 3_600_000L : timeToLive;
+    }
+
+    private static Long getRegionValue(Map<String, String> values, String region) {
+        String value = values == null ? null : values.get(region);
+
+        if (value == null) {
+            return null;
+        }
+
+        try {
+            return Long.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warning("Invalid value [" + value + "] on configuration of the region [" + region + "]");
+            return null;
+        }
+    }
+
+}
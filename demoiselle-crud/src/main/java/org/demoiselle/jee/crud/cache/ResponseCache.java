@@ -0,0 +1,153 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud.cache;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.demoiselle.jee.crud.AbstractDAO;
+import org.demoiselle.jee.crud.CrudFilter;
+import org.demoiselle.jee.crud.DemoiselleCrudConfig;
+
+/**
+ * Class responsible for keeping the responses of resources annotated with {@link CacheResponse}.
+ *
+ * The responses are grouped by entity, so {@link AbstractDAO} can invalidate all responses of an
+ * entity when it is changed. Each entity has a generation that is incremented on every
+ * invalidation: {@link CrudFilter} reads it before running the query and a response built with an
+ * older generation is not kept, so a query that raced with a change never fills the cache.
+ *
+ * Each response expires after {@link DemoiselleCrudConfig#getResponseCacheTimeToLiveMilliseconds()}
+ * and the quantity of responses by entity is limited by
+ * {@link DemoiselleCrudConfig#getResponseCacheMaxSize()}, the least recently used response is
+ * removed first.
+ *
+ * @author SERPRO
+ */
+@ApplicationScoped
+public class ResponseCache {
+
+    private static final long DEFAULT_TIME_TO_LIVE = 60_000L;
+    private static final int DEFAULT_MAX_SIZE = 1_000;
+
+    private final Map<Class<?>, Map<String, CachedResponse>> responses = new ConcurrentHashMap<>();
+
+    private final Map<Class<?>, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    @Inject
+    private DemoiselleCrudConfig crudConfig;
+
+    public ResponseCache() {
+    }
+
+    public ResponseCache(DemoiselleCrudConfig crudConfig) {
+        this.crudConfig = crudConfig;
+    }
+
+    /**
+     * Get the generation of the entity, it must be read before the query that builds the response.
+     *
+     * @param entityClass Entity
+     *
+     * @return Generation
+     */
+    public long getGeneration(Class<?> entityClass) {
+        return generations.computeIfAbsent(entityClass, (k) -> new AtomicLong()).get();
+    }
+
+    /**
+     * Get the response of the entity for the given key.
+     *
+     * @param entityClass Entity
+     * @param key Key that represents the request
+     *
+     * @return Response or null when it doesn't exist or is expired
+     */
+    public CachedResponse get(Class<?> entityClass, String key) {
+        Map<String, CachedResponse> entityResponses = responses.get(entityClass);
+
+        if (entityResponses != null) {
+            CachedResponse response = entityResponses.get(key);
+
+            if (response != null) {
+                if (!response.isExpired(System.currentTimeMillis())) {
+                    return response;
+                }
+                entityResponses.remove(key);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Build the response and keep it for the given key, unless the entity was changed after
+     * the generation was read.
+     *
+     * @param entityClass Entity
+     * @param key Key that represents the request
+     * @param generation Generation read before the query, see {@link #getGeneration(Class)}
+     * @param status HTTP status
+     * @param headers HTTP headers of CRUD feature
+     * @param body JSON body
+     *
+     * @return Response built, kept or not
+     */
+    public CachedResponse put(Class<?> entityClass, String key, long generation, int status, Map<String, String> headers, byte[] body) {
+        CachedResponse response = new CachedResponse(status, headers, body, System.currentTimeMillis() + getTimeToLive());
+
+        if (getGeneration(entityClass) == generation) {
+            Map<String, CachedResponse> entityResponses = responses.computeIfAbsent(entityClass, (k) -> newEntityResponses(getMaxSize()));
+            entityResponses.put(key, response);
+
+            // The entity may be changed while the response was kept
+            if (getGeneration(entityClass) != generation) {
+                entityResponses.remove(key);
+            }
+        }
+
+        return response;
+    }
+
+    /**
+     * Remove all responses of the entity.
+     *
+     * @param entityClass Entity
+     */
+    public void invalidate(Class<?> entityClass) {
+        generations.computeIfAbsent(entityClass, (k) -> new AtomicLong()).incrementAndGet();
+        responses.remove(entityClass);
+    }
+
+    private long getTimeToLive() {
+        Long timeToLive = crudConfig.getResponseCacheTimeToLiveMilliseconds();
+        return timeToLive == null ? DEFAULT_TIME_TO_LIVE : timeToLive;
+    }
+
+    private int getMaxSize() {
+        Integer maxSize = crudConfig.getResponseCacheMaxSize();
+        return maxSize == null || maxSize <= 0 ? DEFAULT_MAX_SIZE : maxSize;
+    }
+
+    private static Map<String, CachedResponse> newEntityResponses(int maxSize) {
+        return Collections.synchronizedMap(new LinkedHashMap<String, CachedResponse>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
+
+}
@@ -25,6 +25,10 @@ public class DemoiselleCrudException extends DemoiselleRestException {
         super(message);
     }
 
+    public DemoiselleCrudException(String message, int statusCode) {
+        super(message, statusCode);
+    }
+
     public DemoiselleCrudException(Throwable cause) {
         super(cause);
     }
@@ -6,7 +6,7 @@
  */
 package org.demoiselle.jee.crud.field;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -17,9 +17,11 @@ import javax.ws.rs.container.ResourceInfo;
 import javax.ws.rs.core.UriInfo;
 
 import org.demoiselle.jee.crud.CrudMessage;
+import org.demoiselle.jee.crud.CrudQuery;
 import org.demoiselle.jee.crud.CrudUtilHelper;
 import org.demoiselle.jee.crud.DemoiselleRequestContext;
 import org.demoiselle.jee.crud.ReservedKeyWords;
+import org.demoiselle.jee.crud.ResourceMethodDescriptor;
 import org.demoiselle.jee.crud.TreeNodeField;
 
 /**
@@ -72,6 +74,19 @@ public class FieldHelper {
      * @param uriInfo UriInfo
      */
     public void execute(ResourceInfo resourceInfo, UriInfo uriInfo) {
+        this.uriInfo = uriInfo == null ? this.uriInfo : uriInfo;
+        execute(resourceInfo, this.uriInfo, CrudQuery.parse(this.uriInfo.getQueryParameters()));
+    }
+
+    /**
+     * Same as {@link #execute(ResourceInfo, UriInfo)} reading the parameters from the query
+     * string already parsed.
+     * 
+     * @param resourceInfo ResourceInfo
+     * @param uriInfo UriInfo
+     * @param query Query string of the request
+     */
+    public void execute(ResourceInfo resourceInfo, UriInfo uriInfo, CrudQuery query) {
         this.resourceInfo = resourceInfo == null ? this.resourceInfo : resourceInfo;
         this.uriInfo = uriInfo == null ? this.uriInfo : uriInfo;
 
@@ -84,16 +99,12 @@ public class FieldHelper {
          * 
          */
         
-        List<String> queryStringFields = new LinkedList<>();
-        uriInfo.getQueryParameters().forEach((key, values) -> {
-            if (ReservedKeyWords.DEFAULT_FIELD_KEY.getKey().equalsIgnoreCase(key)) {
-                values.forEach(value -> {
-                    queryStringFields.addAll(extractFields(value));
-                });
-            }
+        List<String> queryStringFields = new ArrayList<>();
+        query.getFields().forEach(value -> {
+            queryStringFields.addAll(extractFields(value));
         });
         
-        TreeNodeField<String, Set<String>> tnf = new TreeNodeField<>(CrudUtilHelper.getTargetClass(this.resourceInfo.getResourceClass()).getName(), ConcurrentHashMap.newKeySet(1));
+        TreeNodeField<String, Set<String>> tnf = new TreeNodeField<>(ResourceMethodDescriptor.of(this.resourceInfo).getTargetClass().getName(), ConcurrentHashMap.newKeySet(1));
         
         if(!queryStringFields.isEmpty()) {
             queryStringFields.forEach((field) -> {
@@ -122,6 +133,19 @@ public class FieldHelper {
             drc.setFields(tnf);
         }
         
+        // The fields of @Search annotation are used by the projection when the request doesn't have 'fields'
+        if (isProjectionEnabled()) {
+            drc.setProjectionEnabled(Boolean.TRUE);
+            
+            if (drc.getFields() == null) {
+                drc.setFields(CrudUtilHelper.extractFieldsFromSearchAnnotation(this.resourceInfo));
+            }
+        }
+        
+    }
+    
+    private Boolean isProjectionEnabled() {
+        return ResourceMethodDescriptor.of(this.resourceInfo).isProjection();
     }
     
 
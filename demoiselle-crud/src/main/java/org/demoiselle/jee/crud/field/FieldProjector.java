@@ -0,0 +1,232 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud.field;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.demoiselle.jee.crud.CrudFilter;
+import org.demoiselle.jee.crud.TreeNodeField;
+import org.demoiselle.jee.crud.exception.DemoiselleCrudException;
+import org.demoiselle.jee.crud.metadata.AttributeMetadata;
+import org.demoiselle.jee.crud.metadata.EntityMetadata;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Projection of the rows of a result to the fields of a request, used by {@link CrudFilter}.
+ *
+ * The fields are resolved to the attributes of the entity once by projector, so each row only
+ * reads the values of the attributes. The projector of a {@link TreeNodeField#isFrozen() frozen}
+ * tree (e.g. the fields of @Search annotation) is kept and reused by all requests.
+ *
+ * @author SERPRO
+ */
+public class FieldProjector {
+
+    private static final Logger logger = Logger.getLogger(FieldProjector.class.getName());
+
+    private static final Map<TreeNodeField<String, Set<String>>, FieldProjector> PROJECTORS = new ConcurrentHashMap<>();
+
+    private final List<Slot> slots;
+
+    private FieldProjector(Class<?> targetClass, TreeNodeField<String, Set<String>> fields) {
+        EntityMetadata metadata = EntityMetadata.of(targetClass);
+        Map<String, Slot> slotsByName = new LinkedHashMap<>();
+        boolean firstLevelAdded = false;
+
+        for (TreeNodeField<String, Set<String>> leaf : fields.getChildren()) {
+            if (leaf.getChildren().isEmpty()) {
+                // 1st level, the fields are kept in the order of the attributes
+                if (!firstLevelAdded) {
+                    Set<String> searchFields = new HashSet<>();
+                    for (TreeNodeField<String, Set<String>> child : fields.getChildren()) {
+                        if (child.getChildren().isEmpty()) {
+                            searchFields.add(child.getKey());
+                        }
+                    }
+
+                    for (AttributeMetadata attribute : metadata.getAttributes()) {
+                        if (searchFields.contains(attribute.getName())) {
+                            slotsByName.put(attribute.getName(), new Slot(attribute.getName(), attribute, null));
+                        }
+                    }
+
+                    firstLevelAdded = true;
+                }
+            } else {
+                // 2nd level
+                AttributeMetadata attribute = metadata.getAttribute(leaf.getKey());
+                List<AttributeMetadata> children = new ArrayList<>();
+
+                for (TreeNodeField<String, Set<String>> child : leaf.getChildren()) {
+                    AttributeMetadata secondAttribute = attribute == null ? null : EntityMetadata.of(attribute.getType()).getAttribute(child.getKey());
+
+                    if (secondAttribute == null) {
+                        logger.log(Level.SEVERE, "Field [" + leaf.getKey() + "(" + child.getKey() + ")] not found on " + targetClass.getName());
+                    } else {
+                        children.add(secondAttribute);
+                    }
+                }
+
+                slotsByName.put(leaf.getKey(), new Slot(leaf.getKey(), attribute, children.toArray(new AttributeMetadata[children.size()])));
+            }
+        }
+
+        this.slots = new ArrayList<>(slotsByName.values());
+    }
+
+    /**
+     * Get the projector of the fields.
+     *
+     * @param targetClass Class of the rows
+     * @param fields Fields requested
+     *
+     * @return Projector
+     */
+    public static FieldProjector of(Class<?> targetClass, TreeNodeField<String, Set<String>> fields) {
+        if (fields.isFrozen()) {
+            return PROJECTORS.computeIfAbsent(fields, (k) -> new FieldProjector(targetClass, fields));
+        }
+
+        return new FieldProjector(targetClass, fields);
+    }
+
+    /**
+     * Build a Map with the fields of the row, the fields of an association (e.g.
+     * 'address(street)') are kept on another Map.
+     *
+     * @param object Row
+     *
+     * @return Map with the fields
+     */
+    public Map<String, Object> toMap(Object object) {
+        Map<String, Object> keyValue = new LinkedHashMap<>(capacity(slots.size()));
+
+        for (Slot slot : slots) {
+            if (slot.children == null) {
+                try {
+                    keyValue.put(slot.name, slot.attribute.getValue(object));
+                } catch (DemoiselleCrudException e) {
+                    logger.log(Level.SEVERE, e.getMessage(), e);
+                }
+            } else {
+                Map<String, Object> keyValueSecond = new LinkedHashMap<>(capacity(slot.children.length));
+                Object secondObject = slot.getValue(object);
+
+                if (secondObject != null) {
+                    for (AttributeMetadata child : slot.children) {
+                        try {
+                            keyValueSecond.put(child.getName(), child.getValue(secondObject));
+                        } catch (DemoiselleCrudException e) {
+                            logger.log(Level.SEVERE, e.getMessage(), e);
+                        }
+                    }
+                }
+
+                keyValue.put(slot.name, keyValueSecond);
+            }
+        }
+
+        return keyValue;
+    }
+
+    /**
+     * Write the fields of the row straight to the generator, as the JSON object of
+     * {@link #toMap(Object)}, without building the Map.
+     *
+     * @param generator Generator of the response
+     * @param writer Writer used on the values of the fields
+     * @param object Row
+     *
+     * @throws IOException When the value can't be written
+     */
+    public void write(JsonGenerator generator, ObjectWriter writer, Object object) throws IOException {
+        generator.writeStartObject();
+
+        for (Slot slot : slots) {
+            if (slot.children == null) {
+                Object value;
+                try {
+                    value = slot.attribute.getValue(object);
+                } catch (DemoiselleCrudException e) {
+                    logger.log(Level.SEVERE, e.getMessage(), e);
+                    continue;
+                }
+
+                generator.writeFieldName(slot.name);
+                writer.writeValue(generator, value);
+            } else {
+                Object secondObject = slot.getValue(object);
+                generator.writeObjectFieldStart(slot.name);
+
+                if (secondObject != null) {
+                    for (AttributeMetadata child : slot.children) {
+                        Object value;
+                        try {
+                            value = child.getValue(secondObject);
+                        } catch (DemoiselleCrudException e) {
+                            logger.log(Level.SEVERE, e.getMessage(), e);
+                            continue;
+                        }
+
+                        generator.writeFieldName(child.getName());
+                        writer.writeValue(generator, value);
+                    }
+                }
+
+                generator.writeEndObject();
+            }
+        }
+
+        generator.writeEndObject();
+    }
+
+    private static int capacity(int size) {
+        return (int) (size / 0.75f) + 1;
+    }
+
+    /**
+     * A field of the projection: an attribute of the entity or, when it has children, an
+     * association with the attributes of the associated object.
+     */
+    private static class Slot {
+
+        private final String name;
+        private final AttributeMetadata attribute;
+        private final AttributeMetadata[] children;
+
+        Slot(String name, AttributeMetadata attribute, AttributeMetadata[] children) {
+            this.name = name;
+            this.attribute = attribute;
+            this.children = children;
+        }
+
+        Object getValue(Object object) {
+            if (attribute == null) {
+                return null;
+            }
+
+            try {
+                return attribute.getValue(object);
+            } catch (DemoiselleCrudException e) {
+                logger.log(Level.SEVERE, e.getMessage(), e);
+                return null;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,189 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud.filter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.demoiselle.jee.crud.CrudUtilHelper;
+import org.demoiselle.jee.crud.metadata.AttributeMetadata;
+import org.demoiselle.jee.crud.pagination.KeysetCursor;
+
+/**
+ * A filter value written with an operator, like 'age=ge(18)', with the arguments already converted
+ * to the type of the attribute.
+ *
+ * The operators are:
+ *
+ * <pre>
+ * ne(value)            field &lt;&gt; value
+ * gt(value)            field &gt; value
+ * ge(value)            field &gt;= value
+ * lt(value)            field &lt; value
+ * le(value)            field &lt;= value
+ * between(from,to)     field BETWEEN from AND to
+ * in(value1,value2)    field IN (value1, value2)
+ * prefix(value)        field LIKE 'value%', case sensitive
+ * </pre>
+ *
+ * The values of the same field are joined by AND, so 'age=ge(18),lt(65)' is a range. The 'prefix'
+ * operator doesn't apply LOWER() on the column, so the database can use an index of the column.
+ * The dates (java.util.Date and Calendar) accept the ISO-8601 format (e.g. '2017-01-31' or
+ * '2017-01-31T10:00:00Z') or the milliseconds since the epoch.
+ *
+ * A value that isn't written as 'operator(arguments)' keeps the behavior of the previous filters
+ * (equal, like, null, isTrue and isFalse).
+ *
+ * @author SERPRO
+ */
+public class FilterCondition {
+
+    /**
+     * Escape character of the pattern of {@link FilterOperator#PREFIX}
+     */
+    public static final char LIKE_ESCAPE = '\\';
+
+    private static final Pattern EXPRESSION = Pattern.compile("^(\\w+)\\((.*)\\)$", Pattern.DOTALL);
+
+    private final FilterOperator operator;
+    private final List<Object> values;
+
+    private FilterCondition(FilterOperator operator, List<Object> values) {
+        this.operator = operator;
+        this.values = Collections.unmodifiableList(values);
+    }
+
+    /**
+     * Parse the filter value of the attribute.
+     *
+     * @param value Filter value
+     * @param attribute Attribute filtered
+     *
+     * @return Condition or null when the value isn't written with an operator
+     *
+     * @throws IllegalArgumentException When the arguments don't match the operator or can't be
+     * converted to the type of the attribute
+     */
+    public static FilterCondition parse(String value, AttributeMetadata attribute) {
+        Matcher matcher = value == null ? null : EXPRESSION.matcher(value.trim());
+        FilterOperator operator = matcher != null && matcher.matches() ? FilterOperator.of(matcher.group(1)) : null;
+
+        if (operator == null) {
+            return null;
+        }
+
+        List<String> arguments = CrudUtilHelper.extractFields(matcher.group(2));
+
+        if (!operator.acceptArguments(arguments.size())) {
+            throw new IllegalArgumentException();
+        }
+
+        List<Object> values = new ArrayList<>(arguments.size());
+
+        if (operator == FilterOperator.PREFIX) {
+            if (!String.class.equals(attribute.getType()) || arguments.get(0).isEmpty()) {
+                throw new IllegalArgumentException();
+            }
+
+            values.add(escapeLike(arguments.get(0)) + "%");
+        } else {
+            for (String argument : arguments) {
+                values.add(convert(argument, attribute));
+            }
+        }
+
+        return new FilterCondition(operator, values);
+    }
+
+    /**
+     * @param value Filter value
+     *
+     * @return true when the value is written with an operator, like 'gt(10)'
+     */
+    public static boolean isExpression(String value) {
+        Matcher matcher = value == null ? null : EXPRESSION.matcher(value.trim());
+        return matcher != null && matcher.matches() && FilterOperator.of(matcher.group(1)) != null;
+    }
+
+    public FilterOperator getOperator() {
+        return operator;
+    }
+
+    /**
+     * @return Arguments converted to the type of the attribute, the pattern on
+     * {@link FilterOperator#PREFIX}
+     */
+    public List<Object> getValues() {
+        return values;
+    }
+
+    private static Object convert(String argument, AttributeMetadata attribute) {
+        Class<?> type = attribute.getType();
+
+        if (attribute.isEnum()) {
+            Integer ordinal = InList.convertEnum(attribute, argument);
+
+            if (ordinal == null) {
+                throw new IllegalArgumentException();
+            }
+
+            return ordinal;
+        }
+
+        if ((Date.class.isAssignableFrom(type) || Calendar.class.isAssignableFrom(type)) && !argument.matches("^-?\\d+$")) {
+            return KeysetCursor.convert(String.valueOf(toEpochMilli(argument)), type);
+        }
+
+        return KeysetCursor.convert(argument, type);
+    }
+
+    private static long toEpochMilli(String argument) {
+        try {
+            if (argument.length() == 10) {
+                return LocalDate.parse(argument).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            }
+
+            try {
+                return OffsetDateTime.parse(argument).toInstant().toEpochMilli();
+            } catch (DateTimeParseException e) {
+                // Without offset the date is on the time zone of the server
+                return LocalDateTime.parse(argument).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            }
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 4);
+
+        for (char letter : value.toCharArray()) {
+            if (letter == '%' || letter == '_' || letter == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(letter);
+        }
+
+        return escaped.toString();
+    }
+
+    @Override
+    public String toString() {
+        return operator.getKey() + values;
+    }
+
+}
@@ -6,6 +6,7 @@
  */
 package org.demoiselle.jee.crud.filter;
 
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
@@ -17,10 +18,13 @@ import javax.ws.rs.container.ResourceInfo;
 import javax.ws.rs.core.UriInfo;
 
 import org.demoiselle.jee.crud.CrudMessage;
+import org.demoiselle.jee.crud.CrudQuery;
 import org.demoiselle.jee.crud.CrudUtilHelper;
 import org.demoiselle.jee.crud.DemoiselleRequestContext;
-import org.demoiselle.jee.crud.ReservedKeyWords;
+import org.demoiselle.jee.crud.ResourceMethodDescriptor;
 import org.demoiselle.jee.crud.TreeNodeField;
+import org.demoiselle.jee.crud.metadata.AttributeMetadata;
+import org.demoiselle.jee.crud.metadata.EntityMetadata;
 
 /**
  * Class responsible for managing the 'filter' parameter comes from Url Query String.
@@ -35,6 +39,9 @@ import org.demoiselle.jee.crud.TreeNodeField;
  * This class will processing the request above and parse the values informed on parameters to 
  * a {@link org.demoiselle.jee.crud.TreeNodeField} object.
  * 
+ * The values written with an operator, like 'age=ge(18),lt(65)' or 'name=prefix(Jo)', are checked 
+ * against the type of the field (see {@link FilterCondition}).
+ * 
  * @author SERPRO
  */
 @RequestScoped
@@ -67,24 +74,35 @@ public class FilterHelper {
      * @param uriInfo UriInfo
      */
     public void execute(ResourceInfo resourceInfo, UriInfo uriInfo) {
+        this.uriInfo = uriInfo == null ? this.uriInfo : uriInfo;
+        execute(resourceInfo, this.uriInfo, CrudQuery.parse(this.uriInfo.getQueryParameters()));
+    }
+
+    /**
+     * Same as {@link #execute(ResourceInfo, UriInfo)} reading the parameters from the query
+     * string already parsed.
+     * 
+     * @param resourceInfo ResourceInfo
+     * @param uriInfo UriInfo
+     * @param query Query string of the request
+     */
+    public void execute(ResourceInfo resourceInfo, UriInfo uriInfo, CrudQuery query) {
         this.resourceInfo = resourceInfo == null ? this.resourceInfo : resourceInfo;
         this.uriInfo = uriInfo == null ? this.uriInfo : uriInfo;
         
-        Map<String, Set<String>> filters = new ConcurrentHashMap<>(5);
+        Map<String, Set<String>> filters = new LinkedHashMap<>();
         
-        uriInfo.getQueryParameters().forEach((key, values) ->{
-            if(!isReservedKey(key)){
-                Set<String> paramValues = new LinkedHashSet<>();
-                
-                values.stream().forEach(value -> {
-                    paramValues.addAll(CrudUtilHelper.extractFields(value));
-                });
-                
-                filters.putIfAbsent(key, paramValues);
-            }
+        query.getFilters().forEach((key, values) ->{
+            Set<String> paramValues = new LinkedHashSet<>();
+            
+            values.stream().forEach(value -> {
+                paramValues.addAll(CrudUtilHelper.extractFields(value));
+            });
+            
+            filters.put(key, paramValues);
         });
         
-        TreeNodeField<String, Set<String>> tnf = new TreeNodeField<>(CrudUtilHelper.getTargetClass(this.resourceInfo.getResourceClass()).getName(), ConcurrentHashMap.newKeySet(1));
+        TreeNodeField<String, Set<String>> tnf = new TreeNodeField<>(ResourceMethodDescriptor.of(this.resourceInfo).getTargetClass().getName(), ConcurrentHashMap.newKeySet(1));
         
         if(!filters.isEmpty()){
             filters.forEach( (key, value) ->
@@ -92,16 +110,54 @@ public class FilterHelper {
             );
             
             CrudUtilHelper.validateFields(tnf, this.resourceInfo, this.crudMessage);
+            validateConditions(tnf, ResourceMethodDescriptor.of(this.resourceInfo).getTargetClass());
             
             drc.setFilters(tnf);
         }
         
     }
 
-    private Boolean isReservedKey(String key) {
-        return key.equalsIgnoreCase(ReservedKeyWords.DEFAULT_RANGE_KEY.getKey()) 
-                || key.equalsIgnoreCase(ReservedKeyWords.DEFAULT_SORT_DESC_KEY.getKey()) 
-                || key.equalsIgnoreCase(ReservedKeyWords.DEFAULT_SORT_KEY.getKey())
-                || key.equalsIgnoreCase(ReservedKeyWords.DEFAULT_FIELD_KEY.getKey());
+    /**
+     * Check the values written with an operator, so a value that doesn't match the operator or
+     * can't be converted to the type of the field is answered with 400 (Bad Request).
+     */
+    private void validateConditions(TreeNodeField<String, Set<String>> tnf, Class<?> targetClass) {
+        EntityMetadata metadata = EntityMetadata.of(targetClass);
+
+        for (TreeNodeField<String, Set<String>> leaf : tnf.getChildren()) {
+            AttributeMetadata attribute = metadata.getAttribute(leaf.getKey());
+
+            if (attribute == null) {
+                continue;
+            }
+
+            if (leaf.getChildren().isEmpty()) {
+                validateConditions(leaf.getKey(), attribute, leaf.getValue());
+            } else {
+                EntityMetadata joined = EntityMetadata.of(attribute.getType());
+
+                for (TreeNodeField<String, Set<String>> subLeaf : leaf.getChildren()) {
+                    AttributeMetadata subAttribute = joined.getAttribute(subLeaf.getKey());
+
+                    if (subAttribute != null) {
+                        validateConditions(leaf.getKey() + "(" + subLeaf.getKey() + ")", subAttribute, subLeaf.getValue());
+                    }
+                }
+            }
+        }
+    }
+
+    private void validateConditions(String field, AttributeMetadata attribute, Set<String> values) {
+        if (values == null) {
+            return;
+        }
+
+        for (String value : values) {
+            try {
+                FilterCondition.parse(value, attribute);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(crudMessage.filterValueInvalid(value, field));
+            }
+        }
     }
 }
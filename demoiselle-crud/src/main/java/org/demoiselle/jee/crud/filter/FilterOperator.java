@@ -0,0 +1,61 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud.filter;
+
+/**
+ * Operators of a filter value written as 'operator(arguments)', see {@link FilterCondition}.
+ *
+ * @author SERPRO
+ */
+public enum FilterOperator {
+
+    NOT_EQUAL("ne", 1, 1),
+    GREATER_THAN("gt", 1, 1),
+    GREATER_THAN_OR_EQUAL("ge", 1, 1),
+    LESS_THAN("lt", 1, 1),
+    LESS_THAN_OR_EQUAL("le", 1, 1),
+    BETWEEN("between", 2, 2),
+    IN("in", 1, Integer.MAX_VALUE),
+    PREFIX("prefix", 1, 1);
+
+    private final String key;
+    private final int minArguments;
+    private final int maxArguments;
+
+    FilterOperator(String key, int minArguments, int maxArguments) {
+        this.key = key;
+        this.minArguments = minArguments;
+        this.maxArguments = maxArguments;
+    }
+
+    /**
+     * @return Name of the operator on the query string
+     */
+    public String getKey() {
+        return key;
+    }
+
+    public boolean acceptArguments(int quantity) {
+        return quantity >= minArguments && quantity <= maxArguments;
+    }
+
+    /**
+     * @param key Name of the operator on the query string, ignoring case
+     *
+     * @return Operator or null when it doesn't exist
+     */
+    public static FilterOperator of(String key) {
+        for (FilterOperator operator : values()) {
+            if (operator.key.equalsIgnoreCase(key)) {
+                return operator;
+            }
+        }
+
+        return null;
+    }
+
+}
@@ -0,0 +1,567 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud.filter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+import javax.persistence.Query;
+
+import org.demoiselle.jee.crud.AbstractDAO;
+import org.demoiselle.jee.crud.TreeNodeField;
+import org.demoiselle.jee.crud.metadata.AttributeMetadata;
+import org.demoiselle.jee.crud.metadata.EntityMetadata;
+import org.demoiselle.jee.crud.sort.CrudSort;
+import org.demoiselle.jee.crud.sort.SortModel;
+
+/**
+ * Pre-built JPQL of the filters and sorts of a request, used by {@link AbstractDAO} instead of
+ * building a CriteriaQuery on every request.
+ *
+ * The filters are reduced to a shape: the names of the fields and the kind of each value (null,
+ * like, isTrue, isFalse, equal or the operator of a {@link FilterCondition} with its quantity of
+ * arguments), without the values. The values of a field compared by equal become a single IN with
+ * its quantity of parameters padded by {@link InList}. All requests with the same shape use the
+ * same plan (only the most recently used shapes are kept), so a request only binds its values to
+ * the positional parameters and the persistence provider can reuse the parsed query.
+ *
+ * Given the filters 'name=*john*&amp;age=30' and the sort 'name' the statement will be:
+ *
+ * <pre>
+ * SELECT e FROM Entity e WHERE (LOWER(e.name) LIKE ?1) AND (e.age = ?2) ORDER BY e.name ASC
+ * </pre>
+ *
+ * @author SERPRO
+ */
+public class FilterPlan {
+
+    private static final int MAX_PLANS = 1024;
+
+    private static final String ALIAS = "e";
+
+    private static final Map<String, FilterPlan> PLANS = Collections.synchronizedMap(new LinkedHashMap<String, FilterPlan>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, FilterPlan> eldest) {
+            return size() > MAX_PLANS;
+        }
+    });
+
+    private final String selectStatement;
+    private final String countStatement;
+
+    private FilterPlan(String selectStatement, String countStatement) {
+        this.selectStatement = selectStatement;
+        this.countStatement = countStatement;
+    }
+
+    /**
+     * @return JPQL that selects the entities, with the sorts
+     */
+    public String getSelectStatement() {
+        return selectStatement;
+    }
+
+    /**
+     * @return JPQL that counts the entities, without the sorts
+     */
+    public String getCountStatement() {
+        return countStatement;
+    }
+
+    /**
+     * Get the plan of the filters and sorts and the values to be bound to it.
+     *
+     * The plan is not available (null is returned) when a filter or sort is not an attribute of
+     * the entity, when a value can't be converted to the type of the attribute or when a filter of
+     * an association doesn't have values. The caller should build the query by Criteria API on
+     * these cases, keeping the previous behavior.
+     *
+     * @param entityClass Entity
+     * @param filters Filters of the request or null
+     * @param sorts Sorts of the request or null
+     *
+     * @return Plan with the values or null when the plan is not available
+     */
+    public static Binding bind(Class<?> entityClass, TreeNodeField<String, Set<String>> filters, List<SortModel> sorts) {
+        return bind(entityClass, filters, sorts, InList.DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Same as {@link #bind(Class, TreeNodeField, List)} with the max quantity of values of each
+     * IN predicate (see {@link InList}).
+     *
+     * @param entityClass Entity
+     * @param filters Filters of the request or null
+     * @param sorts Sorts of the request or null
+     * @param inListChunkSize Max quantity of values of each IN predicate
+     *
+     * @return Plan with the values or null when the plan is not available
+     */
+    public static Binding bind(Class<?> entityClass, TreeNodeField<String, Set<String>> filters, List<SortModel> sorts, int inListChunkSize) {
+        return bind(entityClass, filters, sorts, Collections.emptyList(), inListChunkSize);
+    }
+
+    /**
+     * Same as {@link #bind(Class, TreeNodeField, List, int)} with the associations read on the
+     * same statement (LEFT JOIN FETCH), only the select statement fetches them.
+     *
+     * @param entityClass Entity
+     * @param filters Filters of the request or null
+     * @param sorts Sorts of the request or null
+     * @param fetches ManyToOne and OneToOne associations of the entity
+     * @param inListChunkSize Max quantity of values of each IN predicate
+     *
+     * @return Plan with the values or null when the plan is not available
+     */
+    public static Binding bind(Class<?> entityClass, TreeNodeField<String, Set<String>> filters, List<SortModel> sorts,
+            List<String> fetches, int inListChunkSize) {
+        EntityMetadata metadata = EntityMetadata.of(entityClass);
+        StringBuilder shape = new StringBuilder(entityClass.getName()).append('|');
+
+        for (String fetch : fetches) {
+            shape.append('+').append(fetch);
+        }
+
+        shape.append('|');
+        List<Clause> clauses = new ArrayList<>();
+
+        if (filters != null) {
+            for (TreeNodeField<String, Set<String>> child : filters.getChildren()) {
+                AttributeMetadata attribute = metadata.getAttribute(child.getKey());
+
+                if (attribute == null) {
+                    return null;
+                }
+
+                shape.append(child.getKey());
+
+                if (child.getChildren().isEmpty()) {
+                    List<Term> terms = buildTerms(attribute, child.getValue(), true, inListChunkSize);
+
+                    if (terms == null) {
+                        return null;
+                    }
+
+                    appendShape(shape, terms);
+                    clauses.add(new Clause(child.getKey(), null, terms));
+                } else {
+                    EntityMetadata joined = EntityMetadata.of(attribute.getType());
+                    shape.append('(');
+
+                    for (TreeNodeField<String, Set<String>> subChild : child.getChildren()) {
+                        AttributeMetadata subAttribute = joined.getAttribute(subChild.getKey());
+
+                        // Without values the Criteria API builds an empty OR, that is false
+                        if (subAttribute == null || subChild.getValue() == null || subChild.getValue().isEmpty()) {
+                            return null;
+                        }
+
+                        shape.append(subChild.getKey());
+
+                        List<Term> terms = buildTerms(subAttribute, subChild.getValue(), false, inListChunkSize);
+
+                        if (terms == null) {
+                            return null;
+                        }
+
+                        appendShape(shape, terms);
+                        clauses.add(new Clause(child.getKey(), subChild.getKey(), terms));
+                    }
+
+                    shape.append(')');
+                }
+
+                shape.append(';');
+            }
+        }
+
+        if (sorts != null) {
+            for (SortModel sort : sorts) {
+                if (metadata.getAttribute(sort.getField()) == null) {
+                    return null;
+                }
+                shape.append('^').append(sort.getField()).append(' ').append(sort.getType());
+            }
+        }
+
+        String key = shape.toString();
+        FilterPlan plan = PLANS.get(key);
+
+        if (plan == null) {
+            plan = compile(metadata, clauses, sorts, fetches);
+            PLANS.put(key, plan);
+        }
+
+        List<Object> values = new ArrayList<>();
+
+        for (Clause clause : clauses) {
+            for (Term term : clause.terms) {
+                values.addAll(term.values);
+            }
+        }
+
+        return new Binding(plan, values);
+    }
+
+    /**
+     * Build the terms of the values of a field: the values compared by equal become a single IN
+     * (see {@link InList}), the other values are a term each.
+     *
+     * @return Terms or null when a value can't be converted to the type of the attribute
+     */
+    private static List<Term> buildTerms(AttributeMetadata attribute, Set<String> filterValues, boolean isRoot, int inListChunkSize) {
+        if (filterValues == null) {
+            return null;
+        }
+
+        List<Term> terms = new ArrayList<>();
+        List<Object> inValues = InList.equalValues(attribute, filterValues, isRoot);
+
+        if (inValues != null) {
+            terms.add(Term.in(inValues, inListChunkSize, false));
+        }
+
+        for (String value : filterValues) {
+            if (inValues != null && InList.isEqualValue(value, isRoot)) {
+                continue;
+            }
+
+            FilterCondition condition;
+
+            try {
+                condition = FilterCondition.parse(value, attribute);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+
+            if (condition != null) {
+                terms.add(condition.getOperator() == FilterOperator.IN ? Term.in(condition.getValues(), inListChunkSize, true) : Term.of(condition));
+                continue;
+            }
+
+            Operator operator = classify(value, isRoot);
+
+            if (operator == Operator.LIKE) {
+                terms.add(Term.of(operator, toLikePattern(value)));
+            } else if (operator == Operator.EQUAL) {
+                Object converted = InList.convert(attribute, value);
+
+                if (converted == null) {
+                    return null;
+                }
+
+                terms.add(Term.of(operator, converted));
+            } else {
+                terms.add(Term.of(operator, null));
+            }
+        }
+
+        return terms;
+    }
+
+    private static void appendShape(StringBuilder shape, List<Term> terms) {
+        shape.append('[');
+
+        for (Term term : terms) {
+            shape.append(term.shape);
+        }
+
+        shape.append(']');
+    }
+
+    private static FilterPlan compile(EntityMetadata metadata, List<Clause> clauses, List<SortModel> sorts, List<String> fetches) {
+        String from = " FROM " + metadata.getTargetClass().getCanonicalName() + " " + ALIAS;
+        StringBuilder joinClauses = new StringBuilder();
+        List<String> conditions = new ArrayList<>();
+        int position = 0;
+        int joins = 0;
+        String association = null;
+        String join = null;
+
+        for (Clause clause : clauses) {
+            List<String> terms = new ArrayList<>();
+            String path;
+
+            if (clause.subField == null) {
+                path = ALIAS + "." + clause.field;
+            } else {
+                if (!clause.field.equals(association)) {
+                    association = clause.field;
+                    join = "j" + joins++;
+                    joinClauses.append(" JOIN ").append(ALIAS).append('.').append(association).append(' ').append(join);
+                }
+
+                path = join + "." + clause.subField;
+            }
+
+            List<String> operatorTerms = new ArrayList<>();
+
+            for (Term term : clause.terms) {
+                (clause.subField != null && term.condition ? operatorTerms : terms).add(term.render(path, position + 1));
+                position += term.values.size();
+            }
+
+            if (clause.subField != null) {
+                // The operators of an association are AND-ed, as on the root, the other terms OR-ed
+                if (operatorTerms.isEmpty()) {
+                    conditions.add("(" + String.join(" OR ", terms) + ")");
+                } else {
+                    if (!terms.isEmpty()) {
+                        operatorTerms.add("(" + String.join(" OR ", terms) + ")");
+                    }
+                    conditions.add("(" + String.join(" AND ", operatorTerms) + ")");
+                }
+            } else if (!terms.isEmpty()) {
+                // Without values the Criteria API builds an empty AND, that is true
+                conditions.add("(" + String.join(" AND ", terms) + ")");
+            }
+        }
+
+        String where = conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+
+        StringBuilder select = new StringBuilder("SELECT ").append(ALIAS).append(from);
+
+        for (String fetch : fetches) {
+            select.append(" LEFT JOIN FETCH ").append(ALIAS).append('.').append(fetch);
+        }
+
+        select.append(joinClauses).append(where);
+
+        if (sorts != null && !sorts.isEmpty()) {
+            select.append(" ORDER BY ");
+
+            for (int i = 0; i < sorts.size(); i++) {
+                if (i > 0) {
+                    select.append(", ");
+                }
+                select.append(ALIAS).append('.').append(sorts.get(i).getField())
+                        .append(CrudSort.DESC.equals(sorts.get(i).getType()) ? " DESC" : " ASC");
+            }
+        }
+
+        return new FilterPlan(select.toString(), "SELECT COUNT(" + ALIAS + ")" + from + joinClauses + where);
+    }
+
+    /**
+     * Same order of checks of {@link AbstractDAO} buildPredicates, the 'isTrue' and 'isFalse'
+     * values are only checked on the fields of the entity.
+     */
+    private static Operator classify(String value, boolean isRoot) {
+        if (value == null || "null".equals(value)) {
+            return Operator.IS_NULL;
+        }
+        if (value.startsWith("*") || value.endsWith("*")) {
+            return Operator.LIKE;
+        }
+        if (isRoot && value.equalsIgnoreCase("isTrue")) {
+            return Operator.IS_TRUE;
+        }
+        if (isRoot && value.equalsIgnoreCase("isFalse")) {
+            return Operator.IS_FALSE;
+        }
+        return Operator.EQUAL;
+    }
+
+    /**
+     * Render the condition with its argument on the positional parameter 'position'.
+     */
+    private static String render(FilterOperator operator, String path, int position) {
+        switch (operator) {
+            case NOT_EQUAL:
+                return path + " <> ?" + position;
+            case GREATER_THAN:
+                return path + " > ?" + position;
+            case GREATER_THAN_OR_EQUAL:
+                return path + " >= ?" + position;
+            case LESS_THAN:
+                return path + " < ?" + position;
+            case LESS_THAN_OR_EQUAL:
+                return path + " <= ?" + position;
+            case BETWEEN:
+                return path + " BETWEEN ?" + position + " AND ?" + (position + 1);
+            default:
+                // Without LOWER() the database can use an index of the column
+                return path + " LIKE ?" + position + " ESCAPE '" + FilterCondition.LIKE_ESCAPE + "'";
+        }
+    }
+
+    /**
+     * Render the IN of each chunk, joined by OR, with the values on the positional parameters
+     * starting on 'position'.
+     */
+    private static String renderIn(String path, int position, List<Integer> chunkSizes) {
+        List<String> ins = new ArrayList<>(chunkSizes.size());
+        int parameter = position;
+
+        for (int size : chunkSizes) {
+            StringBuilder in = new StringBuilder(path).append(" IN (");
+
+            for (int i = 0; i < size; i++) {
+                in.append(i > 0 ? ", ?" : "?").append(parameter++);
+            }
+
+            ins.add(in.append(')').toString());
+        }
+
+        return ins.size() == 1 ? ins.get(0) : "(" + String.join(" OR ", ins) + ")";
+    }
+
+    private static String toLikePattern(String value) {
+        String pattern = value.trim();
+
+        if (pattern.startsWith("*")) {
+            pattern = "%" + pattern.substring(1);
+        }
+        if (pattern.endsWith("*")) {
+            pattern = pattern.substring(0, pattern.length() - 1) + "%";
+        }
+
+        return pattern.toLowerCase();
+    }
+
+    /**
+     * The filters of a field of the entity (subField is null) or of a field of an association.
+     */
+    private static final class Clause {
+
+        private final String field;
+        private final String subField;
+        private final List<Term> terms;
+
+        Clause(String field, String subField, List<Term> terms) {
+            this.field = field;
+            this.subField = subField;
+            this.terms = terms;
+        }
+    }
+
+    /**
+     * A value of a filter: its kind on the shape, the values bound to its parameters and how it is
+     * rendered on the JPQL.
+     */
+    private static final class Term {
+
+        private final String shape;
+        private final List<Object> values;
+        private final BiFunction<String, Integer, String> renderer;
+        private final boolean condition;
+
+        private Term(String shape, List<Object> values, BiFunction<String, Integer, String> renderer, boolean condition) {
+            this.shape = shape;
+            this.values = values;
+            this.renderer = renderer;
+            this.condition = condition;
+        }
+
+        static Term of(Operator operator, Object value) {
+            List<Object> values = operator.hasParameter ? Collections.singletonList(value) : Collections.emptyList();
+            return new Term(String.valueOf(operator.code), values, operator::render, false);
+        }
+
+        static Term of(FilterCondition condition) {
+            FilterOperator operator = condition.getOperator();
+            return new Term("(" + operator.getKey() + ")", condition.getValues(), (path, position) -> FilterPlan.render(operator, path, position), true);
+        }
+
+        static Term in(List<Object> values, int chunkSize, boolean condition) {
+            List<Object> padded = new ArrayList<>();
+            List<Integer> chunkSizes = new ArrayList<>();
+
+            for (List<Object> chunk : InList.chunks(values, chunkSize)) {
+                padded.addAll(chunk);
+                chunkSizes.add(chunk.size());
+            }
+
+            return new Term((condition ? "(in:" : "(in") + chunkSizes + ")", padded, (path, position) -> renderIn(path, position, chunkSizes), condition);
+        }
+
+        String render(String path, int position) {
+            return renderer.apply(path, position);
+        }
+    }
+
+    private enum Operator {
+
+        IS_NULL('n', false),
+        LIKE('l', true),
+        IS_TRUE('t', false),
+        IS_FALSE('f', false),
+        EQUAL('e', true);
+
+        private final char code;
+        private final boolean hasParameter;
+
+        Operator(char code, boolean hasParameter) {
+            this.code = code;
+            this.hasParameter = hasParameter;
+        }
+
+        String render(String path, int position) {
+            switch (this) {
+                case IS_NULL:
+                    return path + " IS NULL";
+                case LIKE:
+                    return "LOWER(" + path + ") LIKE ?" + position;
+                case IS_TRUE:
+                    return path + " = TRUE";
+                case IS_FALSE:
+                    return path + " = FALSE";
+                default:
+                    return path + " = ?" + position;
+            }
+        }
+    }
+
+    /**
+     * A {@link FilterPlan} with the values of a request.
+     */
+    public static class Binding {
+
+        private final FilterPlan plan;
+        private final List<Object> values;
+
+        Binding(FilterPlan plan, List<Object> values) {
+            this.plan = plan;
+            this.values = values;
+        }
+
+        public FilterPlan getPlan() {
+            return plan;
+        }
+
+        /**
+         * @return Values in the order of the positional parameters of the plan
+         */
+        public List<Object> getValues() {
+            return values;
+        }
+
+        /**
+         * Bind the values to the positional parameters of a query created from the plan.
+         *
+         * @param query Query created from {@link FilterPlan#getSelectStatement()} or
+         * {@link FilterPlan#getCountStatement()}
+         *
+         * @return The same query
+         */
+        public <Q extends Query> Q setParameters(Q query) {
+            for (int i = 0; i < values.size(); i++) {
+                query.setParameter(i + 1, values.get(i));
+            }
+
+            return query;
+        }
+    }
+
+}
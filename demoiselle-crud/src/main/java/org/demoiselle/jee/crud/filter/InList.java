@@ -0,0 +1,161 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud.filter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.demoiselle.jee.crud.metadata.AttributeMetadata;
+import org.demoiselle.jee.crud.pagination.KeysetCursor;
+
+/**
+ * Batching of the values of an IN predicate, used by {@link FilterPlan} and by
+ * {@link org.demoiselle.jee.crud.AbstractDAO}.
+ *
+ * The values of a field compared by equal (e.g. 'status=OPEN,CLOSED') become a single IN
+ * predicate. The quantity of parameters is padded to the next power of two, repeating the last
+ * value, so lists of 5 to 8 values share the same statement (and the cached plan of the
+ * database). Lists larger than the chunk size are split into IN predicates joined by OR, the
+ * databases limit the quantity of values of an IN (e.g. 1000 on Oracle).
+ *
+ * @author SERPRO
+ */
+public final class InList {
+
+    /**
+     * Default quantity of values of each IN, see
+     * {@link org.demoiselle.jee.crud.DemoiselleCrudConfig#getInListChunkSize()}
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 512;
+
+    private InList() {
+    }
+
+    /**
+     * Split the values in chunks of at most 'chunkSize' values, each chunk padded to the next
+     * power of two (limited by 'chunkSize') repeating its last value.
+     *
+     * @param values Values, at least one
+     * @param chunkSize Max quantity of values of each chunk
+     *
+     * @return Padded chunks
+     */
+    public static List<List<Object>> chunks(List<Object> values, int chunkSize) {
+        int size = chunkSize <= 0 ? DEFAULT_CHUNK_SIZE : chunkSize;
+        List<List<Object>> chunks = new ArrayList<>();
+
+        for (int start = 0; start < values.size(); start += size) {
+            List<Object> chunk = new ArrayList<>(values.subList(start, Math.min(start + size, values.size())));
+            int bucket = Math.min(bucket(chunk.size()), size);
+
+            while (chunk.size() < bucket) {
+                chunk.add(chunk.get(chunk.size() - 1));
+            }
+
+            chunks.add(chunk);
+        }
+
+        return chunks;
+    }
+
+    /**
+     * @param size Quantity of values
+     *
+     * @return Next power of two of the quantity
+     */
+    public static int bucket(int size) {
+        return size <= 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+    }
+
+    /**
+     * Check if the filter value is compared by equal, the same checks of {@link FilterPlan}: it
+     * isn't null, like, isTrue, isFalse (on the fields of the entity) or written with an operator.
+     *
+     * @param value Filter value
+     * @param isRoot The field is of the entity, not of an association
+     *
+     * @return true when the value is compared by equal
+     */
+    public static boolean isEqualValue(String value, boolean isRoot) {
+        if (value == null || "null".equals(value) || value.startsWith("*") || value.endsWith("*")) {
+            return false;
+        }
+
+        if (isRoot && (value.equalsIgnoreCase("isTrue") || value.equalsIgnoreCase("isFalse"))) {
+            return false;
+        }
+
+        return !FilterCondition.isExpression(value);
+    }
+
+    /**
+     * Get the values of the field compared by equal, converted to the type of the attribute.
+     *
+     * @param attribute Attribute or null when it isn't known
+     * @param values Filter values of the field
+     * @param isRoot The field is of the entity, not of an association
+     *
+     * @return Values or null when there are less than two values or any of them can't be converted,
+     * then each value is compared alone
+     */
+    public static List<Object> equalValues(AttributeMetadata attribute, Set<String> values, boolean isRoot) {
+        if (attribute == null || values == null || values.size() < 2) {
+            return null;
+        }
+
+        List<Object> converted = new ArrayList<>(values.size());
+
+        for (String value : values) {
+            if (isEqualValue(value, isRoot)) {
+                Object convertedValue = convert(attribute, value);
+
+                if (convertedValue == null) {
+                    return null;
+                }
+
+                converted.add(convertedValue);
+            }
+        }
+
+        return converted.size() < 2 ? null : converted;
+    }
+
+    /**
+     * Convert the filter value to the type of the attribute.
+     *
+     * @param attribute Attribute
+     * @param value Filter value
+     *
+     * @return Converted value or null when it can't be converted
+     */
+    public static Object convert(AttributeMetadata attribute, String value) {
+        if (attribute.isEnum()) {
+            return convertEnum(attribute, value);
+        }
+
+        try {
+            return KeysetCursor.convert(value, attribute.getType());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Enums are bound by ordinal, the same way the single value filter always did.
+     *
+     * @param attribute Enum attribute
+     * @param value Name of the constant, case insensitive
+     *
+     * @return Ordinal of the constant or null when there is no constant with the name
+     */
+    public static Integer convertEnum(AttributeMetadata attribute, String value) {
+        Enum<?> constant = attribute.getEnumConstant(value);
+        return constant == null ? null : constant.ordinal();
+    }
+
+}
@@ -0,0 +1,184 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud.metadata;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.persistence.Basic;
+import javax.persistence.Column;
+import javax.persistence.EmbeddedId;
+import javax.persistence.Id;
+import javax.persistence.ManyToOne;
+import javax.persistence.OneToOne;
+
+import org.demoiselle.jee.crud.exception.DemoiselleCrudException;
+import org.demoiselle.jee.crud.search.Searchable;
+
+/**
+ * Metadata of an attribute (field) of a class, built once by {@link EntityMetadata}.
+ *
+ * The value of the attribute is read by a {@link MethodHandle} created when the metadata is built,
+ * so reading it doesn't need reflection.
+ *
+ * @author SERPRO
+ */
+public class AttributeMetadata {
+
+    private final String name;
+    private final Class<?> type;
+    private final Field field;
+    private final MethodHandle getter;
+    private final boolean id;
+    private final boolean nullable;
+    private final boolean updatable;
+    private final boolean singularAssociation;
+    private final boolean searchable;
+    private final Map<String, Enum<?>> enumConstants;
+
+    AttributeMetadata(Field field) {
+        this.name = field.getName();
+        this.type = field.getType();
+        this.field = field;
+        this.id = field.isAnnotationPresent(Id.class) || field.isAnnotationPresent(EmbeddedId.class);
+        this.nullable = isNullable(field, id);
+        this.updatable = isUpdatable(field);
+        this.singularAssociation = field.isAnnotationPresent(ManyToOne.class) || field.isAnnotationPresent(OneToOne.class);
+        this.searchable = field.isAnnotationPresent(Searchable.class);
+        this.enumConstants = buildEnumConstants(field.getType());
+
+        try {
+            field.setAccessible(true);
+            this.getter = MethodHandles.lookup().unreflectGetter(field)
+                    .asType(MethodType.methodType(Object.class, Object.class));
+        } catch (IllegalAccessException | SecurityException e) {
+            throw new DemoiselleCrudException("Não foi possível acessar o atributo [%s]".replace("%s", name), e);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    public Field getField() {
+        return field;
+    }
+
+    /**
+     * @return true when the attribute is annotated with {@link Id} or {@link EmbeddedId}
+     */
+    public boolean isId() {
+        return id;
+    }
+
+    /**
+     * @return false when the attribute is an identifier, has a primitive type or is annotated with
+     * {@link Column#nullable()} or {@link Basic#optional()} set with 'false'
+     */
+    public boolean isNullable() {
+        return nullable;
+    }
+
+    /**
+     * @return true when the attribute is a {@link ManyToOne} or is annotated with
+     * {@link Column#updatable()} set with 'true'
+     */
+    public boolean isUpdatable() {
+        return updatable;
+    }
+
+    /**
+     * @return true when the attribute is annotated with {@link ManyToOne} or {@link OneToOne}
+     */
+    public boolean isSingularAssociation() {
+        return singularAssociation;
+    }
+
+    /**
+     * @return true when the attribute is annotated with {@link Searchable}
+     */
+    public boolean isSearchable() {
+        return searchable;
+    }
+
+    public boolean isEnum() {
+        return enumConstants != null;
+    }
+
+    /**
+     * Read the value of the attribute.
+     *
+     * @param object Object that has the attribute
+     *
+     * @return Value of the attribute
+     */
+    public Object getValue(Object object) {
+        try {
+            return getter.invokeExact(object);
+        } catch (Throwable e) {
+            throw new DemoiselleCrudException("Não foi possível acessar o atributo [%s]".replace("%s", name), e);
+        }
+    }
+
+    /**
+     * Find the enum constant which {@link Enum#toString()} is equal (ignoring case) to the value.
+     *
+     * @param value Value
+     *
+     * @return Enum constant or null when the attribute is not an enum or the constant doesn't exist
+     */
+    public Enum<?> getEnumConstant(String value) {
+        if (enumConstants == null || value == null) {
+            return null;
+        }
+
+        return enumConstants.get(value.toLowerCase(Locale.ROOT));
+    }
+
+    private static boolean isNullable(Field field, boolean id) {
+        if (id || field.getType().isPrimitive()) {
+            return false;
+        }
+
+        Column column = field.getAnnotation(Column.class);
+        Basic basic = field.getAnnotation(Basic.class);
+        return (column == null || column.nullable()) && (basic == null || basic.optional());
+    }
+
+    private static boolean isUpdatable(Field field) {
+        if (field.isAnnotationPresent(ManyToOne.class)) {
+            return true;
+        }
+
+        Column column = field.getAnnotation(Column.class);
+        return column != null && column.updatable();
+    }
+
+    private static Map<String, Enum<?>> buildEnumConstants(Class<?> type) {
+        if (!type.isEnum()) {
+            return null;
+        }
+
+        Map<String, Enum<?>> constants = new HashMap<>();
+        for (Object constant : type.getEnumConstants()) {
+            constants.putIfAbsent(constant.toString().toLowerCase(Locale.ROOT), (Enum<?>) constant);
+        }
+
+        return Collections.unmodifiableMap(constants);
+    }
+
+}
@@ -0,0 +1,199 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud.metadata;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.demoiselle.jee.crud.bootstrap.PersistenceBootstrap;
+
+/**
+ * Metadata of a class used by CRUD feature (filter, sort, fields and partial update), built once
+ * by class so the requests don't need to walk the fields and annotations of the class.
+ *
+ * The metadata of the entities is built by {@link PersistenceBootstrap} when the application
+ * starts, the metadata of other classes (e.g. embeddables) is built on the first use.
+ *
+ * @author SERPRO
+ */
+public class EntityMetadata {
+
+    private static final Map<Class<?>, EntityMetadata> REGISTRY = new ConcurrentHashMap<>();
+
+    private static final int MAX_UPDATE_STATEMENTS = 256;
+
+    private final Class<?> targetClass;
+    private final Map<String, AttributeMetadata> attributes;
+    private final Map<String, AttributeMetadata> attributesIgnoreCase;
+    private final List<AttributeMetadata> updatableAttributes;
+    private final List<AttributeMetadata> searchableAttributes;
+    private final AttributeMetadata idAttribute;
+    private final Map<BitSet, String> updateStatements;
+
+    private EntityMetadata(Class<?> targetClass) {
+        Map<String, AttributeMetadata> attributesByName = new LinkedHashMap<>();
+        Map<String, AttributeMetadata> attributesByLowerName = new HashMap<>();
+        List<AttributeMetadata> updatable = new ArrayList<>();
+        List<AttributeMetadata> searchable = new ArrayList<>();
+        AttributeMetadata id = null;
+
+        // The fields of the class shadow the fields with the same name of the superclasses
+        for (Class<?> clazz = targetClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            for (Field field : clazz.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()
+                        || attributesByName.containsKey(field.getName())) {
+                    continue;
+                }
+
+                AttributeMetadata attribute = new AttributeMetadata(field);
+                attributesByName.put(attribute.getName(), attribute);
+                attributesByLowerName.putIfAbsent(attribute.getName().toLowerCase(Locale.ROOT), attribute);
+
+                if (attribute.isUpdatable()) {
+                    updatable.add(attribute);
+                }
+                if (attribute.isSearchable()) {
+                    searchable.add(attribute);
+                }
+                if (id == null && attribute.isId()) {
+                    id = attribute;
+                }
+            }
+        }
+
+        this.targetClass = targetClass;
+        this.attributes = Collections.unmodifiableMap(attributesByName);
+        this.attributesIgnoreCase = Collections.unmodifiableMap(attributesByLowerName);
+        this.updatableAttributes = Collections.unmodifiableList(updatable);
+        this.searchableAttributes = Collections.unmodifiableList(searchable);
+        this.idAttribute = id;
+        this.updateStatements = Collections.synchronizedMap(new LinkedHashMap<BitSet, String>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<BitSet, String> eldest) {
+                return size() > MAX_UPDATE_STATEMENTS;
+            }
+        });
+    }
+
+    /**
+     * Get the metadata of the class, building it on the first use.
+     *
+     * @param targetClass Class
+     *
+     * @return Metadata of the class
+     */
+    public static EntityMetadata of(Class<?> targetClass) {
+        return REGISTRY.computeIfAbsent(targetClass, EntityMetadata::new);
+    }
+
+    public Class<?> getTargetClass() {
+        return targetClass;
+    }
+
+    /**
+     * @param name Name of the attribute
+     *
+     * @return Attribute or null when it doesn't exist
+     */
+    public AttributeMetadata getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    /**
+     * @param name Name of the attribute, ignoring case
+     *
+     * @return Attribute or null when it doesn't exist
+     */
+    public AttributeMetadata getAttributeIgnoreCase(String name) {
+        AttributeMetadata attribute = attributes.get(name);
+        return attribute != null || name == null ? attribute : attributesIgnoreCase.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    public Collection<AttributeMetadata> getAttributes() {
+        return attributes.values();
+    }
+
+    /**
+     * @return Attributes used by partial update, see {@link AttributeMetadata#isUpdatable()}
+     */
+    public List<AttributeMetadata> getUpdatableAttributes() {
+        return updatableAttributes;
+    }
+
+    /**
+     * @return Attributes of the full-text search, see {@link AttributeMetadata#isSearchable()}
+     */
+    public List<AttributeMetadata> getSearchableAttributes() {
+        return searchableAttributes;
+    }
+
+    /**
+     * @return Identifier attribute or null when the class doesn't have one
+     */
+    public AttributeMetadata getIdAttribute() {
+        return idAttribute;
+    }
+
+    /**
+     * @return Name of the identifier attribute or null when the class doesn't have one
+     */
+    public String getIdAttributeName() {
+        return idAttribute == null ? null : idAttribute.getName();
+    }
+
+    /**
+     * Get the JPQL used by partial update of the given columns, the statement is built once by
+     * set of columns (only the most recently used sets are kept), so the persistence
+     * provider receives the same JPQL and can reuse the parsed query.
+     *
+     * Given the columns 'name' and 'mail' the statement will be:
+     *
+     * <pre>
+     * UPDATE Entity SET name = ?1, mail = ?2 WHERE id = ?3
+     * </pre>
+     *
+     * @param columns Bits of the {@link #getUpdatableAttributes()} to be updated, must not be
+     * changed after this call
+     *
+     * @return JPQL with positional parameters, the values of the columns in the order of
+     * {@link #getUpdatableAttributes()} followed by the identifier
+     */
+    public String getUpdateStatement(BitSet columns) {
+        return updateStatements.computeIfAbsent(columns, this::buildUpdateStatement);
+    }
+
+    private String buildUpdateStatement(BitSet columns) {
+        StringBuilder sb = new StringBuilder();
+        int position = 0;
+
+        sb.append("UPDATE ").append(targetClass.getCanonicalName()).append(" SET ");
+
+        for (int i = columns.nextSetBit(0); i >= 0; i = columns.nextSetBit(i + 1)) {
+            if (position > 0) {
+                sb.append(", ");
+            }
+            sb.append(updatableAttributes.get(i).getName()).append(" = ?").append(++position);
+        }
+
+        sb.append(" WHERE ").append(getIdAttributeName()).append(" = ?").append(++position);
+
+        return sb.toString();
+    }
+
+}
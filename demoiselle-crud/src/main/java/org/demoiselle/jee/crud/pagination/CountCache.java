@@ -0,0 +1,129 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud.pagination;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.demoiselle.jee.crud.AbstractDAO;
+
+/**
+ * Class responsible for keeping the results of count queries used by {@link CountStrategy#CACHED}.
+ *
+ * The counts are grouped by entity, so {@link AbstractDAO} can invalidate all counts of an entity
+ * when it is changed, and each count expires after
+ * {@link PaginationHelperConfig#getCountCacheTimeToLiveMilliseconds()}. The quantity of counts by
+ * entity is limited by {@link PaginationHelperConfig#getCountCacheMaxSize()}.
+ *
+ * @author SERPRO
+ */
+@ApplicationScoped
+public class CountCache {
+
+    private static final long DEFAULT_TIME_TO_LIVE = 60_000L;
+    private static final int DEFAULT_MAX_SIZE = 1_000;
+
+    private final Map<Class<?>, Map<String, CachedCount>> counts = new ConcurrentHashMap<>();
+
+    @Inject
+    private PaginationHelperConfig paginationConfig;
+
+    public CountCache() {
+    }
+
+    public CountCache(PaginationHelperConfig paginationConfig) {
+        this.paginationConfig = paginationConfig;
+    }
+
+    /**
+     * Get the count of the entity for the given key.
+     *
+     * @param entityClass Entity
+     * @param key Key that represents the filters of the count
+     *
+     * @return Count or null when it doesn't exist or is expired
+     */
+    public Long get(Class<?> entityClass, String key) {
+        Map<String, CachedCount> entityCounts = counts.get(entityClass);
+
+        if (entityCounts != null) {
+            CachedCount cachedCount = entityCounts.get(key);
+
+            if (cachedCount != null) {
+                if (!cachedCount.isExpired(System.currentTimeMillis())) {
+                    return cachedCount.count;
+                }
+                entityCounts.remove(key, cachedCount);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Keep the count of the entity for the given key.
+     *
+     * @param entityClass Entity
+     * @param key Key that represents the filters of the count
+     * @param count Count
+     */
+    public void put(Class<?> entityClass, String key, Long count) {
+        Map<String, CachedCount> entityCounts = counts.computeIfAbsent(entityClass, (k) -> new ConcurrentHashMap<>());
+        long now = System.currentTimeMillis();
+
+        if (entityCounts.size() >= getMaxSize()) {
+            entityCounts.values().removeIf((cachedCount) -> cachedCount.isExpired(now));
+
+            Iterator<String> it = entityCounts.keySet().iterator();
+            while (entityCounts.size() >= getMaxSize() && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+
+        entityCounts.put(key, new CachedCount(count, now + getTimeToLive()));
+    }
+
+    /**
+     * Remove all counts of the entity.
+     *
+     * @param entityClass Entity
+     */
+    public void invalidate(Class<?> entityClass) {
+        counts.remove(entityClass);
+    }
+
+    private long getTimeToLive() {
+        Long timeToLive = paginationConfig.getCountCacheTimeToLiveMilliseconds();
+        return timeToLive == null ? DEFAULT_TIME_TO_LIVE : timeToLive;
+    }
+
+    private int getMaxSize() {
+        Integer maxSize = paginationConfig.getCountCacheMaxSize();
+        return maxSize == null || maxSize <= 0 ? DEFAULT_MAX_SIZE : maxSize;
+    }
+
+    private static class CachedCount {
+
+        private final Long count;
+        private final long expiresAt;
+
+        CachedCount(Long count, long expiresAt) {
+            this.count = count;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+
+}
@@ -0,0 +1,34 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud.pagination;
+
+import org.demoiselle.jee.crud.AbstractDAO;
+
+/**
+ * Enum to hold the strategies used by Pagination feature to count the rows of a resource.
+ *
+ * <ul>
+ * <li>{@link #EXACT}: a count query is executed on every request;</li>
+ * <li>{@link #NONE}: the count query is not executed, the 'Content-Range' HTTP header is returned
+ * as 'offset-limit/*' and the next page is detected by reading one row beyond the page;</li>
+ * <li>{@link #ESTIMATED}: the count query is not executed, the count comes from
+ * {@link AbstractDAO#estimateCount()}, that must be overridden to read the statistics of the
+ * database. Without an estimate the total is unknown, as on {@link #NONE};</li>
+ * <li>{@link #CACHED}: the count query result is kept in {@link CountCache} for
+ * {@link PaginationHelperConfig#getCountCacheTimeToLiveMilliseconds()}, by entity and filters.</li>
+ * </ul>
+ *
+ * @author SERPRO
+ */
+public enum CountStrategy {
+
+    EXACT,
+    NONE,
+    ESTIMATED,
+    CACHED
+
+}
@@ -0,0 +1,175 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud.pagination;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Class used to build and read the opaque 'cursor' used by {@link PaginationType#KEYSET} pagination.
+ *
+ * The cursor holds the values of the sort fields and the identifier of the last row of a page, each
+ * value is encoded with Base64 (URL safe) and the values are joined by '.' character. A null value
+ * is represented by the '~' character.
+ *
+ * @author SERPRO
+ */
+public class KeysetCursor {
+
+    private static final String SEPARATOR = ".";
+    private static final String NULL_VALUE = "~";
+
+    private KeysetCursor() {
+    }
+
+    /**
+     * Build the cursor from the values of the last row.
+     *
+     * @param values Values of the sort fields followed by the identifier
+     *
+     * @return Opaque cursor
+     */
+    public static String encode(List<?> values) {
+        StringBuilder sb = new StringBuilder();
+
+        for (Object value : values) {
+            if (sb.length() > 0) {
+                sb.append(SEPARATOR);
+            }
+
+            if (value == null) {
+                sb.append(NULL_VALUE);
+            } else {
+                sb.append(Base64.getUrlEncoder().withoutPadding()
+                        .encodeToString(toText(value).getBytes(StandardCharsets.UTF_8)));
+            }
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Read the values from the cursor.
+     *
+     * @param cursor Opaque cursor
+     *
+     * @return Values as text, a null value is kept as null
+     *
+     * @throws IllegalArgumentException When the cursor is malformed
+     */
+    public static List<String> decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            throw new IllegalArgumentException();
+        }
+
+        List<String> values = new ArrayList<>();
+
+        for (String value : cursor.split("\\" + SEPARATOR, -1)) {
+            if (NULL_VALUE.equals(value)) {
+                values.add(null);
+            } else {
+                values.add(new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8));
+            }
+        }
+
+        return values;
+    }
+
+    /**
+     * Convert a value read from the cursor to the type of the entity attribute.
+     *
+     * @param value Value as text
+     * @param type Java type of the attribute
+     *
+     * @return Converted value
+     *
+     * @throws IllegalArgumentException When the value can't be converted
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Object convert(String value, Class<?> type) {
+        if (value == null || String.class.equals(type)) {
+            return value;
+        }
+
+        try {
+            if (type.isEnum()) {
+                return Enum.valueOf((Class<? extends Enum>) type, value);
+            }
+            if (Long.class.equals(type) || long.class.equals(type)) {
+                return Long.valueOf(value);
+            }
+            if (Integer.class.equals(type) || int.class.equals(type)) {
+                return Integer.valueOf(value);
+            }
+            if (Short.class.equals(type) || short.class.equals(type)) {
+                return Short.valueOf(value);
+            }
+            if (Byte.class.equals(type) || byte.class.equals(type)) {
+                return Byte.valueOf(value);
+            }
+            if (Double.class.equals(type) || double.class.equals(type)) {
+                return Double.valueOf(value);
+            }
+            if (Float.class.equals(type) || float.class.equals(type)) {
+                return Float.valueOf(value);
+            }
+            if (Boolean.class.equals(type) || boolean.class.equals(type)) {
+                return Boolean.valueOf(value);
+            }
+            if (Character.class.equals(type) || char.class.equals(type)) {
+                return value.charAt(0);
+            }
+            if (BigDecimal.class.equals(type)) {
+                return new BigDecimal(value);
+            }
+            if (BigInteger.class.equals(type)) {
+                return new BigInteger(value);
+            }
+            if (UUID.class.equals(type)) {
+                return UUID.fromString(value);
+            }
+            if (Date.class.isAssignableFrom(type)) {
+                return type.getConstructor(long.class).newInstance(Long.valueOf(value));
+            }
+            if (Calendar.class.isAssignableFrom(type)) {
+                Calendar calendar = Calendar.getInstance();
+                calendar.setTimeInMillis(Long.valueOf(value));
+                return calendar;
+            }
+
+            // java.time types and any other type with a static 'parse(CharSequence)' method
+            return type.getMethod("parse", CharSequence.class).invoke(null, value);
+        }
+        catch (IllegalArgumentException e) {
+            throw e;
+        }
+        catch (Exception e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private static String toText(Object value) {
+        if (value instanceof Enum) {
+            return ((Enum<?>) value).name();
+        }
+        if (value instanceof Date) {
+            return String.valueOf(((Date) value).getTime());
+        }
+        if (value instanceof Calendar) {
+            return String.valueOf(((Calendar) value).getTimeInMillis());
+        }
+        return value.toString();
+    }
+
+}
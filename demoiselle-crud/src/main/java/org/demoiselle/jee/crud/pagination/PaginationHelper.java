@@ -10,6 +10,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
+import java.util.regex.Pattern;
 
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
@@ -19,10 +20,12 @@ import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.UriInfo;
 
 import org.demoiselle.jee.crud.AbstractDAO;
+import org.demoiselle.jee.crud.CrudQuery;
 import org.demoiselle.jee.crud.CrudUtilHelper;
 import org.demoiselle.jee.crud.DemoiselleRequestContext;
 import org.demoiselle.jee.crud.ReservedHTTPHeaders;
 import org.demoiselle.jee.crud.ReservedKeyWords;
+import org.demoiselle.jee.crud.ResourceMethodDescriptor;
 import org.demoiselle.jee.crud.Search;
 
 /**
@@ -33,7 +36,7 @@ import org.demoiselle.jee.crud.Search;
  *
  * Given a request
  * <pre>
- * GET @{literal http://localhost:8080/api/users?range=0-10}
+ * GET {@literal http://localhost:8080/api/users?range=0-10}
  * </pre>
  *
  * This class will processing the request above and parse the range parameters
@@ -42,6 +45,15 @@ import org.demoiselle.jee.crud.Search;
  * This object will be use on {@link AbstractDAO} class to execute the
  * pagination on database.
  *
+ * When the {@link PaginationType#KEYSET} is enabled by {@link Search#paginationType()} or
+ * {@link PaginationHelperConfig#getPaginationType()} the pages are navigated by the 'cursor'
+ * parameter instead of the 'range' offset.
+ *
+ * Ex:
+ * <pre>
+ * GET {@literal http://localhost:8080/api/users?sort=name&cursor=TWFyaWE.MTA}
+ * </pre>
+ *
  */
 @RequestScoped
 public class PaginationHelper {
@@ -59,8 +71,14 @@ public class PaginationHelper {
     @Inject
     private PaginationHelperConfig paginationConfig;
 
+    private CrudQuery query;
+
     private static final Logger logger = Logger.getLogger(PaginationHelper.class.getName());
 
+    private static final Pattern RANGE_PARAMETER = Pattern.compile("." + ReservedKeyWords.DEFAULT_RANGE_KEY.getKey() + "=([^&]*)");
+    private static final Pattern CURSOR_PARAMETER = Pattern.compile("([?&])" + ReservedKeyWords.DEFAULT_CURSOR_KEY.getKey() + "=[^&]*&?");
+    private static final Pattern TRAILING_SEPARATOR = Pattern.compile("[?&]$");
+
     public PaginationHelper() {
     }
 
@@ -82,8 +100,25 @@ public class PaginationHelper {
      */
     public void execute(ResourceInfo resourceInfo, UriInfo uriInfo) {
         fillObjects(resourceInfo, uriInfo);
+        execute(resourceInfo, uriInfo, CrudQuery.parse(this.uriInfo.getQueryParameters()));
+    }
+
+    /**
+     * Same as {@link #execute(ResourceInfo, UriInfo)} reading the parameters from the query
+     * string already parsed.
+     *
+     * @param resourceInfo ResourceInfo
+     * @param uriInfo UriInfo
+     * @param query Query string of the request
+     */
+    public void execute(ResourceInfo resourceInfo, UriInfo uriInfo, CrudQuery query) {
+        fillObjects(resourceInfo, uriInfo);
+        this.query = query;
 
         drc.setPaginationEnabled(isPaginationEnabled());
+        drc.setPaginationType(getPaginationType());
+        drc.setCountStrategy(getCountStrategy());
+        drc.setStreamingEnabled(getDescriptor().isStreaming());
 
         if (drc.isPaginationEnabled()) {
 
@@ -95,12 +130,19 @@ public class PaginationHelper {
                 drc.setLimit(getDefaultNumberPagination() - 1);
                 drc.setOffset(new Integer(0));
             }
+
+            if (isKeysetPagination()) {
+                checkAndFillCursorValue();
+            }
+        }
+
+        if (isRequestCursor() && (!drc.isPaginationEnabled() || !isKeysetPagination())) {
+            throw new IllegalArgumentException(message.keysetPaginationIsNotEnabled());
         }
 
         if (hasSearchAnnotation() && isRequestPagination()) {
-            Search searchAnnotation = resourceInfo.getResourceMethod().getAnnotation(Search.class);
             // Pagination @Search.withPagination is disabled but the request parameter has 'range' parameter
-            if (searchAnnotation.withPagination() == Boolean.FALSE) {
+            if (getDescriptor().getWithPagination() == Boolean.FALSE) {
                 throw new IllegalArgumentException(message.paginationIsNotEnabled());
             }
         }
@@ -122,13 +164,91 @@ public class PaginationHelper {
         }
 
         if (hasSearchAnnotation()) {
-            Search searchAnnotation = resourceInfo.getResourceMethod().getAnnotation(Search.class);
-            return searchAnnotation.withPagination();
+            return getDescriptor().getWithPagination();
         }
 
         return paginationConfig.getIsGlobalEnabled();
     }
 
+    /**
+     * Get the pagination type, if the target method is annotated with
+     * Search annotation the type will be {@link Search#paginationType()}
+     * otherwise the type will be
+     * {@link PaginationHelperConfig#getPaginationType()} value;
+     *
+     * @return Pagination type
+     */
+    private PaginationType getPaginationType() {
+        if (hasSearchAnnotation()) {
+            return getDescriptor().getPaginationType();
+        }
+
+        return paginationConfig.getPaginationType() == null ? PaginationType.OFFSET : paginationConfig.getPaginationType();
+    }
+
+    /**
+     * Get the count strategy, if the target method is annotated with Search
+     * annotation the strategy will be {@link Search#countStrategy()} otherwise
+     * the strategy will be {@link PaginationHelperConfig#getCountStrategy()}
+     * value;
+     *
+     * @return Count strategy
+     */
+    private CountStrategy getCountStrategy() {
+        if (hasSearchAnnotation()) {
+            return getDescriptor().getCountStrategy();
+        }
+
+        return paginationConfig.getCountStrategy() == null ? CountStrategy.EXACT : paginationConfig.getCountStrategy();
+    }
+
+    private Boolean isExactCount() {
+        return drc.getCountStrategy() == null || CountStrategy.EXACT.equals(drc.getCountStrategy());
+    }
+
+    private Boolean isKeysetPagination() {
+        return PaginationType.KEYSET.equals(drc.getPaginationType());
+    }
+
+    /**
+     * Check if the actual request has the 'cursor' parameter on query string
+     *
+     * @return is request with cursor or not
+     */
+    private Boolean isRequestCursor() {
+        return query.getCursor() != null;
+    }
+
+    /**
+     * Check if the value of 'cursor' parameter is valid and fill the
+     * {@link DemoiselleRequestContext#setCursor(String)}.
+     *
+     * On keyset pagination the 'range' parameter just informs the quantity per
+     * page, so the 'offset' should be 0.
+     *
+     * @throws IllegalArgumentException The cursor or range is invalid
+     */
+    private void checkAndFillCursorValue() throws IllegalArgumentException {
+        if (drc.getOffset() != null && drc.getOffset() != 0) {
+            logger.warning(message.keysetPaginationWithOffset() + ", [" + drc.toString() + "]");
+            throw new IllegalArgumentException(message.keysetPaginationWithOffset());
+        }
+
+        if (isRequestCursor()) {
+            List<String> cursorList = query.getCursor();
+            String cursor = cursorList.isEmpty() ? null : cursorList.get(0);
+
+            try {
+                KeysetCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                logger.warning(message.invalidCursorParameter() + ", [params: " + cursor + "]");
+                throw new IllegalArgumentException(message.invalidCursorParameter());
+            }
+
+            drc.setCursor(cursor);
+        }
+    }
+
     /**
      * Check if the actual request has the 'range' parameter on query string
      *
@@ -136,10 +256,7 @@ public class PaginationHelper {
      */
     private Boolean isRequestPagination() {
         // Verify if contains 'range' in url
-        if (uriInfo.getQueryParameters().containsKey(ReservedKeyWords.DEFAULT_RANGE_KEY.getKey())) {
-            return Boolean.TRUE;
-        }
-        return Boolean.FALSE;
+        return query.getRange() != null;
     }
 
     /**
@@ -153,7 +270,7 @@ public class PaginationHelper {
      * @throws IllegalArgumentException The format is invalid
      */
     private void checkAndFillRangeValues() throws IllegalArgumentException {
-        List<String> rangeList = uriInfo.getQueryParameters().get(ReservedKeyWords.DEFAULT_RANGE_KEY.getKey());
+        List<String> rangeList = query.getRange();
         if (!rangeList.isEmpty()) {
             String range[] = rangeList.get(0).split("-");
             if (range.length == 2) {
@@ -196,15 +313,18 @@ public class PaginationHelper {
      */
     private Integer getDefaultNumberPagination() {
         if (hasSearchAnnotation()) {
-            Search searchAnnotation = resourceInfo.getResourceMethod().getAnnotation(Search.class);
-            return searchAnnotation.quantityPerPage();
+            return getDescriptor().getQuantityPerPage();
         }
 
         return paginationConfig.getDefaultPagination();
     }
 
     private Boolean hasSearchAnnotation() {
-        return resourceInfo.getResourceMethod().isAnnotationPresent(Search.class);
+        return getDescriptor().hasSearch();
+    }
+
+    private ResourceMethodDescriptor getDescriptor() {
+        return ResourceMethodDescriptor.of(resourceInfo);
     }
 
     /**
@@ -213,6 +333,14 @@ public class PaginationHelper {
      * @return is partial content or not
      */
     public Boolean isPartialContentResponse() {
+        if (isKeysetPagination()) {
+            return drc.getCursor() != null || drc.getNextCursor() != null;
+        }
+
+        if (!isExactCount()) {
+            return (drc.getOffset() != null && drc.getOffset() > 0) || Boolean.TRUE.equals(drc.isNextPageAvailable());
+        }
+
         Integer limit = drc.getLimit() == null ? 0 : drc.getLimit();
         Long count = drc.getCount() == null ? 0 : drc.getCount();
         return !((limit + 1) >= count);
@@ -223,13 +351,19 @@ public class PaginationHelper {
     }
 
     /**
-     * Build the 'Content-Range' HTTP Header value.
+     * Build the 'Content-Range' HTTP Header value, without count the value
+     * will be open-ended like 'offset-limit/*'.
      *
      * @return 'Content-Range' value
      */
     private String buildContentRange() {
         Integer limit = drc.getLimit() == null ? getDefaultNumberPagination() - 1 : drc.getLimit();
         Integer offset = drc.getOffset() == null ? 0 : drc.getOffset();
+
+        if (!isExactCount() && drc.getCount() == null) {
+            return offset + "-" + limit + "/*";
+        }
+
         Long count = drc.getCount() == null ? 0 : drc.getCount();
         return offset + "-" + (limit.equals(0) ? count - 1 : limit) + "/" + count;
     }
@@ -246,7 +380,9 @@ public class PaginationHelper {
             resource = drc.getEntityClass().getSimpleName().toLowerCase();
         } else {
             if (resourceInfo != null && resourceInfo.getResourceClass() != null) {
-                Class<?> targetClass = CrudUtilHelper.getTargetClass(resourceInfo.getResourceClass());
+                Class<?> targetClass = resourceInfo.getResourceMethod() == null
+                        ? CrudUtilHelper.getTargetClass(resourceInfo.getResourceClass())
+                        : getDescriptor().getTargetClass();
                 if (targetClass != null) {
                     resource = targetClass.getSimpleName().toLowerCase();
                 }
@@ -274,9 +410,11 @@ public class PaginationHelper {
         Map<String, String> headers = new ConcurrentHashMap<>();
 
         if (drc.isPaginationEnabled()) {
-            headers.putIfAbsent(ReservedHTTPHeaders.HTTP_HEADER_CONTENT_RANGE.getKey(), buildContentRange());
+            if (!isKeysetPagination()) {
+                headers.putIfAbsent(ReservedHTTPHeaders.HTTP_HEADER_CONTENT_RANGE.getKey(), buildContentRange());
+            }
             headers.putIfAbsent(ReservedHTTPHeaders.HTTP_HEADER_ACCEPT_RANGE.getKey(), buildAcceptRange());
-            String linkHeader = buildLinkHeader();
+            String linkHeader = isKeysetPagination() ? buildKeysetLinkHeader() : buildLinkHeader();
 
             if (!linkHeader.isEmpty()) {
                 headers.putIfAbsent(HttpHeaders.LINK, linkHeader);
@@ -294,7 +432,7 @@ public class PaginationHelper {
     private String buildLinkHeader() {
         StringBuffer sb = new StringBuffer();
         String url = uriInfo.getRequestUri().toString();
-        url = url.replaceFirst(".range=([^&]*)", "");
+        url = RANGE_PARAMETER.matcher(url).replaceFirst("");
 
         if (drc.getOffset() == null) {
             drc.setOffset(new Integer(0));
@@ -326,7 +464,13 @@ public class PaginationHelper {
             sb.append("<").append(prevPage).append(">; rel=\"prev\",");
         }
 
-        if (isPartialContentResponse()) {
+        if (isPartialContentResponse() && !isExactCount()) {
+            // Without an exact count the last page is unknown
+            if (Boolean.TRUE.equals(drc.isNextPageAvailable())) {
+                String nextPage = url + (drc.getOffset() + quantityPerPage) + "-" + (2 * quantityPerPage + drc.getOffset() - 1);
+                sb.append("<").append(nextPage).append(">; rel=\"next\"");
+            }
+        } else if (isPartialContentResponse()) {
             String nextPage = url + (drc.getOffset() + quantityPerPage) + "-" + (2 * quantityPerPage + drc.getOffset() - 1);
             String lastPage = url + (drc.getCount() - quantityPerPage) + "-" + (drc.getCount() - 1);
 
@@ -341,6 +485,34 @@ public class PaginationHelper {
         return sb.toString();
     }
 
+    /**
+     * Build the 'Link' HTTP header value for keyset pagination, the 'next'
+     * relation carries the cursor built from the last row of the actual page.
+     *
+     * @return 'Link' value
+     */
+    private String buildKeysetLinkHeader() {
+        StringBuffer sb = new StringBuffer();
+        String url = CURSOR_PARAMETER.matcher(uriInfo.getRequestUri().toString()).replaceAll("$1");
+        url = TRAILING_SEPARATOR.matcher(url).replaceFirst("");
+
+        if (drc.getCursor() != null) {
+            sb.append("<").append(url).append(">; rel=\"first\"");
+        }
+
+        if (drc.getNextCursor() != null) {
+            String nextPage = url + (url.contains("?") ? "&" : "?")
+                    + ReservedKeyWords.DEFAULT_CURSOR_KEY.getKey() + "=" + drc.getNextCursor();
+
+            if (sb.length() > 0) {
+                sb.append(",");
+            }
+            sb.append("<").append(nextPage).append(">; rel=\"next\"");
+        }
+
+        return sb.toString();
+    }
+
     private Boolean isFirstPage() {
         return drc.getOffset().equals(0);
     }
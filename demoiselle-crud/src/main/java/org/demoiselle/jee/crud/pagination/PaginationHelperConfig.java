@@ -18,6 +18,11 @@ public class PaginationHelperConfig {
 	
     private Boolean isGlobalEnabled = Boolean.TRUE;
 	private Integer defaultPagination = new Integer(20);
+	private PaginationType paginationType = PaginationType.OFFSET;
+	private CountStrategy countStrategy = CountStrategy.EXACT;
+	private Long countCacheTimeToLiveMilliseconds = new Long(60_000L);
+	private Integer countCacheMaxSize = new Integer(1_000);
+	private Integer streamingFetchSize = new Integer(500);
 
 	public Integer getDefaultPagination() {
 		return defaultPagination;
@@ -27,4 +32,24 @@ public class PaginationHelperConfig {
         return isGlobalEnabled;
     }
 
+    public PaginationType getPaginationType() {
+        return paginationType;
+    }
+
+    public CountStrategy getCountStrategy() {
+        return countStrategy;
+    }
+
+    public Long getCountCacheTimeToLiveMilliseconds() {
+        return countCacheTimeToLiveMilliseconds;
+    }
+
+    public Integer getCountCacheMaxSize() {
+        return countCacheMaxSize;
+    }
+
+    public Integer getStreamingFetchSize() {
+        return streamingFetchSize;
+    }
+
 }
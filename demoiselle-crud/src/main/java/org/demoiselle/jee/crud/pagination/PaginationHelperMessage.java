@@ -27,4 +27,13 @@ public interface PaginationHelperMessage {
 	@MessageTemplate("{pagination-is-not-enabled}")
     String paginationIsNotEnabled();
 
+	@MessageTemplate("{invalid-cursor-parameter}")
+	String invalidCursorParameter();
+
+	@MessageTemplate("{keyset-pagination-is-not-enabled}")
+	String keysetPaginationIsNotEnabled();
+
+	@MessageTemplate("{keyset-pagination-with-offset}")
+	String keysetPaginationWithOffset();
+
 }
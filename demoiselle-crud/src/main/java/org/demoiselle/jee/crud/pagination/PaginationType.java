@@ -0,0 +1,27 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud.pagination;
+
+/**
+ * Enum to hold the strategies supported by Pagination feature.
+ *
+ * <ul>
+ * <li>{@link #OFFSET}: the page is selected by the 'range=offset-limit' parameter, the database
+ * skips 'offset' rows before returning the page;</li>
+ * <li>{@link #KEYSET}: the page is selected by an opaque 'cursor' parameter built from the sort
+ * fields and the identifier of the last row of the previous page, so every page costs the same as
+ * the first one.</li>
+ * </ul>
+ *
+ * @author SERPRO
+ */
+public enum PaginationType {
+
+    OFFSET,
+    KEYSET
+
+}
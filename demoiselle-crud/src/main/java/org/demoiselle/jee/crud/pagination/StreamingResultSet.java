@@ -0,0 +1,157 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud.pagination;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.demoiselle.jee.core.api.crud.Result;
+import org.demoiselle.jee.crud.AbstractDAO;
+import org.demoiselle.jee.crud.CrudFilter;
+import org.demoiselle.jee.crud.Search;
+
+/**
+ * This class implements {@link Result} to hold the results came from {@link AbstractDAO} when the
+ * streaming is enabled (see {@link Search#streaming()}).
+ *
+ * The rows are not read by {@link AbstractDAO#find()}, they are read in chunks of 'fetchSize' rows
+ * while {@link CrudFilter} writes the response, so only one chunk is kept in memory. Each chunk
+ * after the first one is selected by the position of the last row read (keyset), so the chunks
+ * don't repeat or skip rows and the database doesn't walk over the rows already read.
+ * Calling {@link #getContent()} reads all rows.
+ *
+ * @author SERPRO
+ */
+public class StreamingResultSet implements Result, Iterable<Object> {
+
+    /**
+     * Read a chunk of rows from database.
+     */
+    public interface ChunkReader {
+
+        /**
+         * @param after Position of the last row of the previous chunk (see {@link #position(Object)})
+         * or null to read the first chunk
+         * @param maxResults Maximum quantity of rows
+         *
+         * @return Rows, a list smaller than 'maxResults' means there are no more rows
+         */
+        List<?> read(List<?> after, int maxResults);
+
+        /**
+         * @param row Row returned by {@link #read(List, int)}
+         *
+         * @return Position of the row on the order of the rows, the values of the sort fields
+         * followed by the identifier
+         */
+        List<?> position(Object row);
+
+        /**
+         * @param rows Rows returned by {@link #read(List, int)}
+         *
+         * @return Content of the response built from the rows
+         */
+        default List<?> convert(List<?> rows) {
+            return rows;
+        }
+    }
+
+    private final ChunkReader reader;
+    private final Integer maxResults;
+    private final int fetchSize;
+
+    private List<?> content = null;
+
+    /**
+     * @param reader Reader of the chunks
+     * @param maxResults Maximum quantity of rows or null to read all rows
+     * @param fetchSize Quantity of rows of each chunk
+     */
+    public StreamingResultSet(ChunkReader reader, Integer maxResults, int fetchSize) {
+        this.reader = reader;
+        this.maxResults = maxResults;
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public Iterator<Object> iterator() {
+        if (content != null) {
+            return Collections.<Object>unmodifiableList(content).iterator();
+        }
+
+        return new ChunkIterator();
+    }
+
+    @Override
+    public List<?> getContent() {
+        if (content == null) {
+            List<Object> rows = new ArrayList<>();
+            iterator().forEachRemaining(rows::add);
+            content = rows;
+        }
+
+        return content;
+    }
+
+    @Override
+    public void setContent(List<?> content) {
+        this.content = content;
+    }
+
+    private class ChunkIterator implements Iterator<Object> {
+
+        private List<?> chunk = Collections.emptyList();
+        private List<?> after = null;
+        private int position = 0;
+        private int read = 0;
+        private boolean isLastChunk = false;
+
+        @Override
+        public boolean hasNext() {
+            if (position < chunk.size()) {
+                return true;
+            }
+
+            if (isLastChunk) {
+                return false;
+            }
+
+            int size = maxResults == null ? fetchSize : Math.min(fetchSize, maxResults - read);
+
+            if (size <= 0) {
+                isLastChunk = true;
+                return false;
+            }
+
+            List<?> rows = reader.read(after, size);
+            position = 0;
+            read += rows.size();
+            isLastChunk = rows.size() < size;
+
+            if (!rows.isEmpty()) {
+                after = reader.position(rows.get(rows.size() - 1));
+            }
+
+            chunk = reader.convert(rows);
+
+            return !chunk.isEmpty();
+        }
+
+        @Override
+        public Object next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            return chunk.get(position++);
+        }
+    }
+
+}
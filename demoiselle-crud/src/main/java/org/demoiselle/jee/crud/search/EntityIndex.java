@@ -0,0 +1,271 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud.search;
+
+import java.text.Normalizer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index of the {@link Searchable} fields of an entity: each word points to the
+ * identifiers of the entities that have it, kept by {@link SearchIndex}.
+ *
+ * The words are the values of the fields split on anything that isn't a letter or a digit, in
+ * lower case and without accents, so 'José' is found by 'jose'. A search finds the entities that
+ * have all words of the text, each word of the text matches the words of the index that start
+ * with it.
+ *
+ * While the index is loaded from the database the changes of the entities are already applied
+ * and the rows read after a change of the same entity are ignored, so a change made during the
+ * load isn't lost.
+ *
+ * @author SERPRO
+ */
+public class EntityIndex {
+
+    private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final NavigableMap<String, Set<Object>> postings = new TreeMap<>();
+
+    private final Map<Object, Map<String, Set<String>>> documents = new HashMap<>();
+
+    private final Set<Object> changed = new HashSet<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final long createdAt;
+
+    private boolean loaded;
+
+    public EntityIndex(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Split the value in the words kept on the index.
+     *
+     * @param value Value of a field or text of a search, may be null
+     *
+     * @return Words in the order they appear
+     */
+    public static Set<String> tokenize(Object value) {
+        if (value == null) {
+            return Collections.emptySet();
+        }
+
+        String text = Normalizer.normalize(String.valueOf(value), Normalizer.Form.NFD);
+        text = ACCENTS.matcher(text).replaceAll("").toLowerCase(Locale.ROOT);
+
+        Set<String> tokens = new LinkedHashSet<>();
+
+        for (String token : SEPARATORS.split(text)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+
+        return tokens;
+    }
+
+    /**
+     * Add an entity read from the database while the index is loaded, ignored when the entity was
+     * changed since the load started.
+     *
+     * @param id Identifier
+     * @param values Values of the {@link Searchable} fields, by field
+     */
+    public void load(Object id, Map<String, Object> values) {
+        lock.writeLock().lock();
+
+        try {
+            if (!changed.contains(id)) {
+                apply(id, values);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add or update an entity, a field that isn't on the values keeps its words.
+     *
+     * @param id Identifier
+     * @param values Values of the changed {@link Searchable} fields, by field
+     */
+    public void put(Object id, Map<String, Object> values) {
+        lock.writeLock().lock();
+
+        try {
+            if (!loaded) {
+                changed.add(id);
+            }
+            apply(id, values);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove an entity.
+     *
+     * @param id Identifier
+     */
+    public void remove(Object id) {
+        lock.writeLock().lock();
+
+        try {
+            if (!loaded) {
+                changed.add(id);
+            }
+
+            Map<String, Set<String>> document = documents.remove(id);
+
+            if (document != null) {
+                unindex(id, union(document));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find the entities that have all words of the text.
+     *
+     * @param text Text of the search
+     *
+     * @return Identifiers, empty when there is no entity or the text doesn't have words
+     */
+    public Set<Object> search(String text) {
+        Set<String> tokens = tokenize(text);
+
+        if (tokens.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        lock.readLock().lock();
+
+        try {
+            Set<Object> ids = null;
+
+            for (String token : tokens) {
+                Set<Object> matches = new HashSet<>();
+
+                // The words that start with the token
+                for (Set<Object> posting : postings.subMap(token, true, token + Character.MAX_VALUE, false).values()) {
+                    matches.addAll(posting);
+                }
+
+                if (ids == null) {
+                    ids = matches;
+                } else {
+                    ids.retainAll(matches);
+                }
+
+                if (ids.isEmpty()) {
+                    break;
+                }
+            }
+
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Quantity of entities on the index
+     */
+    public int size() {
+        lock.readLock().lock();
+
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Finish the load, the next rows are not ignored anymore.
+     */
+    void setLoaded() {
+        lock.writeLock().lock();
+
+        try {
+            loaded = true;
+            changed.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(Object id, Map<String, Object> values) {
+        Map<String, Set<String>> document = documents.computeIfAbsent(id, (k) -> new HashMap<>());
+        Set<String> before = union(document);
+
+        values.forEach((field, value) -> {
+            Set<String> tokens = tokenize(value);
+
+            if (tokens.isEmpty()) {
+                document.remove(field);
+            } else {
+                document.put(field, tokens);
+            }
+        });
+
+        Set<String> after = union(document);
+
+        // A word may be on other field of the same entity
+        Set<String> removed = new HashSet<>(before);
+        removed.removeAll(after);
+        unindex(id, removed);
+
+        after.removeAll(before);
+        after.forEach(token -> postings.computeIfAbsent(token, (k) -> new HashSet<>()).add(id));
+
+        if (document.isEmpty()) {
+            documents.remove(id);
+        }
+    }
+
+    private void unindex(Object id, Set<String> tokens) {
+        for (String token : tokens) {
+            Set<Object> posting = postings.get(token);
+
+            if (posting != null) {
+                posting.remove(id);
+
+                if (posting.isEmpty()) {
+                    postings.remove(token);
+                }
+            }
+        }
+    }
+
+    private static Set<String> union(Map<String, Set<String>> document) {
+        Set<String> tokens = new HashSet<>();
+        document.values().forEach(tokens::addAll);
+        return tokens;
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud.search;
+
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.UriInfo;
+
+import org.demoiselle.jee.crud.AbstractDAO;
+import org.demoiselle.jee.crud.CrudQuery;
+import org.demoiselle.jee.crud.DemoiselleRequestContext;
+import org.demoiselle.jee.crud.ResourceMethodDescriptor;
+
+/**
+ * Class responsible for managing the 'q' parameter comes from Url Query String.
+ *
+ * Ex:
+ *
+ * Given a request
+ * <pre>
+ * GET {@literal http://localhost:8080/api/users?q=john silva&active=isTrue}
+ * </pre>
+ *
+ * This class will processing the request above and set the text on
+ * {@link DemoiselleRequestContext#setSearchText(String)}, used on {@link AbstractDAO} class to find
+ * the identifiers of the entities that have all words of the text on the fields annotated with
+ * {@link Searchable} (see {@link SearchIndex}). The other filters, the sort and the pagination
+ * are applied on the entities found.
+ *
+ * @author SERPRO
+ */
+@RequestScoped
+public class SearchHelper {
+
+    private ResourceInfo resourceInfo;
+
+    private UriInfo uriInfo;
+
+    @Inject
+    private DemoiselleRequestContext drc;
+
+    @Inject
+    private SearchHelperMessage searchHelperMessage;
+
+    public SearchHelper() {
+    }
+
+    public SearchHelper(ResourceInfo resourceInfo, UriInfo uriInfo, DemoiselleRequestContext drc, SearchHelperMessage searchHelperMessage) {
+        this.resourceInfo = resourceInfo;
+        this.uriInfo = uriInfo;
+        this.drc = drc;
+        this.searchHelperMessage = searchHelperMessage;
+    }
+
+    /**
+     * Open the request query string to extract the value from 'q' parameter and fill the
+     * {@link DemoiselleRequestContext#setSearchText(String)}.
+     *
+     * @param resourceInfo ResourceInfo
+     * @param uriInfo UriInfo
+     * @param query Query string of the request
+     */
+    public void execute(ResourceInfo resourceInfo, UriInfo uriInfo, CrudQuery query) {
+        this.resourceInfo = resourceInfo == null ? this.resourceInfo : resourceInfo;
+        this.uriInfo = uriInfo == null ? this.uriInfo : uriInfo;
+
+        if (query.getSearchText() == null) {
+            return;
+        }
+
+        Class<?> targetClass = ResourceMethodDescriptor.of(this.resourceInfo).getTargetClass();
+
+        if (targetClass == null || !SearchIndex.isSearchable(targetClass)) {
+            Class<?> entityClass = targetClass == null ? this.resourceInfo.getResourceClass() : targetClass;
+            throw new IllegalArgumentException(searchHelperMessage.searchNotSupported(entityClass.getName()));
+        }
+
+        // The values of many 'q' parameters are words of the same text
+        String text = String.join(" ", query.getSearchText());
+
+        if (EntityIndex.tokenize(text).isEmpty()) {
+            throw new IllegalArgumentException(searchHelperMessage.searchRequestMalFormed(text));
+        }
+
+        drc.setSearchText(text);
+    }
+
+}
@@ -0,0 +1,27 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud.search;
+
+import org.apache.deltaspike.core.api.message.MessageBundle;
+import org.apache.deltaspike.core.api.message.MessageTemplate;
+
+/**
+ * 
+ * Messages used to inform user about Full-text Search feature
+ * 
+ * @author SERPRO
+ */
+@MessageBundle
+public interface SearchHelperMessage {
+
+    @MessageTemplate("{search-not-supported}")
+    String searchNotSupported(String entity);
+
+    @MessageTemplate("{search-request-malformed}")
+    String searchRequestMalFormed(String search);
+
+}
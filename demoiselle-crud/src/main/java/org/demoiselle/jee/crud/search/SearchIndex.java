@@ -0,0 +1,210 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud.search;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import javax.inject.Inject;
+
+import org.demoiselle.jee.crud.AbstractDAO;
+import org.demoiselle.jee.crud.DemoiselleCrudConfig;
+import org.demoiselle.jee.crud.metadata.AttributeMetadata;
+import org.demoiselle.jee.crud.metadata.EntityMetadata;
+
+/**
+ * Class responsible for keeping the {@link EntityIndex} of the entities that have
+ * {@link Searchable} fields, used by {@link AbstractDAO} to resolve the 'q' parameter to the
+ * identifiers of the entities.
+ *
+ * The index of an entity is loaded from the database on its first search and then kept up to
+ * date by the changes made through {@link AbstractDAO} (persist, merge and remove), applied by
+ * {@link #apply(SearchIndexChange)} after the commit of the transaction. The index is
+ * kept on the memory of each instance of the application, so the changes made by other instances
+ * (or directly on the database) are only seen after the index expires, see
+ * {@link DemoiselleCrudConfig#getSearchIndexTimeToLiveMilliseconds()}.
+ *
+ * @author SERPRO
+ */
+@ApplicationScoped
+public class SearchIndex {
+
+    private final Map<Class<?>, EntityIndex> indexes = new ConcurrentHashMap<>();
+
+    private final Map<Class<?>, Set<EntityIndex>> loading = new ConcurrentHashMap<>();
+
+    @Inject
+    private DemoiselleCrudConfig crudConfig;
+
+    public SearchIndex() {
+    }
+
+    public SearchIndex(DemoiselleCrudConfig crudConfig) {
+        this.crudConfig = crudConfig;
+    }
+
+    /**
+     * @param entityClass Entity
+     *
+     * @return true when the entity has fields annotated with {@link Searchable}
+     */
+    public static boolean isSearchable(Class<?> entityClass) {
+        return !EntityMetadata.of(entityClass).getSearchableAttributes().isEmpty();
+    }
+
+    /**
+     * Read the values of the {@link Searchable} fields of the entity.
+     *
+     * @param entity Entity
+     *
+     * @return Values by field, null values included
+     */
+    public static Map<String, Object> readValues(Object entity) {
+        Map<String, Object> values = new HashMap<>();
+
+        for (AttributeMetadata attribute : EntityMetadata.of(entity.getClass()).getSearchableAttributes()) {
+            values.put(attribute.getName(), attribute.getValue(entity));
+        }
+
+        return values;
+    }
+
+    /**
+     * Get the index of the entity.
+     *
+     * @param entityClass Entity
+     *
+     * @return Index or null when it isn't loaded or is expired
+     */
+    public EntityIndex get(Class<?> entityClass) {
+        EntityIndex index = indexes.get(entityClass);
+
+        if (index != null && isExpired(index)) {
+            indexes.remove(entityClass, index);
+            return null;
+        }
+
+        return index;
+    }
+
+    /**
+     * Start the load of the index of the entity, the changes of the entity are applied to the
+     * new index until {@link #install(Class, EntityIndex)} or {@link #discard(Class, EntityIndex)}.
+     *
+     * @param entityClass Entity
+     *
+     * @return Empty index to be filled by {@link EntityIndex#load(Object, Map)}
+     */
+    public EntityIndex startLoading(Class<?> entityClass) {
+        EntityIndex index = new EntityIndex(System.currentTimeMillis());
+        loading.computeIfAbsent(entityClass, (k) -> ConcurrentHashMap.newKeySet()).add(index);
+        return index;
+    }
+
+    /**
+     * Finish the load and use the index on the next searches of the entity.
+     *
+     * @param entityClass Entity
+     * @param index Index returned by {@link #startLoading(Class)}
+     */
+    public void install(Class<?> entityClass, EntityIndex index) {
+        index.setLoaded();
+        indexes.put(entityClass, index);
+        discard(entityClass, index);
+    }
+
+    /**
+     * Stop applying the changes to an index that failed to load.
+     *
+     * @param entityClass Entity
+     * @param index Index returned by {@link #startLoading(Class)}
+     */
+    public void discard(Class<?> entityClass, EntityIndex index) {
+        Set<EntityIndex> entityLoading = loading.get(entityClass);
+
+        if (entityLoading != null) {
+            entityLoading.remove(index);
+        }
+    }
+
+    /**
+     * Add or update the entity on the index, see {@link EntityIndex#put(Object, Map)}.
+     *
+     * @param entityClass Entity
+     * @param id Identifier
+     * @param values Values of the changed {@link Searchable} fields, by field
+     */
+    public void put(Class<?> entityClass, Object id, Map<String, Object> values) {
+        if (id == null || values.isEmpty()) {
+            return;
+        }
+
+        EntityIndex index = indexes.get(entityClass);
+
+        if (index != null) {
+            index.put(id, values);
+        }
+
+        loading.getOrDefault(entityClass, Collections.emptySet()).forEach(entityIndex -> entityIndex.put(id, values));
+    }
+
+    /**
+     * Remove the entity from the index.
+     *
+     * @param entityClass Entity
+     * @param id Identifier
+     */
+    public void remove(Class<?> entityClass, Object id) {
+        if (id == null) {
+            return;
+        }
+
+        EntityIndex index = indexes.get(entityClass);
+
+        if (index != null) {
+            index.remove(id);
+        }
+
+        loading.getOrDefault(entityClass, Collections.emptySet()).forEach(entityIndex -> entityIndex.remove(id));
+    }
+
+    /**
+     * Apply the change of an entity after the commit of the transaction, the changes of a
+     * transaction rolled back are never applied. Without a transaction the change is applied at
+     * once.
+     *
+     * @param change Change of the entity
+     */
+    public void apply(@Observes(during = TransactionPhase.AFTER_SUCCESS) SearchIndexChange change) {
+        if (change.isRemoval()) {
+            remove(change.getEntityClass(), change.getId());
+        } else {
+            put(change.getEntityClass(), change.getId(), change.getValues());
+        }
+    }
+
+    /**
+     * Remove the index of the entity, it is loaded again on the next search.
+     *
+     * @param entityClass Entity
+     */
+    public void invalidate(Class<?> entityClass) {
+        indexes.remove(entityClass);
+    }
+
+    private boolean isExpired(EntityIndex index) {
+        Long timeToLive = crudConfig == null ? null : crudConfig.getSearchIndexTimeToLiveMilliseconds();
+        return timeToLive != null && timeToLive > 0 && System.currentTimeMillis() - index.getCreatedAt() >= timeToLive;
+    }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud.search;
+
+import java.util.Map;
+
+import org.demoiselle.jee.crud.AbstractDAO;
+
+/**
+ * Change of an entity with {@link Searchable} fields, fired by {@link AbstractDAO} and applied
+ * to the {@link SearchIndex} only after the commit of the transaction.
+ *
+ * @author SERPRO
+ */
+public class SearchIndexChange {
+
+    private final Class<?> entityClass;
+
+    private final Object id;
+
+    private final Map<String, Object> values;
+
+    private SearchIndexChange(Class<?> entityClass, Object id, Map<String, Object> values) {
+        this.entityClass = entityClass;
+        this.id = id;
+        this.values = values;
+    }
+
+    /**
+     * @param entityClass Entity
+     * @param id Identifier
+     * @param values Values of the changed {@link Searchable} fields, by field
+     *
+     * @return Addition or update of the entity
+     */
+    public static SearchIndexChange put(Class<?> entityClass, Object id, Map<String, Object> values) {
+        return new SearchIndexChange(entityClass, id, values);
+    }
+
+    /**
+     * @param entityClass Entity
+     * @param id Identifier
+     *
+     * @return Removal of the entity
+     */
+    public static SearchIndexChange remove(Class<?> entityClass, Object id) {
+        return new SearchIndexChange(entityClass, id, null);
+    }
+
+    public Class<?> getEntityClass() {
+        return entityClass;
+    }
+
+    public Object getId() {
+        return id;
+    }
+
+    /**
+     * @return Values by field, null when the entity was removed
+     */
+    public Map<String, Object> getValues() {
+        return values;
+    }
+
+    public boolean isRemoval() {
+        return values == null;
+    }
+
+}
@@ -0,0 +1,44 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud.search;
+
+import static java.lang.annotation.ElementType.FIELD;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation to be used on the fields of an entity read by the full-text search, the 'q'
+ * parameter of the query string (see {@link SearchHelper}).
+ * 
+ * Ex.
+ * 
+ * <pre>
+ * &#64;Entity
+ * public class User {
+ *    ...
+ *    &#64;Searchable
+ *    private String name;
+ *
+ *    &#64;Searchable
+ *    private String mail;
+ *    ...
+ * }
+ * </pre>
+ * 
+ * The words of the fields are kept on {@link SearchIndex}, so 'GET /users?q=john' finds the
+ * identifiers on the index and then reads the entities by identifier, without a LIKE on the table.
+ * 
+ * @author SERPRO
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(FIELD)
+public @interface Searchable {
+}
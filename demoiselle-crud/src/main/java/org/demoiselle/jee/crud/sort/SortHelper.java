@@ -6,9 +6,8 @@
  */
 package org.demoiselle.jee.crud.sort;
 
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 
@@ -20,10 +19,11 @@ import javax.ws.rs.core.UriInfo;
 
 import org.demoiselle.jee.crud.AbstractDAO;
 import org.demoiselle.jee.crud.CrudMessage;
+import org.demoiselle.jee.crud.CrudQuery;
 import org.demoiselle.jee.crud.CrudUtilHelper;
 import org.demoiselle.jee.crud.DemoiselleRequestContext;
 import org.demoiselle.jee.crud.ReservedKeyWords;
-import org.demoiselle.jee.crud.Search;
+import org.demoiselle.jee.crud.ResourceMethodDescriptor;
 
 /**
  * Class responsible for managing the 'sort' parameter comes from Url Query
@@ -79,14 +79,27 @@ public class SortHelper {
      * @param uriInfo UriInfo
      */
     public void execute(ResourceInfo resourceInfo, UriInfo uriInfo) {
+        this.uriInfo = uriInfo == null ? this.uriInfo : uriInfo;
+        execute(resourceInfo, this.uriInfo, CrudQuery.parse(this.uriInfo.getQueryParameters()));
+    }
+
+    /**
+     * Same as {@link #execute(ResourceInfo, UriInfo)} reading the parameters from the query
+     * string already parsed.
+     *
+     * @param resourceInfo ResourceInfo
+     * @param uriInfo UriInfo
+     * @param query Query string of the request
+     */
+    public void execute(ResourceInfo resourceInfo, UriInfo uriInfo, CrudQuery query) {
         this.resourceInfo = resourceInfo == null ? this.resourceInfo : resourceInfo;
         this.uriInfo = uriInfo == null ? this.uriInfo : uriInfo;
 
         Set<String> descList = new LinkedHashSet<>();
         Boolean descAll = Boolean.FALSE;
 
-        List<String> descValues = getValuesFromQueryString(ReservedKeyWords.DEFAULT_SORT_DESC_KEY.getKey());
-        List<String> sortValues = getValuesFromQueryString(ReservedKeyWords.DEFAULT_SORT_KEY.getKey());
+        List<String> descValues = splitValues(query.getDesc());
+        List<String> sortValues = splitValues(query.getSort());
 
         // 'desc' parameter was filled and 'sort' parameter not
         if (descValues != null && sortValues == null) {
@@ -128,34 +141,30 @@ public class SortHelper {
         }
 
         //Valid if fields exists on fields attribute from @Search annotation
-        if (this.resourceInfo.getResourceMethod().isAnnotationPresent(Search.class)) {
-            Search search = this.resourceInfo.getResourceMethod().getAnnotation(Search.class);
-            List<String> searchFields = Arrays.asList(search.fields());
-            if (searchFields.get(0) != null && !searchFields.get(0).equals("*")) {
-                drc.getSorts().stream().filter((sortModel) -> (!searchFields.contains(sortModel.getField()))).forEachOrdered((sortModel) -> {
-                    throw new BadRequestException(crudMessage.fieldRequestDoesNotExistsOnSearchField(sortModel.getField()));
-                });
-            }
+        ResourceMethodDescriptor descriptor = ResourceMethodDescriptor.of(this.resourceInfo);
+        Set<String> searchFields = descriptor.getSortFields();
+        if (searchFields != null) {
+            drc.getSorts().stream().filter((sortModel) -> (!searchFields.contains(sortModel.getField()))).forEachOrdered((sortModel) -> {
+                throw new BadRequestException(crudMessage.fieldRequestDoesNotExistsOnSearchField(sortModel.getField()));
+            });
         }
 
         // Validate if the fields are valid
         drc.getSorts().stream().forEach(sortModel -> {
-            CrudUtilHelper.checkIfExistField(CrudUtilHelper.getTargetClass(this.resourceInfo.getResourceClass()), sortModel.getField());
+            CrudUtilHelper.checkIfExistField(descriptor.getTargetClass(), sortModel.getField());
         });
 
     }
 
-    private List<String> getValuesFromQueryString(String key) {
+    private List<String> splitValues(List<String> values) {
+        if (values == null) {
+            return null;
+        }
 
-        for (String queryStringKey : uriInfo.getQueryParameters().keySet()) {
-            if (key.equalsIgnoreCase(queryStringKey)) {
-                List<String> result = new LinkedList<>();
-                for (String value : uriInfo.getQueryParameters().get(queryStringKey)) {
-                    result.addAll(CrudUtilHelper.extractFields(value));
-                }
-                return result;
-            }
+        List<String> result = new ArrayList<>();
+        for (String value : values) {
+            result.addAll(CrudUtilHelper.extractFields(value));
         }
-        return null;
+        return result;
     }
 }
@@ -0,0 +1,689 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud
+
+import javax.enterprise.event.Event
+import javax.persistence.EntityManager
+import javax.persistence.EntityManagerFactory
+import javax.persistence.PersistenceUnitUtil
+import javax.persistence.Tuple
+import javax.persistence.TypedQuery
+import javax.persistence.criteria.CriteriaBuilder
+import javax.persistence.criteria.CriteriaQuery
+import javax.persistence.criteria.Expression
+import javax.persistence.criteria.Join
+import javax.persistence.criteria.Order
+import javax.persistence.criteria.Path
+import javax.persistence.criteria.Predicate
+import javax.persistence.criteria.Root
+import javax.persistence.metamodel.EntityType
+import javax.persistence.metamodel.Metamodel
+import javax.persistence.metamodel.SingularAttribute
+import javax.persistence.metamodel.Type
+
+import org.demoiselle.jee.crud.aggregation.Aggregate
+import org.demoiselle.jee.crud.aggregation.AggregateFunction
+import org.demoiselle.jee.crud.aggregation.Aggregation
+
+import org.demoiselle.jee.crud.cache.CrudCacheConfig
+import org.demoiselle.jee.crud.cache.EntityCache
+import org.demoiselle.jee.crud.cache.ResponseCache
+import org.demoiselle.jee.crud.entity.OrderModelForTest
+import org.demoiselle.jee.crud.entity.UserModelForTest
+import org.demoiselle.jee.crud.exception.DemoiselleCrudException
+import org.demoiselle.jee.crud.filter.FilterPlan
+import org.demoiselle.jee.crud.filter.InList
+import org.demoiselle.jee.crud.metadata.EntityMetadata
+import org.demoiselle.jee.crud.pagination.CountCache
+import org.demoiselle.jee.crud.pagination.CountStrategy
+import org.demoiselle.jee.crud.pagination.KeysetCursor
+import org.demoiselle.jee.crud.pagination.PaginationHelperConfig
+import org.demoiselle.jee.crud.pagination.PaginationType
+import org.demoiselle.jee.crud.search.SearchIndex
+import org.demoiselle.jee.crud.search.SearchIndexChange
+import org.demoiselle.jee.crud.sort.CrudSort
+import org.demoiselle.jee.crud.sort.SortModel
+
+import spock.lang.*
+
+/**
+ * Test of {@link AbstractDAO} class.
+ * 
+ * @author SERPRO
+ */
+class AbstractDAOSpec extends Specification {
+
+    EntityManager entityManager = Mock()
+    EntityManagerFactory entityManagerFactory = Mock()
+    PersistenceUnitUtil persistenceUnitUtil = Mock()
+    DemoiselleCrudConfig crudConfig = Mock()
+    PaginationHelperConfig dpc = Mock()
+    CountCache countCache = new CountCache(dpc)
+    ResponseCache responseCache = new ResponseCache(crudConfig)
+    EntityCache entityCache = new EntityCache(Mock(CrudCacheConfig))
+    SearchIndex searchIndex = new SearchIndex(crudConfig)
+    Event<SearchIndexChange> searchIndexChanges = Mock()
+    List<SearchIndexChange> firedChanges = []
+
+    UserDAOForTest dao = new UserDAOForTest()
+
+    def setup() {
+        dao.entityManager = entityManager
+        setField("crudConfig", crudConfig)
+        setField("countCache", countCache)
+        setField("responseCache", responseCache)
+        setField("entityCache", entityCache)
+        setField("searchIndex", searchIndex)
+        setField("searchIndexChanges", searchIndexChanges)
+        setField("drc", new DemoiselleRequestContextImpl())
+
+        entityManager.getEntityManagerFactory() >> entityManagerFactory
+        entityManagerFactory.getPersistenceUnitUtil() >> persistenceUnitUtil
+        persistenceUnitUtil.getIdentifier(_) >> { UserModelForTest user -> user.id }
+        searchIndexChanges.fire(_) >> { SearchIndexChange change -> firedChanges << change }
+    }
+
+    def "A batch persist should flush and clear the EntityManager each 'batchSize' entities"() {
+        given:
+        crudConfig.getBatchSize() >> 2
+        def users = (1..5).collect { new UserModelForTest(id: it) }
+        countCache.put(UserModelForTest.class, "", 10L)
+        responseCache.put(UserModelForTest.class, "", responseCache.getGeneration(UserModelForTest.class), 200, [:], new byte[0])
+
+        when:
+        def statuses = dao.persistBatch(users)
+
+        then:
+        5 * entityManager.persist(_)
+        3 * entityManager.flush()
+        2 * entityManager.clear()
+        statuses*.index == [0, 1, 2, 3, 4]
+        statuses*.id == [1L, 2L, 3L, 4L, 5L]
+        statuses*.status == [201] * 5
+        countCache.get(UserModelForTest.class, "") == null
+        responseCache.get(UserModelForTest.class, "") == null
+    }
+
+    def "A batch persist with a failure should fail the whole batch"() {
+        given:
+        crudConfig.getBatchSize() >> 50
+        entityManager.persist({ it.id == 2L }) >> { throw new RuntimeException() }
+
+        when:
+        dao.persistBatch([new UserModelForTest(id: 1L), new UserModelForTest(id: 2L)])
+
+        then:
+        DemoiselleCrudException e = thrown()
+        e.message.contains("[1]")
+    }
+
+    def "A find with the same filter shape should reuse the JPQL and bind only the values"() {
+        given:
+        def drc = new DemoiselleRequestContextImpl()
+        drc.paginationEnabled = false
+        drc.sorts.add(new SortModel(CrudSort.DESC, "age"))
+        setField("drc", drc)
+
+        TypedQuery query = Mock()
+        List<String> statements = []
+        entityManager.createQuery(_ as String, UserModelForTest.class) >> { String jpql, Class type -> statements << jpql; query }
+        query.getResultList() >> []
+
+        when:
+        drc.filters = buildFilters(["name": ["*john*"] as Set, "age": ["30"] as Set])
+        dao.find()
+        drc.filters = buildFilters(["name": ["*mary*"] as Set, "age": ["40"] as Set])
+        dao.find()
+
+        then:
+        1 * query.setParameter(1, "%john%")
+        1 * query.setParameter(2, 30)
+        1 * query.setParameter(1, "%mary%")
+        1 * query.setParameter(2, 40)
+        0 * entityManager.getCriteriaBuilder()
+        statements.size() == 2
+        statements[0].is(statements[1])
+        statements[0] == "SELECT e FROM ${UserModelForTest.class.canonicalName} e " +
+                "WHERE (LOWER(e.name) LIKE ?1) AND (e.age = ?2) ORDER BY e.age DESC"
+    }
+
+    def "A find with operators should compare the typed values and use a LIKE without LOWER on the prefix"() {
+        given:
+        def drc = new DemoiselleRequestContextImpl()
+        drc.paginationEnabled = false
+        drc.filters = buildFilters(["age": ["ge(18)", "lt(65)"] as Set, "name": ["prefix(Jo_)"] as Set, "id": ["in(1,2,3)"] as Set])
+        setField("drc", drc)
+
+        TypedQuery query = Mock()
+        query.getResultList() >> []
+
+        when:
+        dao.find()
+
+        then:
+        1 * entityManager.createQuery("SELECT e FROM ${UserModelForTest.class.canonicalName} e " +
+                "WHERE (e.age >= ?1 AND e.age < ?2) AND (e.name LIKE ?3 ESCAPE '\\') AND (e.id IN (?4, ?5, ?6, ?7))", UserModelForTest.class) >> query
+        1 * query.setParameter(1, 18)
+        1 * query.setParameter(2, 65)
+        1 * query.setParameter(3, "Jo\\_%")
+        1 * query.setParameter(4, 1L)
+        1 * query.setParameter(5, 2L)
+        1 * query.setParameter(6, 3L)
+        1 * query.setParameter(7, 3L)
+    }
+
+    def "Many values of a field compared by equal should be a single IN padded to the next power of two"() {
+        given:
+        def drc = new DemoiselleRequestContextImpl()
+        drc.paginationEnabled = false
+        drc.filters = buildFilters(["id": ["1", "2", "3", "null"] as LinkedHashSet])
+        setField("drc", drc)
+
+        TypedQuery query = Mock()
+        query.getResultList() >> []
+
+        when:
+        dao.find()
+
+        then:
+        1 * entityManager.createQuery("SELECT e FROM ${UserModelForTest.class.canonicalName} e " +
+                "WHERE (e.id IN (?1, ?2, ?3, ?4) AND e.id IS NULL)", UserModelForTest.class) >> query
+        1 * query.setParameter(1, 1L)
+        1 * query.setParameter(2, 2L)
+        1 * query.setParameter(3, 3L)
+        1 * query.setParameter(4, 3L)
+    }
+
+    def "An IN with more values than the chunk size should be split into INs joined by OR"() {
+        when:
+        def binding = FilterPlan.bind(UserModelForTest.class, buildFilters(["id": ["1", "2", "3", "4", "5"] as LinkedHashSet]), [], 4)
+
+        then:
+        binding.plan.selectStatement == "SELECT e FROM ${UserModelForTest.class.canonicalName} e " +
+                "WHERE ((e.id IN (?1, ?2, ?3, ?4) OR e.id IN (?5)))"
+        binding.values == [1L, 2L, 3L, 4L, 5L]
+    }
+
+    @Unroll
+    def "A list of #size values should be padded to #bucket parameters"(int size, int bucket) {
+        expect:
+        InList.chunks((1..size).toList(), 512)[0].size() == bucket
+        InList.chunks((1..size).toList(), 512)[0][-1] == size
+
+        where:
+        size | bucket
+        1    | 1
+        2    | 2
+        3    | 4
+        5    | 8
+        8    | 8
+        300  | 512
+    }
+
+    def "A count with filters on an association should use a JOIN on the JPQL"() {
+        given:
+        def drc = new DemoiselleRequestContextImpl()
+        def filters = new TreeNodeField<String, Set<String>>(UserModelForTest.class.name, null)
+        filters.addChild("address", null).addChild("street", ["null", "Main"] as LinkedHashSet)
+        drc.filters = filters
+        setField("drc", drc)
+
+        TypedQuery query = Mock()
+        query.getSingleResult() >> 3L
+
+        when:
+        def count = dao.count()
+
+        then:
+        1 * entityManager.createQuery("SELECT COUNT(e) FROM ${UserModelForTest.class.canonicalName} e JOIN e.address j0 " +
+                "WHERE (j0.street IS NULL OR j0.street = ?1)", Long.class) >> query
+        1 * query.setParameter(1, "Main")
+        count == 3L
+    }
+
+    def "A range on a field of an association should AND the operators and OR the other values"() {
+        given:
+        def orderDao = new AbstractDAO<OrderModelForTest, Long>() {
+            protected EntityManager getEntityManager() {
+                return entityManager
+            }
+        }
+        def drc = new DemoiselleRequestContextImpl()
+        def filters = new TreeNodeField<String, Set<String>>(OrderModelForTest.class.name, null)
+        filters.addChild("user", null).addChild("age", ["ge(18)", "lt(65)", "null"] as LinkedHashSet)
+        drc.filters = filters
+        setField(orderDao, "drc", drc)
+
+        CriteriaBuilder criteriaBuilder = Mock()
+        CriteriaQuery criteriaQuery = Mock()
+        Root root = Mock()
+        Join join = Mock()
+        Path agePath = Mock()
+        Predicate greaterOrEqual = Mock()
+        Predicate less = Mock()
+        Predicate isNull = Mock()
+        Predicate nullOrEqual = Mock()
+        Predicate range = Mock()
+
+        root.join("user") >> join
+        join.get("age") >> agePath
+        criteriaBuilder.greaterThanOrEqualTo(agePath, 18) >> greaterOrEqual
+        criteriaBuilder.lessThan(agePath, 65) >> less
+        criteriaBuilder.isNull(agePath) >> isNull
+        criteriaBuilder.or(isNull) >> nullOrEqual
+        criteriaBuilder.and(greaterOrEqual, less, nullOrEqual) >> range
+
+        when:
+        def predicates = orderDao.buildPredicates(criteriaBuilder, criteriaQuery, root)
+        def binding = FilterPlan.bind(OrderModelForTest.class, filters, [], [], 512)
+
+        then:
+        predicates as List == [range]
+        binding.plan.selectStatement == "SELECT e FROM ${OrderModelForTest.class.canonicalName} e " +
+                "JOIN e.user j0 WHERE (j0.age >= ?1 AND j0.age < ?2 AND (j0.age IS NULL))"
+        binding.values == [18, 65]
+    }
+
+    def "The associations with nested fields should be fetched by the select statement only"() {
+        given:
+        def filters = new TreeNodeField<String, Set<String>>(OrderModelForTest.class.name, null)
+        filters.addChild("user", null).addChild("name", ["john"] as Set)
+
+        when:
+        def binding = FilterPlan.bind(OrderModelForTest.class, filters, [], ["user"], 512)
+
+        then:
+        binding.plan.selectStatement == "SELECT e FROM ${OrderModelForTest.class.canonicalName} e LEFT JOIN FETCH e.user " +
+                "JOIN e.user j0 WHERE (j0.name = ?1)"
+        binding.plan.countStatement == "SELECT COUNT(e) FROM ${OrderModelForTest.class.canonicalName} e " +
+                "JOIN e.user j0 WHERE (j0.name = ?1)"
+        FilterPlan.bind(OrderModelForTest.class, filters, [], [], 512).plan.selectStatement == binding.plan.countStatement.replace("COUNT(e)", "e")
+    }
+
+    def "A filter value that can't be converted to the attribute type should not use the filter plan"() {
+        expect:
+        FilterPlan.bind(UserModelForTest.class, buildFilters(["age": ["abc"] as Set]), []) == null
+        FilterPlan.bind(UserModelForTest.class, buildFilters(["unknown": ["1"] as Set]), []) == null
+        FilterPlan.bind(UserModelForTest.class, buildFilters(["age": ["1"] as Set]), []).values == [1]
+    }
+
+    def "An enum filter should bind the ordinal of the constant with one or many values on every path"() {
+        given:
+        def orderDao = new AbstractDAO<OrderModelForTest, Long>() {
+            protected EntityManager getEntityManager() {
+                return entityManager
+            }
+        }
+        def status = EntityMetadata.of(OrderModelForTest.class).getAttribute("status")
+        def single = new TreeNodeField<String, Set<String>>(OrderModelForTest.class.name, null)
+        single.addChild("status", ["closed"] as Set)
+        def many = new TreeNodeField<String, Set<String>>(OrderModelForTest.class.name, null)
+        many.addChild("status", ["OPEN", "closed"] as LinkedHashSet)
+
+        expect:
+        orderDao.isEnumFilter("STATUS", "closed")
+        orderDao.convertEnumToInt("STATUS", "closed") == 1
+        InList.equalValues(status, ["OPEN", "closed"] as LinkedHashSet, true) == [0, 1]
+        FilterPlan.bind(OrderModelForTest.class, single, [], [], 512).values == [1]
+        FilterPlan.bind(OrderModelForTest.class, many, [], [], 512).values == [0, 1]
+    }
+
+    def "An aggregation should group the rows on a Criteria multiselect and name the values by function"() {
+        given:
+        def drc = new DemoiselleRequestContextImpl()
+        drc.aggregation = new Aggregation(["age"], [new Aggregate(AggregateFunction.COUNT, null), new Aggregate(AggregateFunction.MAX, "id")])
+        drc.sorts.add(new SortModel(CrudSort.DESC, "age"))
+        setField("drc", drc)
+
+        CriteriaBuilder criteriaBuilder = Mock()
+        CriteriaQuery criteriaQuery = Mock()
+        Root root = Mock()
+        Path agePath = Mock()
+        Path idPath = Mock()
+        Expression count = Mock()
+        Expression max = Mock()
+        TypedQuery query = Mock()
+        Tuple tuple = Mock()
+
+        entityManager.getCriteriaBuilder() >> criteriaBuilder
+        criteriaBuilder.createTupleQuery() >> criteriaQuery
+        criteriaQuery.from(UserModelForTest.class) >> root
+        root.get("age") >> agePath
+        root.get("id") >> idPath
+        criteriaBuilder.count(root) >> count
+        criteriaBuilder.greatest(idPath) >> max
+        entityManager.createQuery(criteriaQuery) >> query
+        query.getResultList() >> [tuple]
+        tuple.get(0) >> 30
+        tuple.get(1) >> 2L
+        tuple.get(2) >> 7L
+
+        when:
+        def result = dao.find()
+
+        then:
+        1 * criteriaQuery.multiselect([agePath, count, max])
+        1 * criteriaQuery.groupBy([agePath])
+        1 * criteriaQuery.orderBy(_)
+        0 * criteriaQuery.where(_)
+        0 * entityManager.createQuery(_ as String, _)
+        result.content == [["age": 30, "count": 2L, "max(id)": 7L]]
+        drc.count == 1L
+    }
+
+    def "A search should find the identifiers on the index and read the entities by identifier"() {
+        given:
+        def drc = new DemoiselleRequestContextImpl()
+        drc.paginationEnabled = false
+        drc.searchText = "john"
+        setField("drc", drc)
+
+        def index = searchIndex.startLoading(UserModelForTest.class)
+        index.load(1L, ["name": "John Silva"])
+        index.load(2L, ["name": "Mary"])
+        searchIndex.install(UserModelForTest.class, index)
+
+        CriteriaBuilder criteriaBuilder = Mock()
+        CriteriaQuery criteriaQuery = Mock()
+        Root root = Mock()
+        Path idPath = Mock()
+        Predicate inPredicate = Mock()
+        TypedQuery query = Mock()
+
+        Metamodel metamodel = Mock()
+        EntityType entityType = Mock()
+        Type idType = Mock()
+        SingularAttribute idAttribute = Mock()
+
+        entityManager.getMetamodel() >> metamodel
+        metamodel.entity(UserModelForTest.class) >> entityType
+        entityType.getIdType() >> idType
+        idType.getJavaType() >> Long.class
+        entityType.getId(Long.class) >> idAttribute
+        idAttribute.getName() >> "id"
+        entityManager.getCriteriaBuilder() >> criteriaBuilder
+        criteriaBuilder.createQuery(UserModelForTest.class) >> criteriaQuery
+        criteriaQuery.from(UserModelForTest.class) >> root
+        criteriaQuery.select(root) >> criteriaQuery
+        root.get("id") >> idPath
+        entityManager.createQuery(criteriaQuery) >> query
+        query.getResultList() >> []
+
+        when:
+        dao.find()
+
+        then:
+        1 * idPath.in([1L]) >> inPredicate
+        1 * criteriaQuery.where([inPredicate])
+        0 * entityManager.createQuery(_ as String, _)
+    }
+
+    def "A streaming should order by the sorts and the identifier and read each next chunk after the last row"() {
+        given:
+        def drc = new DemoiselleRequestContextImpl()
+        drc.paginationEnabled = false
+        drc.streamingEnabled = true
+        drc.sorts.add(new SortModel(CrudSort.DESC, "age"))
+        setField("drc", drc)
+        setField("paginationConfig", dpc)
+        dpc.getStreamingFetchSize() >> 2
+
+        CriteriaBuilder criteriaBuilder = Mock()
+        CriteriaQuery criteriaQuery = Mock()
+        Root root = Mock()
+        Path idPath = Mock()
+        Path agePath = Mock()
+        Order ageOrder = Mock()
+        Order idOrder = Mock()
+        Order nullsOrder = Mock()
+        CriteriaBuilder.Case nullsLast = Mock()
+        Predicate keyset = Mock()
+        TypedQuery query = Mock()
+
+        Metamodel metamodel = Mock()
+        EntityType entityType = Mock()
+        Type idType = Mock()
+        SingularAttribute idAttribute = Mock()
+
+        entityManager.getMetamodel() >> metamodel
+        metamodel.entity(UserModelForTest.class) >> entityType
+        entityType.getIdType() >> idType
+        idType.getJavaType() >> Long.class
+        entityType.getId(Long.class) >> idAttribute
+        idAttribute.getName() >> "id"
+        entityManager.getCriteriaBuilder() >> criteriaBuilder
+        criteriaBuilder.createQuery(UserModelForTest.class) >> criteriaQuery
+        criteriaQuery.from(UserModelForTest.class) >> root
+        criteriaQuery.getRoots() >> ([root] as Set)
+        criteriaQuery.getOrderList() >> [ageOrder]
+        root.get("id") >> idPath
+        root.get("age") >> agePath
+        criteriaBuilder.desc(agePath) >> ageOrder
+        criteriaBuilder.asc(idPath) >> idOrder
+        criteriaBuilder.selectCase() >> nullsLast
+        nullsLast.when(_, 1) >> nullsLast
+        nullsLast.otherwise(0) >> nullsLast
+        criteriaBuilder.asc(nullsLast) >> nullsOrder
+        criteriaBuilder.or(_) >> keyset
+        entityManager.createQuery(criteriaQuery) >> query
+        query.setFirstResult(_) >> query
+        query.setMaxResults(_) >> query
+        query.getResultList() >>> [
+            [new UserModelForTest(id: 1L, age: 40), new UserModelForTest(id: 2L, age: 30)],
+            [new UserModelForTest(id: 3L, age: 20)]
+        ]
+
+        when:
+        def result = dao.find()
+
+        then:
+        1 * criteriaQuery.orderBy([nullsOrder, ageOrder, idOrder])
+        0 * query.getResultList()
+
+        when:
+        def ids = result.content*.id
+
+        then:
+        ids == [1L, 2L, 3L]
+        2 * query.setFirstResult(0) >> query
+        1 * criteriaBuilder.lessThan(agePath, 30)
+        1 * criteriaBuilder.greaterThan(idPath, 2L)
+        1 * criteriaQuery.where(keyset)
+    }
+
+    @Unroll
+    def "A keyset page after a #boundary sort value should keep the nulls after the values"(String boundary, Integer age, int afterValue, int afterNull) {
+        given:
+        def drc = new DemoiselleRequestContextImpl()
+        drc.paginationEnabled = true
+        drc.paginationType = PaginationType.KEYSET
+        drc.offset = 0
+        drc.limit = 1
+        drc.cursor = KeysetCursor.encode([age, 5L])
+        drc.sorts.add(new SortModel(CrudSort.ASC, "age"))
+        setField("drc", drc)
+
+        CriteriaBuilder criteriaBuilder = Mock()
+        CriteriaQuery criteriaQuery = Mock()
+        Root root = Mock()
+        Path idPath = Mock()
+        Path agePath = Mock()
+        Order ageOrder = Mock()
+        Order idOrder = Mock()
+        Order nullsOrder = Mock()
+        CriteriaBuilder.Case nullsLast = Mock()
+        Predicate ageIsNull = Mock()
+        Predicate ageGreater = Mock()
+        Predicate ageAfter = Mock()
+        Predicate ageEqual = Mock()
+        Predicate idGreater = Mock()
+        Predicate none = Mock()
+        TypedQuery query = Mock()
+
+        Metamodel metamodel = Mock()
+        EntityType entityType = Mock()
+        Type idType = Mock()
+        SingularAttribute idAttribute = Mock()
+
+        entityManager.getMetamodel() >> metamodel
+        metamodel.entity(UserModelForTest.class) >> entityType
+        entityType.getIdType() >> idType
+        idType.getJavaType() >> Long.class
+        entityType.getId(Long.class) >> idAttribute
+        idAttribute.getName() >> "id"
+        entityManager.getCriteriaBuilder() >> criteriaBuilder
+        criteriaBuilder.createQuery(UserModelForTest.class) >> criteriaQuery
+        criteriaQuery.from(UserModelForTest.class) >> root
+        criteriaQuery.getRoots() >> ([root] as Set)
+        root.get("id") >> idPath
+        root.get("age") >> agePath
+        idPath.getJavaType() >> Long.class
+        agePath.getJavaType() >> Integer.class
+        criteriaBuilder.asc(agePath) >> ageOrder
+        criteriaBuilder.asc(idPath) >> idOrder
+        criteriaBuilder.selectCase() >> nullsLast
+        nullsLast.when(ageIsNull, 1) >> nullsLast
+        nullsLast.otherwise(0) >> nullsLast
+        criteriaBuilder.asc(nullsLast) >> nullsOrder
+        criteriaBuilder.isNull(agePath) >> ageIsNull
+        criteriaBuilder.greaterThan(agePath, 30) >> ageGreater
+        criteriaBuilder.or(ageGreater, ageIsNull) >> ageAfter
+        criteriaBuilder.equal(agePath, 30) >> ageEqual
+        criteriaBuilder.greaterThan(idPath, 5L) >> idGreater
+        criteriaBuilder.disjunction() >> none
+        entityManager.createQuery(criteriaQuery) >> query
+        query.getResultList() >> []
+
+        when:
+        dao.find()
+
+        then:
+        1 * criteriaQuery.orderBy([nullsOrder, ageOrder, idOrder])
+        // After a value come the greater values and every null
+        afterValue * criteriaBuilder.and(ageAfter)
+        afterValue * criteriaBuilder.and(ageEqual, idGreater)
+        // After a null come only the nulls with a greater identifier
+        afterNull * criteriaBuilder.and(none)
+        afterNull * criteriaBuilder.and(ageIsNull, idGreater)
+
+        where:
+        boundary | age  | afterValue | afterNull
+        "value"  | 30   | 1          | 0
+        "null"   | null | 0          | 1
+    }
+
+    def "An estimated count should never run the count query and be unknown without an estimate"() {
+        given:
+        def drc = new DemoiselleRequestContextImpl()
+        drc.paginationEnabled = true
+        drc.countStrategy = CountStrategy.ESTIMATED
+        drc.offset = 0
+        drc.limit = 9
+        setField("drc", drc)
+        countCache.put(UserModelForTest.class, "", 100L)
+
+        TypedQuery query = Mock()
+        query.setFirstResult(_) >> query
+        query.setMaxResults(_) >> query
+        query.getResultList() >> []
+        entityManager.createQuery(_ as String, UserModelForTest.class) >> query
+
+        when:
+        dao.find()
+
+        then:
+        0 * entityManager.createQuery(_ as String, Long.class)
+        drc.count == null
+    }
+
+    def "A cached count should be kept by the filters and the search text"() {
+        given:
+        def drc = new DemoiselleRequestContextImpl()
+        drc.filters = buildFilters(["name": ["John"] as Set])
+        setField("drc", drc)
+
+        when:
+        drc.searchText = "silva"
+        countCache.put(UserModelForTest.class, dao.buildCountCacheKey(), 2L)
+        drc.searchText = "souza"
+        countCache.put(UserModelForTest.class, dao.buildCountCacheKey(), 5L)
+        drc.searchText = null
+        countCache.put(UserModelForTest.class, dao.buildCountCacheKey(), 9L)
+
+        then:
+        countCache.get(UserModelForTest.class, "name=[John]") == 9L
+
+        when:
+        drc.searchText = "silva"
+
+        then:
+        dao.cachedCount() == 2L
+
+        when:
+        drc.searchText = "souza"
+
+        then:
+        dao.cachedCount() == 5L
+    }
+
+    def "A change of a searchable entity should update the index only after the commit"() {
+        given:
+        def index = searchIndex.startLoading(UserModelForTest.class)
+        searchIndex.install(UserModelForTest.class, index)
+        entityManager.merge(_) >> { UserModelForTest user -> user }
+
+        when:
+        dao.persist(new UserModelForTest(id: 1L, name: "John"))
+        dao.mergeFull(new UserModelForTest(id: 2L, name: "Johnny"))
+
+        then:
+        index.search("john").isEmpty()
+
+        when:
+        commit()
+
+        then:
+        index.search("john") == [1L, 2L] as Set
+
+        when:
+        dao.remove(1L)
+
+        then:
+        index.search("john") == [1L, 2L] as Set
+
+        when:
+        commit()
+
+        then:
+        index.search("john") == [2L] as Set
+    }
+
+    /**
+     * Deliver the fired changes as the container does after the commit of the transaction.
+     */
+    private void commit() {
+        firedChanges.each { searchIndex.apply(it) }
+        firedChanges.clear()
+    }
+
+    private TreeNodeField<String, Set<String>> buildFilters(Map<String, Set<String>> values) {
+        def filters = new TreeNodeField<String, Set<String>>(UserModelForTest.class.name, null)
+        values.each { key, value -> filters.addChild(key, value) }
+        return filters
+    }
+
+    private void setField(String name, Object value) {
+        setField(dao, name, value)
+    }
+
+    private static void setField(AbstractDAO target, String name, Object value) {
+        def field = AbstractDAO.class.getDeclaredField(name)
+        field.accessible = true
+        field.set(target, value)
+    }
+
+}
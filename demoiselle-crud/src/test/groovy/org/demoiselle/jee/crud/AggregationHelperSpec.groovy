@@ -0,0 +1,120 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud
+
+import javax.ws.rs.container.ResourceInfo
+import javax.ws.rs.core.MultivaluedHashMap
+import javax.ws.rs.core.MultivaluedMap
+import javax.ws.rs.core.UriInfo
+
+import org.demoiselle.jee.crud.aggregation.AggregateFunction
+import org.demoiselle.jee.crud.aggregation.AggregationHelper
+import org.demoiselle.jee.crud.aggregation.AggregationHelperMessage
+import org.demoiselle.jee.crud.sort.CrudSort
+import org.demoiselle.jee.crud.sort.SortModel
+
+import spock.lang.*
+
+/**
+ * Test of {@link AggregationHelper} class.
+ *
+ * @author SERPRO
+ */
+class AggregationHelperSpec extends Specification {
+
+    ResourceInfo resourceInfo = Mock()
+    UriInfo uriInfo = Mock()
+    DemoiselleRequestContext drc = new DemoiselleRequestContextImpl()
+    AggregationHelperMessage message = Mock()
+    CrudMessage crudMessage = Mock()
+
+    MultivaluedMap mvmRequest = new MultivaluedHashMap<>()
+
+    AggregationHelper aggregationHelper = new AggregationHelper(resourceInfo, uriInfo, drc, message, crudMessage)
+
+    def setup() {
+        resourceInfo.getResourceClass() >> UserRestForTest.class
+    }
+
+    def "A request with 'groupBy' and 'aggregate' should fill 'DemoiselleRequestContext.aggregation'"() {
+        given:
+        resourceInfo.getResourceMethod() >> UserRestForTest.class.getDeclaredMethod("find")
+        mvmRequest.putSingle("groupBy", "age,name")
+        mvmRequest.putSingle("aggregate", "count, sum(age),MAX(mail)")
+        drc.setStreamingEnabled(true)
+
+        when:
+        aggregationHelper.execute(resourceInfo, uriInfo, CrudQuery.parse(mvmRequest))
+
+        then:
+        drc.aggregation.groupBy == ["age", "name"]
+        drc.aggregation.aggregates*.function == [AggregateFunction.COUNT, AggregateFunction.SUM, AggregateFunction.MAX]
+        drc.aggregation.aggregates*.field == [null, "age", "mail"]
+        drc.aggregation.aggregates*.alias == ["count", "sum(age)", "max(mail)"]
+        drc.isPaginationEnabled() == false
+        drc.isStreamingEnabled() == false
+    }
+
+    def "A request without 'groupBy' and 'aggregate' should not change the request context"() {
+        given:
+        resourceInfo.getResourceMethod() >> UserRestForTest.class.getDeclaredMethod("find")
+        mvmRequest.putSingle("name", "john")
+
+        when:
+        aggregationHelper.execute(resourceInfo, uriInfo, CrudQuery.parse(mvmRequest))
+
+        then:
+        drc.aggregation == null
+        drc.isPaginationEnabled() == true
+    }
+
+    @Unroll
+    def "The request '#parameters' should be rejected"(parameters, method) {
+        given:
+        resourceInfo.getResourceMethod() >> UserRestForTest.class.getDeclaredMethod(method)
+        parameters.each { key, value -> mvmRequest.putSingle(key, value) }
+
+        when:
+        aggregationHelper.execute(resourceInfo, uriInfo, CrudQuery.parse(mvmRequest))
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        parameters                                  | method
+        ["aggregate": "median(age)"]                | "find"
+        ["aggregate": "sum"]                        | "find"
+        ["aggregate": "sum(name)"]                  | "find"
+        ["aggregate": "count(unknown)"]             | "find"
+        ["groupBy": "address(street)"]              | "find"
+        ["groupBy": "age", "range": "0-10"]         | "find"
+        ["groupBy": "age", "fields": "age"]         | "find"
+        ["groupBy": "age"]                          | "findWithSearch"
+    }
+
+    def "The sort should be only allowed on the fields of 'groupBy'"() {
+        given:
+        resourceInfo.getResourceMethod() >> UserRestForTest.class.getDeclaredMethod("find")
+        mvmRequest.putSingle("groupBy", "age")
+        mvmRequest.putSingle("aggregate", "count")
+
+        when:
+        drc.sorts.add(new SortModel(CrudSort.DESC, "age"))
+        aggregationHelper.execute(resourceInfo, uriInfo, CrudQuery.parse(mvmRequest))
+
+        then:
+        notThrown(IllegalArgumentException)
+
+        when:
+        drc.sorts.add(new SortModel(CrudSort.ASC, "name"))
+        aggregationHelper.execute(resourceInfo, uriInfo, CrudQuery.parse(mvmRequest))
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud
+
+import javax.enterprise.inject.Instance
+import javax.ws.rs.container.AsyncResponse
+
+import org.demoiselle.jee.core.api.security.Token
+import org.demoiselle.jee.core.api.security.TokenType
+import org.demoiselle.jee.crud.async.AsyncCrudExecutor
+import org.demoiselle.jee.crud.async.AsyncRequestSnapshot
+import org.demoiselle.jee.crud.async.CrudAsyncInvoker
+import org.demoiselle.jee.crud.entity.UserModelForTest
+import org.demoiselle.jee.crud.pagination.PaginationType
+import org.demoiselle.jee.crud.sort.CrudSort
+import org.demoiselle.jee.crud.sort.SortModel
+import org.demoiselle.jee.rest.exception.DemoiselleRestException
+
+import spock.lang.*
+
+/**
+ * Test of {@link AsyncCrudExecutor} and {@link AsyncRequestSnapshot} classes.
+ *
+ * @author SERPRO
+ */
+class AsyncCrudExecutorSpec extends Specification {
+
+    DemoiselleCrudConfig crudConfig = Mock()
+    CrudMessage crudMessage = Mock()
+    DemoiselleRequestContext drc = new DemoiselleRequestContextImpl()
+    Instance<Token> tokenInstance = Mock()
+    Token token = Mock()
+    CrudAsyncInvoker invoker = Mock()
+
+    AsyncCrudExecutor executor = new AsyncCrudExecutor(crudConfig, crudMessage, drc, tokenInstance, invoker)
+
+    def "The request context and the token should be restored on the thread of the operation"() {
+        given:
+        drc.setEntityClass(UserModelForTest.class)
+        drc.setLimit(19)
+        drc.setOffset(10)
+        drc.setPaginationType(PaginationType.KEYSET)
+        drc.setSorts([new SortModel(CrudSort.ASC, "name")])
+        tokenInstance.isUnsatisfied() >> false
+        tokenInstance.isAmbiguous() >> false
+        tokenInstance.get() >> token
+        token.getKey() >> "key"
+        token.getType() >> TokenType.JWT
+
+        DemoiselleRequestContext restored = new DemoiselleRequestContextImpl()
+        Token restoredToken = Mock()
+        Instance<Token> restoredTokenInstance = Mock()
+        restoredTokenInstance.isUnsatisfied() >> false
+        restoredTokenInstance.isAmbiguous() >> false
+        restoredTokenInstance.get() >> restoredToken
+
+        when:
+        AsyncRequestSnapshot snapshot = AsyncRequestSnapshot.capture(drc, tokenInstance)
+        drc.setLimit(0)
+        drc.getSorts().clear()
+        snapshot.restore(restored, restoredTokenInstance)
+
+        then:
+        restored.getEntityClass() == UserModelForTest.class
+        restored.getLimit() == 19
+        restored.getOffset() == 10
+        restored.getPaginationType() == PaginationType.KEYSET
+        restored.getSorts().size() == 1
+        1 * restoredToken.setKey("key")
+        1 * restoredToken.setType(TokenType.JWT)
+    }
+
+    def "Without security the token should not be restored"() {
+        given:
+        tokenInstance.isUnsatisfied() >> true
+
+        when:
+        AsyncRequestSnapshot snapshot = AsyncRequestSnapshot.capture(drc, tokenInstance)
+
+        then:
+        snapshot.getTokenKey() == null
+        0 * tokenInstance.get()
+    }
+
+    def "A request should be rejected when the resource reached the max concurrent requests"() {
+        given:
+        crudConfig.getAsyncMaxConcurrentRequests() >> 1
+        crudMessage.asyncRequestRejected(_) >> "rejected"
+        tokenInstance.isUnsatisfied() >> true
+        AsyncResponse first = Mock()
+        AsyncResponse second = Mock()
+        AsyncResponse third = Mock()
+        Runnable onComplete = null
+
+        when:
+        executor.submit(UserRestForTest.class, first, { "ok" })
+        executor.submit(UserRestForTest.class, second, { "ok" })
+
+        then:
+        1 * invoker.invoke(_, _, first, _) >> { arguments -> onComplete = arguments[3] }
+        0 * invoker.invoke(_, _, second, _)
+        1 * second.resume({ it instanceof DemoiselleRestException && it.statusCode == 503 })
+        executor.getAvailablePermits(UserRestForTest.class) == 0
+
+        when:
+        onComplete.run()
+        executor.submit(UserRestForTest.class, third, { "ok" })
+
+        then:
+        1 * invoker.invoke(_, _, third, _)
+        0 * third.resume(_)
+    }
+
+    def "The permit should be released when the operation could not be submitted"() {
+        given:
+        crudConfig.getAsyncMaxConcurrentRequests() >> 1
+        tokenInstance.isUnsatisfied() >> true
+        AsyncResponse asyncResponse = Mock()
+        def exception = new IllegalStateException()
+
+        when:
+        executor.submit(UserRestForTest.class, asyncResponse, { "ok" })
+
+        then:
+        1 * invoker.invoke(_, _, asyncResponse, _) >> { throw exception }
+        1 * asyncResponse.resume(exception)
+        executor.getAvailablePermits(UserRestForTest.class) == 1
+    }
+
+}
@@ -11,10 +11,14 @@ import javax.ws.rs.container.ContainerResponseContext
 import javax.ws.rs.container.ResourceInfo
 import javax.ws.rs.core.MultivaluedHashMap
 import javax.ws.rs.core.MultivaluedMap
+import javax.ws.rs.core.StreamingOutput
 import javax.ws.rs.core.UriInfo
 import javax.ws.rs.core.Response.Status
 
 import org.demoiselle.jee.core.api.crud.Result
+import org.demoiselle.jee.crud.aggregation.AggregationHelper
+import org.demoiselle.jee.crud.aggregation.AggregationHelperMessage
+import org.demoiselle.jee.crud.cache.ResponseCache
 import org.demoiselle.jee.crud.entity.AddressModelForTest
 import org.demoiselle.jee.crud.entity.CountryModelForTest
 import org.demoiselle.jee.crud.entity.UserModelForTest
@@ -25,6 +29,9 @@ import org.demoiselle.jee.crud.pagination.PaginationHelper
 import org.demoiselle.jee.crud.pagination.PaginationHelperConfig
 import org.demoiselle.jee.crud.pagination.PaginationHelperMessage
 import org.demoiselle.jee.crud.pagination.ResultSet
+import org.demoiselle.jee.crud.pagination.StreamingResultSet
+import org.demoiselle.jee.crud.search.SearchHelper
+import org.demoiselle.jee.crud.search.SearchHelperMessage
 import org.demoiselle.jee.crud.sort.SortHelper
 import org.demoiselle.jee.crud.sort.SortHelperMessage
 
@@ -57,7 +64,10 @@ class CrudFilterSpec extends Specification{
     PaginationHelper paginationHelper = new PaginationHelper(resourceInfo, uriInfo, dpc, drc, paginationMessage)
     FilterHelper filterHelper = new FilterHelper(resourceInfo, uriInfo, drc, crudMessage)
     FieldHelper fieldHelper = new FieldHelper(resourceInfo, uriInfo, drc, fieldHelperMessage, crudMessage)
-    CrudFilter crudFilter = new CrudFilter(resourceInfo, uriInfo, drc, paginationHelper, sortHelper, filterHelper, fieldHelper)
+    AggregationHelper aggregationHelper = new AggregationHelper(resourceInfo, uriInfo, drc, Mock(AggregationHelperMessage), crudMessage)
+    SearchHelper searchHelper = new SearchHelper(resourceInfo, uriInfo, drc, Mock(SearchHelperMessage))
+    ResponseCache responseCache = new ResponseCache(Mock(DemoiselleCrudConfig))
+    CrudFilter crudFilter = new CrudFilter(resourceInfo, uriInfo, drc, paginationHelper, sortHelper, filterHelper, fieldHelper, responseCache, aggregationHelper, searchHelper)
     
     def "A request with 'range' parameter should fill 'Result' object " () {
         
@@ -383,6 +393,115 @@ class CrudFilterSpec extends Specification{
         })
     }
     
+    def "A streaming result should be written by chunks with the fields from @Search.fields"() {
+        given:
+        
+        dpc.getIsGlobalEnabled() >> true
+        
+        uriInfo.getQueryParameters() >> mvmRequest
+        responseContext.getHeaders() >> mvmResponse
+
+        def users = []
+        
+        5.times {
+            AddressModelForTest address = new AddressModelForTest(street: "street ${it}")
+            users << new UserModelForTest(id: it, name: "John${it}", mail: "john${it}@test.com", address: address)
+        }
+        
+        def chunks = []
+        Result result = new StreamingResultSet([
+            read: { after, max ->
+                chunks << [after, max]
+                users.findAll { after == null || it.id > after[0] }.take(max)
+            },
+            position: { user -> [user.id] }
+        ] as StreamingResultSet.ChunkReader, null, 2)
+        
+        responseContext.getEntity() >> result
+
+        resourceInfo.getResourceClass() >> UserRestForTest.class
+        resourceInfo.getResourceClass().getSuperclass() >> AbstractREST.class
+        resourceInfo.getResourceMethod() >> UserRestForTest.class.getDeclaredMethod("findWithStreaming")
+        
+        URI uri = new URI("http://localhost:9090/api/users")
+        uriInfo.getRequestUri() >> uri
+        
+        StreamingOutput output = null
+        ByteArrayOutputStream body = new ByteArrayOutputStream()
+        
+        when:
+        crudFilter.filter(requestContext)
+        crudFilter.filter(requestContext, responseContext)
+        
+        then:
+        1 * responseContext.setEntity({ output = it })
+        drc.isStreamingEnabled()
+        chunks.isEmpty()
+        
+        when:
+        output.write(body)
+        
+        then:
+        chunks == [[null, 2], [[1], 2], [[3], 2]]
+        body.toString("UTF-8") == '[' + (0..4).collect { 
+            "{\"id\":${it},\"name\":\"John${it}\",\"address\":{\"street\":\"street ${it}\"}}" 
+        }.join(',') + ']'
+    }
+    
+    def "A resource annotated with @CacheResponse should keep the response on ResponseCache with an ETag"() {
+        given:
+        
+        dpc.getDefaultPagination() >> 20
+        dpc.getIsGlobalEnabled() >> true
+        
+        drc.count = 2
+        
+        uriInfo.getQueryParameters() >> mvmRequest
+        uriInfo.getPath(false) >> "users"
+        
+        def properties = [:]
+        requestContext.setProperty(_, _) >> { name, value -> properties[name] = value }
+        requestContext.getProperty(_) >> { String name -> properties[name] }
+        requestContext.getMethod() >> "GET"
+        
+        Result result = new ResultSet()
+        result.getContent().addAll([new UserModelForTest(id: 1, name: "John"), new UserModelForTest(id: 2, name: "Mary")])
+        
+        def entity = result
+        responseContext.getEntity() >> { entity }
+        responseContext.setEntity(_) >> { arguments -> entity = arguments[0] }
+        responseContext.setEntity(_, _, _) >> { value, annotations, mediaType -> entity = value }
+        responseContext.getStatus() >> 200
+        responseContext.getHeaders() >> mvmResponse
+        responseContext.getHeaderString(_) >> { String name -> mvmResponse.getFirst(name)?.toString() }
+        
+        resourceInfo.getResourceClass() >> UserRestForTest.class
+        resourceInfo.getResourceMethod() >> UserRestForTest.class.getDeclaredMethod("findWithResponseCache")
+        uriInfo.getRequestUri() >> new URI("http://localhost:9090/api/users")
+        
+        when:
+        crudFilter.filter(requestContext)
+        crudFilter.filter(requestContext, responseContext)
+        
+        then:
+        0 * requestContext.abortWith(_)
+        new String(entity, "UTF-8") == '[{"id":1,"name":"John"},{"id":2,"name":"Mary"}]'
+        mvmResponse.getFirst("ETag") != null
+        responseCache.get(UserModelForTest.class, properties.values().find { it instanceof String }).entityTag == mvmResponse.getFirst("ETag")
+        
+        when:
+        responseCache.invalidate(UserModelForTest.class)
+        properties.clear()
+        entity = result
+        crudFilter.filter(requestContext)
+        crudFilter.filter(requestContext, responseContext)
+        
+        then:
+        requestContext.getHeaderString("If-None-Match") >> mvmResponse.getFirst("ETag")
+        0 * requestContext.abortWith(_)
+        1 * responseContext.setStatus(304)
+    }
+    
     private configureRequestForCrud(){
         resourceInfo.getResourceClass() >> UserRestForTest.class
         resourceInfo.getResourceClass().getSuperclass() >> AbstractREST.class
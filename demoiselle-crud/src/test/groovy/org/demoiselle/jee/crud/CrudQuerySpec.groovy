@@ -0,0 +1,117 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud
+
+import javax.ws.rs.core.MultivaluedHashMap
+
+import spock.lang.*
+
+/**
+ * Test of {@link CrudQuery} class.
+ *
+ * @author SERPRO
+ */
+class CrudQuerySpec extends Specification {
+
+    def "The query string should be split by feature in a single pass"() {
+        given:
+        def parameters = new MultivaluedHashMap<String, String>()
+        parameters.putSingle("range", "0-9")
+        parameters.addAll("SORT", "name", "mail")
+        parameters.add("desc", "")
+        parameters.putSingle("fields", "id,name")
+        parameters.putSingle("Fields", "address(street)")
+        parameters.putSingle("name", "john,mary")
+        parameters.putSingle("RANGE", "1-2")
+
+        when:
+        def query = CrudQuery.parse(parameters)
+
+        then:
+        query.range == ["0-9"]
+        query.cursor == null
+        query.sort == ["name", "mail"]
+        query.desc == [""]
+        query.fields.sort() == ["address(street)", "id,name"]
+        query.filters == ["name": ["john,mary"]]
+        !query.isAggregation()
+    }
+
+    def "The aggregation parameters should not be filters"() {
+        given:
+        def parameters = new MultivaluedHashMap<String, String>()
+        parameters.putSingle("GROUPBY", "age")
+        parameters.putSingle("aggregate", "count,sum(age)")
+        parameters.putSingle("name", "john")
+
+        when:
+        def query = CrudQuery.parse(parameters)
+
+        then:
+        query.isAggregation()
+        query.groupBy == ["age"]
+        query.aggregate == ["count,sum(age)"]
+        query.filters == ["name": ["john"]]
+        query.toKey().contains("&groupBy=age&aggregate=")
+    }
+
+    def "The search parameter should not be a filter"() {
+        given:
+        def parameters = new MultivaluedHashMap<String, String>()
+        parameters.putSingle("q", "john silva")
+        parameters.putSingle("name", "john")
+
+        when:
+        def query = CrudQuery.parse(parameters)
+
+        then:
+        query.searchText == ["john silva"]
+        query.filters == ["name": ["john"]]
+        query.toKey().contains("&q=john+silva")
+    }
+
+    def "The key should not depend on the order of the filters and should encode the values"() {
+        given:
+        def first = new MultivaluedHashMap<String, String>()
+        first.putSingle("name", "john")
+        first.putSingle("mail", "a&b=c")
+        def second = new MultivaluedHashMap<String, String>()
+        second.putSingle("mail", "a&b=c")
+        second.putSingle("name", "john")
+        def third = new MultivaluedHashMap<String, String>()
+        third.putSingle("mail", "a")
+        third.putSingle("b", "c")
+        third.putSingle("name", "john")
+
+        expect:
+        CrudQuery.parse(first).toKey() == CrudQuery.parse(second).toKey()
+        CrudQuery.parse(first).toKey() != CrudQuery.parse(third).toKey()
+    }
+
+    @Unroll
+    def "The fields '#fields' should be split into #expected"(fields, expected) {
+        expect:
+        CrudUtilHelper.extractFields(fields) == expected
+
+        where:
+        fields                                  | expected
+        ""                                      | []
+        "id"                                    | ["id"]
+        "id,name,"                              | ["id", "name"]
+        "id,address(street,country(name)),name" | ["id", "address(street,country(name))", "name"]
+        "(11) 9999"                             | ["(11) 9999"]
+    }
+
+    def "Fields with subfields that don't close the parentheses should throw IllegalArgumentException"() {
+        when:
+        CrudUtilHelper.extractFields("id,address(id,address")
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+}
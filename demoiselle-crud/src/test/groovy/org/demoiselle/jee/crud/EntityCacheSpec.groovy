@@ -0,0 +1,114 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud
+
+import javax.persistence.Cache
+import javax.persistence.CacheRetrieveMode
+import javax.persistence.EntityManager
+import javax.persistence.EntityManagerFactory
+import javax.persistence.TypedQuery
+
+import org.demoiselle.jee.crud.cache.CrudCacheConfig
+import org.demoiselle.jee.crud.cache.EntityCache
+import org.demoiselle.jee.crud.entity.CountryModelForTest
+import org.demoiselle.jee.crud.entity.UserModelForTest
+
+import spock.lang.*
+
+/**
+ * Test of {@link EntityCache} class.
+ *
+ * @author SERPRO
+ */
+class EntityCacheSpec extends Specification {
+
+    EntityManager entityManager = Mock()
+    EntityManagerFactory entityManagerFactory = Mock()
+    Cache cache = Mock()
+    CrudCacheConfig cacheConfig = Mock()
+
+    EntityCache entityCache = new EntityCache(cacheConfig)
+
+    def setup() {
+        entityManager.getEntityManagerFactory() >> entityManagerFactory
+        entityManagerFactory.getCache() >> cache
+    }
+
+    def "A find of a @CrudCacheable entity should use the shared cache and count hits and misses"() {
+        given:
+        cache.contains(CountryModelForTest.class, 1L) >> true
+        cache.contains(CountryModelForTest.class, 2L) >> false
+
+        when:
+        entityCache.find(entityManager, CountryModelForTest.class, 1L)
+        entityCache.find(entityManager, CountryModelForTest.class, 1L)
+        entityCache.find(entityManager, CountryModelForTest.class, 2L)
+
+        then:
+        3 * entityManager.find(CountryModelForTest.class, _, { it["javax.persistence.cache.retrieveMode"] == CacheRetrieveMode.USE })
+        0 * entityManager.find(_, _)
+        entityCache.getStatistics(CountryModelForTest.class).region == "countries"
+        entityCache.getStatistics(CountryModelForTest.class).hits == 2
+        entityCache.getStatistics(CountryModelForTest.class).misses == 1
+        entityCache.getStatistics(CountryModelForTest.class).hitRatio == 2d / 3d
+    }
+
+    def "A find of an entity without @CrudCacheable should not use hints nor counters"() {
+        when:
+        entityCache.find(entityManager, UserModelForTest.class, 1L)
+
+        then:
+        1 * entityManager.find(UserModelForTest.class, 1L)
+        0 * cache.contains(_, _)
+        entityCache.getStatistics(UserModelForTest.class) == null
+    }
+
+    def "The query hints should use the region and its configuration"() {
+        given:
+        cacheConfig.getDefaultMaxSize() >> 1000
+        cacheConfig.getDefaultTimeToLiveMilliseconds() >> 60000L
+        cacheConfig.getRegionMaxSize() >> ["countries": "300"]
+        TypedQuery query = Mock()
+        def hints = [:]
+        query.setHint(_, _) >> { String name, Object value -> hints[name] = value; query }
+
+        when:
+        entityCache.applyQueryHints(query, CountryModelForTest.class)
+
+        then:
+        hints["org.hibernate.cacheable"] == true
+        hints["org.hibernate.cacheRegion"] == "countries"
+        hints["eclipselink.query-results-cache.size"] == "300"
+        hints["eclipselink.query-results-cache.expiry"] == "60000"
+    }
+
+    def "A query hint not supported by the provider should be ignored"() {
+        given:
+        TypedQuery query = Mock()
+        query.setHint("org.hibernate.cacheable", _) >> { throw new IllegalArgumentException() }
+
+        when:
+        entityCache.applyQueryHints(query, CountryModelForTest.class)
+        entityCache.applyQueryHints(query, UserModelForTest.class)
+
+        then:
+        notThrown(IllegalArgumentException)
+        6 * query.setHint(_, _)
+    }
+
+    def "An eviction should remove the entity from the shared cache and be counted"() {
+        when:
+        entityCache.evict(entityManager, CountryModelForTest.class, 1L)
+        entityCache.evict(entityManager, UserModelForTest.class, 1L)
+
+        then:
+        1 * cache.evict(CountryModelForTest.class, 1L)
+        0 * cache.evict(UserModelForTest.class, _)
+        entityCache.getStatistics(CountryModelForTest.class).evictions == 1
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud
+
+import org.demoiselle.jee.crud.entity.OrderModelForTest
+import org.demoiselle.jee.crud.entity.UserModelForTest
+import org.demoiselle.jee.crud.metadata.EntityMetadata
+
+import spock.lang.*
+
+/**
+ * Test of {@link EntityMetadata} class.
+ * 
+ * @author SERPRO
+ */
+class EntityMetadataSpec extends Specification {
+
+    def "The metadata should be built once by class"() {
+        expect:
+        EntityMetadata.of(OrderModelForTest.class).is(EntityMetadata.of(OrderModelForTest.class))
+    }
+
+    def "The metadata should hold the id and the updatable attributes"() {
+        given:
+        EntityMetadata metadata = EntityMetadata.of(OrderModelForTest.class)
+
+        expect:
+        metadata.getIdAttributeName() == "id"
+        metadata.getUpdatableAttributes()*.name == ["description", "status", "user"]
+        metadata.getAttribute("serialVersionUID") == null
+        metadata.getAttribute("STATUS") == null
+        metadata.getAttributeIgnoreCase("STATUS").name == "status"
+        CrudUtilHelper.getMethodAnnotatedWithID(OrderModelForTest.class) == "id"
+        CrudUtilHelper.getMethodAnnotatedWithID(UserModelForTest.class) == null
+        metadata.getAttributes().findAll { it.singularAssociation }*.name == ["user"]
+    }
+
+    def "The metadata should read the values and find the enum constants"() {
+        given:
+        EntityMetadata metadata = EntityMetadata.of(OrderModelForTest.class)
+        OrderModelForTest order = new OrderModelForTest(id: 10L, description: "Order", status: OrderModelForTest.Status.CLOSED)
+
+        expect:
+        metadata.getAttribute("id").getValue(order) == 10L
+        metadata.getAttribute("description").getValue(order) == "Order"
+        metadata.getAttribute("user").getValue(order) == null
+        metadata.getAttribute("status").isEnum()
+        !metadata.getAttribute("description").isEnum()
+        metadata.getAttribute("status").getEnumConstant("closed") == OrderModelForTest.Status.CLOSED
+        metadata.getAttribute("status").getEnumConstant("unknown") == null
+        !metadata.getAttribute("id").isNullable()
+        metadata.getAttribute("description").isNullable()
+    }
+
+    def "The partial update statement should be built once by set of columns"() {
+        given:
+        EntityMetadata metadata = EntityMetadata.of(OrderModelForTest.class)
+        BitSet columns = new BitSet()
+        columns.set(0)
+        columns.set(2)
+
+        when:
+        String statement = metadata.getUpdateStatement(columns)
+
+        then:
+        statement == "UPDATE org.demoiselle.jee.crud.entity.OrderModelForTest SET description = ?1, user = ?2 WHERE id = ?3"
+        metadata.getUpdateStatement(BitSet.valueOf([5L] as long[])).is(statement)
+    }
+
+}
@@ -336,4 +336,27 @@ class FieldHelperSpec extends Specification {
         notThrown(IllegalArgumentException)
     }
     
+    @Unroll
+    def "A method annotated with @Search and 'projection' property should enable the projection with the @Search.fields"(){
+        given:
+        
+        resourceInfo.getResourceClass() >> UserRestForTest.class
+        resourceInfo.getResourceClass().getSuperclass() >> AbstractREST.class
+        resourceInfo.getResourceMethod() >> UserRestForTest.class.getDeclaredMethod(method)
+        
+        uriInfo.getQueryParameters() >> mvmRequest
+        
+        when:
+        fieldHelper.execute(resourceInfo, uriInfo)
+        
+        then:
+        drc.isProjectionEnabled() == projection
+        drc.getFields()?.getChildren()*.key == keys
+        
+        where:
+        method                      | projection    | keys
+        "findWithProjection"        | true          | ["id", "name", "address"]
+        "findWithSearchAndFields"   | false         | null
+    }
+    
 }
@@ -0,0 +1,68 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud
+
+import org.demoiselle.jee.crud.entity.AddressModelForTest
+import org.demoiselle.jee.crud.entity.UserModelForTest
+import org.demoiselle.jee.crud.field.FieldProjector
+
+import com.fasterxml.jackson.databind.ObjectMapper
+
+import spock.lang.*
+
+/**
+ * Test of {@link FieldProjector} class.
+ *
+ * @author SERPRO
+ */
+class FieldProjectorSpec extends Specification {
+
+    def user = new UserModelForTest(id: 1L, name: "John", mail: "john@test.com", age: 30,
+            address: new AddressModelForTest(id: 2L, address: "Main", street: "First street"))
+
+    def fields() {
+        def fields = new TreeNodeField<String, Set<String>>(UserModelForTest.class.getName(), null)
+        fields.addChild("name", null)
+        fields.addChild("id", null)
+        fields.addChild("address", null).addChild("street", null)
+        return fields
+    }
+
+    def "The projector should keep the 1st level fields in the order of the attributes"() {
+        when:
+        def map = FieldProjector.of(UserModelForTest.class, fields()).toMap(user)
+
+        then:
+        map == ["id": 1L, "name": "John", "address": ["street": "First street"]]
+        map.keySet() as List == ["id", "name", "address"]
+    }
+
+    def "The projector should write the same JSON of the Map"() {
+        given:
+        def mapper = new ObjectMapper()
+        def projector = FieldProjector.of(UserModelForTest.class, fields())
+        def output = new StringWriter()
+
+        when:
+        def generator = mapper.getFactory().createGenerator(output)
+        projector.write(generator, mapper.writer(), user)
+        generator.close()
+
+        then:
+        output.toString() == mapper.writeValueAsString(projector.toMap(user))
+    }
+
+    def "The projector of a frozen tree should be reused"() {
+        given:
+        def frozen = fields().freeze()
+
+        expect:
+        FieldProjector.of(UserModelForTest.class, frozen).is(FieldProjector.of(UserModelForTest.class, frozen))
+        !FieldProjector.of(UserModelForTest.class, fields()).is(FieldProjector.of(UserModelForTest.class, fields()))
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud
+
+import java.time.LocalDate
+import java.time.ZoneId
+
+import org.demoiselle.jee.crud.entity.OrderModelForTest
+import org.demoiselle.jee.crud.entity.UserModelForTest
+import org.demoiselle.jee.crud.filter.FilterCondition
+import org.demoiselle.jee.crud.filter.FilterOperator
+import org.demoiselle.jee.crud.metadata.EntityMetadata
+
+import spock.lang.*
+
+/**
+ * Test of {@link FilterCondition} class.
+ *
+ * @author SERPRO
+ */
+class FilterConditionSpec extends Specification {
+
+    static class EventForTest {
+        Date created
+    }
+
+    @Unroll
+    def "The value '#value' of '#field' should be the condition #operator #values"(field, value, operator, values) {
+        when:
+        def condition = FilterCondition.parse(value, EntityMetadata.of(UserModelForTest.class).getAttribute(field))
+
+        then:
+        condition.operator == operator
+        condition.values == values
+
+        where:
+        field   | value                 | operator                              | values
+        "age"   | "gt(18)"              | FilterOperator.GREATER_THAN           | [18]
+        "age"   | "GE(18)"              | FilterOperator.GREATER_THAN_OR_EQUAL  | [18]
+        "age"   | "lt(65)"              | FilterOperator.LESS_THAN              | [65]
+        "age"   | "le(65)"              | FilterOperator.LESS_THAN_OR_EQUAL     | [65]
+        "age"   | "between(18,65)"      | FilterOperator.BETWEEN                | [18, 65]
+        "id"    | "in(1,2,3)"           | FilterOperator.IN                     | [1L, 2L, 3L]
+        "name"  | "ne(john)"            | FilterOperator.NOT_EQUAL              | ["john"]
+        "name"  | "prefix(Jo)"          | FilterOperator.PREFIX                 | ["Jo%"]
+        "name"  | "prefix(50%_a\\b)"    | FilterOperator.PREFIX                 | ["50\\%\\_a\\\\b%"]
+    }
+
+    @Unroll
+    def "The value '#value' of '#field' should keep the previous behavior"(field, value) {
+        expect:
+        FilterCondition.parse(value, EntityMetadata.of(UserModelForTest.class).getAttribute(field)) == null
+
+        where:
+        field   | value
+        "name"  | "john"
+        "name"  | "*john*"
+        "name"  | "null"
+        "name"  | "john(doe)"
+        "name"  | null
+    }
+
+    @Unroll
+    def "The value '#value' of '#field' should be rejected"(field, value) {
+        when:
+        FilterCondition.parse(value, EntityMetadata.of(UserModelForTest.class).getAttribute(field))
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        field   | value
+        "age"   | "gt(abc)"
+        "age"   | "gt(1,2)"
+        "age"   | "between(1)"
+        "age"   | "in()"
+        "age"   | "prefix(1)"
+        "name"  | "prefix()"
+    }
+
+    def "The arguments should be converted to enum ordinals and dates"() {
+        given:
+        def midnight = LocalDate.of(2017, 1, 31).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli()
+
+        expect:
+        FilterCondition.parse("in(OPEN,CLOSED)", EntityMetadata.of(OrderModelForTest.class).getAttribute("status")).values == [OrderModelForTest.Status.OPEN.ordinal(), OrderModelForTest.Status.CLOSED.ordinal()]
+        FilterCondition.parse("ge(2017-01-31)", EntityMetadata.of(EventForTest.class).getAttribute("created")).values == [new Date(midnight)]
+        FilterCondition.parse("lt(2017-01-31T10:00:00Z)", EntityMetadata.of(EventForTest.class).getAttribute("created")).values == [new Date(1485856800000L)]
+        FilterCondition.parse("lt(1485856800000)", EntityMetadata.of(EventForTest.class).getAttribute("created")).values == [new Date(1485856800000L)]
+    }
+
+}
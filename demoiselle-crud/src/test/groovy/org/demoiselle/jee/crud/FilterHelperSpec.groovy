@@ -116,4 +116,27 @@ class FilterHelperSpec extends Specification {
         1 * crudMessage.fieldRequestDoesNotExistsOnObject('invalidField', 'org.demoiselle.jee.crud.entity.AddressModelForTest')
     }
 
+    def "A request with filter values written with operators should check the values against the type of the fields"() {
+        given:
+        resourceInfo.getResourceClass() >> UserRestForTest.class
+        resourceInfo.getResourceMethod() >> UserRestForTest.class.getDeclaredMethod("find")
+        uriInfo.getQueryParameters() >> mvmRequest
+        crudMessage.filterValueInvalid(_, _) >> "invalid"
+
+        when:
+        mvmRequest.putSingle("age", "ge(18),lt(65)")
+        filterHelper.execute(resourceInfo, uriInfo)
+
+        then:
+        drc.filters.getChildByKey("age").getValue() == ["ge(18)", "lt(65)"].toSet()
+
+        when:
+        mvmRequest.putSingle("age", "gt(abc)")
+        filterHelper.execute(resourceInfo, uriInfo)
+
+        then:
+        IllegalArgumentException e = thrown()
+        e.message == "invalid"
+    }
+
 }
@@ -18,6 +18,9 @@ import javax.ws.rs.core.UriInfo
 
 import org.demoiselle.jee.core.api.crud.Result
 import org.demoiselle.jee.crud.entity.UserModelForTest
+import org.demoiselle.jee.crud.pagination.CountCache
+import org.demoiselle.jee.crud.pagination.CountStrategy
+import org.demoiselle.jee.crud.pagination.KeysetCursor
 import org.demoiselle.jee.crud.pagination.PaginationHelperConfig
 import org.demoiselle.jee.crud.pagination.PaginationHelperMessage
 import org.demoiselle.jee.crud.pagination.PaginationHelper
@@ -373,6 +376,126 @@ class PaginationHelperSpec extends Specification {
         
     }
 
+    def "A method with keyset pagination should fill the cursor and build a 'Link' header with the next cursor"(){
+        
+        given:
+        dpc.getIsGlobalEnabled() >> true
+        
+        String cursor = KeysetCursor.encode(["Maria", 10L])
+        String url = "http://localhost:9090/api/users?cursor=${cursor}&sort=name"
+        
+        uriInfo.getRequestUri() >> new URI(url)
+        mvmRequest.putSingle("cursor", cursor)
+        mvmRequest.putSingle("sort", "name")
+        uriInfo.getQueryParameters() >> mvmRequest
+        
+        resourceInfo.getResourceClass() >> UserRestForTest.class
+        resourceInfo.getResourceMethod() >> UserRestForTest.class.getDeclaredMethod("findWithKeysetPagination")
+        
+        when:
+        paginationHelper.execute(resourceInfo, uriInfo)
+        drc.nextCursor = KeysetCursor.encode(["Pedro", 20L])
+        Map headers = paginationHelper.buildHeaders(resourceInfo, uriInfo)
+        
+        then:
+        drc.cursor == cursor
+        drc.limit == 9
+        KeysetCursor.decode(drc.cursor) == ["Maria", "10"]
+        headers.get(HttpHeaders.LINK) == "<http://localhost:9090/api/users?sort=name>; rel=\"first\",<http://localhost:9090/api/users?sort=name&cursor=${drc.nextCursor}>; rel=\"next\""
+        !headers.containsKey("Content-Range")
+        paginationHelper.isPartialContentResponse()
+    }
+    
+    @Unroll
+    def "A request with keyset pagination and invalid parameters (#parameter=#value) should throw IllegalArgumentException"(parameter, value, method){
+        
+        given:
+        dpc.getDefaultPagination() >> 20
+        dpc.getIsGlobalEnabled() >> true
+        mvmRequest.putSingle(parameter, value)
+        uriInfo.getQueryParameters() >> mvmRequest
+        
+        resourceInfo.getResourceClass() >> UserRestForTest.class
+        resourceInfo.getResourceMethod() >> UserRestForTest.class.getDeclaredMethod(method)
+        
+        when:
+        paginationHelper.execute(resourceInfo, uriInfo)
+        
+        then:
+        thrown(IllegalArgumentException)
+        
+        where:
+        parameter   | value     | method
+        "cursor"    | "%%%"     | "findWithKeysetPagination"
+        "cursor"    | ""        | "findWithKeysetPagination"
+        "range"     | "10-19"   | "findWithKeysetPagination"
+        "cursor"    | "TWFyaWE" | "find"
+    }
+    
+    def "A cursor should keep the values of the last row"(){
+        
+        expect:
+        KeysetCursor.decode(KeysetCursor.encode(["Maria", null, 10L])) == ["Maria", null, "10"]
+        KeysetCursor.convert("10", Long.class) == 10L
+        KeysetCursor.convert("10", int.class) == 10
+        KeysetCursor.convert(KeysetCursor.decode(KeysetCursor.encode([new Date(1000L)]))[0], Date.class) == new Date(1000L)
+        KeysetCursor.convert("ASC", org.demoiselle.jee.crud.sort.CrudSort.class) == org.demoiselle.jee.crud.sort.CrudSort.ASC
+    }
+
+    @Unroll
+    def "A method without count should build an open-ended 'Content-Range' [offset: #offset, nextPageAvailable: #nextPageAvailable]"(offset, nextPageAvailable, contentRange, link){
+        
+        given:
+        dpc.getIsGlobalEnabled() >> true
+        
+        String url = "http://localhost:9090/api/users?range=${offset}-${offset + 9}"
+        uriInfo.getRequestUri() >> new URI(url)
+        mvmRequest.putSingle("range", "${offset}-${offset + 9}".toString())
+        uriInfo.getQueryParameters() >> mvmRequest
+        
+        resourceInfo.getResourceClass() >> UserRestForTest.class
+        resourceInfo.getResourceMethod() >> UserRestForTest.class.getDeclaredMethod("findWithoutCount")
+        
+        when:
+        paginationHelper.execute(resourceInfo, uriInfo)
+        drc.nextPageAvailable = nextPageAvailable
+        Map headers = paginationHelper.buildHeaders(resourceInfo, uriInfo)
+        
+        then:
+        drc.countStrategy == CountStrategy.NONE
+        headers.get("Content-Range") == contentRange
+        headers.get(HttpHeaders.LINK) == link
+        
+        where:
+        offset  | nextPageAvailable | contentRange  | link
+        0       | true              | "0-9/*"       | "<http://localhost:9090/api/users?range=10-19>; rel=\"next\""
+        10      | true              | "10-19/*"     | "<http://localhost:9090/api/users?range=0-9>; rel=\"first\",<http://localhost:9090/api/users?range=0-9>; rel=\"prev\",<http://localhost:9090/api/users?range=20-29>; rel=\"next\""
+        10      | false             | "10-19/*"     | "<http://localhost:9090/api/users?range=0-9>; rel=\"first\",<http://localhost:9090/api/users?range=0-9>; rel=\"prev\","
+    }
+    
+    def "A count cache should keep the counts until expired or invalidated"(){
+        
+        given:
+        dpc.getCountCacheTimeToLiveMilliseconds() >> 60000L
+        dpc.getCountCacheMaxSize() >> 2
+        CountCache countCache = new CountCache(dpc)
+        
+        when:
+        countCache.put(UserModelForTest.class, "a", 10L)
+        countCache.put(UserModelForTest.class, "b", 20L)
+        countCache.put(UserModelForTest.class, "c", 30L)
+        
+        then:
+        countCache.get(UserModelForTest.class, "c") == 30L
+        [countCache.get(UserModelForTest.class, "a"), countCache.get(UserModelForTest.class, "b")].count { it != null } == 1
+        
+        when:
+        countCache.invalidate(UserModelForTest.class)
+        
+        then:
+        countCache.get(UserModelForTest.class, "c") == null
+    }
+
     private configureRequestForCrud(){
         resourceInfo.getResourceClass() >> UserRestForTest.class
         resourceInfo.getResourceClass().getSuperclass() >> AbstractREST.class
@@ -0,0 +1,72 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud
+
+import org.demoiselle.jee.crud.entity.UserModelForTest
+import org.demoiselle.jee.crud.pagination.CountStrategy
+import org.demoiselle.jee.crud.pagination.PaginationType
+
+import spock.lang.*
+
+/**
+ * Test of {@link ResourceMethodDescriptor} class.
+ *
+ * @author SERPRO
+ */
+class ResourceMethodDescriptorSpec extends Specification {
+
+    def "The descriptor should be built once by resource method"() {
+        given:
+        def method = UserRestForTest.class.getDeclaredMethod("findWithSearch")
+
+        expect:
+        ResourceMethodDescriptor.of(UserRestForTest.class, method).is(ResourceMethodDescriptor.of(UserRestForTest.class, method))
+    }
+
+    def "The descriptor should hold the @Search configuration"() {
+        when:
+        def descriptor = ResourceMethodDescriptor.of(UserRestForTest.class, UserRestForTest.class.getDeclaredMethod("findWithSearch"))
+
+        then:
+        descriptor.requestForCrud
+        descriptor.targetClass == UserModelForTest.class
+        descriptor.hasSearch()
+        descriptor.withPagination
+        descriptor.quantityPerPage == 10
+        descriptor.paginationType == PaginationType.OFFSET
+        descriptor.countStrategy == CountStrategy.EXACT
+        descriptor.sortFields == ["name", "address"] as Set
+        descriptor.searchFields.frozen
+        descriptor.searchFields.children*.key == ["name", "address"]
+    }
+
+    def "A method without @Search or with all fields should allow any field"() {
+        when:
+        def descriptor = ResourceMethodDescriptor.of(UserRestForTest.class, UserRestForTest.class.getDeclaredMethod(method))
+
+        then:
+        descriptor.hasSearch() == hasSearch
+        descriptor.quantityPerPage == quantityPerPage
+        descriptor.searchFields == null
+        descriptor.sortFields == null
+
+        where:
+        method                          | hasSearch | quantityPerPage
+        "find"                          | false     | null
+        "findWithSearchAndAllFields"    | true      | 20
+    }
+
+    def "A resource that doesn't extend AbstractREST should not be a request for CRUD"() {
+        when:
+        def descriptor = ResourceMethodDescriptor.of(UserRestWithoutAbstractRESTForTest.class, UserRestWithoutAbstractRESTForTest.class.getDeclaredMethod("find"))
+
+        then:
+        !descriptor.requestForCrud
+        descriptor.targetClass == null
+    }
+
+}
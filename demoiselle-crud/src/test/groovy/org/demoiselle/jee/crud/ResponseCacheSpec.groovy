@@ -0,0 +1,100 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud
+
+import org.demoiselle.jee.crud.cache.ResponseCache
+import org.demoiselle.jee.crud.entity.UserModelForTest
+
+import spock.lang.*
+
+/**
+ * Test of {@link ResponseCache} class.
+ *
+ * @author SERPRO
+ */
+class ResponseCacheSpec extends Specification {
+
+    DemoiselleCrudConfig crudConfig = Mock()
+    ResponseCache responseCache = new ResponseCache(crudConfig)
+
+    def "The same body should have the same strong ETag"() {
+        when:
+        def first = responseCache.put(UserModelForTest.class, "a", 0L, 200, [:], "[1]".getBytes("UTF-8"))
+        def second = responseCache.put(UserModelForTest.class, "b", 0L, 200, [:], "[1]".getBytes("UTF-8"))
+        def third = responseCache.put(UserModelForTest.class, "c", 0L, 200, [:], "[2]".getBytes("UTF-8"))
+
+        then:
+        first.entityTag.startsWith('"')
+        first.entityTag == second.entityTag
+        first.entityTag != third.entityTag
+    }
+
+    @Unroll
+    def "The header 'If-None-Match: #ifNoneMatch' should match the response: #expected"(ifNoneMatch, expected) {
+        given:
+        def response = responseCache.put(UserModelForTest.class, "a", 0L, 200, [:], "[1]".getBytes("UTF-8"))
+        def tag = response.entityTag
+
+        expect:
+        response.matches(ifNoneMatch?.replace("TAG", tag)) == expected
+
+        where:
+        ifNoneMatch         | expected
+        null                | false
+        "TAG"               | true
+        "W/TAG"             | true
+        '"other", TAG'      | true
+        "*"                 | true
+        '"other"'           | false
+    }
+
+    def "A response built before a change of the entity should not be kept"() {
+        given:
+        def generation = responseCache.getGeneration(UserModelForTest.class)
+
+        when:
+        responseCache.invalidate(UserModelForTest.class)
+        responseCache.put(UserModelForTest.class, "a", generation, 200, [:], new byte[0])
+
+        then:
+        responseCache.get(UserModelForTest.class, "a") == null
+
+        when:
+        responseCache.put(UserModelForTest.class, "a", responseCache.getGeneration(UserModelForTest.class), 200, [:], new byte[0])
+
+        then:
+        responseCache.get(UserModelForTest.class, "a") != null
+    }
+
+    def "The least recently used response should be removed when the max size is reached"() {
+        given:
+        crudConfig.getResponseCacheMaxSize() >> 2
+
+        when:
+        responseCache.put(UserModelForTest.class, "a", 0L, 200, [:], new byte[0])
+        responseCache.put(UserModelForTest.class, "b", 0L, 200, [:], new byte[0])
+        responseCache.get(UserModelForTest.class, "a")
+        responseCache.put(UserModelForTest.class, "c", 0L, 200, [:], new byte[0])
+
+        then:
+        responseCache.get(UserModelForTest.class, "a") != null
+        responseCache.get(UserModelForTest.class, "b") == null
+        responseCache.get(UserModelForTest.class, "c") != null
+    }
+
+    def "An expired response should not be returned"() {
+        given:
+        crudConfig.getResponseCacheTimeToLiveMilliseconds() >> 0L
+
+        when:
+        responseCache.put(UserModelForTest.class, "a", 0L, 200, [:], new byte[0])
+
+        then:
+        responseCache.get(UserModelForTest.class, "a") == null
+    }
+
+}
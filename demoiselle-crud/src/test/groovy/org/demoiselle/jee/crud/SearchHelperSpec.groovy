@@ -0,0 +1,90 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud
+
+import javax.ws.rs.container.ResourceInfo
+import javax.ws.rs.core.MultivaluedHashMap
+import javax.ws.rs.core.MultivaluedMap
+import javax.ws.rs.core.UriInfo
+
+import org.demoiselle.jee.crud.search.SearchHelper
+import org.demoiselle.jee.crud.search.SearchHelperMessage
+
+import spock.lang.*
+
+/**
+ * Test of {@link SearchHelper} class.
+ *
+ * @author SERPRO
+ */
+class SearchHelperSpec extends Specification {
+
+    ResourceInfo resourceInfo = Mock()
+    UriInfo uriInfo = Mock()
+    DemoiselleRequestContext drc = new DemoiselleRequestContextImpl()
+    SearchHelperMessage message = Mock()
+
+    MultivaluedMap mvmRequest = new MultivaluedHashMap<>()
+
+    SearchHelper searchHelper = new SearchHelper(resourceInfo, uriInfo, drc, message)
+
+    def "A request with 'q' should fill 'DemoiselleRequestContext.searchText'"() {
+        given:
+        resourceInfo.getResourceClass() >> UserRestForTest.class
+        resourceInfo.getResourceMethod() >> UserRestForTest.class.getDeclaredMethod("find")
+        mvmRequest.put("q", ["john", "silva"])
+        mvmRequest.putSingle("name", "john")
+
+        when:
+        searchHelper.execute(resourceInfo, uriInfo, CrudQuery.parse(mvmRequest))
+
+        then:
+        drc.searchText == "john silva"
+    }
+
+    def "A request without 'q' should not change the request context"() {
+        given:
+        resourceInfo.getResourceClass() >> UserRestForTest.class
+        resourceInfo.getResourceMethod() >> UserRestForTest.class.getDeclaredMethod("find")
+        mvmRequest.putSingle("name", "john")
+
+        when:
+        searchHelper.execute(resourceInfo, uriInfo, CrudQuery.parse(mvmRequest))
+
+        then:
+        drc.searchText == null
+    }
+
+    def "A request with 'q' without words should throw IllegalArgumentException"() {
+        given:
+        resourceInfo.getResourceClass() >> UserRestForTest.class
+        resourceInfo.getResourceMethod() >> UserRestForTest.class.getDeclaredMethod("find")
+        mvmRequest.putSingle("q", " *** ")
+
+        when:
+        searchHelper.execute(resourceInfo, uriInfo, CrudQuery.parse(mvmRequest))
+
+        then:
+        thrown(IllegalArgumentException)
+        1 * message.searchRequestMalFormed(" *** ")
+    }
+
+    def "A request with 'q' for a resource without @Searchable fields should throw IllegalArgumentException"() {
+        given:
+        resourceInfo.getResourceClass() >> UserRestWithoutAbstractRESTForTest.class
+        resourceInfo.getResourceMethod() >> UserRestWithoutAbstractRESTForTest.class.getDeclaredMethod("find")
+        mvmRequest.putSingle("q", "john")
+
+        when:
+        searchHelper.execute(resourceInfo, uriInfo, CrudQuery.parse(mvmRequest))
+
+        then:
+        thrown(IllegalArgumentException)
+        1 * message.searchNotSupported(UserRestWithoutAbstractRESTForTest.class.name)
+    }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud
+
+import org.demoiselle.jee.crud.entity.OrderModelForTest
+import org.demoiselle.jee.crud.entity.UserModelForTest
+import org.demoiselle.jee.crud.search.EntityIndex
+import org.demoiselle.jee.crud.search.SearchIndex
+
+import spock.lang.*
+
+/**
+ * Test of {@link SearchIndex} and {@link EntityIndex} classes.
+ *
+ * @author SERPRO
+ */
+class SearchIndexSpec extends Specification {
+
+    DemoiselleCrudConfig crudConfig = Mock()
+    SearchIndex searchIndex = new SearchIndex(crudConfig)
+
+    def "The words should be split on separators, in lower case and without accents"() {
+        expect:
+        EntityIndex.tokenize("Jos\u00e9 da Silva-SOUZA, 10") as List == ["jose", "da", "silva", "souza", "10"]
+        EntityIndex.tokenize(null).isEmpty()
+        EntityIndex.tokenize(" *** ").isEmpty()
+    }
+
+    def "Only the entities with @Searchable fields should be searchable"() {
+        expect:
+        SearchIndex.isSearchable(UserModelForTest.class)
+        !SearchIndex.isSearchable(OrderModelForTest.class)
+        SearchIndex.readValues(new UserModelForTest(name: "John", mail: null)) == ["name": "John", "mail": null]
+    }
+
+    def "A search should find the entities that have all words, each word as a prefix"() {
+        given:
+        def index = load([1L: ["name": "John Silva", "mail": "john@mail.com"], 2L: ["name": "Johnny Souza"], 3L: ["name": "Mary Silva"]])
+
+        expect:
+        index.search("john") == [1L, 2L] as Set
+        index.search("JOHN silva") == [1L] as Set
+        index.search("sil") == [1L, 3L] as Set
+        index.search("mail com") == [1L] as Set
+        index.search("peter").isEmpty()
+        index.search("!!!").isEmpty()
+    }
+
+    def "A partial update should keep the words of the other fields"() {
+        given:
+        def index = load([1L: ["name": "John Silva", "mail": "silva@mail.com"]])
+
+        when:
+        searchIndex.put(UserModelForTest.class, 1L, ["name": "Peter"])
+
+        then:
+        index.search("john").isEmpty()
+        index.search("peter") == [1L] as Set
+        // The word is still on the other field
+        index.search("silva") == [1L] as Set
+
+        when:
+        searchIndex.put(UserModelForTest.class, 1L, ["mail": null])
+
+        then:
+        index.search("silva").isEmpty()
+
+        when:
+        searchIndex.remove(UserModelForTest.class, 1L)
+
+        then:
+        index.search("peter").isEmpty()
+        index.size() == 0
+    }
+
+    def "A change made while the index is loaded should not be replaced by the rows read"() {
+        given:
+        def index = searchIndex.startLoading(UserModelForTest.class)
+
+        when:
+        searchIndex.put(UserModelForTest.class, 1L, ["name": "Peter"])
+        searchIndex.remove(UserModelForTest.class, 2L)
+        index.load(1L, ["name": "John"])
+        index.load(2L, ["name": "Mary"])
+        index.load(3L, ["name": "Anne"])
+        searchIndex.install(UserModelForTest.class, index)
+
+        then:
+        searchIndex.get(UserModelForTest.class).is(index)
+        index.search("peter") == [1L] as Set
+        index.search("john").isEmpty()
+        index.search("mary").isEmpty()
+        index.search("anne") == [3L] as Set
+    }
+
+    @Unroll
+    def "An index created 2 minutes ago with time to live #timeToLive should be expired: #expired"(Long timeToLive, boolean expired) {
+        given:
+        crudConfig.getSearchIndexTimeToLiveMilliseconds() >> timeToLive
+        searchIndex.install(UserModelForTest.class, new EntityIndex(System.currentTimeMillis() - 120000L))
+
+        expect:
+        (searchIndex.get(UserModelForTest.class) == null) == expired
+
+        where:
+        timeToLive | expired
+        0L         | false
+        300000L    | false
+        60000L     | true
+    }
+
+    private EntityIndex load(Map<Long, Map<String, Object>> rows) {
+        def index = searchIndex.startLoading(UserModelForTest.class)
+        rows.each { id, values -> index.load(id, values) }
+        searchIndex.install(UserModelForTest.class, index)
+        return index
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.crud
+
+import javax.ws.rs.container.ResourceInfo
+
+import spock.lang.*
+
+/**
+ * Test of {@link TreeNodeField} class.
+ *
+ * @author SERPRO
+ */
+class TreeNodeFieldSpec extends Specification {
+
+    def "A node with many children should find the first child with the key"() {
+        given:
+        def tnf = new TreeNodeField<String, Set<String>>("root", null)
+        (1..20).each { tnf.addChild("field" + it, ["v" + it] as Set) }
+        tnf.addChild("field5", ["other"] as Set)
+
+        expect:
+        tnf.children.size() == 21
+        tnf.getChildByKey("field5").value == ["v5"] as Set
+        tnf.getChildByKey("field20").parent.is(tnf)
+        tnf.containsKey("field13")
+        !tnf.containsKey("field21")
+    }
+
+    def "A frozen node should not accept new children"() {
+        given:
+        def tnf = new TreeNodeField<String, Set<String>>("root", null)
+        def address = tnf.addChild("address", null)
+        address.addChild("street", null)
+        tnf.freeze()
+
+        when:
+        address.addChild("number", null)
+
+        then:
+        thrown(UnsupportedOperationException)
+        tnf.frozen
+        address.frozen
+        address.children*.key == ["street"]
+    }
+
+    def "The children should not be changed through 'getChildren'"() {
+        given:
+        def tnf = new TreeNodeField<String, Set<String>>("root", null)
+
+        when:
+        tnf.children.add(new TreeNodeField<String, Set<String>>("name", null))
+
+        then:
+        thrown(UnsupportedOperationException)
+    }
+
+    def "The fields of @Search annotation should be parsed once by resource method"() {
+        given:
+        ResourceInfo resourceInfo = Mock()
+        resourceInfo.getResourceClass() >> UserRestForTest.class
+        resourceInfo.getResourceMethod() >> UserRestForTest.class.getDeclaredMethod("findWithSearchAndFieldsWithSubFields")
+
+        when:
+        def first = CrudUtilHelper.extractFieldsFromSearchAnnotation(resourceInfo)
+        def second = CrudUtilHelper.extractFieldsFromSearchAnnotation(resourceInfo)
+
+        then:
+        first.is(second)
+        first.frozen
+        first.children*.key == ["id", "name", "address"]
+        first.getChildByKey("address").children*.key == ["street"]
+    }
+
+}
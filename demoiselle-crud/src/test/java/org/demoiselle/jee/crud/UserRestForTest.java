@@ -8,7 +8,10 @@ package org.demoiselle.jee.crud;
 
 import org.demoiselle.jee.core.api.crud.Result;
 import org.demoiselle.jee.crud.AbstractREST;
+import org.demoiselle.jee.crud.cache.CacheResponse;
 import org.demoiselle.jee.crud.entity.UserModelForTest;
+import org.demoiselle.jee.crud.pagination.CountStrategy;
+import org.demoiselle.jee.crud.pagination.PaginationType;
 
 import javax.ws.rs.GET;
 
@@ -55,4 +58,34 @@ public class UserRestForTest extends AbstractREST<UserModelForTest, Long> {
         return null;
     }
     
+    @GET
+    @Search(fields={"*"}, quantityPerPage = 10, paginationType = PaginationType.KEYSET)
+    public Result findWithKeysetPagination(){
+        return null;
+    }
+
+    @GET
+    @Search(fields={"*"}, quantityPerPage = 10, countStrategy = CountStrategy.NONE)
+    public Result findWithoutCount(){
+        return null;
+    }
+
+    @GET
+    @Search(fields={"id", "name", "address(street)"}, projection = true)
+    public Result findWithProjection(){
+        return null;
+    }
+
+    @GET
+    @Search(fields={"id", "name", "address(street)"}, withPagination = false, streaming = true)
+    public Result findWithStreaming(){
+        return null;
+    }
+
+    @GET
+    @CacheResponse
+    @Search(fields={"id", "name"})
+    public Result findWithResponseCache(){
+        return null;
+    }
 }
@@ -6,10 +6,13 @@
  */
 package org.demoiselle.jee.crud.entity;
 
+import org.demoiselle.jee.crud.cache.CrudCacheable;
+
 /**
  * @author SERPRO
  *
  */
+@CrudCacheable(region = "countries")
 public class CountryModelForTest {
     
     private Long id;
@@ -6,6 +6,8 @@
  */
 package org.demoiselle.jee.crud.entity;
 
+import org.demoiselle.jee.crud.search.Searchable;
+
 /**
  * 
  * @author SERPRO
@@ -14,7 +16,9 @@ package org.demoiselle.jee.crud.entity;
 public class UserModelForTest {
     
     private Long id;
+    @Searchable
     private String name;
+    @Searchable
     private String mail;
     private Integer age;
     private AddressModelForTest address;
@@ -26,13 +26,22 @@ public class DemoiselleSecurityJWTConfig implements Serializable {
 
     private String publicKey;
 
+    @ConfigurationSuppressLogger
+    private String secret;
+
     private Long timetoLiveMilliseconds;
 
     private String issuer;
 
     private String audience;
 
-    private String algorithmIdentifiers;
+    private String algorithmIdentifiers = "RS256";
+
+    private Integer verifiedTokenCacheSize = new Integer(10000);
+
+    private String keySet;
+
+    private Integer keySetReloadSeconds = new Integer(60);
 
     public String getType() {
         return type;
@@ -46,6 +55,14 @@ public class DemoiselleSecurityJWTConfig implements Serializable {
         return publicKey;
     }
 
+    /**
+     * @return Secret shared by the servers, used by the HMAC algorithms (HS256, HS384 and HS512)
+     * instead of the keys
+     */
+    public String getSecret() {
+        return secret;
+    }
+
     public Long getTimetoLiveMilliseconds() {
         return timetoLiveMilliseconds;
     }
@@ -58,8 +75,34 @@ public class DemoiselleSecurityJWTConfig implements Serializable {
         return audience;
     }
 
+    /**
+     * @return Algorithm used to sign the tokens, see {@link JwtAlgorithm}
+     */
     public String getAlgorithmIdentifiers() {
         return algorithmIdentifiers;
     }
 
+    /**
+     * @return Quantity of verified tokens kept on memory to skip the verification of the same
+     * token on the next requests, zero disables the cache
+     */
+    public Integer getVerifiedTokenCacheSize() {
+        return verifiedTokenCacheSize;
+    }
+
+    /**
+     * @return File or resource of the classpath ('classpath:' prefix) with a JWK Set, used instead
+     * of the keys and the secret, see {@link JwtKeySetProvider}
+     */
+    public String getKeySet() {
+        return keySet;
+    }
+
+    /**
+     * @return Interval to read the key set again when it changes, zero disables the reload
+     */
+    public Integer getKeySetReloadSeconds() {
+        return keySetReloadSeconds;
+    }
+
 }
@@ -0,0 +1,114 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.security.jwt.impl;
+
+import java.security.Key;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.jose4j.jwk.JsonWebKey;
+import org.jose4j.jwk.JsonWebKeySet;
+import org.jose4j.jwk.PublicJsonWebKey;
+import org.jose4j.lang.JoseException;
+
+/**
+ * Keys of a JWK Set (RFC 7517) used to sign and verify the tokens, each key identified by its
+ * 'kid'. The tokens are verified by the key of the 'kid' header, so tokens signed by any key of
+ * the set are accepted, and signed by the first key of the set that has the private part (or the
+ * secret, for the HMAC algorithms).
+ *
+ * @author SERPRO
+ */
+public final class JwtKeySet {
+
+    private final Map<String, Key> verificationKeys;
+
+    private final String signingKeyId;
+
+    private final Key signingKey;
+
+    private JwtKeySet(Map<String, Key> verificationKeys, String signingKeyId, Key signingKey) {
+        this.verificationKeys = Collections.unmodifiableMap(verificationKeys);
+        this.signingKeyId = signingKeyId;
+        this.signingKey = signingKey;
+    }
+
+    /**
+     * Read the keys of the JWK Set.
+     *
+     * @param json JWK Set, ex: {"keys":[{"kty":"EC","kid":"2017-01",...}]}
+     * @param algorithm Algorithm of the tokens, every key must be of its type
+     *
+     * @return Key set
+     *
+     * @throws JoseException The JSON isn't a JWK Set, a key doesn't have the 'kid', has a
+     * repeated 'kid' or isn't of the type of the algorithm
+     */
+    public static JwtKeySet parse(String json, JwtAlgorithm algorithm) throws JoseException {
+        Map<String, Key> verificationKeys = new LinkedHashMap<>();
+        String signingKeyId = null;
+        Key signingKey = null;
+
+        for (JsonWebKey jwk : new JsonWebKeySet(json).getJsonWebKeys()) {
+            String kid = jwk.getKeyId();
+
+            if (kid == null || kid.isEmpty()) {
+                throw new JoseException("The keys of the key set must have the 'kid'");
+            }
+
+            if (!algorithm.getKeyType().equals(jwk.getKeyType())) {
+                throw new JoseException("The key '" + kid + "' isn't of the type of " + algorithm.getIdentifier());
+            }
+
+            if (verificationKeys.containsKey(kid)) {
+                throw new JoseException("The key '" + kid + "' is repeated on the key set");
+            }
+
+            Key privateKey = jwk instanceof PublicJsonWebKey ? ((PublicJsonWebKey) jwk).getPrivateKey() : jwk.getKey();
+            verificationKeys.put(kid, jwk instanceof PublicJsonWebKey ? ((PublicJsonWebKey) jwk).getPublicKey() : jwk.getKey());
+
+            if (signingKey == null && privateKey != null) {
+                signingKeyId = kid;
+                signingKey = privateKey;
+            }
+        }
+
+        if (verificationKeys.isEmpty()) {
+            throw new JoseException("The key set doesn't have keys");
+        }
+
+        return new JwtKeySet(verificationKeys, signingKeyId, signingKey);
+    }
+
+    /**
+     * @param kid Value of the 'kid' header of the token
+     *
+     * @return Key or null when the key isn't on the set
+     */
+    public Key getVerificationKey(String kid) {
+        return kid == null ? null : verificationKeys.get(kid);
+    }
+
+    public Set<String> getKeyIds() {
+        return verificationKeys.keySet();
+    }
+
+    /**
+     * @return Identifier of the key used to sign the tokens, null when the set only has public
+     * keys
+     */
+    public String getSigningKeyId() {
+        return signingKeyId;
+    }
+
+    public Key getSigningKey() {
+        return signingKey;
+    }
+
+}
@@ -0,0 +1,225 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.security.jwt.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.security.Key;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.jose4j.keys.resolvers.VerificationKeyResolver;
+import org.jose4j.lang.JoseException;
+import org.jose4j.lang.UnresolvableKeyException;
+
+/**
+ * Keeps the {@link JwtKeySet} read from {@link DemoiselleSecurityJWTConfig#getKeySet()}, a file
+ * or a resource of the classpath ('classpath:' prefix), and reads it again on a background thread
+ * every {@link DemoiselleSecurityJWTConfig#getKeySetReloadSeconds()} seconds when it changes.
+ *
+ * The new set replaces the current one at once and the verification of the tokens only reads the
+ * current set, without locks. A set that can't be read is logged and the current set is kept.
+ *
+ * To rotate the signing key without invalidating the sessions, add the public part of the new
+ * key to the set of all servers, then put the new key (with the private part) before the old one
+ * on the set of the servers that sign the tokens. The old key is kept on the set until the
+ * tokens signed by it expire, then removed. The tokens signed by a removed key are rejected.
+ *
+ * @author SERPRO
+ */
+@ApplicationScoped
+public class JwtKeySetProvider {
+
+    private static final Logger logger = Logger.getLogger(JwtKeySetProvider.class.getName());
+
+    private static final String CLASSPATH_PREFIX = "classpath:";
+
+    private static final int DEFAULT_RELOAD_SECONDS = 60;
+
+    private volatile JwtKeySet keySet;
+
+    private volatile long lastModified;
+
+    private JwtAlgorithm algorithm;
+
+    private ScheduledExecutorService scheduler;
+
+    private final VerificationKeyResolver resolver = (jws, nestingContext) -> {
+        Key key = get().getVerificationKey(jws.getKeyIdHeaderValue());
+
+        if (key == null) {
+            throw new UnresolvableKeyException("The key '" + jws.getKeyIdHeaderValue() + "' isn't on the key set");
+        }
+
+        return key;
+    };
+
+    @Inject
+    private DemoiselleSecurityJWTConfig config;
+
+    @Inject
+    private VerifiedTokenCache verifiedTokenCache;
+
+    public JwtKeySetProvider() {
+    }
+
+    public JwtKeySetProvider(DemoiselleSecurityJWTConfig config, VerifiedTokenCache verifiedTokenCache) {
+        this.config = config;
+        this.verifiedTokenCache = verifiedTokenCache;
+    }
+
+    /**
+     * @return true when the keys are read from a key set
+     */
+    public boolean isEnabled() {
+        return config.getKeySet() != null && !config.getKeySet().isEmpty();
+    }
+
+    /**
+     * Read the key set and start the reload.
+     *
+     * @param algorithm Algorithm of the tokens
+     *
+     * @return Key set
+     *
+     * @throws JoseException The key set can't be read
+     */
+    public synchronized JwtKeySet start(JwtAlgorithm algorithm) throws JoseException {
+        if (keySet == null) {
+            this.algorithm = algorithm;
+            reload();
+
+            Integer reloadSeconds = config.getKeySetReloadSeconds();
+            int period = reloadSeconds == null ? DEFAULT_RELOAD_SECONDS : reloadSeconds;
+
+            if (period > 0) {
+                scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "demoiselle-jwt-key-set");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                scheduler.scheduleWithFixedDelay(this::reloadQuietly, period, period, TimeUnit.SECONDS);
+            }
+        }
+
+        return keySet;
+    }
+
+    /**
+     * @return Current key set, null before {@link #start(JwtAlgorithm)}
+     */
+    public JwtKeySet get() {
+        return keySet;
+    }
+
+    /**
+     * @param keyId 'kid' of a key
+     *
+     * @return true when the key is on the current key set, a token verified by a removed key
+     * must be rejected even when it is kept on {@link VerifiedTokenCache}
+     */
+    public boolean contains(String keyId) {
+        JwtKeySet current = keySet;
+        return current != null && current.getVerificationKey(keyId) != null;
+    }
+
+    /**
+     * @return Resolver of the key of each token by its 'kid' header, on the current key set
+     */
+    public VerificationKeyResolver getResolver() {
+        return resolver;
+    }
+
+    /**
+     * Read the key set again when it changed since the last read.
+     *
+     * @throws JoseException The key set can't be read
+     */
+    public void reload() throws JoseException {
+        try {
+            URLConnection connection = getLocation().openConnection();
+            long modified = connection.getLastModified();
+
+            if (keySet != null && modified != 0 && modified == lastModified) {
+                return;
+            }
+
+            JwtKeySet newKeySet;
+            try (InputStream input = connection.getInputStream()) {
+                newKeySet = JwtKeySet.parse(read(input), algorithm);
+            }
+
+            JwtKeySet oldKeySet = keySet;
+            keySet = newKeySet;
+            lastModified = modified;
+
+            // Free the tokens verified by a removed key, they are also rejected by contains(kid)
+            if (oldKeySet != null && !newKeySet.getKeyIds().containsAll(oldKeySet.getKeyIds())) {
+                verifiedTokenCache.clear();
+            }
+        } catch (IOException ex) {
+            throw new JoseException("The key set " + config.getKeySet() + " can't be read", ex);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void reloadQuietly() {
+        try {
+            reload();
+        } catch (JoseException | RuntimeException ex) {
+            logger.log(Level.WARNING, "The key set wasn't reloaded, the current keys are kept", ex);
+        }
+    }
+
+    private URL getLocation() throws IOException {
+        String location = config.getKeySet();
+
+        if (location.startsWith(CLASSPATH_PREFIX)) {
+            String resource = location.substring(CLASSPATH_PREFIX.length());
+            URL url = Thread.currentThread().getContextClassLoader().getResource(resource.startsWith("/") ? resource.substring(1) : resource);
+
+            if (url == null) {
+                throw new IOException("Resource not found: " + resource);
+            }
+
+            return url;
+        }
+
+        return Paths.get(location).toUri().toURL();
+    }
+
+    private static String read(InputStream input) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4_096];
+        int length;
+
+        while ((length = input.read(buffer)) != -1) {
+            output.write(buffer, 0, length);
+        }
+
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+}
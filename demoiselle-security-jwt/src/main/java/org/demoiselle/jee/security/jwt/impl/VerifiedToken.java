@@ -0,0 +1,101 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.security.jwt.impl;
+
+import java.util.List;
+import java.util.Map;
+
+import org.demoiselle.jee.core.api.security.DemoiselleUser;
+import org.demoiselle.jee.security.impl.DemoiselleUserImpl;
+import org.demoiselle.jee.security.impl.UserSnapshot;
+import org.jose4j.jwt.JwtClaims;
+import org.jose4j.jwt.MalformedClaimException;
+
+/**
+ * Claims of a token already verified, kept by {@link VerifiedTokenCache} until the expiration
+ * time of the token. The claims are kept on a {@link UserSnapshot} shared by the requests of the
+ * same token, so the token doesn't have its signature verified and its claims parsed again.
+ *
+ * @author SERPRO
+ */
+public class VerifiedToken {
+
+    private final UserSnapshot user;
+    private final String keyId;
+    private final long expiresAt;
+
+    public VerifiedToken(String identity, String name, List<String> roles, Map<String, List<String>> permissions,
+            Map<String, String> params, String keyId, long expiresAt) {
+        this.user = UserSnapshot.of(identity, name, roles, permissions, params);
+        this.keyId = keyId;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Read the claims written by {@link TokenManagerImpl#setUser(DemoiselleUser, String, String)}.
+     *
+     * @param claims Claims of a verified token
+     * @param keyId 'kid' header of the token, the key that verified it
+     *
+     * @return Verified token
+     *
+     * @throws MalformedClaimException The expiration time isn't a number
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static VerifiedToken of(JwtClaims claims, String keyId) throws MalformedClaimException {
+        return new VerifiedToken(
+                (String) claims.getClaimValue("identity"),
+                (String) claims.getClaimValue("name"),
+                (List<String>) claims.getClaimValue("roles"),
+                (Map) claims.getClaimValue("permissions"),
+                (Map) claims.getClaimValue("params"),
+                keyId,
+                claims.getExpirationTime().getValueInMillis());
+    }
+
+    /**
+     * Fill the user of the request with the claims of the token, the {@link DemoiselleUserImpl}
+     * uses the snapshot without copying its values.
+     *
+     * @param loggedUser User of the request
+     */
+    public void copyTo(DemoiselleUser loggedUser) {
+        if (loggedUser instanceof DemoiselleUserImpl) {
+            ((DemoiselleUserImpl) loggedUser).load(user);
+            return;
+        }
+
+        loggedUser.setIdentity(user.getIdentity());
+        loggedUser.setName(user.getName());
+        user.getRoles().forEach(loggedUser::addRole);
+        user.getPermissions().forEach((resource, operations) -> operations.forEach(operation -> loggedUser.addPermission(resource, operation)));
+        user.getParams().forEach(loggedUser::addParam);
+    }
+
+    public UserSnapshot getUser() {
+        return user;
+    }
+
+    /**
+     * @return 'kid' header of the token, the key that verified it
+     */
+    public String getKeyId() {
+        return keyId;
+    }
+
+    /**
+     * @return Expiration time of the token in milliseconds
+     */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public boolean isExpired(long now) {
+        return now >= expiresAt;
+    }
+
+}
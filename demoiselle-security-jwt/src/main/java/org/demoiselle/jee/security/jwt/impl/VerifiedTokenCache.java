@@ -0,0 +1,127 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.security.jwt.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+/**
+ * Keeps the tokens already verified by {@link TokenManagerImpl}, so a token sent on many requests
+ * has its signature verified and its claims parsed only once.
+ *
+ * The key is the SHA-256 digest of the whole token (header, claims and signature) with the
+ * expected issuer and audience, so a token with changed claims is never found and the token
+ * itself isn't kept in memory. Each token is removed at its expiration time and the quantity of
+ * tokens is limited by {@link DemoiselleSecurityJWTConfig#getVerifiedTokenCacheSize()}, the least
+ * recently used token is removed first. A size of zero disables the cache.
+ *
+ * @author SERPRO
+ */
+@ApplicationScoped
+public class VerifiedTokenCache {
+
+    private static final int DEFAULT_SIZE = 10_000;
+
+    private final Map<String, VerifiedToken> tokens = Collections.synchronizedMap(new LinkedHashMap<String, VerifiedToken>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+            return size() > getSize();
+        }
+    });
+
+    @Inject
+    private DemoiselleSecurityJWTConfig config;
+
+    public VerifiedTokenCache() {
+    }
+
+    public VerifiedTokenCache(DemoiselleSecurityJWTConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Build the key of the token.
+     *
+     * @param token Compact serialization of the token
+     * @param issuer Expected issuer
+     * @param audience Expected audience
+     *
+     * @return Key
+     */
+    public static String key(String token, String issuer, String audience) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(token.getBytes(StandardCharsets.US_ASCII));
+            digest.update((byte) 0);
+            digest.update(String.valueOf(issuer).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(String.valueOf(audience).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is required on every Java platform
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param key Key of the token, see {@link #key(String, String, String)}
+     *
+     * @return Verified token or null when it isn't kept or is expired
+     */
+    public VerifiedToken get(String key) {
+        VerifiedToken verifiedToken = tokens.get(key);
+
+        if (verifiedToken != null && verifiedToken.isExpired(System.currentTimeMillis())) {
+            tokens.remove(key);
+            return null;
+        }
+
+        return verifiedToken;
+    }
+
+    /**
+     * Keep the verified token until its expiration time.
+     *
+     * @param key Key of the token, see {@link #key(String, String, String)}
+     * @param verifiedToken Verified token
+     */
+    public void put(String key, VerifiedToken verifiedToken) {
+        if (getSize() > 0 && !verifiedToken.isExpired(System.currentTimeMillis())) {
+            tokens.put(key, verifiedToken);
+        }
+    }
+
+    /**
+     * Remove all tokens, they are verified again on the next requests.
+     */
+    public void clear() {
+        tokens.clear();
+    }
+
+    /**
+     * @return Quantity of tokens kept
+     */
+    public int size() {
+        return tokens.size();
+    }
+
+    private int getSize() {
+        Integer size = config == null ? null : config.getVerifiedTokenCacheSize();
+        return size == null || size < 0 ? DEFAULT_SIZE : size;
+    }
+
+}
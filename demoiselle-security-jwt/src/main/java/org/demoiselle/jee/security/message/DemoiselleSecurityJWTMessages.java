@@ -40,6 +40,9 @@ public interface DemoiselleSecurityJWTMessages {
     @MessageTemplate("{put-key}")
     String putKey();
 
+    @MessageTemplate("{not-algorithm}")
+    String notAlgorithm(String algorithm);
+
     @MessageTemplate("{not-jwt}")
     String notJwt();
 
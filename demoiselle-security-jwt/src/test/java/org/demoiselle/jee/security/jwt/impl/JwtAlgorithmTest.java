@@ -0,0 +1,97 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.security.jwt.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.security.Key;
+import java.security.KeyPair;
+
+import org.jose4j.jws.JsonWebSignature;
+import org.jose4j.jwt.JwtClaims;
+import org.jose4j.jwt.consumer.InvalidJwtException;
+import org.jose4j.jwt.consumer.JwtConsumer;
+import org.jose4j.jwt.consumer.JwtConsumerBuilder;
+import org.junit.Test;
+
+/**
+ *
+ * @author SERPRO
+ */
+public class JwtAlgorithmTest {
+
+    private static final String SECRET = "a secret with more than 64 bytes, shared by all servers of the API";
+
+    private static String sign(JwtAlgorithm algorithm, Key key) throws Exception {
+        JwtClaims claims = new JwtClaims();
+        claims.setIssuer("STORE");
+        claims.setAudience("web");
+        claims.setExpirationTimeMinutesInTheFuture(10);
+        claims.setClaim("identity", "1");
+
+        JsonWebSignature jws = new JsonWebSignature();
+        jws.setPayload(claims.toJson());
+        jws.setKey(key);
+        jws.setAlgorithmHeaderValue(algorithm.getIdentifier());
+        return jws.getCompactSerialization();
+    }
+
+    private static JwtConsumer consumer(JwtAlgorithm algorithm, Key key) {
+        return new JwtConsumerBuilder()
+                .setRequireExpirationTime()
+                .setExpectedIssuer("STORE")
+                .setExpectedAudience("web")
+                .setJwsAlgorithmConstraints(algorithm.getConstraints())
+                .setVerificationKey(key)
+                .build();
+    }
+
+    @Test
+    public void testOf() {
+        assertEquals(JwtAlgorithm.ES256, JwtAlgorithm.of("ES256"));
+        assertEquals(JwtAlgorithm.HS512, JwtAlgorithm.of("HS512"));
+        assertNull(JwtAlgorithm.of("EdDSA"));
+        assertNull(JwtAlgorithm.of("none"));
+        assertNull(JwtAlgorithm.of(null));
+    }
+
+    @Test
+    public void testSignAndVerifyWithKeyPair() throws Exception {
+        for (JwtAlgorithm algorithm : new JwtAlgorithm[]{JwtAlgorithm.RS256, JwtAlgorithm.ES256, JwtAlgorithm.ES384, JwtAlgorithm.ES512}) {
+            assertFalse(algorithm.isSymmetric());
+            KeyPair keyPair = algorithm.generateKeyPair();
+
+            String token = sign(algorithm, keyPair.getPrivate());
+            JwtClaims claims = consumer(algorithm, keyPair.getPublic()).processToClaims(token);
+
+            assertEquals(algorithm.name(), "1", claims.getClaimValue("identity"));
+        }
+    }
+
+    @Test
+    public void testSignAndVerifyWithSecret() throws Exception {
+        for (JwtAlgorithm algorithm : new JwtAlgorithm[]{JwtAlgorithm.HS256, JwtAlgorithm.HS384, JwtAlgorithm.HS512}) {
+            assertTrue(algorithm.isSymmetric());
+
+            String token = sign(algorithm, algorithm.signingKey(null, SECRET));
+            JwtClaims claims = consumer(algorithm, algorithm.verificationKey(null, SECRET)).processToClaims(token);
+
+            assertEquals(algorithm.name(), "1", claims.getClaimValue("identity"));
+        }
+    }
+
+    @Test(expected = InvalidJwtException.class)
+    public void testOtherAlgorithmIsRejected() throws Exception {
+        String token = sign(JwtAlgorithm.HS384, JwtAlgorithm.HS384.signingKey(null, SECRET));
+
+        consumer(JwtAlgorithm.HS256, JwtAlgorithm.HS256.verificationKey(null, SECRET)).processToClaims(token);
+    }
+
+}
@@ -0,0 +1,162 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.security.jwt.impl;
+
+import static java.lang.System.currentTimeMillis;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.jose4j.jwk.EcJwkGenerator;
+import org.jose4j.jwk.JsonWebKey.OutputControlLevel;
+import org.jose4j.jwk.PublicJsonWebKey;
+import org.jose4j.jws.JsonWebSignature;
+import org.jose4j.keys.EllipticCurves;
+import org.jose4j.lang.JoseException;
+import org.jose4j.lang.UnresolvableKeyException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ * @author SERPRO
+ */
+public class JwtKeySetProviderTest {
+
+    private File file;
+
+    private VerifiedTokenCache cache;
+
+    private JwtKeySetProvider instance;
+
+    private static PublicJsonWebKey key(String kid) throws JoseException {
+        PublicJsonWebKey jwk = EcJwkGenerator.generateJwk(EllipticCurves.P256);
+        jwk.setKeyId(kid);
+        return jwk;
+    }
+
+    private static String json(PublicJsonWebKey... keys) {
+        StringBuilder json = new StringBuilder("{\"keys\":[");
+
+        for (int i = 0; i < keys.length; i++) {
+            json.append(i == 0 ? "" : ",").append(keys[i].toJson(OutputControlLevel.INCLUDE_PRIVATE));
+        }
+
+        return json.append("]}").toString();
+    }
+
+    private void write(String json, long lastModified) throws Exception {
+        Files.write(file.toPath(), json.getBytes(StandardCharsets.UTF_8));
+        file.setLastModified(lastModified);
+    }
+
+    private static JsonWebSignature jws(String kid) {
+        JsonWebSignature jws = new JsonWebSignature();
+        jws.setKeyIdHeaderValue(kid);
+        return jws;
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("jwks", ".json");
+
+        DemoiselleSecurityJWTConfig config = new DemoiselleSecurityJWTConfig() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public String getKeySet() {
+                return file.getAbsolutePath();
+            }
+
+            @Override
+            public Integer getKeySetReloadSeconds() {
+                return 0;
+            }
+        };
+
+        cache = new VerifiedTokenCache(config);
+        instance = new JwtKeySetProvider(config, cache);
+    }
+
+    @After
+    public void tearDown() {
+        instance.stop();
+        file.delete();
+    }
+
+    @Test
+    public void testSigningKeyIsTheFirstPrivateKey() throws Exception {
+        PublicJsonWebKey next = key("2017-02");
+        PublicJsonWebKey current = key("2017-01");
+        current.setPrivateKey(null);
+        write(json(current, next), currentTimeMillis());
+
+        JwtKeySet keySet = instance.start(JwtAlgorithm.ES256);
+
+        assertEquals("2017-02", keySet.getSigningKeyId());
+        assertEquals(next.getPrivateKey(), keySet.getSigningKey());
+        assertEquals(current.getPublicKey(), instance.getResolver().resolveKey(jws("2017-01"), null));
+    }
+
+    @Test(expected = UnresolvableKeyException.class)
+    public void testUnknownKeyIsRejected() throws Exception {
+        write(json(key("2017-01")), currentTimeMillis());
+        instance.start(JwtAlgorithm.ES256);
+
+        instance.getResolver().resolveKey(jws("other"), null);
+    }
+
+    @Test(expected = JoseException.class)
+    public void testKeyOfOtherTypeIsRejected() throws Exception {
+        write(json(key("2017-01")), currentTimeMillis());
+
+        instance.start(JwtAlgorithm.RS256);
+    }
+
+    @Test
+    public void testReloadReplacesTheKeySet() throws Exception {
+        long lastModified = currentTimeMillis() - 10_000;
+        PublicJsonWebKey old = key("2017-01");
+        PublicJsonWebKey current = key("2017-02");
+        write(json(old), lastModified);
+        JwtKeySet first = instance.start(JwtAlgorithm.ES256);
+
+        // Not changed, not read again
+        instance.reload();
+        assertSame(first, instance.get());
+
+        // Rotation, the old key still verifies the tokens
+        cache.put("token", new VerifiedToken("1", "Test", asList(), emptyMap(), emptyMap(), "2017-01", currentTimeMillis() + 60_000));
+        write(json(current, old), lastModified + 2_000);
+        instance.reload();
+        assertEquals("2017-02", instance.get().getSigningKeyId());
+        assertEquals(old.getPublicKey(), instance.getResolver().resolveKey(jws("2017-01"), null));
+        assertEquals(1, cache.size());
+        assertTrue(instance.contains("2017-01"));
+
+        // Removal, the tokens verified by the old key are verified again
+        write(json(current), lastModified + 4_000);
+        instance.reload();
+        assertNull(instance.get().getVerificationKey("2017-01"));
+        assertEquals(0, cache.size());
+
+        // A token verified by the old key and kept after the removal is rejected
+        cache.put("token", new VerifiedToken("1", "Test", asList(), emptyMap(), emptyMap(), "2017-01", currentTimeMillis() + 60_000));
+        assertFalse(instance.contains(cache.get("token").getKeyId()));
+        assertTrue(instance.contains("2017-02"));
+    }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.security.jwt.impl;
+
+import static java.lang.System.currentTimeMillis;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author SERPRO
+ */
+public class VerifiedTokenCacheTest {
+
+    private static VerifiedToken verifiedToken(long expiresAt) {
+        return new VerifiedToken("1", "Test", asList("ADMINISTRATOR"), singletonMap("Users", asList("Read")),
+                singletonMap("Birthday", "27/10/1979"), "demoiselle-security-jwt", expiresAt);
+    }
+
+    private static DemoiselleSecurityJWTConfig config(int size) {
+        return new DemoiselleSecurityJWTConfig() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public Integer getVerifiedTokenCacheSize() {
+                return size;
+            }
+        };
+    }
+
+    @Test
+    public void testGetVerifiedToken() {
+        VerifiedTokenCache instance = new VerifiedTokenCache(config(10));
+        VerifiedToken verifiedToken = verifiedToken(currentTimeMillis() + 60_000);
+        String key = VerifiedTokenCache.key("a.b.c", "STORE", "web");
+
+        assertNull(instance.get(key));
+        instance.put(key, verifiedToken);
+        assertSame(verifiedToken, instance.get(key));
+    }
+
+    @Test
+    public void testExpiredTokenIsNotKept() {
+        VerifiedTokenCache instance = new VerifiedTokenCache(config(10));
+        String key = VerifiedTokenCache.key("a.b.c", "STORE", "web");
+
+        instance.put(key, verifiedToken(currentTimeMillis() - 1));
+        assertNull(instance.get(key));
+        assertEquals(0, instance.size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedTokenIsRemoved() {
+        VerifiedTokenCache instance = new VerifiedTokenCache(config(2));
+        long expiresAt = currentTimeMillis() + 60_000;
+
+        instance.put("1", verifiedToken(expiresAt));
+        instance.put("2", verifiedToken(expiresAt));
+        instance.get("1");
+        instance.put("3", verifiedToken(expiresAt));
+
+        assertEquals(2, instance.size());
+        assertNull(instance.get("2"));
+    }
+
+    @Test
+    public void testZeroSizeDisablesCache() {
+        VerifiedTokenCache instance = new VerifiedTokenCache(config(0));
+
+        instance.put("1", verifiedToken(currentTimeMillis() + 60_000));
+        assertNull(instance.get("1"));
+    }
+
+    @Test
+    public void testKeyDependsOnIssuerAndAudience() {
+        String key = VerifiedTokenCache.key("a.b.c", "STORE", "web");
+
+        assertEquals(key, VerifiedTokenCache.key("a.b.c", "STORE", "web"));
+        assertNotEquals(key, VerifiedTokenCache.key("a.b.d", "STORE", "web"));
+        assertNotEquals(key, VerifiedTokenCache.key("a.b.c", "OTHER", "web"));
+        assertNotEquals(key, VerifiedTokenCache.key("a.b.c", "STORE", "mobile"));
+    }
+
+}
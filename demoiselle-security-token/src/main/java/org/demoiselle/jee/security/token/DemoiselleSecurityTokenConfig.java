@@ -0,0 +1,70 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.security.token;
+
+import java.io.Serializable;
+import org.demoiselle.jee.configuration.annotation.Configuration;
+
+/**
+ *
+ * @author SERPRO
+ */
+@Configuration(prefix = "demoiselle.security.token")
+public class DemoiselleSecurityTokenConfig implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Integer maxSize = new Integer(100000);
+
+    private Long timeToLiveSeconds = new Long(0);
+
+    private Long idleTimeoutSeconds = new Long(0);
+
+    private Long sweepIntervalSeconds = new Long(60);
+
+    private String file;
+
+    /**
+     * @return Quantity of tokens kept, the least recently used token is removed first
+     */
+    public Integer getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return Time a token is valid since it was created, zero keeps the token until it is
+     * removed
+     */
+    public Long getTimeToLiveSeconds() {
+        return timeToLiveSeconds;
+    }
+
+    /**
+     * @return Time a token is valid since it was last used, zero keeps the token until it is
+     * removed
+     */
+    public Long getIdleTimeoutSeconds() {
+        return idleTimeoutSeconds;
+    }
+
+    /**
+     * @return Interval to remove the expired tokens on background, zero removes them only when
+     * they are used
+     */
+    public Long getSweepIntervalSeconds() {
+        return sweepIntervalSeconds;
+    }
+
+    /**
+     * @return File of the tokens of the {@code FileTokenStore}, required by it, on a directory
+     * that only the application can read
+     */
+    public String getFile() {
+        return file;
+    }
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.security.token;
+
+import org.demoiselle.jee.core.api.security.DemoiselleUser;
+
+/**
+ * Storage of the users by token, used by the TokenManagerImpl of security-token.
+ *
+ * The default implementation, {@code MemoryTokenStore}, keeps the tokens on the memory of each
+ * instance of the application. Other implementations (a file, a database or a distributed cache
+ * shared by the instances) are chosen as CDI alternatives, enabled on the beans.xml of the
+ * application:
+ *
+ * <pre>
+ * {@literal <alternatives>}
+ *     {@literal <class>org.demoiselle.jee.security.token.impl.FileTokenStore</class>}
+ * {@literal </alternatives>}
+ * </pre>
+ *
+ * @author SERPRO
+ */
+public interface TokenStore {
+
+    /**
+     * @param key Token
+     *
+     * @return User of the token or null when the token doesn't exist or is expired
+     */
+    DemoiselleUser get(String key);
+
+    /**
+     * Keep the user, replacing the user of the same token.
+     *
+     * @param key Token
+     * @param user User
+     */
+    void put(String key, DemoiselleUser user);
+
+    /**
+     * @param identity Identity of the user, case insensitive
+     *
+     * @return Token of the user or null when the user doesn't have a token
+     */
+    String findKey(String identity);
+
+    /**
+     * @param key Token, may be null
+     */
+    void remove(String key);
+
+    /**
+     * @return Quantity of tokens kept
+     */
+    int size();
+
+}
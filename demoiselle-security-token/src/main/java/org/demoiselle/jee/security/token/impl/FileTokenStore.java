@@ -0,0 +1,447 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.security.token.impl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Alternative;
+
+import org.demoiselle.jee.core.api.security.DemoiselleUser;
+import org.demoiselle.jee.security.exception.DemoiselleSecurityException;
+import org.demoiselle.jee.security.impl.DemoiselleUserImpl;
+import org.demoiselle.jee.security.token.DemoiselleSecurityTokenConfig;
+import org.demoiselle.jee.security.token.TokenStore;
+
+/**
+ * {@link TokenStore} that keeps the tokens on memory, as {@link MemoryTokenStore}, and on the
+ * file {@link DemoiselleSecurityTokenConfig#getFile()}, so the tokens survive the restart of the
+ * application. Enabled as an alternative on the beans.xml of the application, the file is
+ * required.
+ *
+ * The file is readable only by its owner and keeps the SHA-256 of each token, not the token. So
+ * after a restart a token is still found by {@link #get(String)}, but not by
+ * {@link #findKey(String)}, and the user receives a new token on the next login.
+ *
+ * Each change is appended to the file by one background thread, that writes the changes waiting
+ * on a queue and flushes the file once for all of them; the thread that changes a token doesn't
+ * wait for the file. The file is rewritten with the current tokens when it is loaded and when it
+ * has many more changes than tokens. The time of creation of each token is kept, the time of its
+ * last use starts again on the restart.
+ *
+ * @author SERPRO
+ */
+@ApplicationScoped
+@Alternative
+public class FileTokenStore extends MemoryTokenStore {
+
+    private static final Logger logger = Logger.getLogger(FileTokenStore.class.getName());
+
+    private static final byte PUT = 1;
+
+    private static final byte REMOVE = 2;
+
+    private static final int MIN_RECORDS_TO_COMPACT = 1_000;
+
+    private static final String OWNER_ONLY = "rw-------";
+
+    // The tokens created by this instance, by digest, only them are found by the identity
+    private final ConcurrentMap<String, String> keysByDigest = new ConcurrentHashMap<>();
+
+    private final Queue<Change> changes = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    private volatile ExecutorService writer;
+
+    // False while the tokens are loaded and after the store is stopped
+    private volatile boolean open;
+
+    private Path file;
+
+    private DataOutputStream journal;
+
+    private int records;
+
+    public FileTokenStore() {
+    }
+
+    public FileTokenStore(DemoiselleSecurityTokenConfig config) {
+        super(config);
+    }
+
+    /**
+     * Read the tokens of the file and start the removal of the expired tokens on background.
+     */
+    @PostConstruct
+    @Override
+    public void start() {
+        String location = getConfig().getFile();
+
+        if (location == null || location.isEmpty()) {
+            throw new DemoiselleSecurityException("Informe o arquivo dos tokens em 'demoiselle.security.token.file'");
+        }
+
+        file = Paths.get(location);
+
+        load();
+        compact();
+        open = true;
+
+        writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "demoiselle-token-store-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        super.start();
+    }
+
+    /**
+     * Stop the removal of the expired tokens and close the file after the changes waiting are
+     * written.
+     */
+    @PreDestroy
+    @Override
+    public void stop() {
+        super.stop();
+
+        ExecutorService stopped = writer;
+        writer = null;
+        open = false;
+
+        if (stopped != null) {
+            stopped.shutdown();
+
+            try {
+                if (!stopped.awaitTermination(10, TimeUnit.SECONDS)) {
+                    logger.warning("Os tokens não foram gravados no arquivo " + file);
+                    return;
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+
+        // The changes queued after the last drain of the writer
+        drain();
+        close();
+    }
+
+    @Override
+    public DemoiselleUser get(String key) {
+        return key == null ? null : super.get(digest(key));
+    }
+
+    @Override
+    public void put(String key, DemoiselleUser user) {
+        String digest = digest(key);
+        keysByDigest.put(digest, key);
+        super.put(digest, user);
+    }
+
+    @Override
+    public String findKey(String identity) {
+        String digest = super.findKey(identity);
+        return digest == null ? null : keysByDigest.get(digest);
+    }
+
+    @Override
+    public void remove(String key) {
+        if (key != null) {
+            super.remove(digest(key));
+        }
+    }
+
+    @Override
+    protected void stored(String key, Entry entry) {
+        append(new Change(PUT, key, entry));
+    }
+
+    @Override
+    protected void removed(String key) {
+        keysByDigest.remove(key);
+        append(new Change(REMOVE, key, null));
+    }
+
+    private void append(Change change) {
+        // The tokens read by load() are already on the file
+        if (!open) {
+            return;
+        }
+
+        ExecutorService current = writer;
+
+        changes.add(change);
+
+        if (current != null && draining.compareAndSet(false, true)) {
+            try {
+                current.execute(this::drain);
+            } catch (RejectedExecutionException ex) {
+                // Stopping, the change is written by stop()
+            }
+        }
+    }
+
+    /**
+     * Write the changes waiting, flush the file once for all of them and rewrite the file when it
+     * has many more changes than tokens. Runs on the writer thread only, or after it is stopped.
+     */
+    private void drain() {
+        // Before reading the queue, so a change added after the last one read schedules another drain
+        draining.set(false);
+
+        try {
+            // Opened again after a failure to write the file
+            if (journal == null) {
+                compact();
+            }
+
+            Change change;
+
+            while ((change = changes.poll()) != null) {
+                change.write(journal);
+                records++;
+            }
+
+            journal.flush();
+
+            if (records > MIN_RECORDS_TO_COMPACT && records > 2 * getEntries().size()) {
+                compact();
+            }
+        } catch (IOException | UncheckedIOException ex) {
+            logger.log(Level.SEVERE, "Não foi possível gravar os tokens no arquivo " + file, ex);
+        }
+    }
+
+    private void load() {
+        if (!Files.exists(file)) {
+            return;
+        }
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            long now = System.currentTimeMillis();
+
+            while (true) {
+                byte type = input.readByte();
+                String digest = input.readUTF();
+
+                if (type == PUT) {
+                    Entry entry = readEntry(input, now);
+
+                    if (!isExpired(entry, now)) {
+                        put(digest, entry);
+                    }
+                } else {
+                    super.remove(digest);
+                }
+            }
+        } catch (EOFException ex) {
+            // End of the file, or a change not fully written before a crash
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Rewrite the file with the current tokens and append the next changes. The changes made
+     * while the tokens are read are still on the queue, and are appended after them.
+     */
+    private void compact() {
+        close();
+
+        try {
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            int written = 0;
+
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(createOwnerOnly(temporary)))) {
+                for (Map.Entry<String, Entry> entry : getEntries().entrySet()) {
+                    output.writeByte(PUT);
+                    output.writeUTF(entry.getKey());
+                    writeEntry(output, entry.getValue());
+                    written++;
+                }
+            }
+
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            journal = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.APPEND)));
+            records = written;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void close() {
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            } finally {
+                journal = null;
+            }
+        }
+    }
+
+    /**
+     * Create the file readable and writable only by its owner, when the file system has POSIX
+     * permissions.
+     */
+    private static OutputStream createOwnerOnly(Path path) throws IOException {
+        Files.deleteIfExists(path);
+
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            Files.createFile(path, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString(OWNER_ONLY)));
+        } else {
+            Files.createFile(path);
+        }
+
+        return Files.newOutputStream(path, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private static String digest(String key) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(hash.length * 2);
+
+            for (byte b : hash) {
+                sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+
+            return sb.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static void writeEntry(DataOutputStream output, Entry entry) throws IOException {
+        DemoiselleUser user = entry.getUser();
+        output.writeLong(entry.getCreatedAt());
+        writeString(output, user.getIdentity());
+        writeString(output, user.getName());
+
+        output.writeInt(user.getRoles().size());
+        for (String role : user.getRoles()) {
+            output.writeUTF(role);
+        }
+
+        output.writeInt(user.getPermissions().size());
+        for (Map.Entry<String, List<String>> permission : user.getPermissions().entrySet()) {
+            output.writeUTF(permission.getKey());
+            output.writeInt(permission.getValue().size());
+            for (String operation : permission.getValue()) {
+                output.writeUTF(operation);
+            }
+        }
+
+        output.writeInt(user.getParams().size());
+        for (Map.Entry<String, String> param : user.getParams().entrySet()) {
+            output.writeUTF(param.getKey());
+            output.writeUTF(param.getValue());
+        }
+    }
+
+    private static Entry readEntry(DataInputStream input, long now) throws IOException {
+        long createdAt = input.readLong();
+
+        DemoiselleUserImpl user = new DemoiselleUserImpl();
+        user.init();
+        user.setIdentity(readString(input));
+        user.setName(readString(input));
+
+        for (int i = input.readInt(); i > 0; i--) {
+            user.addRole(input.readUTF());
+        }
+
+        for (int i = input.readInt(); i > 0; i--) {
+            String resource = input.readUTF();
+            for (int j = input.readInt(); j > 0; j--) {
+                user.addPermission(resource, input.readUTF());
+            }
+        }
+
+        for (int i = input.readInt(); i > 0; i--) {
+            user.addParam(input.readUTF(), input.readUTF());
+        }
+
+        return new Entry(user, createdAt, now);
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+
+    /**
+     * Change of a token waiting to be written on the file, the token is its digest.
+     */
+    private static class Change {
+
+        private final byte type;
+
+        private final String key;
+
+        private final Entry entry;
+
+        Change(byte type, String key, Entry entry) {
+            this.type = type;
+            this.key = key;
+            this.entry = entry;
+        }
+
+        void write(DataOutputStream output) throws IOException {
+            output.writeByte(type);
+            output.writeUTF(key);
+
+            if (type == PUT) {
+                writeEntry(output, entry);
+            }
+        }
+
+    }
+
+}
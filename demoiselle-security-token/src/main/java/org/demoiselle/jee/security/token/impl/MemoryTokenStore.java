@@ -0,0 +1,320 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.security.token.impl;
+
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.demoiselle.jee.core.api.security.DemoiselleUser;
+import org.demoiselle.jee.security.token.DemoiselleSecurityTokenConfig;
+import org.demoiselle.jee.security.token.TokenStore;
+
+/**
+ * {@link TokenStore} that keeps the tokens on the memory of the instance of the application.
+ *
+ * The tokens are read and kept without a lock of the whole store. The quantity of tokens is
+ * limited by {@link DemoiselleSecurityTokenConfig#getMaxSize()}, when it is exceeded the least
+ * recently used tokens are removed by one thread at a time (an approximate LRU: the tokens used
+ * while the removal runs may be removed too). A token expires after
+ * {@link DemoiselleSecurityTokenConfig#getTimeToLiveSeconds()} since it was created or
+ * {@link DemoiselleSecurityTokenConfig#getIdleTimeoutSeconds()} since it was last used. The
+ * expired tokens are removed when used and on a background thread every
+ * {@link DemoiselleSecurityTokenConfig#getSweepIntervalSeconds()}.
+ *
+ * @author SERPRO
+ */
+@ApplicationScoped
+public class MemoryTokenStore implements TokenStore {
+
+    private static final int DEFAULT_MAX_SIZE = 100_000;
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, String> keysByIdentity = new ConcurrentHashMap<>();
+
+    private final ReentrantLock eviction = new ReentrantLock();
+
+    private ScheduledExecutorService scheduler;
+
+    @Inject
+    private DemoiselleSecurityTokenConfig config;
+
+    public MemoryTokenStore() {
+    }
+
+    public MemoryTokenStore(DemoiselleSecurityTokenConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Start the removal of the expired tokens on background.
+     */
+    @PostConstruct
+    public void start() {
+        long interval = seconds(config.getSweepIntervalSeconds());
+
+        if (interval > 0 && (seconds(config.getTimeToLiveSeconds()) > 0 || seconds(config.getIdleTimeoutSeconds()) > 0)) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "demoiselle-token-store");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::sweep, interval, interval, TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Override
+    public DemoiselleUser get(String key) {
+        return key == null ? null : read(key);
+    }
+
+    @Override
+    public void put(String key, DemoiselleUser user) {
+        long now = System.currentTimeMillis();
+        put(key, new Entry(user, now, now));
+    }
+
+    @Override
+    public String findKey(String identity) {
+        if (identity == null) {
+            return null;
+        }
+
+        String key = keysByIdentity.get(identity.toLowerCase(Locale.ROOT));
+
+        // The token is removed when it is expired
+        return key != null && read(key) != null ? key : null;
+    }
+
+    @Override
+    public void remove(String key) {
+        if (key != null) {
+            Entry entry = entries.get(key);
+
+            if (entry != null) {
+                remove(key, entry);
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Remove the expired tokens.
+     */
+    public void sweep() {
+        long now = System.currentTimeMillis();
+
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            if (isExpired(entry.getValue(), now)) {
+                remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Keep the entry, used by the subclasses to load the tokens.
+     *
+     * @param key Token
+     * @param entry Entry
+     */
+    protected void put(String key, Entry entry) {
+        Entry previous = entries.put(key, entry);
+
+        if (previous != null) {
+            unindex(key, previous);
+        }
+
+        if (entry.user.getIdentity() != null) {
+            keysByIdentity.put(entry.user.getIdentity().toLowerCase(Locale.ROOT), key);
+        }
+
+        stored(key, entry);
+
+        int maxSize = config.getMaxSize() == null ? DEFAULT_MAX_SIZE : config.getMaxSize();
+
+        // The other threads don't wait for the removal, that runs on one thread at a time
+        while (entries.size() > maxSize && eviction.tryLock()) {
+            try {
+                evict(maxSize);
+            } finally {
+                eviction.unlock();
+            }
+        }
+    }
+
+    /**
+     * Called after a token is kept, on the thread that kept it.
+     *
+     * @param key Token
+     * @param entry Entry
+     */
+    protected void stored(String key, Entry entry) {
+    }
+
+    /**
+     * Called after a token is removed (or expired or evicted), on the thread that removed it.
+     *
+     * @param key Token
+     */
+    protected void removed(String key) {
+    }
+
+    protected DemoiselleSecurityTokenConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * @return Entries by token, changed by the other threads while it is read
+     */
+    protected Map<String, Entry> getEntries() {
+        return entries;
+    }
+
+    protected boolean isExpired(Entry entry, long now) {
+        long timeToLive = seconds(config.getTimeToLiveSeconds()) * 1_000;
+        long idleTimeout = seconds(config.getIdleTimeoutSeconds()) * 1_000;
+
+        return (timeToLive > 0 && now - entry.createdAt >= timeToLive)
+                || (idleTimeout > 0 && now - entry.lastAccess >= idleTimeout);
+    }
+
+    private DemoiselleUser read(String key) {
+        Entry entry = entries.get(key);
+
+        if (entry == null) {
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+
+        if (isExpired(entry, now)) {
+            remove(key, entry);
+            return null;
+        }
+
+        entry.lastAccess = now;
+        return entry.user;
+    }
+
+    /**
+     * Remove the least recently used tokens beyond the max size, and 1/16 of the max size more, so
+     * the tokens are not read again on each next token kept.
+     */
+    private void evict(int maxSize) {
+        int quantity = entries.size() - maxSize + maxSize / 16;
+
+        if (quantity <= 0) {
+            return;
+        }
+
+        // The most recently used of the selected tokens is the head
+        PriorityQueue<Candidate> eldest = new PriorityQueue<>(quantity,
+                Comparator.comparingLong((Candidate candidate) -> candidate.lastAccess).reversed());
+
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            // The time is read once, it changes while the tokens are read
+            long lastAccess = entry.getValue().lastAccess;
+
+            if (eldest.size() < quantity) {
+                eldest.add(new Candidate(entry.getKey(), entry.getValue(), lastAccess));
+            } else if (lastAccess < eldest.peek().lastAccess) {
+                eldest.poll();
+                eldest.add(new Candidate(entry.getKey(), entry.getValue(), lastAccess));
+            }
+        }
+
+        for (Candidate candidate : eldest) {
+            remove(candidate.key, candidate.entry);
+        }
+    }
+
+    private void remove(String key, Entry entry) {
+        // Only the same entry, the token may have been kept again by another thread
+        if (entries.remove(key, entry)) {
+            unindex(key, entry);
+            removed(key);
+        }
+    }
+
+    private void unindex(String key, Entry entry) {
+        if (entry.user.getIdentity() != null) {
+            keysByIdentity.remove(entry.user.getIdentity().toLowerCase(Locale.ROOT), key);
+        }
+    }
+
+    private static long seconds(Long value) {
+        return value == null ? 0 : value;
+    }
+
+    private static class Candidate {
+
+        private final String key;
+
+        private final Entry entry;
+
+        private final long lastAccess;
+
+        Candidate(String key, Entry entry, long lastAccess) {
+            this.key = key;
+            this.entry = entry;
+            this.lastAccess = lastAccess;
+        }
+
+    }
+
+    /**
+     * User of a token with the times of its creation and last use.
+     */
+    protected static class Entry {
+
+        private final DemoiselleUser user;
+
+        private final long createdAt;
+
+        private volatile long lastAccess;
+
+        protected Entry(DemoiselleUser user, long createdAt, long lastAccess) {
+            this.user = user;
+            this.createdAt = createdAt;
+            this.lastAccess = lastAccess;
+        }
+
+        public DemoiselleUser getUser() {
+            return user;
+        }
+
+        public long getCreatedAt() {
+            return createdAt;
+        }
+
+    }
+
+}
@@ -7,7 +7,6 @@
 package org.demoiselle.jee.security.token.impl;
 
 import static java.util.UUID.randomUUID;
-import java.util.concurrent.ConcurrentHashMap;
 import javax.annotation.Priority;
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
@@ -16,6 +15,7 @@ import org.demoiselle.jee.core.api.security.DemoiselleUser;
 import org.demoiselle.jee.core.api.security.Token;
 import org.demoiselle.jee.core.api.security.TokenManager;
 import org.demoiselle.jee.core.api.security.TokenType;
+import org.demoiselle.jee.security.token.TokenStore;
 
 /**
  *
@@ -25,21 +25,22 @@ import org.demoiselle.jee.core.api.security.TokenType;
 @Priority(AUTHENTICATION)
 public class TokenManagerImpl implements TokenManager {
 
-    private static final ConcurrentHashMap<String, DemoiselleUser> repo = new ConcurrentHashMap<>();
-
     @Inject
     private Token token;
 
+    @Inject
+    private TokenStore store;
+
     /**
-     * Returns the user that is stored in a list in memory, from the token sent
-     * in http header
+     * Returns the user that is kept on the {@link TokenStore}, from the token
+     * sent in http header
      *
      * @return org.demoiselle.jee.core.api.security.DemoiselleUser
      */
     @Override
     public DemoiselleUser getUser() {
         if (token.getKey() != null && !token.getKey().isEmpty()) {
-            return repo.get(token.getKey());
+            return store.get(token.getKey());
         }
         return null;
     }
@@ -63,15 +64,11 @@ public class TokenManagerImpl implements TokenManager {
      */
     @Override
     public void setUser(DemoiselleUser user) {
-        token.setKey(null);
-
-        repo.entrySet().stream().filter((entry) -> (entry.getValue().getIdentity().equalsIgnoreCase(user.getIdentity()))).parallel().forEach((entry) -> {
-            token.setKey(entry.getKey());
-        });
+        token.setKey(store.findKey(user.getIdentity()));
 
         if (token.getKey() == null) {
             String value = randomUUID().toString();
-            repo.putIfAbsent(value, user.clone());
+            store.put(value, user.clone());
             token.setKey(value);
         }
         token.setType(TokenType.TOKEN);
@@ -116,7 +113,7 @@ public class TokenManagerImpl implements TokenManager {
      * remove the token and the user is in memory
      */
     public void removeToken() {
-        repo.remove(token.getKey());
+        store.remove(token.getKey());
         token.setKey(null);
     }
 
@@ -127,9 +124,10 @@ public class TokenManagerImpl implements TokenManager {
      */
     @Override
     public void removeUser(DemoiselleUser user) {
-        repo.entrySet().stream().filter((entry) -> (entry.getValue().getIdentity().equalsIgnoreCase(user.getIdentity()))).parallel().forEach((entry) -> {
-            token.setKey(entry.getKey());
-        });
+        String key = store.findKey(user.getIdentity());
+        if (key != null) {
+            token.setKey(key);
+        }
         removeToken();
     }
 
@@ -0,0 +1,145 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.security.token.impl;
+
+import static java.util.Arrays.asList;
+import static org.demoiselle.jee.security.token.impl.MemoryTokenStoreTest.user;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import org.demoiselle.jee.core.api.security.DemoiselleUser;
+import org.demoiselle.jee.security.exception.DemoiselleSecurityException;
+import org.demoiselle.jee.security.token.DemoiselleSecurityTokenConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ * @author SERPRO
+ */
+public class FileTokenStoreTest {
+
+    private File file;
+
+    private DemoiselleSecurityTokenConfig config;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("tokens", ".store");
+        file.delete();
+
+        config = new DemoiselleSecurityTokenConfig() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public Integer getMaxSize() {
+                return 10;
+            }
+
+            @Override
+            public Long getSweepIntervalSeconds() {
+                return 0L;
+            }
+
+            @Override
+            public String getFile() {
+                return file.getAbsolutePath();
+            }
+        };
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(file.toPath());
+    }
+
+    private FileTokenStore start() {
+        FileTokenStore store = new FileTokenStore(config);
+        store.start();
+        return store;
+    }
+
+    @Test
+    public void testTokensSurviveRestart() {
+        FileTokenStore instance = start();
+        instance.put("1", user("1"));
+        instance.put("2", user("2"));
+        instance.put("3", user("3"));
+        instance.remove("2");
+        instance.stop();
+
+        instance = start();
+
+        assertEquals(2, instance.size());
+        assertNull(instance.get("2"));
+        assertEquals("3", instance.get("3").getIdentity());
+        // Only the digest of the token is on the file, the user receives a new token on the login
+        assertNull(instance.findKey("3"));
+
+        DemoiselleUser user = instance.get("1");
+        assertEquals("1", user.getIdentity());
+        assertEquals("Teste", user.getName());
+        assertEquals(asList("ADMINISTRATOR"), user.getRoles());
+        assertEquals(asList("Alterar"), user.getPermissions().get("Produto"));
+        assertEquals("STORE", user.getParams("issuer"));
+        instance.stop();
+    }
+
+    @Test
+    public void testFileKeepsOnlyTheDigestOfTheToken() throws Exception {
+        FileTokenStore instance = start();
+        instance.put("secret-token", user("1"));
+
+        assertEquals("secret-token", instance.findKey("1"));
+        instance.stop();
+
+        byte[] content = Files.readAllBytes(file.toPath());
+        assertFalse(new String(content, StandardCharsets.ISO_8859_1).contains("secret-token"));
+
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            assertEquals(PosixFilePermissions.fromString("rw-------"), Files.getPosixFilePermissions(file.toPath()));
+        }
+    }
+
+    @Test(expected = DemoiselleSecurityException.class)
+    public void testFileIsRequired() {
+        new FileTokenStore(MemoryTokenStoreTest.config(10, 0, 0)).start();
+    }
+
+    @Test
+    public void testManyChangesAreCompacted() {
+        FileTokenStore instance = start();
+
+        for (int i = 0; i < 3_000; i++) {
+            instance.put("token", user("1"));
+        }
+
+        instance.stop();
+        long size = file.length();
+
+        instance = start();
+        assertEquals(1, instance.size());
+        assertEquals("1", instance.get("token").getIdentity());
+        instance.stop();
+
+        // Rewritten on the restart with only the current token
+        long compacted = file.length();
+        assertTrue(compacted <= size);
+        // Rewritten by the writer too, the file never keeps all the changes
+        assertTrue(size < 1_500 * compacted);
+    }
+
+}
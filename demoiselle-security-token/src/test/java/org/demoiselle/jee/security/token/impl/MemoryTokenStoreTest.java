@@ -0,0 +1,152 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.security.token.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.demoiselle.jee.security.impl.DemoiselleUserImpl;
+import org.demoiselle.jee.security.token.DemoiselleSecurityTokenConfig;
+import org.junit.Test;
+
+/**
+ *
+ * @author SERPRO
+ */
+public class MemoryTokenStoreTest {
+
+    private static final int THREADS = 8;
+
+    static DemoiselleSecurityTokenConfig config(int maxSize, long timeToLiveSeconds, long idleTimeoutSeconds) {
+        return new DemoiselleSecurityTokenConfig() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public Integer getMaxSize() {
+                return maxSize;
+            }
+
+            @Override
+            public Long getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            @Override
+            public Long getIdleTimeoutSeconds() {
+                return idleTimeoutSeconds;
+            }
+
+            @Override
+            public Long getSweepIntervalSeconds() {
+                return 0L;
+            }
+        };
+    }
+
+    static DemoiselleUserImpl user(String identity) {
+        DemoiselleUserImpl user = new DemoiselleUserImpl();
+        user.init();
+        user.setIdentity(identity);
+        user.setName("Teste");
+        user.addRole("ADMINISTRATOR");
+        user.addPermission("Produto", "Alterar");
+        user.addParam("issuer", "STORE");
+        return user;
+    }
+
+    @Test
+    public void testPutAndFind() {
+        MemoryTokenStore instance = new MemoryTokenStore(config(10, 0, 0));
+        DemoiselleUserImpl user = user("Ana");
+
+        instance.put("token", user);
+
+        assertSame(user, instance.get("token"));
+        assertEquals("token", instance.findKey("ana"));
+        assertNull(instance.get(null));
+        assertNull(instance.findKey("other"));
+    }
+
+    @Test
+    public void testRemove() {
+        MemoryTokenStore instance = new MemoryTokenStore(config(10, 0, 0));
+        instance.put("token", user("1"));
+
+        instance.remove("token");
+        instance.remove(null);
+
+        assertNull(instance.get("token"));
+        assertNull(instance.findKey("1"));
+        assertEquals(0, instance.size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedTokenIsRemoved() throws Exception {
+        MemoryTokenStore instance = new MemoryTokenStore(config(2, 0, 0));
+        instance.put("1", user("1"));
+        instance.put("2", user("2"));
+        // The order of use is read from the time of the last use
+        Thread.sleep(5);
+        instance.get("1");
+        instance.put("3", user("3"));
+
+        assertEquals(2, instance.size());
+        assertNull(instance.get("2"));
+        assertNull(instance.findKey("2"));
+    }
+
+    @Test
+    public void testConcurrentTokensAreLimited() throws Exception {
+        MemoryTokenStore instance = new MemoryTokenStore(config(100, 0, 0));
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> tasks = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            tasks.add(executor.submit(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    String key = thread + "-" + i;
+                    instance.put(key, user(key));
+                    instance.get(key);
+                }
+            }));
+        }
+
+        for (Future<?> task : tasks) {
+            task.get();
+        }
+        executor.shutdown();
+
+        // Each thread that doesn't wait for the removal may keep one token beyond the max size
+        assertTrue(instance.size() <= 100 + THREADS);
+
+        instance.put("last", user("last"));
+        assertEquals("last", instance.findKey("last"));
+    }
+
+    @Test
+    public void testExpiredTokenIsRemoved() throws Exception {
+        MemoryTokenStore instance = new MemoryTokenStore(config(10, 0, 1));
+        instance.put("1", user("1"));
+        instance.put("2", user("2"));
+
+        Thread.sleep(1_100);
+        instance.sweep();
+
+        assertEquals(0, instance.size());
+        assertNull(instance.get("1"));
+    }
+
+}
@@ -40,6 +40,10 @@ public class DemoiselleUserImpl implements DemoiselleUser, Cloneable {
     private Map<String, String> params;
     private Map<String, List<String>> permissions;
 
+    // Last snapshot loaded, its collections are used until the first change
+    private UserSnapshot snapshot;
+    private boolean shared;
+
     @PostConstruct
     public void init() {
         this.roles = new ArrayList<>();
@@ -85,8 +89,63 @@ public class DemoiselleUserImpl implements DemoiselleUser, Cloneable {
         return Collections.unmodifiableMap(params);
     }
 
+    /**
+     * Load the values of the snapshot. An empty user uses the collections of the snapshot until
+     * it is changed, so the snapshot of a token is loaded on each request without copying its
+     * values. Otherwise the values are added, as the add methods do.
+     *
+     * @param snapshot Snapshot
+     */
+    public void load(UserSnapshot snapshot) {
+        if (snapshot == this.snapshot) {
+            return;
+        }
+
+        if (isEmpty()) {
+            this.identity = snapshot.getIdentity();
+            this.name = snapshot.getName();
+            this.roles = snapshot.getRoles();
+            this.permissions = snapshot.getPermissions();
+            this.params = snapshot.getParams();
+            this.shared = true;
+        } else {
+            this.identity = snapshot.getIdentity();
+            this.name = snapshot.getName();
+            snapshot.getRoles().forEach(this::addRole);
+            snapshot.getPermissions().forEach((resource, operations) -> operations.forEach(operation -> addPermission(resource, operation)));
+            snapshot.getParams().forEach(this::addParam);
+        }
+
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * @param role Role
+     *
+     * @return true when the user has the role
+     */
+    public boolean hasRole(String role) {
+        return shared ? snapshot.hasRole(role) : roles.contains(role);
+    }
+
+    /**
+     * @param resource Resource
+     * @param operation Operation
+     *
+     * @return true when the user has the operation on the resource
+     */
+    public boolean hasPermission(String resource, String operation) {
+        if (shared) {
+            return snapshot.hasPermission(resource, operation);
+        }
+
+        List<String> operations = permissions.get(resource);
+        return operations != null && operations.contains(operation);
+    }
+
     @Override
     public void addRole(String role) {
+        detach();
         if (!this.roles.contains(role)) {
             this.roles.add(role);
         }
@@ -94,6 +153,7 @@ public class DemoiselleUserImpl implements DemoiselleUser, Cloneable {
 
     @Override
     public void removeRole(String role) {
+        detach();
         this.roles.remove(role);
     }
 
@@ -104,6 +164,7 @@ public class DemoiselleUserImpl implements DemoiselleUser, Cloneable {
 
     @Override
     public void addPermission(String resource, String operation) {
+        detach();
         List<String> operations = permissions.get(resource);
         if (operations != null && !operations.isEmpty()) {
             if (!permissions.get(resource).contains(operation)) {
@@ -118,6 +179,7 @@ public class DemoiselleUserImpl implements DemoiselleUser, Cloneable {
 
     @Override
     public void removePermission(String resource, String operation) {
+        detach();
         List<String> operations = permissions.get(resource);
         if (operations != null && !operations.isEmpty()) {
             if (permissions.get(resource).contains(operation)) {
@@ -136,14 +198,33 @@ public class DemoiselleUserImpl implements DemoiselleUser, Cloneable {
 
     @Override
     public void addParam(String key, String value) {
+        detach();
         this.params.putIfAbsent(key, value);
     }
 
     @Override
     public void removeParam(String key) {
+        detach();
         this.params.remove(key);
     }
 
+    private boolean isEmpty() {
+        return !shared && identity == null && name == null && roles.isEmpty() && permissions.isEmpty() && params.isEmpty();
+    }
+
+    /**
+     * The collections of the snapshot can't be changed, they are copied on the first change.
+     */
+    private void detach() {
+        if (shared) {
+            this.roles = new ArrayList<>(snapshot.getRoles());
+            this.permissions = new ConcurrentHashMap<>();
+            snapshot.getPermissions().forEach((resource, operations) -> this.permissions.put(resource, new ArrayList<>(operations)));
+            this.params = new ConcurrentHashMap<>(snapshot.getParams());
+            this.shared = false;
+        }
+    }
+
     @Override
     public int hashCode() {
         int hash = 3;
@@ -33,8 +33,13 @@ public class SecurityContextImpl implements SecurityContext {
 
     @Override
     public boolean hasPermission(String resource, String operation) {
+        DemoiselleUser user = getUser();
 
-        List<String> list = getUser().getPermissions().get(resource);
+        if (user instanceof DemoiselleUserImpl) {
+            return ((DemoiselleUserImpl) user).hasPermission(resource, operation);
+        }
+
+        List<String> list = user.getPermissions().get(resource);
 
         if (list != null && !list.isEmpty()) {
             return list.contains(operation);
@@ -45,7 +50,13 @@ public class SecurityContextImpl implements SecurityContext {
 
     @Override
     public boolean hasRole(String role) {
-        return getUser().getRoles().contains(role);
+        DemoiselleUser user = getUser();
+
+        if (user instanceof DemoiselleUserImpl) {
+            return ((DemoiselleUserImpl) user).hasRole(role);
+        }
+
+        return user.getRoles().contains(role);
     }
 
     @Override
@@ -0,0 +1,129 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.security.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.demoiselle.jee.core.api.security.DemoiselleUser;
+
+/**
+ * Immutable copy of the identity, roles, permissions and params of a user, with the roles and
+ * the operations of each resource kept on sets, so {@link #hasRole(String)} and
+ * {@link #hasPermission(String, String)} don't search on lists.
+ *
+ * The same snapshot may be shared by the requests of the same token and is loaded on the
+ * {@link DemoiselleUserImpl} of each request without copying its values, see
+ * {@link DemoiselleUserImpl#load(UserSnapshot)}.
+ *
+ * @author SERPRO
+ */
+public final class UserSnapshot {
+
+    private final String identity;
+    private final String name;
+    private final List<String> roles;
+    private final Set<String> roleSet;
+    private final Map<String, List<String>> permissions;
+    private final Map<String, Set<String>> permissionSets;
+    private final Map<String, String> params;
+
+    private UserSnapshot(String identity, String name, Set<String> roles, Map<String, Set<String>> permissions, Map<String, String> params) {
+        this.identity = identity;
+        this.name = name;
+        this.roleSet = Collections.unmodifiableSet(roles);
+        this.roles = Collections.unmodifiableList(new ArrayList<>(roles));
+
+        Map<String, List<String>> permissionLists = new LinkedHashMap<>();
+        Map<String, Set<String>> operationSets = new HashMap<>();
+        permissions.forEach((resource, operations) -> {
+            permissionLists.put(resource, Collections.unmodifiableList(new ArrayList<>(operations)));
+            operationSets.put(resource, Collections.unmodifiableSet(operations));
+        });
+        this.permissions = Collections.unmodifiableMap(permissionLists);
+        this.permissionSets = Collections.unmodifiableMap(operationSets);
+        this.params = Collections.unmodifiableMap(params);
+    }
+
+    /**
+     * Build the snapshot, the repeated roles and operations are kept once and the first value of
+     * a repeated param is kept, as {@link DemoiselleUserImpl} does.
+     *
+     * @param identity Identity
+     * @param name Name
+     * @param roles Roles, may be null
+     * @param permissions Operations by resource, may be null
+     * @param params Params, may be null
+     *
+     * @return Snapshot
+     */
+    public static UserSnapshot of(String identity, String name, List<String> roles, Map<String, List<String>> permissions,
+            Map<String, String> params) {
+        Set<String> roleSet = roles == null ? new LinkedHashSet<>() : new LinkedHashSet<>(roles);
+
+        Map<String, Set<String>> operationSets = new LinkedHashMap<>();
+        if (permissions != null) {
+            permissions.forEach((resource, operations) -> {
+                if (operations != null && !operations.isEmpty()) {
+                    operationSets.put(resource, new LinkedHashSet<>(operations));
+                }
+            });
+        }
+
+        Map<String, String> paramMap = new LinkedHashMap<>();
+        if (params != null) {
+            params.forEach(paramMap::putIfAbsent);
+        }
+
+        return new UserSnapshot(identity, name, roleSet, operationSets, paramMap);
+    }
+
+    /**
+     * @param user User
+     *
+     * @return Snapshot of the current values of the user
+     */
+    public static UserSnapshot of(DemoiselleUser user) {
+        return of(user.getIdentity(), user.getName(), user.getRoles(), user.getPermissions(), user.getParams());
+    }
+
+    public String getIdentity() {
+        return identity;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<String> getRoles() {
+        return roles;
+    }
+
+    public Map<String, List<String>> getPermissions() {
+        return permissions;
+    }
+
+    public Map<String, String> getParams() {
+        return params;
+    }
+
+    public boolean hasRole(String role) {
+        return roleSet.contains(role);
+    }
+
+    public boolean hasPermission(String resource, String operation) {
+        Set<String> operations = permissionSets.get(resource);
+        return operations != null && operations.contains(operation);
+    }
+
+}
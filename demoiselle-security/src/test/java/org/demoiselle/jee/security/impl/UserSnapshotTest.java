@@ -0,0 +1,105 @@
+/*
+ * Demoiselle Framework
+ *
+ * License: GNU Lesser General Public License (LGPL), version 3 or later.
+ * See the lgpl.txt file in the root directory or <https://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.demoiselle.jee.security.impl;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author SERPRO
+ */
+public class UserSnapshotTest {
+
+    private static UserSnapshot snapshot() {
+        Map<String, List<String>> permissions = new HashMap<>();
+        permissions.put("Teste1", asList("TesteOp1", "TesteOp2", "TesteOp2"));
+        permissions.put("Teste2", asList());
+
+        Map<String, String> params = new HashMap<>();
+        params.put("Teste1", "TesteParam1");
+
+        return UserSnapshot.of("123456789", "Teste", asList("Role1", "Role1", "Role2"), permissions, params);
+    }
+
+    private static DemoiselleUserImpl user() {
+        DemoiselleUserImpl user = new DemoiselleUserImpl();
+        user.init();
+        return user;
+    }
+
+    @Test
+    public void testSnapshot() {
+        UserSnapshot instance = snapshot();
+
+        assertEquals(asList("Role1", "Role2"), instance.getRoles());
+        assertEquals(asList("TesteOp1", "TesteOp2"), instance.getPermissions().get("Teste1"));
+        assertFalse(instance.getPermissions().containsKey("Teste2"));
+        assertTrue(instance.hasRole("Role2"));
+        assertFalse(instance.hasRole("Role3"));
+        assertTrue(instance.hasPermission("Teste1", "TesteOp2"));
+        assertFalse(instance.hasPermission("Teste1", "TesteOp3"));
+        assertFalse(instance.hasPermission("Teste2", "TesteOp1"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSnapshotIsImmutable() {
+        snapshot().getPermissions().get("Teste1").add("TesteOp3");
+    }
+
+    @Test
+    public void testLoadOnEmptyUser() {
+        DemoiselleUserImpl instance = user();
+        instance.load(snapshot());
+
+        assertEquals("123456789", instance.getIdentity());
+        assertEquals(asList("Role1", "Role2"), instance.getRoles());
+        assertEquals("TesteParam1", instance.getParams("Teste1"));
+        assertTrue(instance.hasRole("Role1"));
+        assertTrue(instance.hasPermission("Teste1", "TesteOp1"));
+    }
+
+    @Test
+    public void testChangeAfterLoadDoesNotChangeSnapshot() {
+        UserSnapshot snapshot = snapshot();
+        DemoiselleUserImpl instance = user();
+        instance.load(snapshot);
+
+        instance.addRole("Role3");
+        instance.addPermission("Teste1", "TesteOp3");
+        instance.removeRole("Role1");
+
+        assertEquals(asList("Role2", "Role3"), instance.getRoles());
+        assertTrue(instance.hasPermission("Teste1", "TesteOp3"));
+        assertFalse(instance.hasRole("Role1"));
+        assertTrue(snapshot.hasRole("Role1"));
+        assertFalse(snapshot.hasPermission("Teste1", "TesteOp3"));
+
+        // The same snapshot loaded again keeps the changes of the request
+        instance.load(snapshot);
+        assertFalse(instance.hasRole("Role1"));
+    }
+
+    @Test
+    public void testLoadOnUserWithValues() {
+        DemoiselleUserImpl instance = user();
+        instance.addRole("Role0");
+        instance.load(snapshot());
+
+        assertEquals(asList("Role0", "Role1", "Role2"), instance.getRoles());
+        assertTrue(instance.hasPermission("Teste1", "TesteOp2"));
+    }
+
+}